@@ -1,5 +1,7 @@
 package io.jeti.linalg.matrix;
 
+import io.jeti.linalg.matrix.kernels.Gemm;
+import io.jeti.linalg.matrix.kernels.Strassen;
 import io.jeti.linalg.matrix.utils.Check;
 import java.util.ArrayList;
 import java.util.List;
@@ -160,6 +162,20 @@ public interface Mat<T extends Mat<T>> extends Tsr<T> {
         return (rows() == 1) && (cols() == 1);
     }
 
+    /**
+     * @return a boolean indicating whether this {@link Mat} is square and all
+     *         of its off-diagonal elements are zero.
+     */
+    default boolean isDiagonal() {
+        if (rows() != cols())
+            return false;
+        for (int row = 0; row < rows(); row++)
+            for (int col = 0; col < cols(); col++)
+                if (row != col && getDouble(row, col) != 0)
+                    return false;
+        return true;
+    }
+
     /**
      * @return A deep copy of the data contained in this {@link Mat}.
      *         Specifically, if <code>A = this.deepDataCopy()</code>, then
@@ -170,7 +186,7 @@ public interface Mat<T extends Mat<T>> extends Tsr<T> {
         for (int r = 0; r < rows(); r++) {
             List<Double> row = new ArrayList<>(cols());
             for (int c = 0; c < cols(); c++) {
-                row.add(get(r, c));
+                row.add(getDouble(r, c));
             }
             out.add(row);
         }
@@ -203,9 +219,18 @@ public interface Mat<T extends Mat<T>> extends Tsr<T> {
 
     /**
      * @return The (row,col) element of this {@link Mat}, where row and col
-     *         indices start from 0.
+     *         indices start from 0. This is a boxing adapter around
+     *         {@link #getDouble(int, int)}, which should be preferred in loops.
      */
-    Double get(int row, int col);
+    default Double get(int row, int col) {
+        return getDouble(row, col);
+    }
+
+    /**
+     * @return The (row,col) element of this {@link Mat} as a primitive, where
+     *         row and col indices start from 0.
+     */
+    double getDouble(int row, int col);
 
     /**
      * @return {@link #get(int, int, int, int, int, int)}, where
@@ -258,15 +283,36 @@ public interface Mat<T extends Mat<T>> extends Tsr<T> {
 
     /**
      * @return this^i = this * ... * this, where i is a nonnegative integer.
+     *         This is computed by repeated squaring, so that only O(log(i))
+     *         matrix products are needed. If this {@link Mat} is diagonal,
+     *         then the diagonal elements are simply raised to the i^th power.
      */
     @Override
     default T pow(int pw) {
-        /* TODO Obviously a lot of room for improvement here. */
         Check.nonNegativeIndex(pw);
-        T C = _eye(rows());
-        for (int i = 0; i < pw; i++)
-            C = this.times(C);
-        return C;
+        Check.equal(rows(), cols());
+        if (pw == 0)
+            return _eye(rows());
+        if (isDiagonal())
+            return newInstance(rows(), cols(),
+                    (row, col) -> row == col ? Math.pow(getDouble(row, row), pw) : 0d);
+        if (pw == 1)
+            return newInstance(rows(), cols(), this::getDouble);
+
+        /*
+         * Walk through the bits of the exponent, squaring the base at each
+         * step, and multiplying it into the result whenever the bit is set.
+         * The base starts as a view of this matrix, which is only ever read.
+         */
+        T base = get(0, rows(), 0, cols());
+        T result = null;
+        for (int p = pw;; p >>= 1) {
+            if ((p & 1) != 0)
+                result = result == null ? base : result.times(base);
+            if (p == 1)
+                return result;
+            base = base.times(base);
+        }
     }
 
     /**
@@ -280,7 +326,7 @@ public interface Mat<T extends Mat<T>> extends Tsr<T> {
      * @return this^T
      */
     default T transpose() {
-        return newInstance(cols(), rows(), (row, col) -> get(col, row));
+        return newInstance(cols(), rows(), (row, col) -> getDouble(col, row));
     }
 
     /**
@@ -296,7 +342,8 @@ public interface Mat<T extends Mat<T>> extends Tsr<T> {
      *         </pre>
      */
     default T vec() {
-        return newInstance(rows() * cols(), 1, (row, col) -> get(row % rows(), row / rows()));
+        int rows = rows();
+        return newInstance(rows * cols(), 1, (row, col) -> getDouble(row % rows, row / rows));
     }
 
     /*
@@ -318,20 +365,24 @@ public interface Mat<T extends Mat<T>> extends Tsr<T> {
     /**
      * @return this * B, that is the matrix product. If either this or B are
      *         scalars, then this returns the element-wise product. Otherwise,
-     *         this returns the matrix product.
+     *         this returns the matrix product, which is computed by the
+     *         default {@link Gemm} engine, or for large square matrices, by
+     *         the {@link Strassen} algorithm if it has been enabled.
      */
     @Override
     default T times(T B) {
         if (isScalar() || B.isScalar()) {
             return timesElementwise(B);
+        } else if (Strassen.applies(rows(), cols(), B.cols())) {
+            return Strassen.multiply(this, B);
         } else {
             Check.equal(cols(), B.rows());
-            return newInstance(rows(), B.cols(), (row, col) -> {
-                double sum = 0.0;
-                for (int i = 0; i < cols(); i++)
-                    sum += get(row, i) * B.get(i, col);
-                return sum;
-            });
+            int rows = rows();
+            int cols = B.cols();
+            double[] C = new double[rows * cols];
+            Gemm.getDefault().multiply(rows, cols, cols(), 1, this::getDouble, B::getDouble, 0, C,
+                    0, cols, 1);
+            return newInstance(rows, cols, (row, col) -> C[row * cols + col]);
         }
     }
 
@@ -339,18 +390,20 @@ public interface Mat<T extends Mat<T>> extends Tsr<T> {
     default T apply(Operation operation, T B) {
         if (isScalar()) {
             /* A = ( 1 x 1 ), B = (B.rows() x B.cols()) */
+            double a = getDouble(0, 0);
             return newInstance(B.rows(), B.cols(),
-                    (row, col) -> operation.apply(get(0, 0), B.get(row, col)));
+                    (row, col) -> operation.apply(a, B.getDouble(row, col)));
         } else if (B.isScalar()) {
             /* A = (rows x cols), B = (1 x 1) */
+            double b = B.getDouble(0, 0);
             return newInstance(rows(), cols(),
-                    (row, col) -> operation.apply(get(row, col), B.get(0, 0)));
+                    (row, col) -> operation.apply(getDouble(row, col), b));
         } else {
             Check.sameNumberOfRows(this, B);
             Check.sameNumberOfCols(this, B);
             /* A = (rows x cols), B = (rows x cols) */
             return newInstance(rows(), cols(),
-                    (row, col) -> operation.apply(get(row, col), B.get(row, col)));
+                    (row, col) -> operation.apply(getDouble(row, col), B.getDouble(row, col)));
         }
     }
 
@@ -363,8 +416,26 @@ public interface Mat<T extends Mat<T>> extends Tsr<T> {
      */
     @Override
     default T apply(Operation operation, Number B) {
-        return newInstance(rows(), cols(),
-                (row, col) -> operation.apply(get(row, col), B.doubleValue()));
+        double b = B.doubleValue();
+        return newInstance(rows(), cols(), (row, col) -> operation.apply(getDouble(row, col), b));
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Lazy Expressions
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return a lazily evaluated {@link MatExpr} whose elements are read from
+     *         this {@link Mat}. Element-wise operations on the expression are
+     *         fused, so that they are all computed in a single pass with a
+     *         single output allocation when {@link MatExpr#eval()} is called.
+     */
+    default MatExpr<T> lazy() {
+        return new MatExpr<>(this, rows(), cols(), this::getDouble);
     }
 
     /*
@@ -381,7 +452,7 @@ public interface Mat<T extends Mat<T>> extends Tsr<T> {
     default String rowToString(int row) {
         StringBuilder builder = new StringBuilder();
         for (int col = 0; col < cols(); col++)
-            builder.append(format(get(row, col)));
+            builder.append(format(getDouble(row, col)));
         return builder.toString();
     }
 
@@ -0,0 +1,260 @@
+package io.jeti.linalg.matrix;
+
+import io.jeti.linalg.matrix.Mat.Filler;
+import io.jeti.linalg.matrix.Tsr.Operation;
+import io.jeti.linalg.matrix.utils.Check;
+
+/**
+ * <p>
+ * A lazily evaluated, element-wise expression over {@link Mat}s, which is
+ * obtained from {@link Mat#lazy()}. Each operation on a {@link MatExpr} does
+ * not compute anything. It only records the operation by composing a new
+ * {@link Filler} from the {@link Filler}s of its operands, so that a chain
+ * such as
+ * </p>
+ *
+ * <pre>
+ * T D = A.lazy().plus(B).times(2).minus(C).eval();
+ * </pre>
+ * <p>
+ * builds a small expression tree, and then computes every element of D in a
+ * single pass, with a single call to {@link Mat#newInstance(int, int, Filler)}.
+ * In contrast, <code>A.plus(B).times(2).minus(C)</code> materializes a full
+ * intermediate {@link Mat} for every operation.
+ * </p>
+ * <p>
+ * Scalars (1 x 1 operands) are broadcast using the same rules as
+ * {@link Mat#apply(Operation, Mat)}. Note that the operands are read when the
+ * expression is evaluated, not when it is built. Since every element of the
+ * result only depends on the corresponding elements of the operands,
+ * {@link #evalInto(MutMat)} may overwrite an operand which is the very same
+ * object as the output. It must not overwrite a view which merely shares
+ * storage with an operand at a different offset or stride, such as a shifted
+ * selection or a transposed view, since elements of that operand would be
+ * overwritten before they are read.
+ * </p>
+ */
+public class MatExpr<T extends Mat<T>> {
+
+    private final Mat<T> template;
+    private final int    rows;
+    private final int    cols;
+    private final Filler filler;
+
+    /**
+     * Create an expression for a (rows x cols) matrix whose elements are
+     * given by the specified {@link Filler}, where the result will be
+     * constructed with the {@link Mat#newInstance(int, int, Filler)} method of
+     * the template.
+     */
+    MatExpr(Mat<T> template, int rows, int cols, Filler filler) {
+        this.template = template;
+        this.rows = rows;
+        this.cols = cols;
+        this.filler = filler;
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Getters
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return The number of rows of the result of this expression.
+     */
+    public int rows() {
+        return rows;
+    }
+
+    /**
+     * @return The number of columns of the result of this expression.
+     */
+    public int cols() {
+        return cols;
+    }
+
+    /**
+     * @return a boolean indicating whether rows()=cols()=1.
+     */
+    public boolean isScalar() {
+        return rows == 1 && cols == 1;
+    }
+
+    /**
+     * @return The (row,col) element of the result of this expression, which
+     *         is computed without evaluating any of the other elements.
+     */
+    public double getDouble(int row, int col) {
+        Check.inBounds(row, 0, rows);
+        Check.inBounds(col, 0, cols);
+        return filler.apply(row, col);
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Evaluation
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return a new {@link Mat} containing the result of this expression,
+     *         which is computed in a single pass.
+     */
+    public T eval() {
+        return template.newInstance(rows, cols, filler);
+    }
+
+    /**
+     * Overwrite the specified {@link MutMat} with the result of this
+     * expression, which is computed in a single pass without allocating. C
+     * may be one of the operands, but must not otherwise share storage with
+     * any of them. If it does, use {@link #eval()} and copy the result.
+     */
+    public void evalInto(MutMat<?> C) {
+        Check.equal(C.rows(), rows);
+        Check.equal(C.cols(), cols);
+        C.set(filler);
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Expression/Expression Operations
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return {@link #apply(Operation, MatExpr)} with the addition operator
+     */
+    public MatExpr<T> plus(MatExpr<T> B) {
+        return apply((a, b) -> a + b, B);
+    }
+
+    /**
+     * @return {@link #apply(Operation, MatExpr)} with the subtraction operator
+     */
+    public MatExpr<T> minus(MatExpr<T> B) {
+        return apply((a, b) -> a - b, B);
+    }
+
+    /**
+     * @return {@link #apply(Operation, MatExpr)} with the multiplication
+     *         operator. Note that this is the element-wise product, since a
+     *         matrix product cannot be fused into a single element-wise pass.
+     */
+    public MatExpr<T> timesElementwise(MatExpr<T> B) {
+        return apply((a, b) -> a * b, B);
+    }
+
+    /**
+     * @return an expression which applies the specified operation in an
+     *         element-wise fashion, using the same rules as
+     *         {@link Mat#apply(Operation, Mat)}.
+     */
+    public MatExpr<T> apply(Operation operation, MatExpr<T> B) {
+        Filler a = filler;
+        Filler b = B.filler;
+        if (isScalar()) {
+            return new MatExpr<>(template, B.rows, B.cols,
+                    (row, col) -> operation.apply(a.apply(0, 0), b.apply(row, col)));
+        } else if (B.isScalar()) {
+            return new MatExpr<>(template, rows, cols,
+                    (row, col) -> operation.apply(a.apply(row, col), b.apply(0, 0)));
+        } else {
+            Check.equal(rows, B.rows);
+            Check.equal(cols, B.cols);
+            return new MatExpr<>(template, rows, cols,
+                    (row, col) -> operation.apply(a.apply(row, col), b.apply(row, col)));
+        }
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Expression/Matrix Operations
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return {@link #plus(MatExpr)} with the lazy view of B.
+     */
+    public MatExpr<T> plus(T B) {
+        return plus(B.lazy());
+    }
+
+    /**
+     * @return {@link #minus(MatExpr)} with the lazy view of B.
+     */
+    public MatExpr<T> minus(T B) {
+        return minus(B.lazy());
+    }
+
+    /**
+     * @return {@link #timesElementwise(MatExpr)} with the lazy view of B.
+     */
+    public MatExpr<T> timesElementwise(T B) {
+        return timesElementwise(B.lazy());
+    }
+
+    /**
+     * @return {@link #apply(Operation, MatExpr)} with the lazy view of B.
+     */
+    public MatExpr<T> apply(Operation operation, T B) {
+        return apply(operation, B.lazy());
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Expression/Scalar Operations
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return {@link #apply(Operation, Number)} with the addition operator
+     */
+    public MatExpr<T> plus(Number B) {
+        return apply((a, b) -> a + b, B);
+    }
+
+    /**
+     * @return {@link #apply(Operation, Number)} with the subtraction operator
+     */
+    public MatExpr<T> minus(Number B) {
+        return apply((a, b) -> a - b, B);
+    }
+
+    /**
+     * @return {@link #apply(Operation, Number)} with the multiplication
+     *         operator
+     */
+    public MatExpr<T> times(Number B) {
+        return apply((a, b) -> a * b, B);
+    }
+
+    /**
+     * @return {@link #apply(Operation, Number)} with the power operator
+     */
+    public MatExpr<T> powElementwise(int i) {
+        return apply((a, b) -> Math.pow(a, i), 0);
+    }
+
+    /**
+     * @return an expression where the (row,col) element is given by
+     *         <code>operation(this(row,col),B)</code>.
+     */
+    public MatExpr<T> apply(Operation operation, Number B) {
+        Filler a = filler;
+        double b = B.doubleValue();
+        return new MatExpr<>(template, rows, cols,
+                (row, col) -> operation.apply(a.apply(row, col), b));
+    }
+}
@@ -1,5 +1,6 @@
 package io.jeti.linalg.matrix;
 
+import io.jeti.linalg.matrix.kernels.Gemm;
 import io.jeti.linalg.matrix.utils.Check;
 
 /**
@@ -17,10 +18,19 @@ public interface MutMat<T extends MutMat<T>> extends Mat<T>, MutTsr<T> {
      * --------------------------------------------------
      */
 
+    /**
+     * Set this(row,col) = val; This is a boxing adapter around
+     * {@link #setDouble(int, int, double)}, which should be preferred in
+     * loops.
+     */
+    default void set(int row, int col, Number val) {
+        setDouble(row, col, val.doubleValue());
+    }
+
     /**
      * Set this(row,col) = val;
      */
-    void set(int row, int col, Number val);
+    void setDouble(int row, int col, double val);
 
     /**
      * Set all of the elements in the vector using the specified {@link Filler}.
@@ -28,11 +38,93 @@ public interface MutMat<T extends MutMat<T>> extends Mat<T>, MutTsr<T> {
     default void set(Filler filler) {
         for (int row = 0; row < rows(); row++) {
             for (int col = 0; col < cols(); col++) {
-                set(row, col, filler.apply(row, col));
+                setDouble(row, col, filler.apply(row, col));
+            }
+        }
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Matrix/Self Operations
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * Overwrite this {@link MutMat} with its transpose. By default, this is
+     * only supported for square matrices, whose elements above and below the
+     * diagonal are swapped in small blocks, so that the rows of one block and
+     * the columns of the other are both reused while they are in cache.
+     */
+    default void transposeEquals() {
+        Check.equal(rows(), cols());
+        int n = rows();
+        int block = 32;
+        for (int r0 = 0; r0 < n; r0 += block) {
+            int r1 = Math.min(r0 + block, n);
+            for (int c0 = r0; c0 < n; c0 += block) {
+                int c1 = Math.min(c0 + block, n);
+                for (int row = r0; row < r1; row++) {
+                    for (int col = Math.max(c0, row + 1); col < c1; col++) {
+                        double tmp = getDouble(row, col);
+                        setDouble(row, col, getDouble(col, row));
+                        setDouble(col, row, tmp);
+                    }
+                }
             }
         }
     }
 
+    /**
+     * @return this^i = this * ... * this, where i is a nonnegative integer.
+     *         Like {@link Mat#pow(int)}, this is computed by repeated
+     *         squaring. However, all of the intermediate products are
+     *         computed by the default {@link Gemm} engine into three
+     *         preallocated buffers, which are swapped back and forth, so that
+     *         only the final result is allocated as a new {@link MutMat}.
+     */
+    @Override
+    default T pow(int pw) {
+        Check.nonNegativeIndex(pw);
+        Check.equal(rows(), cols());
+        if (pw < 2 || isDiagonal())
+            return Mat.super.pow(pw);
+
+        int n = rows();
+        Gemm gemm = Gemm.getDefault();
+        double[] base = new double[n * n];
+        double[] result = new double[n * n];
+        double[] tmp = new double[n * n];
+        for (int row = 0, i = 0; row < n; row++)
+            for (int col = 0; col < n; col++)
+                base[i++] = getDouble(row, col);
+
+        boolean first = true;
+        for (int p = pw;; p >>= 1) {
+            if ((p & 1) != 0) {
+                if (first) {
+                    System.arraycopy(base, 0, result, 0, n * n);
+                    first = false;
+                } else {
+                    gemm.multiply(n, n, n, 1, result, 0, n, 1, base, 0, n, 1, 0, tmp, 0, n, 1);
+                    double[] swap = result;
+                    result = tmp;
+                    tmp = swap;
+                }
+            }
+            if (p == 1)
+                break;
+            gemm.multiply(n, n, n, 1, base, 0, n, 1, base, 0, n, 1, 0, tmp, 0, n, 1);
+            double[] swap = base;
+            base = tmp;
+            tmp = swap;
+        }
+
+        double[] out = result;
+        return newInstance(n, n, (row, col) -> out[row * n + col]);
+    }
+
     /*
      * --------------------------------------------------
      *
@@ -40,14 +132,42 @@ public interface MutMat<T extends MutMat<T>> extends Mat<T>, MutTsr<T> {
      *
      * --------------------------------------------------
      */
+
+    /**
+     * Overwrite this {@link MutMat} with
+     *
+     * <pre>
+     * this = alpha * op(A) * op(B) + beta * this
+     * </pre>
+     *
+     * where op(A) is A^T if transA is true, and A otherwise, and similarly for
+     * op(B). The transposes are never formed: the flags only change the order
+     * in which the elements of A and B are read. If beta is zero, then the
+     * original contents of this {@link MutMat} are ignored, so it does not have
+     * to be initialized. Note that this {@link MutMat} must not share storage
+     * with A or B.
+     */
+    default void gemm(double alpha, Mat<?> A, boolean transA, Mat<?> B, boolean transB,
+                      double beta) {
+        int m = transA ? A.cols() : A.rows();
+        int k = transA ? A.rows() : A.cols();
+        int n = transB ? B.rows() : B.cols();
+        Check.equal(k, transB ? B.cols() : B.rows());
+        Check.equal(rows(), m);
+        Check.equal(cols(), n);
+        Filler a = transA ? (row, col) -> A.getDouble(col, row) : A::getDouble;
+        Filler b = transB ? (row, col) -> B.getDouble(col, row) : B::getDouble;
+        Gemm.getDefault().multiply(m, n, k, alpha, a, b, beta, this);
+    }
+
     @Override
     default void applyEquals(Operation operation, final T B) {
         if (B.isScalar()) {
-            applyEquals(operation, B.get(0, 0));
+            applyEquals(operation, B.getDouble(0, 0));
         } else {
             Check.sameNumberOfRows(this, B);
             Check.sameNumberOfCols(this, B);
-            set((row, col) -> operation.apply(get(row, col), B.get(row, col)));
+            set((row, col) -> operation.apply(getDouble(row, col), B.getDouble(row, col)));
         }
     }
 
@@ -60,6 +180,7 @@ public interface MutMat<T extends MutMat<T>> extends Mat<T>, MutTsr<T> {
      */
     @Override
     default void applyEquals(Operation operation, final Number B) {
-        set((row, col) -> operation.apply(get(row, col), B.doubleValue()));
+        double b = B.doubleValue();
+        set((row, col) -> operation.apply(getDouble(row, col), b));
     }
 }
\ No newline at end of file
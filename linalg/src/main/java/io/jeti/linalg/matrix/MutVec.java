@@ -17,17 +17,25 @@ public interface MutVec<T extends MutVec<T>> extends Vec<T>, MutTsr<T> {
      * --------------------------------------------------
      */
 
+    /**
+     * Set this(element) = val; This is a boxing adapter around
+     * {@link #setDouble(int, double)}, which should be preferred in loops.
+     */
+    default void set(int elem, Number val) {
+        setDouble(elem, val.doubleValue());
+    }
+
     /**
      * Set this(element) = val;
      */
-    void set(int elem, Number val);
+    void setDouble(int elem, double val);
 
     /**
      * Set all of the elements in the vector using the specified {@link Filler}.
      */
     default void set(Filler filler) {
         for (int i = 0; i < size(); i++) {
-            set(i, filler.apply(i));
+            setDouble(i, filler.apply(i));
         }
     }
 
@@ -43,9 +51,9 @@ public interface MutVec<T extends MutVec<T>> extends Vec<T>, MutTsr<T> {
      * Swap the i^th and j^th entries.
      */
     default void swap(int i, int j) {
-        Double tmp = get(i);
-        set(i, get(j));
-        set(j, tmp);
+        double tmp = getDouble(i);
+        setDouble(i, getDouble(j));
+        setDouble(j, tmp);
     }
 
     /*
@@ -55,13 +63,39 @@ public interface MutVec<T extends MutVec<T>> extends Vec<T>, MutTsr<T> {
      *
      * --------------------------------------------------
      */
+
+    /**
+     * Overwrite this {@link MutVec} with
+     *
+     * <pre>
+     * this = alpha * op(A) * x + beta * this
+     * </pre>
+     *
+     * where op(A) is A^T if transA is true, and A otherwise. The transpose is
+     * never formed. If beta is zero, then the original contents of this
+     * {@link MutVec} are ignored, so it does not have to be initialized. Note
+     * that this {@link MutVec} must not share storage with A or x.
+     */
+    default void gemv(double alpha, Mat<?> A, boolean transA, Vec<?> x, double beta) {
+        int m = transA ? A.cols() : A.rows();
+        int n = transA ? A.rows() : A.cols();
+        Check.equal(size(), m);
+        Check.equal(x.size(), n);
+        for (int i = 0; i < m; i++) {
+            double sum = 0;
+            for (int j = 0; j < n; j++)
+                sum += (transA ? A.getDouble(j, i) : A.getDouble(i, j)) * x.getDouble(j);
+            setDouble(i, beta == 0 ? alpha * sum : alpha * sum + beta * getDouble(i));
+        }
+    }
+
     @Override
     default void applyEquals(Operation operation, final T B) {
         if (B.size() == 1) {
-            applyEquals(operation, B.get(0));
+            applyEquals(operation, B.getDouble(0));
         } else {
             Check.sameSize(this, B);
-            set(integer -> operation.apply(get(integer), B.get(integer)));
+            set(integer -> operation.apply(getDouble(integer), B.getDouble(integer)));
         }
     }
 
@@ -74,6 +108,7 @@ public interface MutVec<T extends MutVec<T>> extends Vec<T>, MutTsr<T> {
      */
     @Override
     default void applyEquals(Operation operation, final Number B) {
-        set(integer -> operation.apply(get(integer), B.doubleValue()));
+        double b = B.doubleValue();
+        set(integer -> operation.apply(getDouble(integer), b));
     }
 }
\ No newline at end of file
@@ -187,7 +187,7 @@ public interface Vec<T extends Vec<T>> extends Tsr<T> {
     default List<Double> toList() {
         List<Double> out = new ArrayList<>(size());
         for (int i = 0; i < size(); i++)
-            out.add(get(i));
+            out.add(getDouble(i));
         return out;
     }
 
@@ -198,9 +198,18 @@ public interface Vec<T extends Vec<T>> extends Tsr<T> {
 
     /**
      * @return The specified element in this {@link Vec}, where indices start
-     *         from 0.
+     *         from 0. This is a boxing adapter around {@link #getDouble(int)},
+     *         which should be preferred in loops.
      */
-    Double get(int element);
+    default Double get(int element) {
+        return getDouble(element);
+    }
+
+    /**
+     * @return The specified element in this {@link Vec} as a primitive, where
+     *         indices start from 0.
+     */
+    double getDouble(int element);
 
     /**
      * If (from&lt;to), then return {@link #get(int, int, int)} where stride =
@@ -247,10 +256,11 @@ public interface Vec<T extends Vec<T>> extends Tsr<T> {
     @Override
     default T apply(Operation operation, T B) {
         if (B.size() == 1) {
-            return apply(operation, B.get(0));
+            return apply(operation, B.getDouble(0));
         } else {
             Check.sameSize(this, B);
-            return newInstance(size(), index -> operation.apply(get(index), B.get(index)));
+            return newInstance(size(),
+                    index -> operation.apply(getDouble(index), B.getDouble(index)));
         }
     }
 
@@ -261,8 +271,8 @@ public interface Vec<T extends Vec<T>> extends Tsr<T> {
     default Double dot(T B) {
         Check.sameSize(this, B);
         double sum = 0;
-        for (int i = 0; i < size(); i++)
-            sum += (get(i) * B.get(i));
+        for (int i = 0, size = size(); i < size; i++)
+            sum += (getDouble(i) * B.getDouble(i));
         return sum;
     }
 
@@ -275,7 +285,26 @@ public interface Vec<T extends Vec<T>> extends Tsr<T> {
      */
     @Override
     default T apply(Operation operation, Number B) {
-        return newInstance(size(), index -> operation.apply(get(index), B.doubleValue()));
+        double b = B.doubleValue();
+        return newInstance(size(), index -> operation.apply(getDouble(index), b));
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Lazy Expressions
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return a lazily evaluated {@link VecExpr} whose elements are read from
+     *         this {@link Vec}. Element-wise operations on the expression are
+     *         fused, so that they are all computed in a single pass with a
+     *         single output allocation when {@link VecExpr#eval()} is called.
+     */
+    default VecExpr<T> lazy() {
+        return new VecExpr<>(this, size(), this::getDouble);
     }
 
     /*
@@ -289,7 +318,7 @@ public interface Vec<T extends Vec<T>> extends Tsr<T> {
     default String asString() {
         StringBuilder builder = new StringBuilder();
         for (int i = 0; i < size(); i++)
-            builder.append(format(get(i))).append(", ");
+            builder.append(format(getDouble(i))).append(", ");
         return builder.toString();
     }
 }
\ No newline at end of file
@@ -0,0 +1,220 @@
+package io.jeti.linalg.matrix;
+
+import io.jeti.linalg.matrix.Tsr.Operation;
+import io.jeti.linalg.matrix.Vec.Filler;
+import io.jeti.linalg.matrix.utils.Check;
+
+/**
+ * <p>
+ * A lazily evaluated, element-wise expression over {@link Vec}s, which is
+ * obtained from {@link Vec#lazy()}. This is the {@link Vec} counterpart of
+ * {@link MatExpr}: operations only compose {@link Filler}s, and the result is
+ * computed in a single pass by {@link #eval()} or {@link #evalInto(MutVec)}.
+ * </p>
+ * <p>
+ * Operands of size 1 are broadcast using the same rules as
+ * {@link Vec#apply(Operation, Vec)}, and the operands are read when the
+ * expression is evaluated, not when it is built. As for {@link MatExpr},
+ * {@link #evalInto(MutVec)} may overwrite an operand which is the very same
+ * object as the output, but not a view which overlaps an operand at a
+ * different offset or stride.
+ * </p>
+ */
+public class VecExpr<T extends Vec<T>> {
+
+    private final Vec<T> template;
+    private final int    size;
+    private final Filler filler;
+
+    /**
+     * Create an expression for a vector with the specified number of elements,
+     * which are given by the specified {@link Filler}, where the result will
+     * be constructed with the {@link Vec#newInstance(int, Filler)} method of
+     * the template.
+     */
+    VecExpr(Vec<T> template, int size, Filler filler) {
+        this.template = template;
+        this.size = size;
+        this.filler = filler;
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Getters
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return The size of the result of this expression.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The specified element of the result of this expression, which
+     *         is computed without evaluating any of the other elements.
+     */
+    public double getDouble(int element) {
+        Check.inBounds(element, 0, size);
+        return filler.apply(element);
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Evaluation
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return a new {@link Vec} containing the result of this expression,
+     *         which is computed in a single pass.
+     */
+    public T eval() {
+        return template.newInstance(size, filler);
+    }
+
+    /**
+     * Overwrite the specified {@link MutVec} with the result of this
+     * expression, which is computed in a single pass without allocating. y
+     * may be one of the operands, but must not otherwise share storage with
+     * any of them. If it does, use {@link #eval()} and copy the result.
+     */
+    public void evalInto(MutVec<?> y) {
+        Check.equal(y.size(), size);
+        y.set(filler);
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Expression/Expression Operations
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return {@link #apply(Operation, VecExpr)} with the addition operator
+     */
+    public VecExpr<T> plus(VecExpr<T> B) {
+        return apply((a, b) -> a + b, B);
+    }
+
+    /**
+     * @return {@link #apply(Operation, VecExpr)} with the subtraction operator
+     */
+    public VecExpr<T> minus(VecExpr<T> B) {
+        return apply((a, b) -> a - b, B);
+    }
+
+    /**
+     * @return {@link #apply(Operation, VecExpr)} with the multiplication
+     *         operator
+     */
+    public VecExpr<T> times(VecExpr<T> B) {
+        return apply((a, b) -> a * b, B);
+    }
+
+    /**
+     * @return an expression which applies the specified operation in an
+     *         element-wise fashion, using the same rules as
+     *         {@link Vec#apply(Operation, Vec)}.
+     */
+    public VecExpr<T> apply(Operation operation, VecExpr<T> B) {
+        Filler a = filler;
+        Filler b = B.filler;
+        if (B.size == 1) {
+            return new VecExpr<>(template, size, i -> operation.apply(a.apply(i), b.apply(0)));
+        } else {
+            Check.equal(size, B.size);
+            return new VecExpr<>(template, size, i -> operation.apply(a.apply(i), b.apply(i)));
+        }
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Expression/Vector Operations
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return {@link #plus(VecExpr)} with the lazy view of B.
+     */
+    public VecExpr<T> plus(T B) {
+        return plus(B.lazy());
+    }
+
+    /**
+     * @return {@link #minus(VecExpr)} with the lazy view of B.
+     */
+    public VecExpr<T> minus(T B) {
+        return minus(B.lazy());
+    }
+
+    /**
+     * @return {@link #times(VecExpr)} with the lazy view of B.
+     */
+    public VecExpr<T> times(T B) {
+        return times(B.lazy());
+    }
+
+    /**
+     * @return {@link #apply(Operation, VecExpr)} with the lazy view of B.
+     */
+    public VecExpr<T> apply(Operation operation, T B) {
+        return apply(operation, B.lazy());
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Expression/Scalar Operations
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return {@link #apply(Operation, Number)} with the addition operator
+     */
+    public VecExpr<T> plus(Number B) {
+        return apply((a, b) -> a + b, B);
+    }
+
+    /**
+     * @return {@link #apply(Operation, Number)} with the subtraction operator
+     */
+    public VecExpr<T> minus(Number B) {
+        return apply((a, b) -> a - b, B);
+    }
+
+    /**
+     * @return {@link #apply(Operation, Number)} with the multiplication
+     *         operator
+     */
+    public VecExpr<T> times(Number B) {
+        return apply((a, b) -> a * b, B);
+    }
+
+    /**
+     * @return {@link #apply(Operation, Number)} with the power operator
+     */
+    public VecExpr<T> pow(int i) {
+        return apply((a, b) -> Math.pow(a, i), 0);
+    }
+
+    /**
+     * @return an expression where the i^th element is given by
+     *         <code>operation(this(i),B)</code>.
+     */
+    public VecExpr<T> apply(Operation operation, Number B) {
+        Filler a = filler;
+        double b = B.doubleValue();
+        return new VecExpr<>(template, size, i -> operation.apply(a.apply(i), b));
+    }
+}
@@ -0,0 +1,556 @@
+package io.jeti.linalg.matrix.batch;
+
+import io.jeti.linalg.matrix.Mat;
+import io.jeti.linalg.matrix.dense.DenseMat;
+import io.jeti.linalg.matrix.kernels.Gemm;
+import io.jeti.linalg.matrix.utils.Check;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * <p>
+ * A batch of count small matrices with the same dimensions, such as millions
+ * of 3x3 rotations or 4x4 poses, stored together in a single array in
+ * struct-of-arrays form: the (row,col) element of matrix i is stored at
+ * </p>
+ *
+ * <pre>
+ * data[(row * cols + col) * count + i]
+ * </pre>
+ * <p>
+ * so that each element of all of the matrices is contiguous. Every operation
+ * loops over the batch innermost, which is a long, unit-stride loop with no
+ * dependencies between iterations, however small the matrices are, instead of
+ * one object and a few short loops per matrix. The batch is processed in
+ * tiles of {@link #TILE} matrices, so that all of the elements of a tile stay
+ * in cache while they are combined.
+ * </p>
+ * <p>
+ * Each operation comes in two forms. The first allocates its result, and
+ * splits the batch into ranges which are computed concurrently on the executor
+ * of the default {@link Gemm}, once the work reaches its
+ * {@link Gemm#threshold()}. The second overwrites the matrices in a range
+ * [from,to) of a preallocated result, so that callers can reuse the result,
+ * and split the batch across their own threads.
+ * </p>
+ */
+public class BatchMat {
+
+    /**
+     * The number of matrices in each tile.
+     */
+    public static final int TILE = 256;
+
+    private final int       count;
+    private final int       rows;
+    private final int       cols;
+    private final double[]  data;
+
+    /*
+     * --------------------------------------------------
+     *
+     * Constructors
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * Create a batch of count (rows x cols) matrices of zeros.
+     */
+    public BatchMat(int count, int rows, int cols) {
+        this(new double[checkedLength(count, rows, cols)], count, rows, cols);
+    }
+
+    /**
+     * Create a batch of count (rows x cols) matrices, which wraps (does NOT
+     * copy) the provided data, in the layout described in {@link BatchMat}.
+     */
+    public BatchMat(double[] data, int count, int rows, int cols) {
+        Check.equal(data.length, checkedLength(count, rows, cols));
+        this.count = count;
+        this.rows = rows;
+        this.cols = cols;
+        this.data = data;
+    }
+
+    /**
+     * @return a batch which holds a copy of the matrices, in order, which must
+     *         all have the same dimensions.
+     */
+    public static <M extends Mat<M>> BatchMat of(Collection<M> mats) {
+        Check.notZero(mats.size());
+        Check.sameDimensions(mats);
+        M first = mats.iterator().next();
+        BatchMat batch = new BatchMat(mats.size(), first.rows(), first.cols());
+        int i = 0;
+        for (M mat : mats)
+            batch.set(i++, mat);
+        return batch;
+    }
+
+    private static int checkedLength(int count, int rows, int cols) {
+        Check.nonNegativeIndex(count);
+        Check.nonNegativeIndex(rows);
+        Check.nonNegativeIndex(cols);
+        long length = (long) count * rows * cols;
+        if (length > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("The batch is too large for an array.");
+        return (int) length;
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Getters and Setters
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return the number of matrices.
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * @return the number of rows of each matrix.
+     */
+    public int rows() {
+        return rows;
+    }
+
+    /**
+     * @return the number of columns of each matrix.
+     */
+    public int cols() {
+        return cols;
+    }
+
+    /**
+     * @return the backing array (NOT a copy), in the layout described in
+     *         {@link BatchMat}.
+     */
+    public double[] data() {
+        return data;
+    }
+
+    /**
+     * @return the (row,col) element of matrix i.
+     */
+    public double getDouble(int i, int row, int col) {
+        return data[position(i, row, col)];
+    }
+
+    /**
+     * Set the (row,col) element of matrix i to val.
+     */
+    public void setDouble(int i, int row, int col, double val) {
+        data[position(i, row, col)] = val;
+    }
+
+    /**
+     * @return a copy of matrix i.
+     */
+    public DenseMat get(int i) {
+        Check.inBounds(i, 0, count);
+        DenseMat out = new DenseMat(rows, cols);
+        out.set((row, col) -> data[(row * cols + col) * count + i]);
+        return out;
+    }
+
+    /**
+     * Overwrite matrix i with a copy of A.
+     */
+    public void set(int i, Mat<?> A) {
+        Check.inBounds(i, 0, count);
+        Check.equal(A.rows(), rows);
+        Check.equal(A.cols(), cols);
+        for (int row = 0; row < rows; row++)
+            for (int col = 0; col < cols; col++)
+                data[(row * cols + col) * count + i] = A.getDouble(row, col);
+    }
+
+    private int position(int i, int row, int col) {
+        Check.inBounds(i, 0, count);
+        Check.inBounds(row, 0, rows);
+        Check.inBounds(col, 0, cols);
+        return (row * cols + col) * count + i;
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Element-wise Operations
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return the batch of this(i) + B(i).
+     */
+    public BatchMat plus(BatchMat B) {
+        BatchMat C = new BatchMat(count, rows, cols);
+        parallel(rows * cols, (from, to) -> plus(B, C, from, to));
+        return C;
+    }
+
+    /**
+     * Overwrite C(i) with this(i) + B(i), for i in [from,to). C may be this
+     * or B.
+     */
+    public void plus(BatchMat B, BatchMat C, int from, int to) {
+        combine(B, C, from, to, 1);
+    }
+
+    /**
+     * @return the batch of this(i) - B(i).
+     */
+    public BatchMat minus(BatchMat B) {
+        BatchMat C = new BatchMat(count, rows, cols);
+        parallel(rows * cols, (from, to) -> minus(B, C, from, to));
+        return C;
+    }
+
+    /**
+     * Overwrite C(i) with this(i) - B(i), for i in [from,to). C may be this
+     * or B.
+     */
+    public void minus(BatchMat B, BatchMat C, int from, int to) {
+        combine(B, C, from, to, -1);
+    }
+
+    private void combine(BatchMat B, BatchMat C, int from, int to, double sign) {
+        sameShape(B, rows, cols);
+        sameShape(C, rows, cols);
+        checkRange(from, to);
+        for (int e = 0; e < rows * cols; e++) {
+            int o = e * count;
+            for (int i = from; i < to; i++)
+                C.data[o + i] = data[o + i] + sign * B.data[o + i];
+        }
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Matrix Operations
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return the batch of this(i) * B(i).
+     */
+    public BatchMat times(BatchMat B) {
+        BatchMat C = new BatchMat(count, rows, B.cols);
+        parallel((long) rows * cols * B.cols, (from, to) -> times(B, C, from, to));
+        return C;
+    }
+
+    /**
+     * Overwrite C(i) with this(i) * B(i), for i in [from,to).
+     *
+     * @throws IllegalArgumentException
+     *             if C shares storage with this or B.
+     */
+    public void times(BatchMat B, BatchMat C, int from, int to) {
+        sameShape(B, cols, B.cols);
+        sameShape(C, rows, B.cols);
+        checkRange(from, to);
+        distinct(C, this);
+        distinct(C, B);
+        int n = B.cols;
+        double[] a = data;
+        double[] b = B.data;
+        double[] c = C.data;
+        for (int t0 = from; t0 < to; t0 += TILE) {
+            int t1 = Math.min(to, t0 + TILE);
+            for (int row = 0; row < rows; row++) {
+                for (int col = 0; col < n; col++) {
+                    int co = (row * n + col) * count;
+                    if (cols == 0)
+                        for (int i = t0; i < t1; i++)
+                            c[co + i] = 0;
+                    for (int k = 0; k < cols; k++) {
+                        int ao = (row * cols + k) * count;
+                        int bo = (k * n + col) * count;
+                        if (k == 0)
+                            for (int i = t0; i < t1; i++)
+                                c[co + i] = a[ao + i] * b[bo + i];
+                        else
+                            for (int i = t0; i < t1; i++)
+                                c[co + i] += a[ao + i] * b[bo + i];
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the batch of this(i)^T.
+     */
+    public BatchMat transpose() {
+        BatchMat C = new BatchMat(count, cols, rows);
+        parallel(rows * cols, (from, to) -> transpose(C, from, to));
+        return C;
+    }
+
+    /**
+     * Overwrite C(i) with this(i)^T, for i in [from,to).
+     *
+     * @throws IllegalArgumentException
+     *             if C shares storage with this.
+     */
+    public void transpose(BatchMat C, int from, int to) {
+        sameShape(C, cols, rows);
+        checkRange(from, to);
+        distinct(C, this);
+        for (int row = 0; row < rows; row++)
+            for (int col = 0; col < cols; col++)
+                System.arraycopy(data, (row * cols + col) * count + from, C.data,
+                        (col * rows + row) * count + from, to - from);
+    }
+
+    /**
+     * @return the batch of this(i)^-1, which is computed by Gaussian
+     *         elimination with partial pivoting.
+     * @throws ArithmeticException
+     *             if any of the matrices is singular.
+     */
+    public BatchMat inverse() {
+        BatchMat C = new BatchMat(count, rows, cols);
+        parallel(2L * rows * rows * rows, (from, to) -> inverse(C, from, to));
+        return C;
+    }
+
+    /**
+     * Overwrite C(i) with this(i)^-1, for i in [from,to). C may be this.
+     *
+     * @throws ArithmeticException
+     *             if any of the matrices is singular.
+     */
+    public void inverse(BatchMat C, int from, int to) {
+        Check.equal(rows, cols);
+        sameShape(C, rows, cols);
+        checkRange(from, to);
+        for (int t0 = from; t0 < to; t0 += TILE) {
+            int t1 = Math.min(to, t0 + TILE);
+            int tile = t1 - t0;
+            double[] x = new double[rows * rows * tile];
+            for (int i = 0; i < rows; i++)
+                for (int t = 0; t < tile; t++)
+                    x[(i * rows + i) * tile + t] = 1;
+            solve(t0, t1, x, rows, C);
+        }
+    }
+
+    /**
+     * @return the batch of solutions X(i) of this(i) * X(i) = B(i), which are
+     *         computed by Gaussian elimination with partial pivoting. Each B(i)
+     *         may have any number of columns, so that a batch of vectors is a
+     *         batch of (n x 1) matrices.
+     * @throws ArithmeticException
+     *             if any of the matrices is singular.
+     */
+    public BatchMat solve(BatchMat B) {
+        BatchMat X = new BatchMat(count, rows, B.cols);
+        parallel((long) rows * rows * (rows + B.cols), (from, to) -> solve(B, X, from, to));
+        return X;
+    }
+
+    /**
+     * Overwrite X(i) with the solution of this(i) * X(i) = B(i), for i in
+     * [from,to). X may be B.
+     *
+     * @throws ArithmeticException
+     *             if any of the matrices is singular.
+     */
+    public void solve(BatchMat B, BatchMat X, int from, int to) {
+        Check.equal(rows, cols);
+        sameShape(B, rows, B.cols);
+        sameShape(X, rows, B.cols);
+        checkRange(from, to);
+        int m = B.cols;
+        for (int t0 = from; t0 < to; t0 += TILE) {
+            int t1 = Math.min(to, t0 + TILE);
+            int tile = t1 - t0;
+            double[] x = new double[rows * m * tile];
+            for (int e = 0; e < rows * m; e++)
+                System.arraycopy(B.data, e * count + t0, x, e * tile, tile);
+            solve(t0, t1, x, m, X);
+        }
+    }
+
+    /**
+     * Solve this(i) * X(i) = B(i) for the matrices in the tile [t0,t1), where
+     * the (row,col) element of B(t0 + t) is in x[(row * m + col) * tile + t],
+     * and write the solutions into X. The pivot rows can differ from one
+     * matrix to the next, so rows are swapped one matrix at a time, but every
+     * other loop runs over the whole tile.
+     */
+    private void solve(int t0, int t1, double[] x, int m, BatchMat X) {
+        int n = rows;
+        int tile = t1 - t0;
+        double[] a = new double[n * n * tile];
+        for (int e = 0; e < n * n; e++)
+            System.arraycopy(data, e * count + t0, a, e * tile, tile);
+        double[] max = new double[tile];
+        int[] pivot = new int[tile];
+        double[] scale = new double[tile];
+        for (int k = 0; k < n; k++) {
+            /* The largest element in column k, on or below the diagonal */
+            for (int t = 0; t < tile; t++) {
+                max[t] = Math.abs(a[(k * n + k) * tile + t]);
+                pivot[t] = k;
+            }
+            for (int row = k + 1; row < n; row++) {
+                int o = (row * n + k) * tile;
+                for (int t = 0; t < tile; t++) {
+                    double v = Math.abs(a[o + t]);
+                    if (v > max[t]) {
+                        max[t] = v;
+                        pivot[t] = row;
+                    }
+                }
+            }
+            for (int t = 0; t < tile; t++) {
+                if (max[t] == 0)
+                    throw new ArithmeticException("Matrix " + (t0 + t) + " is singular.");
+                int p = pivot[t];
+                if (p != k) {
+                    for (int col = k; col < n; col++)
+                        swap(a, (k * n + col) * tile + t, (p * n + col) * tile + t);
+                    for (int col = 0; col < m; col++)
+                        swap(x, (k * m + col) * tile + t, (p * m + col) * tile + t);
+                }
+                scale[t] = 1 / a[(k * n + k) * tile + t];
+            }
+
+            /* Eliminate column k below the diagonal */
+            for (int row = k + 1; row < n; row++) {
+                int lo = (row * n + k) * tile;
+                for (int t = 0; t < tile; t++)
+                    a[lo + t] *= scale[t];
+                for (int col = k + 1; col < n; col++) {
+                    int ao = (row * n + col) * tile;
+                    int ko = (k * n + col) * tile;
+                    for (int t = 0; t < tile; t++)
+                        a[ao + t] -= a[lo + t] * a[ko + t];
+                }
+                for (int col = 0; col < m; col++) {
+                    int xo = (row * m + col) * tile;
+                    int ko = (k * m + col) * tile;
+                    for (int t = 0; t < tile; t++)
+                        x[xo + t] -= a[lo + t] * x[ko + t];
+                }
+            }
+        }
+
+        /* Back substitution, with each row of X finished before it is used */
+        for (int row = n - 1; row >= 0; row--) {
+            for (int k = row + 1; k < n; k++) {
+                int uo = (row * n + k) * tile;
+                for (int col = 0; col < m; col++) {
+                    int xo = (row * m + col) * tile;
+                    int ko = (k * m + col) * tile;
+                    for (int t = 0; t < tile; t++)
+                        x[xo + t] -= a[uo + t] * x[ko + t];
+                }
+            }
+            int d = (row * n + row) * tile;
+            for (int col = 0; col < m; col++) {
+                int xo = (row * m + col) * tile;
+                for (int t = 0; t < tile; t++)
+                    x[xo + t] /= a[d + t];
+            }
+        }
+        for (int e = 0; e < n * m; e++)
+            System.arraycopy(x, e * tile, X.data, e * count + t0, tile);
+    }
+
+    private static void swap(double[] a, int i, int j) {
+        double tmp = a[i];
+        a[i] = a[j];
+        a[j] = tmp;
+    }
+
+    private void sameShape(BatchMat B, int rows, int cols) {
+        Check.equal(B.count, count);
+        Check.equal(B.rows, rows);
+        Check.equal(B.cols, cols);
+    }
+
+    private void checkRange(int from, int to) {
+        Check.inBounds(from, 0, to + 1);
+        Check.inBounds(to, from, count + 1);
+    }
+
+    /**
+     * @throws IllegalArgumentException
+     *             if the output C shares its backing array with the input A.
+     */
+    private static void distinct(BatchMat C, BatchMat A) {
+        if (C.data == A.data)
+            throw new IllegalArgumentException(
+                    "The output must not share storage with the inputs.");
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Parallelism
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * A computation over the matrices in [from,to).
+     */
+    private interface Range {
+        void apply(int from, int to);
+    }
+
+    /**
+     * Apply the computation to consecutive ranges of whole tiles, which are
+     * computed concurrently on the executor of the default {@link Gemm} if the
+     * total cost, which is the specified cost per matrix times count, reaches
+     * its {@link Gemm#threshold()}. Otherwise, everything is computed on the
+     * calling thread. An exception in any range is rethrown once they have
+     * all finished.
+     */
+    private void parallel(long cost, Range range) {
+        Gemm gemm = Gemm.getDefault();
+        Executor executor = gemm.executor();
+        int tiles = (count + TILE - 1) / TILE;
+        if (executor == null || cost * count < gemm.threshold() || tiles < 2) {
+            range.apply(0, count);
+            return;
+        }
+        int threads = executor instanceof ForkJoinPool
+                ? ((ForkJoinPool) executor).getParallelism()
+                : Runtime.getRuntime().availableProcessors();
+        int parts = Math.min(tiles, 4 * threads);
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[parts];
+        for (int part = 0; part < parts; part++) {
+            int from = (int) ((long) tiles * part / parts) * TILE;
+            int to = Math.min(count, (int) ((long) tiles * (part + 1) / parts) * TILE);
+            futures[part] = CompletableFuture.runAsync(() -> range.apply(from, to), executor);
+        }
+        try {
+            CompletableFuture.allOf(futures).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw e;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "BatchMat[" + count + " x " + rows + " x " + cols + "]";
+    }
+}
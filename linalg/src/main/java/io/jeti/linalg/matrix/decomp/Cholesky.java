@@ -0,0 +1,276 @@
+package io.jeti.linalg.matrix.decomp;
+
+import io.jeti.linalg.matrix.Mat;
+import io.jeti.linalg.matrix.MutMat;
+import io.jeti.linalg.matrix.Vec;
+import io.jeti.linalg.matrix.dense.DenseMat;
+import io.jeti.linalg.matrix.dense.DenseVec;
+import io.jeti.linalg.matrix.kernels.Gemm;
+import io.jeti.linalg.matrix.utils.Check;
+
+/**
+ * <p>
+ * The Cholesky decomposition of a symmetric positive definite matrix A, that
+ * is,
+ * </p>
+ *
+ * <pre>
+ * A = L * L^T
+ * </pre>
+ * <p>
+ * where L is lower triangular with a positive diagonal. Only the lower
+ * triangle of A is ever read, and only the lower triangle of the storage is
+ * ever written, so the strict upper triangle may hold anything. This needs
+ * half the work of an {@link LU} decomposition and no pivoting, and the
+ * factors can be reused to {@link #solve(Vec) solve} for any number of
+ * right-hand sides.
+ * </p>
+ * <p>
+ * The factorization is right-looking and blocked: a panel of {@link #BLOCK}
+ * columns is factored, and the lower triangle of the trailing submatrix is
+ * updated one block column at a time, where everything below the diagonal
+ * blocks is computed with the default {@link Gemm}.
+ * </p>
+ */
+public class Cholesky {
+
+    /**
+     * The number of columns in each panel.
+     */
+    public static final int BLOCK = 64;
+
+    private final int      n;
+    private final double[] a;
+    private final int      off;
+    private final int      rs;
+    private final int      cs;
+
+    /**
+     * Compute the Cholesky decomposition of the lower triangle of the square
+     * matrix A, which is not modified.
+     *
+     * @throws ArithmeticException
+     *             if A is not positive definite.
+     */
+    public Cholesky(Mat<?> A) {
+        this(lower(A), 0, A.rows(), A.rows(), 1);
+    }
+
+    private Cholesky(double[] a, int off, int n, int rs, int cs) {
+        this.n = n;
+        this.a = a;
+        this.off = off;
+        this.rs = rs;
+        this.cs = cs;
+        factor();
+    }
+
+    /**
+     * @return the Cholesky decomposition of A, where the lower triangle of A
+     *         is overwritten with L. The strict upper triangle is not touched.
+     *         If A is a {@link DenseMat}, then the factorization works directly
+     *         on its storage and the returned object shares it, so A must not
+     *         be modified while the factors are in use. Otherwise, the lower
+     *         triangle is copied, factored, and written back.
+     * @throws ArithmeticException
+     *             if A is not positive definite, in which case the lower
+     *             triangle of A may have been partially overwritten.
+     */
+    public static Cholesky inPlace(MutMat<?> A) {
+        Check.equal(A.rows(), A.cols());
+        int n = A.rows();
+        if (A instanceof DenseMat) {
+            DenseMat D = (DenseMat) A;
+            return new Cholesky(D.data(), D.offset(), n, D.rowStride(), D.colStride());
+        }
+        Cholesky chol = new Cholesky(lower(A), 0, n, n, 1);
+        for (int row = 0; row < n; row++)
+            for (int col = 0; col <= row; col++)
+                A.setDouble(row, col, chol.a[row * n + col]);
+        return chol;
+    }
+
+    /**
+     * @return a row-major copy of the lower triangle of A, with zeros above.
+     */
+    private static double[] lower(Mat<?> A) {
+        Check.equal(A.rows(), A.cols());
+        int n = A.rows();
+        double[] a = new double[n * n];
+        for (int row = 0; row < n; row++)
+            for (int col = 0; col <= row; col++)
+                a[row * n + col] = A.getDouble(row, col);
+        return a;
+    }
+
+    /**
+     * @return the position of the (row,col) element in the storage.
+     */
+    private int at(int row, int col) {
+        return off + row * rs + col * cs;
+    }
+
+    private void factor() {
+        for (int k0 = 0; k0 < n; k0 += BLOCK) {
+            int k1 = Math.min(n, k0 + BLOCK);
+
+            /* Factor the panel of columns [k0,k1), down to the last row */
+            for (int j = k0; j < k1; j++) {
+                double d = a[at(j, j)];
+                for (int p = k0; p < j; p++)
+                    d -= a[at(j, p)] * a[at(j, p)];
+                if (!(d > 0))
+                    throw new ArithmeticException("The matrix is not positive definite.");
+                double ljj = Math.sqrt(d);
+                a[at(j, j)] = ljj;
+                for (int i = j + 1; i < n; i++) {
+                    double s = a[at(i, j)];
+                    for (int p = k0; p < j; p++)
+                        s -= a[at(i, p)] * a[at(j, p)];
+                    a[at(i, j)] = s / ljj;
+                }
+            }
+
+            /* A22 = A22 - L21 * L21^T, one block column at a time */
+            for (int j0 = k1; j0 < n; j0 += BLOCK) {
+                int j1 = Math.min(n, j0 + BLOCK);
+                for (int i = j0; i < j1; i++)
+                    for (int j = j0; j <= i; j++) {
+                        double s = 0;
+                        for (int p = k0; p < k1; p++)
+                            s += a[at(i, p)] * a[at(j, p)];
+                        a[at(i, j)] -= s;
+                    }
+                if (j1 < n)
+                    Gemm.getDefault().multiply(n - j1, j1 - j0, k1 - k0, -1, a, at(j1, k0), rs,
+                            cs, a, at(j0, k0), cs, rs, 1, a, at(j1, j0), rs, cs);
+            }
+        }
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Getters
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return the number of rows (and columns) of A.
+     */
+    public int size() {
+        return n;
+    }
+
+    /**
+     * @return the lower triangular factor L.
+     */
+    public DenseMat getL() {
+        DenseMat L = new DenseMat(n, n);
+        L.set((row, col) -> row >= col ? a[at(row, col)] : 0);
+        return L;
+    }
+
+    /**
+     * @return the natural logarithm of the determinant of A, that is, twice
+     *         the sum of the logarithms of the diagonal of L. Unlike the
+     *         determinant itself, this does not overflow for large matrices.
+     */
+    public double logDeterminant() {
+        double sum = 0;
+        for (int i = 0; i < n; i++)
+            sum += Math.log(a[at(i, i)]);
+        return 2 * sum;
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Solvers
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return the solution x of A * x = b.
+     */
+    public DenseVec solve(Vec<?> b) {
+        return backward(forward(b));
+    }
+
+    /**
+     * @return the solution X of A * X = B, where every column of B is a
+     *         separate right-hand side.
+     */
+    public DenseMat solve(Mat<?> B) {
+        Check.equal(B.rows(), n);
+        int m = B.cols();
+        double[] x = new double[n * m];
+        for (int i = 0, p = 0; i < n; i++)
+            for (int j = 0; j < m; j++)
+                x[p++] = B.getDouble(i, j);
+        forward(x, m);
+        backward(x, m);
+        return new DenseMat(x, n, m);
+    }
+
+    /**
+     * @return the solution y of L * y = b, by forward substitution.
+     */
+    public DenseVec forward(Vec<?> b) {
+        Check.equal(b.size(), n);
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++)
+            y[i] = b.getDouble(i);
+        forward(y, 1);
+        return new DenseVec(y);
+    }
+
+    /**
+     * @return the solution x of L^T * x = y, by back substitution.
+     */
+    public DenseVec backward(Vec<?> y) {
+        Check.equal(y.size(), n);
+        double[] x = new double[n];
+        for (int i = 0; i < n; i++)
+            x[i] = y.getDouble(i);
+        backward(x, 1);
+        return new DenseVec(x);
+    }
+
+    /**
+     * Overwrite the row-major (n x m) matrix x with L^-1 * x.
+     */
+    private void forward(double[] x, int m) {
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < i; j++) {
+                double l = a[at(i, j)];
+                if (l != 0)
+                    for (int c = 0; c < m; c++)
+                        x[i * m + c] -= l * x[j * m + c];
+            }
+            double d = a[at(i, i)];
+            for (int c = 0; c < m; c++)
+                x[i * m + c] /= d;
+        }
+    }
+
+    /**
+     * Overwrite the row-major (n x m) matrix x with L^-T * x, where each row
+     * of x is finished before it is used to update the rows above it.
+     */
+    private void backward(double[] x, int m) {
+        for (int i = n - 1; i >= 0; i--) {
+            double d = a[at(i, i)];
+            for (int c = 0; c < m; c++)
+                x[i * m + c] /= d;
+            for (int j = 0; j < i; j++) {
+                double l = a[at(i, j)];
+                if (l != 0)
+                    for (int c = 0; c < m; c++)
+                        x[j * m + c] -= l * x[i * m + c];
+            }
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package io.jeti.linalg.matrix.decomp;
+
+import io.jeti.linalg.matrix.Mat;
+import io.jeti.linalg.matrix.Vec;
+import io.jeti.linalg.matrix.dense.DenseMat;
+import io.jeti.linalg.matrix.dense.DenseVec;
+import io.jeti.linalg.matrix.kernels.Gemm;
+import io.jeti.linalg.matrix.utils.Check;
+
+/**
+ * <p>
+ * The LU decomposition with partial pivoting of a square matrix A, that is,
+ * </p>
+ *
+ * <pre>
+ * P * A = L * U
+ * </pre>
+ * <p>
+ * where P is a permutation, L is unit lower triangular, and U is upper
+ * triangular. The factors are computed once, when the {@link LU} is
+ * constructed, and can then be reused to {@link #solve(Vec) solve} for any
+ * number of right-hand sides, each in O(n^2).
+ * </p>
+ * <p>
+ * The factorization is right-looking and blocked: a panel of {@link #BLOCK}
+ * columns is factored with partial pivoting, the corresponding block row of U
+ * is computed with a triangular solve, and the trailing submatrix is updated
+ * with a single call to the default {@link Gemm}, which is where almost all of
+ * the O(n^3) work is done. The factors are stored together in a single
+ * row-major copy of A, so A itself is never modified.
+ * </p>
+ */
+public class LU {
+
+    /**
+     * The number of columns in each panel.
+     */
+    public static final int BLOCK = 64;
+
+    private final int      n;
+    private final double[] lu;
+    private final int[]    perm;
+    private final boolean  even;
+
+    /**
+     * Compute the LU decomposition of the square matrix A.
+     */
+    public LU(Mat<?> A) {
+        Check.equal(A.rows(), A.cols());
+        n = A.rows();
+        lu = new double[n * n];
+        for (int row = 0, i = 0; row < n; row++)
+            for (int col = 0; col < n; col++)
+                lu[i++] = A.getDouble(row, col);
+        perm = new int[n];
+        for (int i = 0; i < n; i++)
+            perm[i] = i;
+        even = factor();
+    }
+
+    /**
+     * Factor {@link #lu} in place, and record the row interchanges in
+     * {@link #perm}.
+     *
+     * @return true if the number of row interchanges is even.
+     */
+    private boolean factor() {
+        boolean even = true;
+        for (int k0 = 0; k0 < n; k0 += BLOCK) {
+            int k1 = Math.min(n, k0 + BLOCK);
+
+            /* Factor the panel of columns [k0,k1), swapping whole rows */
+            for (int j = k0; j < k1; j++) {
+                int p = j;
+                double max = Math.abs(lu[j * n + j]);
+                for (int i = j + 1; i < n; i++) {
+                    double v = Math.abs(lu[i * n + j]);
+                    if (v > max) {
+                        max = v;
+                        p = i;
+                    }
+                }
+                if (p != j) {
+                    swapRows(p, j);
+                    even = !even;
+                }
+                double pivot = lu[j * n + j];
+                if (pivot == 0)
+                    continue;
+                for (int i = j + 1; i < n; i++) {
+                    double l = lu[i * n + j] /= pivot;
+                    if (l != 0)
+                        for (int c = j + 1; c < k1; c++)
+                            lu[i * n + c] -= l * lu[j * n + c];
+                }
+            }
+            if (k1 == n)
+                break;
+
+            /* U12 = L11^-1 * A12, where L11 is unit lower triangular */
+            for (int j = k0; j < k1; j++)
+                for (int i = j + 1; i < k1; i++) {
+                    double l = lu[i * n + j];
+                    if (l != 0)
+                        for (int c = k1; c < n; c++)
+                            lu[i * n + c] -= l * lu[j * n + c];
+                }
+
+            /* A22 = A22 - L21 * U12 */
+            Gemm.getDefault().multiply(n - k1, n - k1, k1 - k0, -1, lu, k1 * n + k0, n, 1, lu,
+                    k0 * n + k1, n, 1, 1, lu, k1 * n + k1, n, 1);
+        }
+        return even;
+    }
+
+    private void swapRows(int a, int b) {
+        for (int c = 0, i = a * n, j = b * n; c < n; c++, i++, j++) {
+            double tmp = lu[i];
+            lu[i] = lu[j];
+            lu[j] = tmp;
+        }
+        int tmp = perm[a];
+        perm[a] = perm[b];
+        perm[b] = tmp;
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Getters
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return the number of rows (and columns) of A.
+     */
+    public int size() {
+        return n;
+    }
+
+    /**
+     * @return the unit lower triangular factor L.
+     */
+    public DenseMat getL() {
+        DenseMat L = new DenseMat(n, n);
+        L.set((row, col) -> row == col ? 1 : row > col ? lu[row * n + col] : 0);
+        return L;
+    }
+
+    /**
+     * @return the upper triangular factor U.
+     */
+    public DenseMat getU() {
+        DenseMat U = new DenseMat(n, n);
+        U.set((row, col) -> row <= col ? lu[row * n + col] : 0);
+        return U;
+    }
+
+    /**
+     * @return the permutation P as an array, where row i of P * A is row
+     *         pivots()[i] of A.
+     */
+    public int[] pivots() {
+        return perm.clone();
+    }
+
+    /**
+     * @return true if A is singular, that is, if U has a zero on its diagonal.
+     */
+    public boolean isSingular() {
+        for (int i = 0; i < n; i++)
+            if (lu[i * n + i] == 0)
+                return true;
+        return false;
+    }
+
+    /**
+     * @return the determinant of A, which is the product of the diagonal of
+     *         U, negated if there were an odd number of row interchanges.
+     */
+    public double determinant() {
+        double det = even ? 1 : -1;
+        for (int i = 0; i < n; i++)
+            det *= lu[i * n + i];
+        return det;
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Solvers
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return the solution x of A * x = b.
+     * @throws ArithmeticException
+     *             if A is singular.
+     */
+    public DenseVec solve(Vec<?> b) {
+        Check.equal(b.size(), n);
+        double[] x = new double[n];
+        for (int i = 0; i < n; i++)
+            x[i] = b.getDouble(perm[i]);
+        substitute(x, 1);
+        return new DenseVec(x);
+    }
+
+    /**
+     * @return the solution X of A * X = B, where every column of B is a
+     *         separate right-hand side.
+     * @throws ArithmeticException
+     *             if A is singular.
+     */
+    public DenseMat solve(Mat<?> B) {
+        Check.equal(B.rows(), n);
+        int m = B.cols();
+        double[] x = new double[n * m];
+        for (int i = 0, p = 0; i < n; i++)
+            for (int j = 0; j < m; j++)
+                x[p++] = B.getDouble(perm[i], j);
+        substitute(x, m);
+        return new DenseMat(x, n, m);
+    }
+
+    /**
+     * @return A^-1, which is computed by solving A * X = I. Note that
+     *         {@link #solve(Mat)} is both faster and more accurate than
+     *         multiplying by the inverse.
+     * @throws ArithmeticException
+     *             if A is singular.
+     */
+    public DenseMat inverse() {
+        double[] x = new double[n * n];
+        for (int i = 0; i < n; i++)
+            x[i * n + perm[i]] = 1;
+        substitute(x, n);
+        return new DenseMat(x, n, n);
+    }
+
+    /**
+     * Overwrite the row-major (n x m) matrix x, whose rows are already
+     * permuted, with U^-1 * L^-1 * x, which is a forward substitution followed
+     * by a back substitution. Each step updates a whole row of x at a time.
+     */
+    private void substitute(double[] x, int m) {
+        if (isSingular())
+            throw new ArithmeticException("The matrix is singular.");
+        for (int i = 1; i < n; i++)
+            for (int j = 0; j < i; j++) {
+                double l = lu[i * n + j];
+                if (l != 0)
+                    for (int c = 0; c < m; c++)
+                        x[i * m + c] -= l * x[j * m + c];
+            }
+        for (int i = n - 1; i >= 0; i--) {
+            for (int j = i + 1; j < n; j++) {
+                double u = lu[i * n + j];
+                if (u != 0)
+                    for (int c = 0; c < m; c++)
+                        x[i * m + c] -= u * x[j * m + c];
+            }
+            double d = lu[i * n + i];
+            for (int c = 0; c < m; c++)
+                x[i * m + c] /= d;
+        }
+    }
+}
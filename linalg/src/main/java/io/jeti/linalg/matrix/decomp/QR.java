@@ -0,0 +1,266 @@
+package io.jeti.linalg.matrix.decomp;
+
+import io.jeti.linalg.matrix.Mat;
+import io.jeti.linalg.matrix.Vec;
+import io.jeti.linalg.matrix.dense.DenseMat;
+import io.jeti.linalg.matrix.dense.DenseVec;
+import io.jeti.linalg.matrix.kernels.Gemm;
+import io.jeti.linalg.matrix.utils.Check;
+
+/**
+ * <p>
+ * The QR decomposition of an (m x n) matrix A, that is,
+ * </p>
+ *
+ * <pre>
+ * A = Q * R
+ * </pre>
+ * <p>
+ * where Q is orthogonal and R is upper triangular. Q is never formed: it is
+ * kept as the product of min(m,n) Householder reflectors
+ * <code>H(j) = I - tau(j) * v(j) * v(j)^T</code>, whose vectors are stored
+ * below the diagonal of R. This is all that {@link #leastSquares(Vec)} needs,
+ * and the economy-size Q is only formed if {@link #getQ()} is called.
+ * </p>
+ * <p>
+ * The factorization is blocked with the compact WY representation: after a
+ * panel of {@link #BLOCK} columns is factored, the product of its reflectors
+ * is written as <code>I - V * T * V^T</code>, where T is a small upper
+ * triangular matrix, so that the trailing columns are updated with three calls
+ * to the default {@link Gemm} instead of one rank-1 update per reflector.
+ * </p>
+ */
+public class QR {
+
+    /**
+     * The number of columns in each panel.
+     */
+    public static final int BLOCK = 32;
+
+    private final int      m;
+    private final int      n;
+    private final int      k;
+    private final double[] qr;
+    private final double[] tau;
+
+    /**
+     * Compute the QR decomposition of A, which is not modified.
+     */
+    public QR(Mat<?> A) {
+        m = A.rows();
+        n = A.cols();
+        k = Math.min(m, n);
+        qr = new double[m * n];
+        for (int row = 0, i = 0; row < m; row++)
+            for (int col = 0; col < n; col++)
+                qr[i++] = A.getDouble(row, col);
+        tau = new double[k];
+        factor();
+    }
+
+    private void factor() {
+        Gemm gemm = Gemm.getDefault();
+        for (int j0 = 0; j0 < k; j0 += BLOCK) {
+            int j1 = Math.min(k, j0 + BLOCK);
+            int nb = j1 - j0;
+
+            /* Factor the panel, applying each reflector to the panel only */
+            for (int j = j0; j < j1; j++) {
+                reflector(j);
+                for (int c = j + 1; c < j1; c++)
+                    reflect(j, qr, c, n);
+            }
+            if (j1 == n)
+                break;
+
+            /*
+             * Copy V, the (m-j0 x nb) unit lower trapezoid of reflectors, and
+             * form T, such that H(j0) * ... * H(j1-1) = I - V * T * V^T
+             */
+            int rows = m - j0;
+            double[] v = new double[rows * nb];
+            for (int i = 0; i < rows; i++)
+                for (int c = 0; c < nb; c++)
+                    v[i * nb + c] = i == c ? 1 : i > c ? qr[(j0 + i) * n + j0 + c] : 0;
+            double[] t = new double[nb * nb];
+            for (int c = 0; c < nb; c++) {
+                /* T(0:c, c) = -tau(c) * T(0:c, 0:c) * V(:, 0:c)^T * v(c) */
+                double[] w = new double[c];
+                for (int p = 0; p < c; p++) {
+                    double s = 0;
+                    for (int i = c; i < rows; i++)
+                        s += v[i * nb + p] * v[i * nb + c];
+                    w[p] = s;
+                }
+                for (int p = 0; p < c; p++) {
+                    double s = 0;
+                    for (int q = p; q < c; q++)
+                        s += t[p * nb + q] * w[q];
+                    t[p * nb + c] = -tau[j0 + c] * s;
+                }
+                t[c * nb + c] = tau[j0 + c];
+            }
+
+            /* A2 = (I - V * T^T * V^T) * A2, where A2 is the trailing block */
+            int cols = n - j1;
+            int a2 = j0 * n + j1;
+            double[] w = new double[nb * cols];
+            double[] tw = new double[nb * cols];
+            gemm.multiply(nb, cols, rows, 1, v, 0, 1, nb, qr, a2, n, 1, 0, w, 0, cols, 1);
+            gemm.multiply(nb, cols, nb, 1, t, 0, 1, nb, w, 0, cols, 1, 0, tw, 0, cols, 1);
+            gemm.multiply(rows, cols, nb, -1, v, 0, nb, 1, tw, 0, cols, 1, 1, qr, a2, n, 1);
+        }
+    }
+
+    /**
+     * Compute the reflector which zeros column j below the diagonal, store
+     * its vector below the diagonal, its scale in tau(j), and the resulting
+     * element of R on the diagonal.
+     */
+    private void reflector(int j) {
+        double alpha = qr[j * n + j];
+        double sigma = 0;
+        for (int i = j + 1; i < m; i++)
+            sigma += qr[i * n + j] * qr[i * n + j];
+        if (sigma == 0) {
+            tau[j] = 0;
+            return;
+        }
+        double beta = -Math.copySign(Math.sqrt(alpha * alpha + sigma), alpha);
+        tau[j] = (beta - alpha) / beta;
+        double scale = 1 / (alpha - beta);
+        for (int i = j + 1; i < m; i++)
+            qr[i * n + j] *= scale;
+        qr[j * n + j] = beta;
+    }
+
+    /**
+     * Apply H(j) to column c of the row-major matrix x, which has the
+     * specified number of columns and m rows.
+     */
+    private void reflect(int j, double[] x, int c, int cols) {
+        if (tau[j] == 0)
+            return;
+        double s = x[j * cols + c];
+        for (int i = j + 1; i < m; i++)
+            s += qr[i * n + j] * x[i * cols + c];
+        s *= tau[j];
+        x[j * cols + c] -= s;
+        for (int i = j + 1; i < m; i++)
+            x[i * cols + c] -= s * qr[i * n + j];
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Getters
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return the (min(m,n) x n) upper triangular (or trapezoidal) factor R.
+     */
+    public DenseMat getR() {
+        DenseMat R = new DenseMat(k, n);
+        R.set((row, col) -> row <= col ? qr[row * n + col] : 0);
+        return R;
+    }
+
+    /**
+     * @return the (m x min(m,n)) economy-size factor Q, whose columns are
+     *         orthonormal, which is formed by applying the reflectors to the
+     *         first min(m,n) columns of the identity.
+     */
+    public DenseMat getQ() {
+        double[] q = new double[m * k];
+        for (int i = 0; i < k; i++)
+            q[i * k + i] = 1;
+        for (int j = k - 1; j >= 0; j--)
+            for (int c = j; c < k; c++)
+                reflect(j, q, c, k);
+        return new DenseMat(q, m, k);
+    }
+
+    /**
+     * @return true if R has no zeros on its diagonal, that is, if the first
+     *         min(m,n) columns of A are linearly independent.
+     */
+    public boolean isFullRank() {
+        for (int i = 0; i < k; i++)
+            if (qr[i * n + i] == 0)
+                return false;
+        return true;
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Solvers
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return the x which minimizes ||A * x - b||, which is computed by
+     *         applying Q^T to b, one reflector at a time, and solving the
+     *         triangular system R * x = (Q^T * b)(0:n). A must have at least as
+     *         many rows as columns.
+     * @throws ArithmeticException
+     *             if A does not have full rank.
+     */
+    public DenseVec leastSquares(Vec<?> b) {
+        Check.equal(b.size(), m);
+        double[] x = new double[m];
+        for (int i = 0; i < m; i++)
+            x[i] = b.getDouble(i);
+        solve(x, 1);
+        double[] out = new double[n];
+        System.arraycopy(x, 0, out, 0, n);
+        return new DenseVec(out);
+    }
+
+    /**
+     * @return the X which minimizes ||A * X - B|| for every column of B
+     *         separately, as in {@link #leastSquares(Vec)}.
+     * @throws ArithmeticException
+     *             if A does not have full rank.
+     */
+    public DenseMat leastSquares(Mat<?> B) {
+        Check.equal(B.rows(), m);
+        int cols = B.cols();
+        double[] x = new double[m * cols];
+        for (int i = 0, p = 0; i < m; i++)
+            for (int j = 0; j < cols; j++)
+                x[p++] = B.getDouble(i, j);
+        solve(x, cols);
+        double[] out = new double[n * cols];
+        System.arraycopy(x, 0, out, 0, n * cols);
+        return new DenseMat(out, n, cols);
+    }
+
+    /**
+     * Overwrite the first n rows of the row-major (m x cols) matrix x with
+     * R^-1 * (Q^T * x)(0:n).
+     */
+    private void solve(double[] x, int cols) {
+        if (m < n)
+            throw new IllegalArgumentException(
+                    "The matrix must have at least as many rows as columns.");
+        if (!isFullRank())
+            throw new ArithmeticException("The matrix does not have full rank.");
+        for (int j = 0; j < k; j++)
+            for (int c = 0; c < cols; c++)
+                reflect(j, x, c, cols);
+        for (int i = n - 1; i >= 0; i--) {
+            for (int j = i + 1; j < n; j++) {
+                double r = qr[i * n + j];
+                for (int c = 0; c < cols; c++)
+                    x[i * cols + c] -= r * x[j * cols + c];
+            }
+            double d = qr[i * n + i];
+            for (int c = 0; c < cols; c++)
+                x[i * cols + c] /= d;
+        }
+    }
+}
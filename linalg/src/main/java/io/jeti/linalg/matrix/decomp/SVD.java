@@ -0,0 +1,685 @@
+package io.jeti.linalg.matrix.decomp;
+
+import io.jeti.linalg.matrix.Mat;
+import io.jeti.linalg.matrix.Tsr;
+import io.jeti.linalg.matrix.dense.DenseMat;
+import io.jeti.linalg.matrix.dense.DenseVec;
+import io.jeti.linalg.matrix.kernels.Gemm;
+import io.jeti.linalg.matrix.utils.Check;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * <p>
+ * The thin singular value decomposition of an (m x n) matrix A, that is,
+ * </p>
+ *
+ * <pre>
+ * A = U * S * V^T
+ * </pre>
+ * <p>
+ * where, for p = min(m,n), U is (m x p) and V is (n x p) with orthonormal
+ * columns, and S is the diagonal of the p singular values, which are sorted
+ * in decreasing order.
+ * </p>
+ * <p>
+ * A wide matrix is handled through its transpose. A tall matrix is first
+ * reduced to its (n x n) triangular factor with a blocked {@link QR}. The
+ * square matrix is then reduced to an upper bidiagonal B with Householder
+ * reflectors from both sides (Golub-Kahan). This reduction is blocked: each
+ * panel of {@link QR#BLOCK} rows and columns is reduced with matrix-vector
+ * products, and the rest of the matrix is updated with the default
+ * {@link Gemm}, as are the products of the reflectors, which are formed in
+ * the compact WY representation. The SVD of B is computed with one-sided
+ * Jacobi rotations, which orthogonalize the columns of B until they are the
+ * singular vectors scaled by the singular values. Finally, the
+ * transformations are combined with the default {@link Gemm}.
+ * </p>
+ * <p>
+ * Note that the Jacobi phase works on pairs of columns, without
+ * {@link Gemm}, and usually takes several sweeps, so it dominates the time
+ * for large square matrices.
+ * </p>
+ * <p>
+ * If only the largest singular values are needed, then
+ * {@link #top(Mat, int)} computes them with a randomized range finder, whose
+ * cost is dominated by a few products of A with thin matrices.
+ * </p>
+ */
+public class SVD {
+
+    /**
+     * The number of extra columns which {@link #top(Mat, int)} samples, beyond
+     * the number of requested singular values.
+     */
+    public static final int OVERSAMPLING     = 10;
+
+    /**
+     * The number of power iterations which {@link #top(Mat, int)} uses to
+     * sharpen the range of A.
+     */
+    public static final int POWER_ITERATIONS = 2;
+
+    /**
+     * The maximum number of Jacobi sweeps.
+     */
+    private static final int SWEEPS          = 64;
+
+    private final DenseMat  U;
+    private final double[]  s;
+    private final DenseMat  V;
+
+    /**
+     * Compute the thin SVD of A, which is not modified.
+     * @throws ArithmeticException
+     *             if the Jacobi iteration does not converge, which in
+     *             practice only happens if A is not finite.
+     */
+    public SVD(Mat<?> A) {
+        this(thin(A));
+    }
+
+    private SVD(SVD svd) {
+        this(svd.U, svd.s, svd.V);
+    }
+
+    private SVD(DenseMat U, double[] s, DenseMat V) {
+        this.U = U;
+        this.s = s;
+        this.V = V;
+    }
+
+    /**
+     * @return the k largest singular triplets of A, as in
+     *         {@link #top(Mat, int, int, int, Random)}, with
+     *         {@link #OVERSAMPLING}, {@link #POWER_ITERATIONS}, and
+     *         {@link Tsr#random}.
+     */
+    public static SVD top(Mat<?> A, int k) {
+        return top(A, k, OVERSAMPLING, POWER_ITERATIONS, Tsr.random);
+    }
+
+    /**
+     * @return an approximation of the k largest singular triplets of A, which
+     *         is computed with a randomized range finder: the columns of A
+     *         times a random (n x (k + oversampling)) matrix span most of the
+     *         range of A, which is sharpened by the specified number of power
+     *         iterations, and then orthonormalized into Q. The SVD of the small
+     *         matrix Q^T * A then gives the result. All of the products with A
+     *         are computed with the default {@link Gemm}. The approximation is
+     *         exact if the rank of A is at most k + oversampling.
+     * @throws ArithmeticException
+     *             if the Jacobi iteration does not converge.
+     */
+    public static SVD top(Mat<?> A, int k, int oversampling, int powerIterations,
+                          Random random) {
+        int m = A.rows();
+        int n = A.cols();
+        Check.inBounds(k, 1, Math.min(m, n) + 1);
+        Check.nonNegativeIndex(oversampling);
+        Check.nonNegativeIndex(powerIterations);
+        int l = Math.min(Math.min(m, n), k + oversampling);
+        DenseMat D = dense(A);
+
+        DenseMat omega = new DenseMat(n, l);
+        omega.set((row, col) -> random.nextGaussian());
+        DenseMat Q = orthonormal(multiply(D, false, omega));
+        for (int i = 0; i < powerIterations; i++)
+            Q = orthonormal(multiply(D, false, orthonormal(multiply(D, true, Q))));
+
+        SVD small = thin(multiply(Q, true, D));
+        DenseMat U = multiply(Q, false, small.U);
+        return new SVD(columns(U, k), Arrays.copyOf(small.s, k), columns(small.V, k));
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Getters
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return the left singular vectors, as the columns of a new matrix.
+     */
+    public DenseMat getU() {
+        return columns(U, s.length);
+    }
+
+    /**
+     * @return the right singular vectors, as the columns of a new matrix.
+     */
+    public DenseMat getV() {
+        return columns(V, s.length);
+    }
+
+    /**
+     * @return the singular values, in decreasing order.
+     */
+    public DenseVec getS() {
+        return new DenseVec(s.clone());
+    }
+
+    /**
+     * @return the singular values, in decreasing order.
+     */
+    public double[] singularValues() {
+        return s.clone();
+    }
+
+    /**
+     * @return the 2-norm of A, that is, its largest singular value.
+     */
+    public double norm2() {
+        return s.length == 0 ? 0 : s[0];
+    }
+
+    /**
+     * @return the 2-norm condition number of A, that is, the ratio of its
+     *         largest and smallest singular values, or 0 if A is empty.
+     */
+    public double cond() {
+        if (s.length == 0)
+            return 0;
+        return s[0] / s[s.length - 1];
+    }
+
+    /**
+     * @return the numerical rank of A, that is, the number of singular values
+     *         which are larger than max(m,n) * ulp(largest singular value).
+     */
+    public int rank() {
+        if (s.length == 0)
+            return 0;
+        double tol = Math.max(U.rows(), V.rows()) * Math.ulp(s[0]);
+        int rank = 0;
+        while (rank < s.length && s[rank] > tol)
+            rank++;
+        return rank;
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Computation
+     *
+     * --------------------------------------------------
+     */
+
+    private static SVD thin(Mat<?> A) {
+        int m = A.rows();
+        int n = A.cols();
+        if (m < n) {
+            DenseMat T = new DenseMat(n, m);
+            T.set((row, col) -> A.getDouble(col, row));
+            SVD svd = thin(T);
+            return new SVD(svd.V, svd.s, svd.U);
+        }
+
+        /* Reduce a tall matrix to its triangular factor */
+        DenseMat Q = null;
+        double[] a;
+        if (m > n) {
+            QR qr = new QR(A);
+            Q = qr.getQ();
+            a = qr.getR().data();
+        } else {
+            a = copy(A);
+        }
+
+        /* A = U1 * B * V1^T, where B is upper bidiagonal */
+        double[] u1 = identity(n);
+        double[] v1 = identity(n);
+        double[] d = new double[n];
+        double[] e = new double[n];
+        bidiagonalize(n, a, u1, v1, d, e);
+
+        /* B * V2 = W, whose columns are stored contiguously */
+        double[] w = new double[n * n];
+        for (int j = 0; j < n; j++) {
+            w[j * n + j] = d[j];
+            if (j + 1 < n)
+                w[(j + 1) * n + j] = e[j];
+        }
+        double[] v2 = identity(n);
+        jacobi(n, w, v2);
+
+        /*
+         * S = the norms of the columns of W, and U2 = W * S^-1, except for the
+         * columns whose norms are at the level of the rounding errors, whose
+         * directions are noise, so they are completed instead
+         */
+        double[] norms = new double[n];
+        Integer[] order = new Integer[n];
+        for (int j = 0; j < n; j++) {
+            double sum = 0;
+            for (int i = 0; i < n; i++)
+                sum += w[j * n + i] * w[j * n + i];
+            norms[j] = Math.sqrt(sum);
+            order[j] = j;
+        }
+        Arrays.sort(order, (x, y) -> Double.compare(norms[y], norms[x]));
+        double tol = n == 0 ? 0 : n * Math.ulp(norms[order[0]]);
+        double[] s = new double[n];
+        double[] u2 = new double[n * n];
+        double[] v2sorted = new double[n * n];
+        for (int c = 0; c < n; c++) {
+            int j = order[c];
+            s[c] = norms[j];
+            for (int i = 0; i < n; i++) {
+                u2[i * n + c] = s[c] <= tol ? 0 : w[j * n + i] / s[c];
+                v2sorted[i * n + c] = v2[j * n + i];
+            }
+        }
+        complete(n, u2, s, tol);
+
+        DenseMat U = multiply(new DenseMat(u1, n, n), false, new DenseMat(u2, n, n));
+        if (Q != null)
+            U = multiply(Q, false, U);
+        DenseMat V = multiply(new DenseMat(v1, n, n), false, new DenseMat(v2sorted, n, n));
+        return new SVD(U, s, V);
+    }
+
+    /**
+     * Reduce the row-major (n x n) matrix a to upper bidiagonal form with
+     * alternating Householder reflectors from the left and from the right,
+     * store the diagonal in d and the superdiagonal in e, and accumulate the
+     * reflectors into u1 and v1, which start as the identity.
+     * <p>
+     * The reduction is blocked as in LAPACK's dlabrd: the reflectors of a
+     * panel of {@link QR#BLOCK} rows and columns are computed with
+     * matrix-vector products, while their effect on the rest of the matrix is
+     * gathered in the (n x nb) matrices X and Y, so that the trailing matrix
+     * is updated with two calls to the default {@link Gemm}. The vectors of
+     * the left reflectors are left below the diagonal of a, and those of the
+     * right reflectors to the right of the superdiagonal.
+     * </p>
+     */
+    private static void bidiagonalize(int n, double[] a, double[] u1, double[] v1, double[] d,
+                                      double[] e) {
+        Gemm gemm = Gemm.getDefault();
+        double[] tauU = new double[n];
+        double[] tauV = new double[n];
+        for (int p = 0; p < n; p += QR.BLOCK) {
+            int r = n - p;
+            int nb = Math.min(QR.BLOCK, r);
+            double[] x = new double[r * nb];
+            double[] y = new double[r * nb];
+            panel(n, a, p, nb, x, y, d, e, tauU, tauV);
+
+            /* A22 = A22 - V * Y^T - X * U^T, where V and U are the reflectors */
+            if (r > nb) {
+                int m = r - nb;
+                int a22 = (p + nb) * n + p + nb;
+                gemm.multiply(m, m, nb, -1, a, (p + nb) * n + p, n, 1, y, nb * nb, 1, nb, 1,
+                        a, a22, n, 1);
+                gemm.multiply(m, m, nb, -1, x, nb * nb, nb, 1, a, p * n + p + nb, n, 1, 1, a,
+                        a22, n, 1);
+            }
+
+            /* Restore B over the implicit ones of the reflectors */
+            for (int j = p; j < p + nb; j++) {
+                a[j * n + j] = d[j];
+                if (j + 1 < n)
+                    a[j * n + j + 1] = e[j];
+            }
+        }
+        accumulate(n, a, u1, 0, n, tauU);
+        accumulate(n, a, v1, 1, n - 1, tauV);
+    }
+
+    /**
+     * Reduce the first nb rows and columns of the trailing (r x r) matrix
+     * A = a(p:n, p:n), where r = n - p, and fill the (r x nb) row-major X and
+     * Y, such that the trailing matrix A(nb:r, nb:r) still has to be updated
+     * with - V * Y^T - X * U^T. The implicit ones of the reflectors are stored
+     * in A, over the diagonal and superdiagonal, which are kept in d and e.
+     */
+    private static void panel(int n, double[] a, int p, int nb, double[] x, double[] y,
+                              double[] d, double[] e, double[] tauU, double[] tauV) {
+        int r = n - p;
+        int o = p * n + p;
+        double[] t = new double[nb];
+        double[] s = new double[nb];
+        double[] z = new double[r];
+        for (int i = 0; i < nb; i++) {
+            int ii = o + i * n + i;
+
+            /* A(i:r, i) -= V(i:r, 0:i) * Y(i, 0:i)^T + X(i:r, 0:i) * U(0:i, i) */
+            for (int c = 0; c < i; c++)
+                t[c] = a[o + c * n + i];
+            for (int row = i; row < r; row++) {
+                double sum = 0;
+                int ar = o + row * n;
+                for (int c = 0; c < i; c++)
+                    sum += a[ar + c] * y[i * nb + c] + x[row * nb + c] * t[c];
+                a[ar + i] -= sum;
+            }
+
+            /* The left reflector, which zeros A(i+1:r, i) */
+            tauU[p + i] = house(a, ii, r - i, n);
+            d[p + i] = a[ii];
+            if (i == r - 1)
+                continue;
+            a[ii] = 1;
+
+            /*
+             * Y(i+1:r, i) = tau * (A(i:r, i+1:r)^T * v - Y(i+1:r, 0:i) * t -
+             * U(0:i, i+1:r)^T * s), where v = V(i:r, i), t = V(i:r, 0:i)^T * v,
+             * and s = X(i:r, 0:i)^T * v, accumulated in z
+             */
+            for (int col = i + 1; col < r; col++)
+                z[col] = 0;
+            for (int c = 0; c < i; c++) {
+                t[c] = 0;
+                s[c] = 0;
+            }
+            for (int row = i; row < r; row++) {
+                int ar = o + row * n;
+                double v = a[ar + i];
+                if (v == 0)
+                    continue;
+                for (int col = i + 1; col < r; col++)
+                    z[col] += a[ar + col] * v;
+                for (int c = 0; c < i; c++) {
+                    t[c] += a[ar + c] * v;
+                    s[c] += x[row * nb + c] * v;
+                }
+            }
+            for (int c = 0; c < i; c++) {
+                double sc = s[c];
+                int ac = o + c * n;
+                for (int col = i + 1; col < r; col++)
+                    z[col] -= a[ac + col] * sc;
+            }
+            for (int row = i + 1; row < r; row++) {
+                double sum = z[row];
+                for (int c = 0; c < i; c++)
+                    sum -= y[row * nb + c] * t[c];
+                y[row * nb + i] = tauU[p + i] * sum;
+            }
+
+            /* A(i, i+1:r) -= Y(i+1:r, 0:i+1) * V(i, 0:i+1)^T + X(i, 0:i) * U(0:i, i+1:r) */
+            int ai = o + i * n;
+            for (int col = i + 1; col < r; col++) {
+                double sum = 0;
+                for (int c = 0; c <= i; c++)
+                    sum += y[col * nb + c] * a[ai + c];
+                a[ai + col] -= sum;
+            }
+            for (int c = 0; c < i; c++) {
+                double xc = x[i * nb + c];
+                int ac = o + c * n;
+                for (int col = i + 1; col < r; col++)
+                    a[ai + col] -= xc * a[ac + col];
+            }
+
+            /* The right reflector, which zeros A(i, i+2:r) */
+            tauV[p + i] = house(a, ii + 1, r - i - 1, 1);
+            e[p + i] = a[ii + 1];
+            a[ii + 1] = 1;
+
+            /*
+             * X(i+1:r, i) = tau * (A(i+1:r, i+1:r) * u - V(i+1:r, 0:i+1) * t -
+             * X(i+1:r, 0:i) * s), where u = U(i, i+1:r)^T, t = Y(i+1:r, 0:i+1)^T *
+             * u, and s = U(0:i, i+1:r) * u
+             */
+            for (int c = 0; c <= i; c++)
+                t[c] = 0;
+            for (int col = i + 1; col < r; col++) {
+                double u = a[ai + col];
+                for (int c = 0; c <= i; c++)
+                    t[c] += y[col * nb + c] * u;
+            }
+            for (int c = 0; c < i; c++) {
+                double sum = 0;
+                int ac = o + c * n;
+                for (int col = i + 1; col < r; col++)
+                    sum += a[ac + col] * a[ai + col];
+                s[c] = sum;
+            }
+            for (int row = i + 1; row < r; row++) {
+                int ar = o + row * n;
+                double sum = 0;
+                for (int col = i + 1; col < r; col++)
+                    sum += a[ar + col] * a[ai + col];
+                for (int c = 0; c <= i; c++)
+                    sum -= a[ar + c] * t[c];
+                for (int c = 0; c < i; c++)
+                    sum -= x[row * nb + c] * s[c];
+                x[row * nb + i] = tauV[p + i] * sum;
+            }
+        }
+    }
+
+    /**
+     * Overwrite the row-major (n x n) identity q with the product H(0) * H(1)
+     * * ... * H(count-1) of the left (shift 0) or right (shift 1) reflectors
+     * which {@link #bidiagonalize} left in a, where the vector of H(j) starts
+     * with an implicit one at index j + shift. The reflectors are applied
+     * backwards, a block of {@link QR#BLOCK} at a time, in the compact WY form
+     * <code>I - V * T * V^T</code>, with three calls to the default
+     * {@link Gemm} per block.
+     */
+    private static void accumulate(int n, double[] a, double[] q, int shift, int count,
+                                   double[] tau) {
+        Gemm gemm = Gemm.getDefault();
+        for (int j0 = (Math.max(count, 1) - 1) / QR.BLOCK * QR.BLOCK; j0 >= 0; j0 -= QR.BLOCK) {
+            int j1 = Math.min(count, j0 + QR.BLOCK);
+            int nb = j1 - j0;
+            int from = j0 + shift;
+            int rows = n - from;
+            if (nb <= 0 || rows <= 0)
+                continue;
+
+            /* V, the (rows x nb) unit lower trapezoid of the reflectors */
+            double[] v = new double[rows * nb];
+            for (int i = 0; i < rows; i++) {
+                for (int c = 0; c < nb; c++) {
+                    int j = j0 + c;
+                    int k = from + i;
+                    v[i * nb + c] = i == c ? 1 : i < c ? 0 : shift == 0 ? a[k * n + j]
+                            : a[j * n + k];
+                }
+            }
+
+            /* T, such that H(j0) * ... * H(j1-1) = I - V * T * V^T */
+            double[] t = new double[nb * nb];
+            double[] w = new double[nb];
+            for (int c = 0; c < nb; c++) {
+                for (int p = 0; p < c; p++) {
+                    double sum = 0;
+                    for (int i = c; i < rows; i++)
+                        sum += v[i * nb + p] * v[i * nb + c];
+                    w[p] = sum;
+                }
+                for (int p = 0; p < c; p++) {
+                    double sum = 0;
+                    for (int k = p; k < c; k++)
+                        sum += t[p * nb + k] * w[k];
+                    t[p * nb + c] = -tau[j0 + c] * sum;
+                }
+                t[c * nb + c] = tau[j0 + c];
+            }
+
+            /* Q2 = (I - V * T * V^T) * Q2, where Q2 = q(from:n, from:n) */
+            int q2 = from * n + from;
+            double[] vq = new double[nb * rows];
+            double[] tvq = new double[nb * rows];
+            gemm.multiply(nb, rows, rows, 1, v, 0, 1, nb, q, q2, n, 1, 0, vq, 0, rows, 1);
+            gemm.multiply(nb, rows, nb, 1, t, 0, nb, 1, vq, 0, rows, 1, 0, tvq, 0, rows, 1);
+            gemm.multiply(rows, rows, nb, -1, v, 0, nb, 1, tvq, 0, rows, 1, 1, q, q2, n, 1);
+        }
+    }
+
+    /**
+     * Replace the len elements x(off), x(off + stride), ... with the vector
+     * of the Householder reflector which maps them to a multiple of the first
+     * unit vector, except that x(off) becomes that multiple instead of the
+     * implicit 1.
+     *
+     * @return the scale tau of the reflector I - tau * v * v^T.
+     */
+    private static double house(double[] x, int off, int len, int stride) {
+        double alpha = x[off];
+        double sigma = 0;
+        for (int i = 1, q = off + stride; i < len; i++, q += stride)
+            sigma += x[q] * x[q];
+        if (sigma == 0)
+            return 0;
+        double beta = -Math.copySign(Math.sqrt(alpha * alpha + sigma), alpha);
+        double scale = 1 / (alpha - beta);
+        for (int i = 1, q = off + stride; i < len; i++, q += stride)
+            x[q] *= scale;
+        x[off] = beta;
+        return (beta - alpha) / beta;
+    }
+
+    /**
+     * Apply one-sided Jacobi rotations to pairs of the n columns of w until
+     * they are all orthogonal, and apply the same rotations to the columns of
+     * v. Both are stored column by column.
+     * @throws ArithmeticException
+     *             if the columns are not orthogonal after {@link #SWEEPS}
+     *             sweeps.
+     */
+    private static void jacobi(int n, double[] w, double[] v) {
+        double eps = Math.ulp(1.0);
+        for (int sweep = 0; sweep < SWEEPS; sweep++) {
+            boolean rotated = false;
+            for (int p = 0; p < n - 1; p++) {
+                for (int q = p + 1; q < n; q++) {
+                    int wp = p * n;
+                    int wq = q * n;
+                    double alpha = 0, beta = 0, gamma = 0;
+                    for (int i = 0; i < n; i++) {
+                        alpha += w[wp + i] * w[wp + i];
+                        beta += w[wq + i] * w[wq + i];
+                        gamma += w[wp + i] * w[wq + i];
+                    }
+                    if (Math.abs(gamma) <= eps * Math.sqrt(alpha * beta))
+                        continue;
+                    rotated = true;
+                    double zeta = (beta - alpha) / (2 * gamma);
+                    double t = Math.copySign(1, zeta) / (Math.abs(zeta)
+                            + Math.sqrt(1 + zeta * zeta));
+                    double c = 1 / Math.sqrt(1 + t * t);
+                    double s = c * t;
+                    rotate(w, wp, wq, n, c, s);
+                    rotate(v, wp, wq, n, c, s);
+                }
+            }
+            if (!rotated)
+                return;
+        }
+        throw new ArithmeticException("The Jacobi iteration did not converge.");
+    }
+
+    private static void rotate(double[] x, int p, int q, int n, double c, double s) {
+        for (int i = 0; i < n; i++) {
+            double xp = x[p + i];
+            double xq = x[q + i];
+            x[p + i] = c * xp - s * xq;
+            x[q + i] = s * xp + c * xq;
+        }
+    }
+
+    /**
+     * Replace the columns of the row-major (n x n) matrix u which belong to
+     * singular values of at most tol, and which are therefore zero, with unit
+     * vectors which are orthogonal to all of the other columns, using
+     * Gram-Schmidt on the columns of the identity.
+     */
+    private static void complete(int n, double[] u, double[] s, double tol) {
+        double[] x = new double[n];
+        for (int j = 0; j < n; j++) {
+            if (s[j] > tol)
+                continue;
+            for (int t = 0; t < n; t++) {
+                Arrays.fill(x, 0);
+                x[t] = 1;
+                for (int pass = 0; pass < 2; pass++) {
+                    for (int c = 0; c < n; c++) {
+                        if (c == j)
+                            continue;
+                        double dot = 0;
+                        for (int i = 0; i < n; i++)
+                            dot += u[i * n + c] * x[i];
+                        for (int i = 0; i < n; i++)
+                            x[i] -= dot * u[i * n + c];
+                    }
+                }
+                double norm = 0;
+                for (int i = 0; i < n; i++)
+                    norm += x[i] * x[i];
+                norm = Math.sqrt(norm);
+                if (norm > 0.5) {
+                    for (int i = 0; i < n; i++)
+                        u[i * n + j] = x[i] / norm;
+                    break;
+                }
+            }
+        }
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Helpers
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return op(A) * B, where op(A) is A^T if transA is true.
+     */
+    private static DenseMat multiply(DenseMat A, boolean transA, DenseMat B) {
+        DenseMat C = new DenseMat(transA ? A.cols() : A.rows(), B.cols());
+        C.gemm(1, A, transA, B, false, 0);
+        return C;
+    }
+
+    /**
+     * @return a (m x k) matrix whose columns are an orthonormal basis for the
+     *         range of the (m x k) matrix Y, where m &gt;= k.
+     */
+    private static DenseMat orthonormal(DenseMat Y) {
+        return new QR(Y).getQ();
+    }
+
+    /**
+     * @return a new matrix with the first k columns of A.
+     */
+    private static DenseMat columns(DenseMat A, int k) {
+        DenseMat out = new DenseMat(A.rows(), k);
+        out.set(A::getDouble);
+        return out;
+    }
+
+    private static DenseMat dense(Mat<?> A) {
+        if (A instanceof DenseMat)
+            return (DenseMat) A;
+        DenseMat D = new DenseMat(A.rows(), A.cols());
+        D.set(A::getDouble);
+        return D;
+    }
+
+    /**
+     * @return a row-major copy of A.
+     */
+    private static double[] copy(Mat<?> A) {
+        double[] out = new double[A.rows() * A.cols()];
+        for (int row = 0, i = 0; row < A.rows(); row++)
+            for (int col = 0; col < A.cols(); col++)
+                out[i++] = A.getDouble(row, col);
+        return out;
+    }
+
+    private static double[] identity(int n) {
+        double[] out = new double[n * n];
+        for (int i = 0; i < n; i++)
+            out[i * n + i] = 1;
+        return out;
+    }
+}
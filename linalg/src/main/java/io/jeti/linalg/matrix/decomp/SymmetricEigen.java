@@ -0,0 +1,729 @@
+package io.jeti.linalg.matrix.decomp;
+
+import io.jeti.linalg.matrix.Mat;
+import io.jeti.linalg.matrix.MutMat;
+import io.jeti.linalg.matrix.dense.DenseMat;
+import io.jeti.linalg.matrix.dense.DenseVec;
+import io.jeti.linalg.matrix.kernels.Gemm;
+import io.jeti.linalg.matrix.utils.Check;
+import java.util.Arrays;
+
+/**
+ * <p>
+ * The eigendecomposition of a symmetric matrix A, that is,
+ * </p>
+ *
+ * <pre>
+ * A = V * D * V^T
+ * </pre>
+ * <p>
+ * where D is the diagonal of the real eigenvalues, sorted in increasing
+ * order, and the columns of V are the corresponding orthonormal eigenvectors.
+ * Only the lower triangle of A is ever read.
+ * </p>
+ * <p>
+ * A is first reduced to a symmetric tridiagonal matrix T = Q^T * A * Q with
+ * Householder reflectors. The reduction is blocked: the reflectors of a panel
+ * of {@link #BLOCK} columns are computed with matrix-vector products, and the
+ * rest of the matrix is then updated with a single rank-2k update, which is
+ * computed with the default {@link Gemm}. After that, there are three ways to
+ * go:
+ * </p>
+ * <ul>
+ * <li>{@link #eigenvalues(Mat)} runs the implicit QL algorithm on T, without
+ * any eigenvectors, which is by far the cheapest.</li>
+ * <li>{@link #range(Mat, int, int)} finds a range of eigenvalues of T by
+ * bisection, their eigenvectors by inverse iteration, and transforms only
+ * those vectors back with Q, which is cheap for a few eigenpairs.</li>
+ * <li>{@link #SymmetricEigen(Mat)} and {@link #inPlace(MutMat)} form Q, and
+ * then run the implicit QL algorithm, which rotates Q into V.</li>
+ * </ul>
+ * <p>
+ * All three work on a single n^2 array, which is A itself for
+ * {@link #inPlace(MutMat)}.
+ * </p>
+ */
+public class SymmetricEigen {
+
+    /**
+     * The number of columns in each panel of the tridiagonalization.
+     */
+    public static final int  BLOCK      = 32;
+
+    /**
+     * The maximum number of QL iterations for a single eigenvalue.
+     */
+    private static final int ITERATIONS = 64;
+
+    private final double[]   values;
+    private final DenseMat   vectors;
+    private final boolean    shared;
+
+    private SymmetricEigen(double[] values, DenseMat vectors, boolean shared) {
+        this.values = values;
+        this.vectors = vectors;
+        this.shared = shared;
+    }
+
+    /**
+     * Compute all of the eigenvalues and eigenvectors of the symmetric matrix
+     * A, whose lower triangle is copied, so A is not modified.
+     */
+    public SymmetricEigen(Mat<?> A) {
+        double[] a = lower(A);
+        int n = A.rows();
+        Tridiagonal t = new Tridiagonal(a, 0, n, n, 1);
+        t.formQ();
+        t.ql(true);
+        values = t.d;
+        vectors = new DenseMat(a, n, n);
+        shared = false;
+    }
+
+    /**
+     * @return all of the eigenvalues and eigenvectors of the symmetric matrix
+     *         A, where A is overwritten with the eigenvectors, so that no
+     *         other n^2 storage is needed if A is a {@link DenseMat}, in which
+     *         case {@link #getV()} returns A itself. Other matrices are
+     *         copied, and the eigenvectors are written back into them.
+     * @throws ArithmeticException
+     *             if the QL algorithm does not converge.
+     */
+    public static SymmetricEigen inPlace(MutMat<?> A) {
+        Check.equal(A.rows(), A.cols());
+        int n = A.rows();
+        if (A instanceof DenseMat) {
+            DenseMat D = (DenseMat) A;
+            Tridiagonal t = new Tridiagonal(D.data(), D.offset(), n, D.rowStride(),
+                    D.colStride());
+            t.formQ();
+            t.ql(true);
+            return new SymmetricEigen(t.d, D, true);
+        }
+        SymmetricEigen eigen = new SymmetricEigen(A);
+        A.set(eigen.vectors::getDouble);
+        return eigen;
+    }
+
+    /**
+     * @return the eigenvalues of the symmetric matrix A, in increasing order,
+     *         without computing any eigenvectors.
+     */
+    public static double[] eigenvalues(Mat<?> A) {
+        Tridiagonal t = new Tridiagonal(lower(A), 0, A.rows(), A.rows(), 1);
+        t.ql(false);
+        return t.d;
+    }
+
+    /**
+     * @return the eigenvalues with indices in [from,to) of the symmetric matrix
+     *         A, where the eigenvalues are indexed in increasing order, and
+     *         their eigenvectors, which are computed by bisection and inverse
+     *         iteration on the tridiagonal matrix, and then transformed back.
+     */
+    public static SymmetricEigen range(Mat<?> A, int from, int to) {
+        Check.inBounds(from, 0, A.rows());
+        Check.inBounds(to - 1, from, A.rows());
+        Tridiagonal t = new Tridiagonal(lower(A), 0, A.rows(), A.rows(), 1);
+        int n = t.n;
+        int k = to - from;
+        double[] values = new double[k];
+        for (int i = 0; i < k; i++)
+            values[i] = t.bisect(from + i);
+        double[] z = new double[n * k];
+        t.inverseIteration(values, z);
+        t.backTransform(z, k);
+        return new SymmetricEigen(values, new DenseMat(z, n, k), false);
+    }
+
+    /**
+     * @return a row-major copy of the lower triangle of A, with zeros above.
+     */
+    private static double[] lower(Mat<?> A) {
+        Check.equal(A.rows(), A.cols());
+        int n = A.rows();
+        double[] a = new double[n * n];
+        for (int row = 0; row < n; row++)
+            for (int col = 0; col <= row; col++)
+                a[row * n + col] = A.getDouble(row, col);
+        return a;
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Getters
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return the eigenvalues, in increasing order.
+     */
+    public double[] getValues() {
+        return values.clone();
+    }
+
+    /**
+     * @return the eigenvalues, in increasing order.
+     */
+    public DenseVec getD() {
+        return new DenseVec(values.clone());
+    }
+
+    /**
+     * @return the eigenvectors, as the columns of a new matrix, in the same
+     *         order as the eigenvalues, except after {@link #inPlace(MutMat)}
+     *         of a {@link DenseMat}, where they are A itself.
+     */
+    public DenseMat getV() {
+        if (shared)
+            return vectors;
+        DenseMat V = new DenseMat(vectors.rows(), vectors.cols());
+        V.set(vectors::getDouble);
+        return V;
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Computation
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * A symmetric matrix, stored in the lower triangle of an n^2 array, which
+     * is reduced to tridiagonal form when this is constructed. The diagonal
+     * of T is d, and its subdiagonal is e, where e(i) = T(i+1,i). Reflector j
+     * is <code>I - tau(j) * v * v^T</code>, where v is zero above row j+1,
+     * v(j+1) = 1, and the rest of v is stored below the subdiagonal of column
+     * j.
+     */
+    private static final class Tridiagonal {
+
+        final double[] a;
+        final int      off;
+        final int      n;
+        final int      rs;
+        final int      cs;
+        final double[] d;
+        final double[] e;
+        final double[] tau;
+
+        Tridiagonal(double[] a, int off, int n, int rs, int cs) {
+            this.a = a;
+            this.off = off;
+            this.n = n;
+            this.rs = rs;
+            this.cs = cs;
+            d = new double[n];
+            e = new double[n];
+            tau = new double[n];
+            reduce();
+        }
+
+        int at(int row, int col) {
+            return off + row * rs + col * cs;
+        }
+
+        /**
+         * Reduce the matrix to tridiagonal form, one panel at a time.
+         */
+        private void reduce() {
+            for (int k0 = 0; k0 < n - 1; k0 += BLOCK) {
+                int k1 = Math.min(n - 1, k0 + BLOCK);
+                int nb = k1 - k0;
+                double[] w = new double[(n - k0) * nb];
+                panel(k0, k1, w);
+
+                /* A22 = A22 - V * W^T - W * V^T, one block column at a time */
+                for (int j0 = k1; j0 < n; j0 += BLOCK) {
+                    int j1 = Math.min(n, j0 + BLOCK);
+                    for (int r = j0; r < j1; r++)
+                        for (int c = j0; c <= r; c++) {
+                            double sum = 0;
+                            for (int p = 0; p < nb; p++)
+                                sum += a[at(r, k0 + p)] * w[(c - k0) * nb + p]
+                                        + w[(r - k0) * nb + p] * a[at(c, k0 + p)];
+                            a[at(r, c)] -= sum;
+                        }
+                    if (j1 < n) {
+                        Gemm gemm = Gemm.getDefault();
+                        gemm.multiply(n - j1, j1 - j0, nb, -1, a, at(j1, k0), rs, cs, w,
+                                (j0 - k0) * nb, 1, nb, 1, a, at(j1, j0), rs, cs);
+                        gemm.multiply(n - j1, j1 - j0, nb, -1, w, (j1 - k0) * nb, nb, 1, a,
+                                at(j0, k0), cs, rs, 1, a, at(j1, j0), rs, cs);
+                    }
+                }
+
+                /* Restore the subdiagonal, which held the implicit ones of V */
+                for (int j = k0; j < k1; j++)
+                    a[at(j + 1, j)] = e[j];
+            }
+            for (int j = 0; j < n; j++)
+                d[j] = a[at(j, j)];
+        }
+
+        /**
+         * Compute the reflectors for columns [k0,k1), and the matrix W, whose
+         * (row - k0, p) element is stored in w[(row - k0) * nb + p], such that
+         * applying them to the rest of the matrix is A = A - V * W^T - W * V^T.
+         * Each column is brought up to date with the previous reflectors of
+         * the panel just before its own reflector is computed.
+         */
+        private void panel(int k0, int k1, double[] w) {
+            int nb = k1 - k0;
+            double[] v = new double[n];
+            double[] t1 = new double[nb];
+            double[] t2 = new double[nb];
+            double[] y = new double[n];
+            for (int i = 0; i < nb; i++) {
+                int j = k0 + i;
+
+                /* A(j:n, j) -= V(j:n, 0:i) * W(j, 0:i)^T + W(j:n, 0:i) * V(j, 0:i)^T */
+                for (int r = j; r < n; r++) {
+                    double sum = 0;
+                    for (int p = 0; p < i; p++)
+                        sum += a[at(r, k0 + p)] * w[(j - k0) * nb + p]
+                                + w[(r - k0) * nb + p] * a[at(j, k0 + p)];
+                    a[at(r, j)] -= sum;
+                }
+
+                /* The reflector which zeros A(j+2:n, j) */
+                double alpha = a[at(j + 1, j)];
+                double sigma = 0;
+                for (int r = j + 2; r < n; r++)
+                    sigma += a[at(r, j)] * a[at(r, j)];
+                if (sigma == 0) {
+                    tau[j] = 0;
+                    e[j] = alpha;
+                } else {
+                    double beta = -Math.copySign(Math.sqrt(alpha * alpha + sigma), alpha);
+                    tau[j] = (beta - alpha) / beta;
+                    double scale = 1 / (alpha - beta);
+                    for (int r = j + 2; r < n; r++)
+                        a[at(r, j)] *= scale;
+                    e[j] = beta;
+                }
+                a[at(j + 1, j)] = 1;
+                for (int r = j + 1; r < n; r++)
+                    v[r] = a[at(r, j)];
+
+                /* W(j+1:n, i) = tau * (A22 * v - V * (W^T * v) - W * (V^T * v)) */
+                Arrays.fill(y, j + 1, n, 0);
+                for (int r = j + 1; r < n; r++) {
+                    double vr = v[r];
+                    double sum = 0;
+                    for (int c = j + 1; c < r; c++) {
+                        double arc = a[at(r, c)];
+                        sum += arc * v[c];
+                        y[c] += arc * vr;
+                    }
+                    y[r] += sum + a[at(r, r)] * vr;
+                }
+                for (int p = 0; p < i; p++) {
+                    double s1 = 0, s2 = 0;
+                    for (int r = j + 1; r < n; r++) {
+                        s1 += w[(r - k0) * nb + p] * v[r];
+                        s2 += a[at(r, k0 + p)] * v[r];
+                    }
+                    t1[p] = s1;
+                    t2[p] = s2;
+                }
+                double dot = 0;
+                for (int r = j + 1; r < n; r++) {
+                    double sum = y[r];
+                    for (int p = 0; p < i; p++)
+                        sum -= a[at(r, k0 + p)] * t1[p] + w[(r - k0) * nb + p] * t2[p];
+                    y[r] = tau[j] * sum;
+                    dot += y[r] * v[r];
+                }
+                double scale = -0.5 * tau[j] * dot;
+                for (int r = j + 1; r < n; r++)
+                    w[(r - k0) * nb + i] = y[r] + scale * v[r];
+            }
+        }
+
+        /**
+         * Overwrite the whole array with Q = H(0) * ... * H(n-2), by shifting
+         * the reflectors one column to the right, and then accumulating them
+         * backwards, so that each column of Q replaces its reflector.
+         */
+        void formQ() {
+            for (int c = n - 1; c >= 1; c--) {
+                for (int r = 0; r < c; r++)
+                    a[at(r, c)] = 0;
+                for (int r = c + 1; r < n; r++)
+                    a[at(r, c)] = a[at(r, c - 1)];
+            }
+            a[at(0, 0)] = 1;
+            for (int r = 1; r < n; r++)
+                a[at(r, 0)] = 0;
+
+            /*
+             * Column c of Q holds reflector c-1, with its unit on the diagonal,
+             * which is applied to the columns to its right one row at a time
+             */
+            double[] w = new double[n];
+            for (int c = n - 1; c >= 1; c--) {
+                double t = tau[c - 1];
+                a[at(c, c)] = 1;
+                Arrays.fill(w, c + 1, n, 0);
+                for (int r = c; r < n; r++) {
+                    double vr = a[at(r, c)];
+                    if (vr != 0)
+                        for (int col = c + 1; col < n; col++)
+                            w[col] += vr * a[at(r, col)];
+                }
+                for (int r = c; r < n; r++) {
+                    double vr = t * a[at(r, c)];
+                    if (vr != 0)
+                        for (int col = c + 1; col < n; col++)
+                            a[at(r, col)] -= vr * w[col];
+                }
+                for (int r = c + 1; r < n; r++)
+                    a[at(r, c)] *= -t;
+                a[at(c, c)] = 1 - t;
+            }
+        }
+
+        /**
+         * Diagonalize T with the implicit QL algorithm, and sort the
+         * eigenvalues into d in increasing order. If vectors is true, then the
+         * rotations are applied to the columns of the array, which must hold Q,
+         * so that it ends up holding the eigenvectors.
+         */
+        void ql(boolean vectors) {
+            if (n == 0)
+                return;
+            double eps = Math.ulp(1.0);
+            double shift = 0;
+            double norm = 0;
+            double[] cosines = vectors ? new double[n] : null;
+            double[] sines = vectors ? new double[n] : null;
+            e[n - 1] = 0;
+            for (int l = 0; l < n; l++) {
+                norm = Math.max(norm, Math.abs(d[l]) + Math.abs(e[l]));
+                int m = l;
+                while (m < n && Math.abs(e[m]) > eps * norm)
+                    m++;
+                int iterations = 0;
+                while (m > l) {
+                    if (++iterations > ITERATIONS)
+                        throw new ArithmeticException("The QL algorithm did not converge.");
+
+                    /* The implicit shift */
+                    double g = d[l];
+                    double p = (d[l + 1] - g) / (2 * e[l]);
+                    double r = Math.copySign(Math.hypot(p, 1), p);
+                    d[l] = e[l] / (p + r);
+                    d[l + 1] = e[l] * (p + r);
+                    double dl1 = d[l + 1];
+                    double h = g - d[l];
+                    for (int i = l + 2; i < n; i++)
+                        d[i] -= h;
+                    shift += h;
+
+                    /* The implicit QL transformation */
+                    p = d[m];
+                    double c = 1, c2 = 1, c3 = 1;
+                    double el1 = e[l + 1];
+                    double s = 0, s2 = 0;
+                    for (int i = m - 1; i >= l; i--) {
+                        c3 = c2;
+                        c2 = c;
+                        s2 = s;
+                        g = c * e[i];
+                        h = c * p;
+                        r = Math.hypot(p, e[i]);
+                        e[i + 1] = s * r;
+                        s = e[i] / r;
+                        c = p / r;
+                        p = c * d[i] - s * g;
+                        d[i + 1] = h + s * (c * g + s * d[i]);
+                        if (vectors) {
+                            cosines[i] = c;
+                            sines[i] = s;
+                        }
+                    }
+
+                    if (vectors)
+                        rotate(l, m, cosines, sines);
+                    p = -s * s2 * c3 * el1 * e[l] / dl1;
+                    e[l] = s * p;
+                    d[l] = c * p;
+                    if (Math.abs(e[l]) <= eps * norm)
+                        break;
+                }
+                d[l] += shift;
+                e[l] = 0;
+            }
+
+            /* Sort by selection, which moves each eigenvector at most once */
+            for (int i = 0; i < n - 1; i++) {
+                int k = i;
+                for (int j = i + 1; j < n; j++)
+                    if (d[j] < d[k])
+                        k = j;
+                if (k != i) {
+                    double tmp = d[k];
+                    d[k] = d[i];
+                    d[i] = tmp;
+                    if (vectors) {
+                        for (int r = 0; r < n; r++) {
+                            int ri = at(r, i);
+                            int rk = at(r, k);
+                            tmp = a[ri];
+                            a[ri] = a[rk];
+                            a[rk] = tmp;
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Apply the rotations of a QL sweep, from column m-1 down to column l,
+         * to the columns of the array. The rotations of each row form a chain,
+         * where the element which is rotated into column i+1 is carried to the
+         * next rotation, so four rows are rotated at a time to overlap their
+         * chains, and each row is only read and written once per sweep.
+         */
+        private void rotate(int l, int m, double[] cosines, double[] sines) {
+            int k = 0;
+            for (; k + 4 <= n; k += 4) {
+                int r0 = at(k, 0);
+                int r1 = r0 + rs;
+                int r2 = r1 + rs;
+                int r3 = r2 + rs;
+                int o = m * cs;
+                double h0 = a[r0 + o], h1 = a[r1 + o], h2 = a[r2 + o], h3 = a[r3 + o];
+                for (int i = m - 1; i >= l; i--) {
+                    double c = cosines[i];
+                    double s = sines[i];
+                    int next = o;
+                    o -= cs;
+                    double x0 = a[r0 + o], x1 = a[r1 + o], x2 = a[r2 + o], x3 = a[r3 + o];
+                    a[r0 + next] = s * x0 + c * h0;
+                    a[r1 + next] = s * x1 + c * h1;
+                    a[r2 + next] = s * x2 + c * h2;
+                    a[r3 + next] = s * x3 + c * h3;
+                    h0 = c * x0 - s * h0;
+                    h1 = c * x1 - s * h1;
+                    h2 = c * x2 - s * h2;
+                    h3 = c * x3 - s * h3;
+                }
+                a[r0 + o] = h0;
+                a[r1 + o] = h1;
+                a[r2 + o] = h2;
+                a[r3 + o] = h3;
+            }
+            for (; k < n; k++) {
+                int r = at(k, 0);
+                int o = m * cs;
+                double h = a[r + o];
+                for (int i = m - 1; i >= l; i--) {
+                    int next = o;
+                    o -= cs;
+                    double x = a[r + o];
+                    a[r + next] = sines[i] * x + cosines[i] * h;
+                    h = cosines[i] * x - sines[i] * h;
+                }
+                a[r + o] = h;
+            }
+        }
+
+        /*
+         * --------------------------------------------------
+         *
+         * Selected Eigenpairs
+         *
+         * --------------------------------------------------
+         */
+
+        /**
+         * @return the number of eigenvalues of T which are less than x, which
+         *         is the number of negative pivots in the LDL^T factorization
+         *         of T - x * I (Sturm sequence).
+         */
+        private int count(double x) {
+            int count = 0;
+            double q = 1;
+            double tiny = Double.MIN_NORMAL;
+            for (int i = 0; i < n; i++) {
+                q = d[i] - x - (i == 0 ? 0 : e[i - 1] * e[i - 1] / q);
+                if (q == 0)
+                    q = -tiny;
+                if (q < 0)
+                    count++;
+            }
+            return count;
+        }
+
+        /**
+         * @return the eigenvalue of T with the specified index, in increasing
+         *         order, by bisection within the Gershgorin bounds.
+         */
+        double bisect(int index) {
+            double lo = Double.POSITIVE_INFINITY;
+            double hi = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < n; i++) {
+                double radius = (i > 0 ? Math.abs(e[i - 1]) : 0)
+                        + (i < n - 1 ? Math.abs(e[i]) : 0);
+                lo = Math.min(lo, d[i] - radius);
+                hi = Math.max(hi, d[i] + radius);
+            }
+            double scale = Math.max(Math.abs(lo), Math.abs(hi));
+            lo -= Math.ulp(scale);
+            hi += Math.ulp(scale);
+            while (true) {
+                double mid = 0.5 * (lo + hi);
+                if (mid <= lo || mid >= hi || hi - lo <= 2 * Math.ulp(scale))
+                    return mid;
+                if (count(mid) > index)
+                    hi = mid;
+                else
+                    lo = mid;
+            }
+        }
+
+        /**
+         * Compute the eigenvectors of T for the specified eigenvalues, and
+         * store them in the columns of the row-major (n x k) matrix z. Each is
+         * found with a few steps of inverse iteration, and orthogonalized
+         * against the previous vectors whose eigenvalues are close to its own.
+         */
+        void inverseIteration(double[] values, double[] z) {
+            int k = values.length;
+            double norm = 0;
+            for (int i = 0; i < n; i++)
+                norm = Math.max(norm, Math.abs(d[i]) + Math.abs(e[i]) + (i > 0
+                        ? Math.abs(e[i - 1]) : 0));
+            double tiny = Math.max(norm, Double.MIN_NORMAL) * Math.ulp(1.0);
+            double[] x = new double[n];
+            double[] dd = new double[n];
+            double[] du = new double[n];
+            double[] du2 = new double[n];
+            double[] dl = new double[n];
+            boolean[] swapped = new boolean[n];
+            int first = 0;
+            for (int j = 0; j < k; j++) {
+                if (j > 0 && values[j] - values[j - 1] > 1e-3 * norm)
+                    first = j;
+                factor(values[j], tiny, dd, du, du2, dl, swapped);
+                for (int i = 0; i < n; i++)
+                    x[i] = 1 + 0.5 * Math.sin(i + 7.0 * j);
+                for (int step = 0; step < 3; step++) {
+                    solve(x, dd, du, du2, dl, swapped);
+                    for (int pass = 0; pass < 2; pass++) {
+                        for (int c = first; c < j; c++) {
+                            double dot = 0;
+                            for (int i = 0; i < n; i++)
+                                dot += z[i * k + c] * x[i];
+                            for (int i = 0; i < n; i++)
+                                x[i] -= dot * z[i * k + c];
+                        }
+                    }
+                    double sum = 0;
+                    for (int i = 0; i < n; i++)
+                        sum += x[i] * x[i];
+                    double scale = 1 / Math.sqrt(sum);
+                    for (int i = 0; i < n; i++)
+                        x[i] *= scale;
+                }
+                for (int i = 0; i < n; i++)
+                    z[i * k + j] = x[i];
+            }
+        }
+
+        /**
+         * Factor T - lambda * I = P * L * U with partial pivoting, where U
+         * has the diagonal dd and two superdiagonals du and du2, L has the
+         * subdiagonal dl, and P swaps rows i and i+1 where swapped(i) is true.
+         * Zero pivots are replaced by tiny.
+         */
+        private void factor(double lambda, double tiny, double[] dd, double[] du, double[] du2,
+                            double[] dl, boolean[] swapped) {
+            for (int i = 0; i < n; i++) {
+                dd[i] = d[i] - lambda;
+                du[i] = i < n - 1 ? e[i] : 0;
+                du2[i] = 0;
+            }
+            for (int i = 0; i < n - 1; i++) {
+                double sub = e[i];
+                if (Math.abs(dd[i]) >= Math.abs(sub)) {
+                    if (dd[i] == 0)
+                        dd[i] = tiny;
+                    double mult = sub / dd[i];
+                    dd[i + 1] -= mult * du[i];
+                    dl[i] = mult;
+                    swapped[i] = false;
+                } else {
+                    double mult = dd[i] / sub;
+                    double next = dd[i + 1];
+                    double nextUp = du[i + 1];
+                    dd[i] = sub;
+                    dd[i + 1] = du[i] - mult * next;
+                    du[i] = next;
+                    du2[i] = nextUp;
+                    du[i + 1] = -mult * nextUp;
+                    dl[i] = mult;
+                    swapped[i] = true;
+                }
+            }
+            if (dd[n - 1] == 0)
+                dd[n - 1] = tiny;
+        }
+
+        /**
+         * Overwrite x with (T - lambda * I)^-1 * x, using the factors from
+         * {@link #factor(double, double, double[], double[], double[], double[], boolean[])}.
+         */
+        private void solve(double[] x, double[] dd, double[] du, double[] du2, double[] dl,
+                           boolean[] swapped) {
+            for (int i = 0; i < n - 1; i++) {
+                if (swapped[i]) {
+                    double tmp = x[i];
+                    x[i] = x[i + 1];
+                    x[i + 1] = tmp;
+                }
+                x[i + 1] -= dl[i] * x[i];
+            }
+            for (int i = n - 1; i >= 0; i--) {
+                double sum = x[i];
+                if (i + 1 < n)
+                    sum -= du[i] * x[i + 1];
+                if (i + 2 < n)
+                    sum -= du2[i] * x[i + 2];
+                x[i] = sum / dd[i];
+            }
+        }
+
+        /**
+         * Overwrite the row-major (n x k) matrix z with Q * z, by applying the
+         * reflectors from the last to the first.
+         */
+        void backTransform(double[] z, int k) {
+            for (int j = n - 2; j >= 0; j--) {
+                double t = tau[j];
+                if (t == 0)
+                    continue;
+                for (int c = 0; c < k; c++) {
+                    double sum = z[(j + 1) * k + c];
+                    for (int r = j + 2; r < n; r++)
+                        sum += a[at(r, j)] * z[r * k + c];
+                    sum *= t;
+                    z[(j + 1) * k + c] -= sum;
+                    for (int r = j + 2; r < n; r++)
+                        z[r * k + c] -= sum * a[at(r, j)];
+                }
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SymmetricEigen" + Arrays.toString(values);
+    }
+}
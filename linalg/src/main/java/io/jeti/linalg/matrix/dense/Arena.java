@@ -0,0 +1,65 @@
+package io.jeti.linalg.matrix.dense;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * An {@link Arena} groups the lifetimes of several off-heap matrices and
+ * vectors, so that they can be released together. For instance,
+ * </p>
+ *
+ * <pre>
+ * try (Arena arena = new Arena()) {
+ *     DirectMat A = arena.mat(n, n);
+ *     DirectVec x = arena.vec(n);
+ *     ...
+ * }
+ * </pre>
+ * <p>
+ * releases the native memory of A and x, and invalidates all of their views,
+ * at the end of the block. Note that results which are created by operations
+ * such as {@link DirectMat#times(DirectMat)} are not allocated from the arena.
+ * </p>
+ */
+public class Arena implements AutoCloseable {
+
+    private final List<Memory> blocks = new ArrayList<>();
+    private boolean            closed;
+
+    /**
+     * @return a (rows x cols) {@link DirectMat} of zeros, whose memory is
+     *         released when this arena is closed.
+     */
+    public DirectMat mat(int rows, int cols) {
+        return new DirectMat(allocate((long) rows * cols), rows, cols);
+    }
+
+    /**
+     * @return a {@link DirectVec} of zeros with the specified number of
+     *         elements, whose memory is released when this arena is closed.
+     */
+    public DirectVec vec(int elems) {
+        return new DirectVec(allocate(elems), elems);
+    }
+
+    private synchronized Memory allocate(long elems) {
+        if (closed)
+            throw new IllegalStateException("The arena has already been closed.");
+        Memory memory = Memory.allocate(elems);
+        blocks.add(memory);
+        return memory;
+    }
+
+    /**
+     * Release the memory of every matrix and vector which was allocated from
+     * this arena. Closing an arena more than once has no effect.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        for (Memory memory : blocks)
+            memory.close();
+        blocks.clear();
+    }
+}
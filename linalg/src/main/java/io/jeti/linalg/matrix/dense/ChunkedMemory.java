@@ -0,0 +1,145 @@
+package io.jeti.linalg.matrix.dense;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+/**
+ * <p>
+ * Storage for doubles which is split into chunks of 2^shift elements, each of
+ * which is a separate {@link ByteBuffer}. Since a single buffer is limited to
+ * 2 GB, this is what allows a {@link MappedMat} to map a larger file. The
+ * element at position p lives at index <code>p &amp; (2^shift - 1)</code> of
+ * chunk <code>p &gt;&gt;&gt; shift</code>.
+ * </p>
+ * <p>
+ * Like {@link Memory}, any access after {@link #close()} throws an
+ * {@link IllegalStateException}, and the chunks are released (or unmapped)
+ * immediately, so a {@link ChunkedMemory} must not be closed while another
+ * thread may still be using it.
+ * </p>
+ */
+final class ChunkedMemory implements AutoCloseable {
+
+    /**
+     * The default number of bits of the position within a chunk, that is,
+     * chunks of 2^27 doubles, or 1 GB.
+     */
+    static final int       SHIFT = 27;
+
+    private final int      shift;
+    private final int      mask;
+    private ByteBuffer[]   bytes;
+    private DoubleBuffer[] doubles;
+
+    private ChunkedMemory(ByteBuffer[] bytes, int shift) {
+        this.shift = shift;
+        this.mask = (1 << shift) - 1;
+        this.bytes = bytes;
+        this.doubles = new DoubleBuffer[bytes.length];
+        for (int i = 0; i < bytes.length; i++)
+            doubles[i] = bytes[i].asDoubleBuffer();
+    }
+
+    /**
+     * @return new zeroed native memory for the specified number of doubles,
+     *         in the native byte order.
+     */
+    static ChunkedMemory allocate(long elems) {
+        return allocate(elems, SHIFT);
+    }
+
+    static ChunkedMemory allocate(long elems, int shift) {
+        ByteBuffer[] bytes = new ByteBuffer[chunks(elems, shift)];
+        for (int i = 0; i < bytes.length; i++) {
+            long size = Math.min(elems - ((long) i << shift), 1L << shift);
+            bytes[i] = ByteBuffer.allocateDirect((int) size * Double.BYTES)
+                    .order(ByteOrder.nativeOrder());
+        }
+        return new ChunkedMemory(bytes, shift);
+    }
+
+    /**
+     * @return the specified number of little-endian doubles, which start at
+     *         the specified byte offset of the file, mapped with the specified
+     *         mode. The pages of the file are only read when they are first
+     *         accessed.
+     */
+    static ChunkedMemory map(FileChannel channel, MapMode mode, long offset, long elems)
+            throws IOException {
+        return map(channel, mode, offset, elems, SHIFT);
+    }
+
+    static ChunkedMemory map(FileChannel channel, MapMode mode, long offset, long elems,
+                             int shift) throws IOException {
+        ByteBuffer[] bytes = new ByteBuffer[chunks(elems, shift)];
+        for (int i = 0; i < bytes.length; i++) {
+            long start = (long) i << shift;
+            long size = Math.min(elems - start, 1L << shift);
+            bytes[i] = channel.map(mode, offset + start * Double.BYTES, size * Double.BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return new ChunkedMemory(bytes, shift);
+    }
+
+    private static int chunks(long elems, int shift) {
+        if (elems < 0 || elems > Integer.MAX_VALUE)
+            throw new IllegalArgumentException(
+                    "Cannot store " + elems + " doubles, since positions are ints.");
+        if (shift < 1 || shift > SHIFT)
+            throw new IllegalArgumentException("The chunk shift must be in [1, " + SHIFT + "]");
+        return (int) ((elems + (1L << shift) - 1) >>> shift);
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Access
+     *
+     * --------------------------------------------------
+     */
+
+    double get(int position) {
+        return chunks()[position >>> shift].get(position & mask);
+    }
+
+    void put(int position, double val) {
+        chunks()[position >>> shift].put(position & mask, val);
+    }
+
+    private DoubleBuffer[] chunks() {
+        DoubleBuffer[] doubles = this.doubles;
+        if (doubles == null)
+            throw new IllegalStateException("The memory has already been closed.");
+        return doubles;
+    }
+
+    /**
+     * Write any changes to mapped chunks back to the storage device.
+     */
+    void force() {
+        chunks();
+        for (ByteBuffer chunk : bytes)
+            if (chunk instanceof MappedByteBuffer)
+                ((MappedByteBuffer) chunk).force();
+    }
+
+    boolean isClosed() {
+        return doubles == null;
+    }
+
+    @Override
+    public void close() {
+        ByteBuffer[] bytes = this.bytes;
+        if (bytes == null)
+            return;
+        this.bytes = null;
+        this.doubles = null;
+        for (ByteBuffer chunk : bytes)
+            Memory.release(chunk);
+    }
+}
@@ -0,0 +1,327 @@
+package io.jeti.linalg.matrix.dense;
+
+import io.jeti.linalg.matrix.Mat;
+import io.jeti.linalg.matrix.MutMat;
+import io.jeti.linalg.matrix.kernels.Gemm;
+import io.jeti.linalg.matrix.kernels.Strassen;
+import io.jeti.linalg.matrix.kernels.Transpose;
+import io.jeti.linalg.matrix.utils.Check;
+
+/**
+ * <p>
+ * A dense {@link MutMat} whose elements live in a single contiguous
+ * <code>double[]</code>. Freshly constructed matrices are stored in row-major
+ * order, that is, the (row,col) element is stored at index
+ * <code>row * cols + col</code>.
+ * </p>
+ * <p>
+ * Every {@link DenseMat} is a {@link StridedMat}, described by an offset into
+ * the backing array, together with a row stride and a column stride. Hence
+ * {@link #get(int, int, int, int, int, int)}, {@link #row(int)}, and
+ * {@link #col(int)} return views which share the storage of their parent,
+ * rather than copies, and setting an element of a view also sets the
+ * corresponding element of the parent, and vice versa.
+ * </p>
+ * <p>
+ * The operations which are hot in practice, that is, {@link #times(DenseMat)},
+ * {@link #apply(Operation, DenseMat)}, {@link #transpose()},
+ * {@link #transposeEquals()}, {@link #vec()}, and the element getters, are
+ * overridden with primitive loops that work directly on the backing array.
+ * Matrix products are handed to the default {@link Gemm} engine, which packs
+ * straight from the backing arrays. All other operations fall back to the
+ * default methods in {@link Mat} and {@link MutMat}.
+ * </p>
+ */
+public class DenseMat extends StridedMat<DenseMat> {
+
+    final double[] data;
+
+    /*
+     * --------------------------------------------------
+     *
+     * Constructors
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * Create a (rows x cols) {@link DenseMat}, where all values are set to
+     * zero.
+     */
+    public DenseMat(int rows, int cols) {
+        this(new double[rows * cols], rows, cols);
+    }
+
+    /**
+     * Create a (rows x cols) {@link DenseMat} which wraps (does NOT copy) the
+     * provided data, where the data is assumed to be in row-major order.
+     */
+    public DenseMat(double[] data, int rows, int cols) {
+        this(data, 0, rows, cols, cols, 1);
+        Check.equal(data.length, rows * cols);
+    }
+
+    /**
+     * Create a {@link DenseMat} which shares the provided storage. The
+     * (row,col) element is stored at
+     * <code>data[offset + row * rowStride + col * colStride]</code>.
+     */
+    private DenseMat(double[] data, int offset, int rows, int cols, int rowStride,
+                     int colStride) {
+        super(offset, rows, cols, rowStride, colStride);
+        this.data = data;
+    }
+
+    @Override
+    public DenseMat newInstance(int rows, int cols, Filler filler) {
+        double[] out = new double[rows * cols];
+        int i = 0;
+        for (int row = 0; row < rows; row++)
+            for (int col = 0; col < cols; col++)
+                out[i++] = filler.apply(row, col);
+        return new DenseMat(out, rows, cols);
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Storage
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return the backing array (NOT a copy), where the (row,col) element is
+     *         stored at index
+     *         <code>offset() + row * rowStride() + col * colStride()</code>.
+     *         This allows kernels in other packages to work on the storage
+     *         directly.
+     */
+    public double[] data() {
+        return data;
+    }
+
+    @Override
+    protected DenseMat view(int offset, int rows, int cols, int rowStride, int colStride) {
+        return new DenseMat(data, offset, rows, cols, rowStride, colStride);
+    }
+
+    @Override
+    protected double load(int position) {
+        return data[position];
+    }
+
+    @Override
+    protected void store(int position, double val) {
+        data[position] = val;
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Matrix/Self Operations
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return this^T, which is computed by the cache-oblivious
+     *         {@link Transpose} kernel.
+     */
+    @Override
+    public DenseMat transpose() {
+        double[] out = new double[rows * cols];
+        Transpose.transpose(rows, cols, data, offset, rowStride, colStride, out, 0, rows, 1);
+        return new DenseMat(out, cols, rows);
+    }
+
+    /**
+     * Overwrite this {@link DenseMat} with its transpose, in place. Square
+     * matrices, including views, are transposed by the cache-oblivious
+     * {@link Transpose#square} kernel. Rectangular matrices must be stored
+     * contiguously, either in row-major or in column-major order. Their
+     * elements are permuted by {@link Transpose#contiguous}, after which this
+     * {@link DenseMat} has swapped dimensions, but the same storage order.
+     * Note that other views of the same storage see the permuted elements.
+     */
+    @Override
+    public void transposeEquals() {
+        if (rows == cols) {
+            Transpose.square(rows, data, offset, rowStride, colStride);
+            return;
+        }
+        if (rows > 1 && cols > 1) {
+            if (colStride == 1 && rowStride == cols) {
+                Transpose.contiguous(rows, cols, data, offset);
+            } else if (rowStride == 1 && colStride == rows) {
+                Transpose.contiguous(cols, rows, data, offset);
+            } else {
+                throw new IllegalArgumentException(
+                        "Only square or contiguous matrices can be transposed in place.");
+            }
+        }
+        /*
+         * A row or column vector has the same layout as its transpose.
+         * Otherwise, the storage order is preserved, so the new stride between
+         * rows (or columns) is the old number of rows (or columns).
+         */
+        int tmp = rows;
+        rows = cols;
+        cols = tmp;
+        if (tmp > 1 && rows > 1) {
+            if (colStride == 1)
+                rowStride = cols;
+            else
+                colStride = rows;
+        } else {
+            tmp = rowStride;
+            rowStride = colStride;
+            colStride = tmp;
+        }
+    }
+
+    @Override
+    public DenseMat vec() {
+        double[] out = new double[rows * cols];
+        int i = 0;
+        for (int col = 0; col < cols; col++) {
+            int p = offset + col * colStride;
+            for (int row = 0; row < rows; row++, p += rowStride)
+                out[i++] = data[p];
+        }
+        return new DenseMat(out, rows * cols, 1);
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Matrix/Matrix Operations
+     *
+     * --------------------------------------------------
+     */
+
+    @Override
+    public DenseMat times(DenseMat B) {
+        if (isScalar() || B.isScalar())
+            return timesElementwise(B);
+        if (Strassen.applies(rows, cols, B.cols))
+            return Strassen.multiply(this, B);
+        Check.multipliable(this, B);
+        double[] out = new double[rows * B.cols];
+        Gemm.getDefault().multiply(rows, B.cols, cols, 1, data, offset, rowStride, colStride,
+                B.data, B.offset, B.rowStride, B.colStride, 0, out, 0, B.cols, 1);
+        return new DenseMat(out, rows, B.cols);
+    }
+
+    /**
+     * If A and B are both {@link DenseMat}s, then the product is computed by
+     * the default {@link Gemm} engine directly on the backing arrays, and
+     * transposition only swaps the strides with which they are read.
+     * Otherwise, this defers to {@link MutMat#gemm}.
+     */
+    @Override
+    public void gemm(double alpha, Mat<?> A, boolean transA, Mat<?> B, boolean transB,
+                     double beta) {
+        if (!(A instanceof DenseMat) || !(B instanceof DenseMat)) {
+            super.gemm(alpha, A, transA, B, transB, beta);
+            return;
+        }
+        DenseMat a = (DenseMat) A;
+        DenseMat b = (DenseMat) B;
+        int m = transA ? a.cols : a.rows;
+        int k = transA ? a.rows : a.cols;
+        int n = transB ? b.rows : b.cols;
+        Check.equal(k, transB ? b.cols : b.rows);
+        Check.equal(rows, m);
+        Check.equal(cols, n);
+        Gemm.getDefault().multiply(m, n, k, alpha, a.data, a.offset,
+                transA ? a.colStride : a.rowStride, transA ? a.rowStride : a.colStride, b.data,
+                b.offset, transB ? b.colStride : b.rowStride, transB ? b.rowStride : b.colStride,
+                beta, data, offset, rowStride, colStride);
+    }
+
+    @Override
+    public DenseMat apply(Operation operation, DenseMat B) {
+        if (isScalar()) {
+            /* A = ( 1 x 1 ), B = (B.rows() x B.cols()) */
+            double a = data[offset];
+            double[] out = new double[B.rows * B.cols];
+            int i = 0;
+            for (int row = 0; row < B.rows; row++) {
+                int b = B.offset + row * B.rowStride;
+                for (int col = 0; col < B.cols; col++, b += B.colStride)
+                    out[i++] = operation.apply(a, B.data[b]);
+            }
+            return new DenseMat(out, B.rows, B.cols);
+        } else if (B.isScalar()) {
+            /* A = (rows x cols), B = (1 x 1) */
+            return apply(operation, B.data[B.offset]);
+        } else {
+            Check.sameNumberOfRows(this, B);
+            Check.sameNumberOfCols(this, B);
+            /* A = (rows x cols), B = (rows x cols) */
+            double[] out = new double[rows * cols];
+            int i = 0;
+            for (int row = 0; row < rows; row++) {
+                int a = offset + row * rowStride;
+                int b = B.offset + row * B.rowStride;
+                for (int col = 0; col < cols; col++, a += colStride, b += B.colStride)
+                    out[i++] = operation.apply(data[a], B.data[b]);
+            }
+            return new DenseMat(out, rows, cols);
+        }
+    }
+
+    @Override
+    public void applyEquals(Operation operation, final DenseMat B) {
+        if (B.isScalar()) {
+            applyEquals(operation, B.data[B.offset]);
+        } else {
+            Check.sameNumberOfRows(this, B);
+            Check.sameNumberOfCols(this, B);
+            for (int row = 0; row < rows; row++) {
+                int a = offset + row * rowStride;
+                int b = B.offset + row * B.rowStride;
+                for (int col = 0; col < cols; col++, a += colStride, b += B.colStride)
+                    data[a] = operation.apply(data[a], B.data[b]);
+            }
+        }
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Matrix/Scalar Operations
+     *
+     * --------------------------------------------------
+     */
+
+    @Override
+    public DenseMat apply(Operation operation, Number B) {
+        return apply(operation, B.doubleValue());
+    }
+
+    @Override
+    public void applyEquals(Operation operation, final Number B) {
+        double b = B.doubleValue();
+        for (int row = 0; row < rows; row++) {
+            int a = offset + row * rowStride;
+            for (int col = 0; col < cols; col++, a += colStride)
+                data[a] = operation.apply(data[a], b);
+        }
+    }
+
+    /**
+     * @return {@link #apply(Operation, Number)} without boxing the scalar.
+     */
+    private DenseMat apply(Operation operation, double b) {
+        double[] out = new double[rows * cols];
+        int i = 0;
+        for (int row = 0; row < rows; row++) {
+            int a = offset + row * rowStride;
+            for (int col = 0; col < cols; col++, a += colStride)
+                out[i++] = operation.apply(data[a], b);
+        }
+        return new DenseMat(out, rows, cols);
+    }
+}
@@ -0,0 +1,226 @@
+package io.jeti.linalg.matrix.dense;
+
+import io.jeti.linalg.matrix.Mat;
+import io.jeti.linalg.matrix.MutVec;
+import io.jeti.linalg.matrix.Vec;
+import io.jeti.linalg.matrix.utils.Check;
+
+/**
+ * <p>
+ * A dense {@link MutVec} whose elements live in a <code>double[]</code>. As a
+ * {@link StridedVec}, the i^th element is stored at index
+ * <code>offset + i * stride</code> of the backing array, which is what allows
+ * {@link #get(int, int, int)} to return a view which shares the storage of its
+ * parent, rather than a copy.
+ * </p>
+ * <p>
+ * The element getters and setters, {@link #dot(DenseVec)}, both
+ * <code>apply</code> and both <code>applyEquals</code> methods, and
+ * {@link #swap(int, int)} are overridden with primitive loops which do not box
+ * any of the elements. All other operations fall back to the default methods
+ * in {@link Vec} and {@link MutVec}.
+ * </p>
+ */
+public class DenseVec extends StridedVec<DenseVec> {
+
+    private final double[] data;
+
+    /*
+     * --------------------------------------------------
+     *
+     * Constructors
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * Create a {@link DenseVec} with the specified number of elements, where
+     * all of the elements are set to zero.
+     */
+    public DenseVec(int elems) {
+        this(new double[elems]);
+    }
+
+    /**
+     * Create a {@link DenseVec} which wraps (does NOT copy) the provided data.
+     */
+    public DenseVec(double[] data) {
+        this(data, 0, data.length, 1);
+    }
+
+    /**
+     * Create a {@link DenseVec} which shares the provided storage. The i^th
+     * element is stored at <code>data[offset + i * stride]</code>.
+     */
+    private DenseVec(double[] data, int offset, int size, int stride) {
+        super(offset, size, stride);
+        this.data = data;
+    }
+
+    @Override
+    public DenseVec newInstance(int elems, Filler filler) {
+        double[] out = new double[elems];
+        for (int i = 0; i < elems; i++)
+            out[i] = filler.apply(i);
+        return new DenseVec(out);
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Storage
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return the backing array (NOT a copy), where the i^th element is stored
+     *         at index <code>offset() + i * stride()</code>. This allows
+     *         kernels in other packages to work on the storage directly.
+     */
+    public double[] data() {
+        return data;
+    }
+
+    @Override
+    protected DenseVec view(int offset, int size, int stride) {
+        return new DenseVec(data, offset, size, stride);
+    }
+
+    @Override
+    protected double load(int position) {
+        return data[position];
+    }
+
+    @Override
+    protected void store(int position, double val) {
+        data[position] = val;
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Vector/Vector Operations
+     *
+     * --------------------------------------------------
+     */
+
+    @Override
+    public DenseVec apply(Operation operation, DenseVec B) {
+        if (B.size == 1) {
+            return apply(operation, B.data[B.offset]);
+        } else {
+            Check.sameSize(this, B);
+            double[] out = new double[size];
+            for (int i = 0, a = offset, b = B.offset; i < size; i++, a += stride, b += B.stride)
+                out[i] = operation.apply(data[a], B.data[b]);
+            return new DenseVec(out);
+        }
+    }
+
+    /**
+     * If A is a {@link DenseMat} and x is a {@link DenseVec}, then the product
+     * is computed with primitive loops over the backing arrays. Otherwise, this
+     * defers to {@link MutVec#gemv}.
+     */
+    @Override
+    public void gemv(double alpha, Mat<?> A, boolean transA, Vec<?> x, double beta) {
+        if (!(A instanceof DenseMat) || !(x instanceof DenseVec)) {
+            super.gemv(alpha, A, transA, x, beta);
+            return;
+        }
+        DenseMat a = (DenseMat) A;
+        DenseVec v = (DenseVec) x;
+        int m = transA ? a.cols : a.rows;
+        int n = transA ? a.rows : a.cols;
+        Check.equal(size, m);
+        Check.equal(v.size, n);
+
+        /*
+         * Walk along whichever direction of A is contiguous for row-major
+         * storage: dot products with the rows of A for A * x, and updates with
+         * the rows of A for A^T * x.
+         */
+        if (!transA) {
+            for (int i = 0, y = offset; i < m; i++, y += stride) {
+                double sum = 0;
+                int p = a.offset + i * a.rowStride;
+                for (int j = 0, q = v.offset; j < n; j++, p += a.colStride, q += v.stride)
+                    sum += a.data[p] * v.data[q];
+                data[y] = beta == 0 ? alpha * sum : alpha * sum + beta * data[y];
+            }
+        } else {
+            for (int i = 0, y = offset; i < m; i++, y += stride)
+                data[y] = beta == 0 ? 0 : beta * data[y];
+            for (int j = 0, q = v.offset; j < n; j++, q += v.stride) {
+                double xj = alpha * v.data[q];
+                int p = a.offset + j * a.rowStride;
+                for (int i = 0, y = offset; i < m; i++, p += a.colStride, y += stride)
+                    data[y] += a.data[p] * xj;
+            }
+        }
+    }
+
+    /**
+     * @return the dot product of this and B, as a primitive.
+     */
+    public double dotDouble(DenseVec B) {
+        Check.sameSize(this, B);
+        double sum = 0;
+        for (int i = 0, a = offset, b = B.offset; i < size; i++, a += stride, b += B.stride)
+            sum += data[a] * B.data[b];
+        return sum;
+    }
+
+    @Override
+    public Double dot(DenseVec B) {
+        return dotDouble(B);
+    }
+
+    @Override
+    public void applyEquals(Operation operation, final DenseVec B) {
+        if (B.size == 1) {
+            applyEquals(operation, B.data[B.offset]);
+        } else {
+            Check.sameSize(this, B);
+            for (int i = 0, a = offset, b = B.offset; i < size; i++, a += stride, b += B.stride)
+                data[a] = operation.apply(data[a], B.data[b]);
+        }
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Vector/Scalar Operations
+     *
+     * --------------------------------------------------
+     */
+
+    @Override
+    public DenseVec apply(Operation operation, Number B) {
+        return apply(operation, B.doubleValue());
+    }
+
+    @Override
+    public void applyEquals(Operation operation, final Number B) {
+        applyEquals(operation, B.doubleValue());
+    }
+
+    /**
+     * @return {@link #apply(Operation, Number)} without boxing the scalar.
+     */
+    private DenseVec apply(Operation operation, double b) {
+        double[] out = new double[size];
+        for (int i = 0, a = offset; i < size; i++, a += stride)
+            out[i] = operation.apply(data[a], b);
+        return new DenseVec(out);
+    }
+
+    /**
+     * {@link #applyEquals(Operation, Number)} without boxing the scalar.
+     */
+    private void applyEquals(Operation operation, double b) {
+        for (int i = 0, a = offset; i < size; i++, a += stride)
+            data[a] = operation.apply(data[a], b);
+    }
+}
@@ -0,0 +1,224 @@
+package io.jeti.linalg.matrix.dense;
+
+import io.jeti.linalg.matrix.Mat;
+import io.jeti.linalg.matrix.MutMat;
+import io.jeti.linalg.matrix.kernels.Gemm;
+import io.jeti.linalg.matrix.kernels.Strassen;
+import io.jeti.linalg.matrix.utils.Check;
+import java.nio.ByteBuffer;
+
+/**
+ * <p>
+ * A dense {@link MutMat} whose elements live off-heap, in native memory,
+ * rather than in a <code>double[]</code>. This keeps large matrices out of
+ * the garbage-collected heap. Like {@link DenseMat}, freshly constructed
+ * matrices are stored in row-major order, and
+ * {@link #get(int, int, int, int, int, int)}, {@link #row(int)}, and
+ * {@link #col(int)} return views which share the storage of their parent.
+ * </p>
+ * <p>
+ * The native memory is released by {@link #close()}, or by closing the
+ * {@link Arena} from which the matrix was allocated, after which any access
+ * through this matrix or any of its views throws an
+ * {@link IllegalStateException}. Matrices which are never closed are
+ * released by the garbage collector, like any other direct buffer. Note that
+ * the default methods in {@link Mat} create their results with
+ * {@link #newInstance(int, int, Filler)}, so they are also off-heap.
+ * </p>
+ * <p>
+ * A {@link DirectMat} can {@link #wrap(ByteBuffer, int, int) wrap} a
+ * {@link ByteBuffer}, and a contiguous {@link DirectMat} can be exposed
+ * {@link #asByteBuffer() as} a {@link ByteBuffer}, without copying. Matrix
+ * products are handed to the default {@link Gemm} engine, which packs straight
+ * from the native memory. A single {@link DirectMat} holds at most
+ * {@link Integer#MAX_VALUE} bytes, that is, about 2^28 elements.
+ * </p>
+ */
+public class DirectMat extends StridedMat<DirectMat> implements AutoCloseable {
+
+    final Memory memory;
+
+    /*
+     * --------------------------------------------------
+     *
+     * Constructors
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * Create a (rows x cols) {@link DirectMat} in native memory, where all
+     * values are set to zero.
+     */
+    public DirectMat(int rows, int cols) {
+        this(Memory.allocate((long) rows * cols), rows, cols);
+    }
+
+    /**
+     * Create a (rows x cols) {@link DirectMat} which stores its elements in
+     * row-major order in the specified memory.
+     */
+    DirectMat(Memory memory, int rows, int cols) {
+        this(memory, 0, rows, cols, cols, 1);
+    }
+
+    /**
+     * Create a {@link DirectMat} which shares the provided storage. The
+     * (row,col) element is stored at position
+     * <code>offset + row * rowStride + col * colStride</code>.
+     */
+    private DirectMat(Memory memory, int offset, int rows, int cols, int rowStride,
+                      int colStride) {
+        super(offset, rows, cols, rowStride, colStride);
+        this.memory = memory;
+    }
+
+    /**
+     * @return a (rows x cols) {@link DirectMat} which wraps (does NOT copy)
+     *         the doubles starting at the current position of the specified
+     *         buffer, in row-major order and in the byte order of the buffer.
+     *         The position of the buffer is not changed, and closing the
+     *         returned matrix does not release the buffer.
+     */
+    public static DirectMat wrap(ByteBuffer buffer, int rows, int cols) {
+        return wrap(buffer, rows, cols, true);
+    }
+
+    /**
+     * @return {@link #wrap(ByteBuffer, int, int)}, where the doubles are in
+     *         row-major order if rowMajor is true, and in column-major order
+     *         otherwise.
+     */
+    public static DirectMat wrap(ByteBuffer buffer, int rows, int cols, boolean rowMajor) {
+        Check.nonNegativeIndex(rows);
+        Check.nonNegativeIndex(cols);
+        Memory memory = Memory.wrap(buffer, (long) rows * cols);
+        return rowMajor ? new DirectMat(memory, 0, rows, cols, cols, 1)
+                : new DirectMat(memory, 0, rows, cols, 1, rows);
+    }
+
+    @Override
+    public DirectMat newInstance(int rows, int cols, Filler filler) {
+        DirectMat out = new DirectMat(rows, cols);
+        out.set(filler);
+        return out;
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Storage
+     *
+     * --------------------------------------------------
+     */
+
+    @Override
+    protected DirectMat view(int offset, int rows, int cols, int rowStride, int colStride) {
+        return new DirectMat(memory, offset, rows, cols, rowStride, colStride);
+    }
+
+    @Override
+    protected double load(int position) {
+        return memory.doubles().get(position);
+    }
+
+    @Override
+    protected void store(int position, double val) {
+        memory.doubles().put(position, val);
+    }
+
+    /**
+     * @return a {@link ByteBuffer} which shares (does NOT copy) the elements of
+     *         this matrix, in row-major order and in the byte order of its
+     *         storage. This is only possible if the matrix is stored
+     *         contiguously in row-major order, as freshly constructed matrices
+     *         are. Once a buffer has been exported, {@link #close()} no
+     *         longer frees the native memory, but only detaches this matrix
+     *         from it, so the buffer, and anything which wraps it, remains
+     *         valid until it is garbage collected.
+     */
+    public ByteBuffer asByteBuffer() {
+        if (rows > 1 && rowStride != cols || cols > 1 && colStride != 1)
+            throw new IllegalArgumentException(
+                    "Only contiguous row-major matrices can be exposed as a buffer.");
+        return memory.bytes(offset, offset + rows * cols);
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Matrix/Matrix Operations
+     *
+     * --------------------------------------------------
+     */
+
+    @Override
+    public DirectMat times(DirectMat B) {
+        if (isScalar() || B.isScalar())
+            return timesElementwise(B);
+        if (Strassen.applies(rows, cols, B.cols))
+            return Strassen.multiply(this, B);
+        Check.multipliable(this, B);
+        DirectMat out = new DirectMat(rows, B.cols);
+        Gemm.getDefault().multiply(rows, B.cols, cols, 1, memory.doubles(), offset, rowStride,
+                colStride, B.memory.doubles(), B.offset, B.rowStride, B.colStride, 0,
+                out.memory.doubles(), 0, B.cols, 1);
+        return out;
+    }
+
+    /**
+     * If A and B are both {@link DirectMat}s, then the product is computed by
+     * the default {@link Gemm} engine directly on the native memory, and
+     * transposition only swaps the strides with which it is read. Otherwise,
+     * this defers to {@link MutMat#gemm}.
+     */
+    @Override
+    public void gemm(double alpha, Mat<?> A, boolean transA, Mat<?> B, boolean transB,
+                     double beta) {
+        if (!(A instanceof DirectMat) || !(B instanceof DirectMat)) {
+            super.gemm(alpha, A, transA, B, transB, beta);
+            return;
+        }
+        DirectMat a = (DirectMat) A;
+        DirectMat b = (DirectMat) B;
+        int m = transA ? a.cols : a.rows;
+        int k = transA ? a.rows : a.cols;
+        int n = transB ? b.rows : b.cols;
+        Check.equal(k, transB ? b.cols : b.rows);
+        Check.equal(rows, m);
+        Check.equal(cols, n);
+        Gemm.getDefault().multiply(m, n, k, alpha, a.memory.doubles(), a.offset,
+                transA ? a.colStride : a.rowStride, transA ? a.rowStride : a.colStride,
+                b.memory.doubles(), b.offset, transB ? b.colStride : b.rowStride,
+                transB ? b.rowStride : b.colStride, beta, memory.doubles(), offset, rowStride,
+                colStride);
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Lifetime
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return true if the storage of this matrix has been closed.
+     */
+    public boolean isClosed() {
+        return memory.isClosed();
+    }
+
+    /**
+     * Release the native memory of this matrix. This also closes every view
+     * which shares its storage, so it must not be called while another thread
+     * may still be using any of them. Closing a matrix which wraps a
+     * {@link ByteBuffer}, or which has been exposed {@link #asByteBuffer() as}
+     * one, does not release the memory, which is then left to the garbage
+     * collector.
+     */
+    @Override
+    public void close() {
+        memory.close();
+    }
+}
@@ -0,0 +1,172 @@
+package io.jeti.linalg.matrix.dense;
+
+import io.jeti.linalg.matrix.MutVec;
+import io.jeti.linalg.matrix.Vec;
+import io.jeti.linalg.matrix.utils.Check;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+
+/**
+ * <p>
+ * A dense {@link MutVec} whose elements live off-heap, in native memory. This
+ * is the {@link Vec} counterpart of {@link DirectMat}: it can be closed
+ * explicitly or through an {@link Arena}, after which any access through it
+ * or any of its views throws an {@link IllegalStateException}, and it can be
+ * converted to and from a {@link ByteBuffer} without copying.
+ * </p>
+ */
+public class DirectVec extends StridedVec<DirectVec> implements AutoCloseable {
+
+    final Memory memory;
+
+    /*
+     * --------------------------------------------------
+     *
+     * Constructors
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * Create a {@link DirectVec} in native memory with the specified number of
+     * elements, where all of the elements are set to zero.
+     */
+    public DirectVec(int elems) {
+        this(Memory.allocate(elems), elems);
+    }
+
+    /**
+     * Create a {@link DirectVec} which stores its elements contiguously in
+     * the specified memory.
+     */
+    DirectVec(Memory memory, int elems) {
+        this(memory, 0, elems, 1);
+    }
+
+    /**
+     * Create a {@link DirectVec} which shares the provided storage. The i^th
+     * element is stored at position <code>offset + i * stride</code>.
+     */
+    private DirectVec(Memory memory, int offset, int size, int stride) {
+        super(offset, size, stride);
+        this.memory = memory;
+    }
+
+    /**
+     * @return a {@link DirectVec} which wraps (does NOT copy) the specified
+     *         number of doubles starting at the current position of the
+     *         buffer, in the byte order of the buffer. The position of the
+     *         buffer is not changed, and closing the returned vector does not
+     *         release the buffer.
+     */
+    public static DirectVec wrap(ByteBuffer buffer, int elems) {
+        Check.nonNegativeIndex(elems);
+        return new DirectVec(Memory.wrap(buffer, elems), elems);
+    }
+
+    @Override
+    public DirectVec newInstance(int elems, Filler filler) {
+        DirectVec out = new DirectVec(elems);
+        out.set(filler);
+        return out;
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Storage
+     *
+     * --------------------------------------------------
+     */
+
+    @Override
+    protected DirectVec view(int offset, int size, int stride) {
+        return new DirectVec(memory, offset, size, stride);
+    }
+
+    @Override
+    protected double load(int position) {
+        return memory.doubles().get(position);
+    }
+
+    @Override
+    protected void store(int position, double val) {
+        memory.doubles().put(position, val);
+    }
+
+    /**
+     * @return a {@link ByteBuffer} which shares (does NOT copy) the elements of
+     *         this vector, in the byte order of its storage. This is only
+     *         possible if the elements are stored contiguously. Once a buffer has been
+     *         exported, {@link #close()} no longer frees the native memory,
+     *         but only detaches this vector from it, so the buffer, and
+     *         anything which wraps it, remains valid until it is garbage
+     *         collected.
+     */
+    public ByteBuffer asByteBuffer() {
+        if (size > 1 && stride != 1)
+            throw new IllegalArgumentException(
+                    "Only contiguous vectors can be exposed as a buffer.");
+        return memory.bytes(offset, offset + size);
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Vector/Vector Operations
+     *
+     * --------------------------------------------------
+     */
+
+    @Override
+    public Double dot(DirectVec B) {
+        Check.sameSize(this, B);
+        DoubleBuffer a = memory.doubles();
+        DoubleBuffer b = B.memory.doubles();
+        double sum = 0;
+        for (int i = 0, p = offset, q = B.offset; i < size; i++, p += stride, q += B.stride)
+            sum += a.get(p) * b.get(q);
+        return sum;
+    }
+
+    @Override
+    public void applyEquals(Operation operation, final DirectVec B) {
+        if (B.size == 1) {
+            applyEquals(operation, B.getDouble(0));
+        } else {
+            Check.sameSize(this, B);
+            DoubleBuffer a = memory.doubles();
+            DoubleBuffer b = B.memory.doubles();
+            for (int i = 0, p = offset, q = B.offset; i < size; i++, p += stride, q += B.stride)
+                a.put(p, operation.apply(a.get(p), b.get(q)));
+        }
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Lifetime
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return true if the storage of this vector has been closed.
+     */
+    public boolean isClosed() {
+        return memory.isClosed();
+    }
+
+    /**
+     * Release the native memory of this vector. This also closes every view
+     * which shares its storage, so it must not be called while another thread
+     * may still be using any of them. Closing a vector which wraps a
+     * {@link ByteBuffer}, or which has been exposed {@link #asByteBuffer() as}
+     * one, does not release the memory, which is then left to the garbage
+     * collector.
+     */
+    @Override
+    public void close() {
+        memory.close();
+    }
+}
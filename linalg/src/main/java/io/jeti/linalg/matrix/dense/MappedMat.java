@@ -0,0 +1,182 @@
+package io.jeti.linalg.matrix.dense;
+
+import io.jeti.linalg.matrix.MutMat;
+import io.jeti.linalg.matrix.io.MatHeader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <p>
+ * A dense {@link MutMat} whose elements live in a memory-mapped file, which
+ * starts with a {@link MatHeader} and is followed by the little-endian
+ * elements in either row-major or column-major order. This allows working
+ * with matrices which do not fit in memory: the operating system only reads
+ * the pages of the file which are actually touched, and may evict them again
+ * under memory pressure.
+ * </p>
+ * <p>
+ * Since a single mapping is limited to 2 GB, the file is mapped in several
+ * chunks of 1 GB. Like the other {@link StridedMat}s,
+ * {@link #get(int, int, int, int, int, int)}, {@link #row(int)}, and
+ * {@link #col(int)} return views which share the mapping, so they do not read
+ * anything until their elements are accessed. Positions are ints, so a
+ * single {@link MappedMat} holds at most {@link Integer#MAX_VALUE} elements,
+ * that is, 16 GB.
+ * </p>
+ * <p>
+ * Changes to a writable mapping reach the file eventually, or immediately
+ * after {@link #force()}. {@link #close()} unmaps the file, after which any
+ * access through this matrix or its views throws an
+ * {@link IllegalStateException}. Note that the results of operations, which
+ * are created with {@link #newInstance(int, int, Filler)}, are not backed by a
+ * file, but by native memory.
+ * </p>
+ */
+public class MappedMat extends StridedMat<MappedMat> implements AutoCloseable {
+
+    final ChunkedMemory memory;
+
+    /*
+     * --------------------------------------------------
+     *
+     * Constructors
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * Create a {@link MappedMat} which shares the provided storage. The
+     * (row,col) element is stored at position
+     * <code>offset + row * rowStride + col * colStride</code>.
+     */
+    private MappedMat(ChunkedMemory memory, int offset, int rows, int cols, int rowStride,
+                      int colStride) {
+        super(offset, rows, cols, rowStride, colStride);
+        this.memory = memory;
+    }
+
+    /**
+     * @return a writable (rows x cols) {@link MappedMat} of zeros, stored in
+     *         row-major order in a new file at the specified path, which is
+     *         replaced if it already exists.
+     */
+    public static MappedMat create(Path path, int rows, int cols) throws IOException {
+        MatHeader header = new MatHeader(rows, cols, MatHeader.ROW_MAJOR);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(MatHeader.SIZE);
+            header.write(buffer);
+            buffer.flip();
+            while (buffer.hasRemaining())
+                channel.write(buffer, buffer.position());
+            /* Mapping past the end of the file extends it with zeros */
+            return map(channel, MapMode.READ_WRITE, header);
+        }
+    }
+
+    /**
+     * @return a {@link MappedMat} which maps the existing file at the
+     *         specified path, which is writable if requested.
+     * @throws IOException
+     *             if the file does not start with a valid {@link MatHeader},
+     *             or if it is too short for the number of elements in the
+     *             header.
+     */
+    public static MappedMat open(Path path, boolean writable) throws IOException {
+        try (FileChannel channel = writable
+                ? FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(MatHeader.SIZE);
+            while (buffer.hasRemaining())
+                if (channel.read(buffer, buffer.position()) < 0)
+                    break;
+            buffer.flip();
+            MatHeader header = MatHeader.read(buffer);
+            if (channel.size() < MatHeader.SIZE + header.elements() * Double.BYTES)
+                throw new IOException("The file is truncated.");
+            return map(channel, writable ? MapMode.READ_WRITE : MapMode.READ_ONLY, header);
+        }
+    }
+
+    private static MappedMat map(FileChannel channel, MapMode mode, MatHeader header)
+            throws IOException {
+        if (header.rows() > Integer.MAX_VALUE || header.cols() > Integer.MAX_VALUE
+                || header.elements() > Integer.MAX_VALUE)
+            throw new IOException("The matrix is too large to map: " + header);
+        int rows = (int) header.rows();
+        int cols = (int) header.cols();
+        ChunkedMemory memory = ChunkedMemory.map(channel, mode, MatHeader.SIZE,
+                header.elements());
+        return header.isRowMajor() ? new MappedMat(memory, 0, rows, cols, cols, 1)
+                : new MappedMat(memory, 0, rows, cols, 1, rows);
+    }
+
+    @Override
+    public MappedMat newInstance(int rows, int cols, Filler filler) {
+        MappedMat out = new MappedMat(ChunkedMemory.allocate((long) rows * cols), 0, rows,
+                cols, cols, 1);
+        out.set(filler);
+        return out;
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Storage
+     *
+     * --------------------------------------------------
+     */
+
+    @Override
+    protected MappedMat view(int offset, int rows, int cols, int rowStride, int colStride) {
+        return new MappedMat(memory, offset, rows, cols, rowStride, colStride);
+    }
+
+    @Override
+    protected double load(int position) {
+        return memory.get(position);
+    }
+
+    @Override
+    protected void store(int position, double val) {
+        memory.put(position, val);
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Lifetime
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * Write any changes to this matrix back to the file.
+     */
+    public void force() {
+        memory.force();
+    }
+
+    /**
+     * @return true if the storage of this matrix has been closed.
+     */
+    public boolean isClosed() {
+        return memory.isClosed();
+    }
+
+    /**
+     * Unmap the file. This also closes every view which shares the mapping,
+     * so it must not be called while another thread may still be using any
+     * of them. Changes which have not been {@link #force() forced} are still
+     * written to the file by the operating system.
+     */
+    @Override
+    public void close() {
+        memory.close();
+    }
+}
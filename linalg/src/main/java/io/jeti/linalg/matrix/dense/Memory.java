@@ -0,0 +1,164 @@
+package io.jeti.linalg.matrix.dense;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+
+/**
+ * <p>
+ * A block of off-heap memory holding doubles, which is shared by a
+ * {@link DirectMat} or {@link DirectVec} and all of its views.
+ * </p>
+ * <p>
+ * Once a block is closed, every access through any of the views throws an
+ * {@link IllegalStateException}. If the block was allocated here, rather than
+ * wrapped, then its native memory is also released immediately, instead of
+ * whenever the garbage collector gets around to it. Hence a block must not be
+ * closed while another thread may still be using it.
+ * </p>
+ * <p>
+ * The exception is a block whose bytes have been handed out by
+ * {@link #bytes(int, int)}. Those buffers, and anything which wraps them, do
+ * not see the close, so freeing the memory under them would crash the JVM on
+ * the next access. Closing such a block only detaches it, and the memory is
+ * left to the cleaner of the buffer, which frees it once the last buffer
+ * which shares it is unreachable.
+ * </p>
+ */
+final class Memory implements AutoCloseable {
+
+    /**
+     * The largest number of doubles in a single block, which is limited by
+     * the capacity of a {@link ByteBuffer}.
+     */
+    static final int MAX_ELEMENTS = Integer.MAX_VALUE / Double.BYTES;
+
+    private final boolean owned;
+    private boolean       exported;
+    private ByteBuffer    bytes;
+    private DoubleBuffer  doubles;
+
+    private Memory(ByteBuffer bytes, boolean owned) {
+        this.bytes = bytes;
+        this.doubles = bytes.asDoubleBuffer();
+        this.owned = owned;
+    }
+
+    /**
+     * @return a new block of zeroed native memory, with room for the
+     *         specified number of doubles in the native byte order.
+     */
+    static Memory allocate(long elems) {
+        if (elems < 0 || elems > MAX_ELEMENTS)
+            throw new IllegalArgumentException(
+                    "Cannot allocate " + elems + " doubles in a single block.");
+        ByteBuffer bytes = ByteBuffer.allocateDirect((int) elems * Double.BYTES);
+        return new Memory(bytes.order(ByteOrder.nativeOrder()), true);
+    }
+
+    /**
+     * @return a block which shares (does NOT copy) the specified number of
+     *         doubles, starting at the current position of the buffer, in the
+     *         byte order of the buffer. The buffer is never released by
+     *         {@link #close()}.
+     */
+    static Memory wrap(ByteBuffer buffer, long elems) {
+        if (elems > buffer.remaining() / Double.BYTES)
+            throw new IllegalArgumentException("The buffer has " + buffer.remaining()
+                    + " bytes remaining, which is not enough for " + elems + " doubles.");
+        ByteBuffer bytes = buffer.slice();
+        bytes.limit((int) elems * Double.BYTES);
+        return new Memory(bytes.slice().order(buffer.order()), false);
+    }
+
+    /**
+     * @return the doubles in this block.
+     */
+    DoubleBuffer doubles() {
+        DoubleBuffer doubles = this.doubles;
+        if (doubles == null)
+            throw new IllegalStateException("The memory has already been closed.");
+        return doubles;
+    }
+
+    /**
+     * @return a buffer which shares the bytes of the doubles in the range
+     *         [from, to), in the byte order of this block. From now on,
+     *         {@link #close()} no longer releases the memory.
+     */
+    ByteBuffer bytes(int from, int to) {
+        doubles();
+        exported = true;
+        ByteBuffer out = bytes.duplicate();
+        out.limit(to * Double.BYTES).position(from * Double.BYTES);
+        return out.slice().order(bytes.order());
+    }
+
+    boolean isClosed() {
+        return doubles == null;
+    }
+
+    @Override
+    public void close() {
+        ByteBuffer bytes = this.bytes;
+        if (bytes == null)
+            return;
+        this.bytes = null;
+        this.doubles = null;
+        if (owned && !exported)
+            release(bytes);
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Releasing Native Memory
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * Free the native memory of a direct buffer which was returned by
+     * {@link ByteBuffer#allocateDirect(int)}, or unmap a mapped buffer. There
+     * is no public API for this before MemorySegment, so this uses the same
+     * internal hooks as most libraries, that is, Unsafe.invokeCleaner on Java
+     * 9+, and the cleaner of the buffer on Java 8. If neither is available,
+     * the memory is left to the garbage collector.
+     */
+    static void release(ByteBuffer buffer) {
+        try {
+            if (INVOKE_CLEANER != null) {
+                INVOKE_CLEANER.invoke(UNSAFE, buffer);
+            } else {
+                Method cleaner = buffer.getClass().getMethod("cleaner");
+                cleaner.setAccessible(true);
+                Object c = cleaner.invoke(buffer);
+                if (c != null)
+                    c.getClass().getMethod("clean").invoke(c);
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            /* Leave it to the garbage collector */
+        }
+    }
+
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> cls = Class.forName("sun.misc.Unsafe");
+            invokeCleaner = cls.getMethod("invokeCleaner", ByteBuffer.class);
+            Field field = cls.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            invokeCleaner = null;
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+}
@@ -0,0 +1,192 @@
+package io.jeti.linalg.matrix.dense;
+
+import io.jeti.linalg.matrix.Mat;
+import io.jeti.linalg.matrix.MutMat;
+import io.jeti.linalg.matrix.Tsr;
+import io.jeti.linalg.matrix.utils.Check;
+
+/**
+ * <p>
+ * A base class for {@link MutMat}s whose elements live in some linearly
+ * indexed storage, such as an array or a buffer, where the (row,col) element
+ * is stored at position
+ * </p>
+ *
+ * <pre>
+ * offset + row * rowStride + col * colStride
+ * </pre>
+ * <p>
+ * Since a selection with a stride is again described by an offset and two
+ * strides, {@link #get(int, int, int, int, int, int)}, {@link #row(int)}, and
+ * {@link #col(int)} return views which share the storage of this matrix in
+ * O(1), rather than copies. The arithmetic is done with
+ * {@link Tsr#checkSelection(int, int, int, int)} and
+ * {@link Tsr#index(int, int, int, int)}, and views of views simply compose
+ * their offsets and strides, so they never refer back to their parents.
+ * </p>
+ * <p>
+ * Subclasses only have to provide the storage, that is, {@link #load(int)},
+ * {@link #store(int, double)}, and a way to create a
+ * {@link #view(int, int, int, int, int) view} of the same storage.
+ * </p>
+ */
+public abstract class StridedMat<T extends StridedMat<T>> implements MutMat<T> {
+
+    protected final int offset;
+
+    /*
+     * These only change when a subclass transposes itself in place.
+     */
+    protected int       rows;
+    protected int       cols;
+    protected int       rowStride;
+    protected int       colStride;
+
+    /**
+     * Create a (rows x cols) {@link StridedMat}, where the (row,col) element
+     * is stored at position <code>offset + row * rowStride + col *
+     * colStride</code>.
+     */
+    protected StridedMat(int offset, int rows, int cols, int rowStride, int colStride) {
+        Check.nonNegativeIndex(offset);
+        Check.nonNegativeIndex(rows);
+        Check.nonNegativeIndex(cols);
+        this.offset = offset;
+        this.rows = rows;
+        this.cols = cols;
+        this.rowStride = rowStride;
+        this.colStride = colStride;
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Storage
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return a matrix which shares the storage of this one, with the
+     *         specified layout.
+     */
+    protected abstract T view(int offset, int rows, int cols, int rowStride, int colStride);
+
+    /**
+     * @return the value stored at the specified position of the storage.
+     */
+    protected abstract double load(int position);
+
+    /**
+     * Store the value at the specified position of the storage.
+     */
+    protected abstract void store(int position, double val);
+
+    /**
+     * @return the position of the (row,col) element in the storage, using the
+     *         {@link Check} class to make sure that the indices are in bounds.
+     */
+    protected int position(int row, int col) {
+        return offset + index(row, 0, rowStride, rows) + index(col, 0, colStride, cols);
+    }
+
+    /**
+     * @return the position of the (0,0) element in the storage.
+     */
+    public int offset() {
+        return offset;
+    }
+
+    /**
+     * @return the distance, in the storage, between consecutive rows.
+     */
+    public int rowStride() {
+        return rowStride;
+    }
+
+    /**
+     * @return the distance, in the storage, between consecutive columns.
+     */
+    public int colStride() {
+        return colStride;
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Getters
+     *
+     * --------------------------------------------------
+     */
+
+    @Override
+    public int rows() {
+        return rows;
+    }
+
+    @Override
+    public int cols() {
+        return cols;
+    }
+
+    @Override
+    public double getDouble(int row, int col) {
+        return load(position(row, col));
+    }
+
+    @Override
+    public T get(int fromRow, int toRow, int rowStride, int fromCol, int toCol, int colStride) {
+        int rows = checkSelection(fromRow, toRow, rowStride, this.rows);
+        int cols = checkSelection(fromCol, toCol, colStride, this.cols);
+        return view(offset + fromRow * this.rowStride + fromCol * this.colStride, rows, cols,
+                rowStride * this.rowStride, colStride * this.colStride);
+    }
+
+    @Override
+    public T row(int r) {
+        return view(offset + index(r, 0, rowStride, rows), 1, cols, rowStride, colStride);
+    }
+
+    @Override
+    public T col(int c) {
+        return view(offset + index(c, 0, colStride, cols), rows, 1, rowStride, colStride);
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Setters
+     *
+     * --------------------------------------------------
+     */
+
+    @Override
+    public void setDouble(int row, int col, double val) {
+        store(position(row, col), val);
+    }
+
+    @Override
+    public void set(Filler filler) {
+        for (int row = 0; row < rows; row++) {
+            int p = offset + row * rowStride;
+            for (int col = 0; col < cols; col++, p += colStride)
+                store(p, filler.apply(row, col));
+        }
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Other Functions
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return {@link Mat#asString()}
+     */
+    @Override
+    public String toString() {
+        return asString();
+    }
+}
@@ -0,0 +1,153 @@
+package io.jeti.linalg.matrix.dense;
+
+import io.jeti.linalg.matrix.MutVec;
+import io.jeti.linalg.matrix.Tsr;
+import io.jeti.linalg.matrix.Vec;
+import io.jeti.linalg.matrix.utils.Check;
+
+/**
+ * <p>
+ * A base class for {@link MutVec}s whose elements live in some linearly
+ * indexed storage, such as an array or a buffer, where the i^th element is
+ * stored at position <code>offset + i * stride</code>.
+ * </p>
+ * <p>
+ * This is the {@link Vec} counterpart of {@link StridedMat}:
+ * {@link #get(int, int, int)} returns a view which shares the storage of this
+ * vector in O(1), using {@link Tsr#checkSelection(int, int, int, int)} and
+ * {@link Tsr#index(int, int, int, int)}, and views of views compose their
+ * offsets and strides.
+ * </p>
+ */
+public abstract class StridedVec<T extends StridedVec<T>> implements MutVec<T> {
+
+    protected final int offset;
+    protected final int size;
+    protected final int stride;
+
+    /**
+     * Create a {@link StridedVec} with the specified number of elements, where
+     * the i^th element is stored at position <code>offset + i * stride</code>.
+     */
+    protected StridedVec(int offset, int size, int stride) {
+        Check.nonNegativeIndex(offset);
+        Check.nonNegativeIndex(size);
+        this.offset = offset;
+        this.size = size;
+        this.stride = stride;
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Storage
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return a vector which shares the storage of this one, with the
+     *         specified layout.
+     */
+    protected abstract T view(int offset, int size, int stride);
+
+    /**
+     * @return the value stored at the specified position of the storage.
+     */
+    protected abstract double load(int position);
+
+    /**
+     * Store the value at the specified position of the storage.
+     */
+    protected abstract void store(int position, double val);
+
+    /**
+     * @return the position of the specified element in the storage, using the
+     *         {@link Check} class to make sure that it is in bounds.
+     */
+    protected int position(int elem) {
+        return index(elem, offset, stride, size);
+    }
+
+    /**
+     * @return the position of the first element in the storage.
+     */
+    public int offset() {
+        return offset;
+    }
+
+    /**
+     * @return the distance, in the storage, between consecutive elements.
+     */
+    public int stride() {
+        return stride;
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Getters
+     *
+     * --------------------------------------------------
+     */
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public double getDouble(int element) {
+        return load(position(element));
+    }
+
+    @Override
+    public T get(int from, int to, int stride) {
+        int elems = checkSelection(from, to, stride, size);
+        return view(offset + from * this.stride, elems, stride * this.stride);
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Setters
+     *
+     * --------------------------------------------------
+     */
+
+    @Override
+    public void setDouble(int elem, double val) {
+        store(position(elem), val);
+    }
+
+    @Override
+    public void set(Filler filler) {
+        for (int i = 0, p = offset; i < size; i++, p += stride)
+            store(p, filler.apply(i));
+    }
+
+    @Override
+    public void swap(int i, int j) {
+        int pi = position(i);
+        int pj = position(j);
+        double tmp = load(pi);
+        store(pi, load(pj));
+        store(pj, tmp);
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Other Functions
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return {@link Vec#asString()}
+     */
+    @Override
+    public String toString() {
+        return asString();
+    }
+}
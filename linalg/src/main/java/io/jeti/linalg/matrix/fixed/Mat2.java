@@ -0,0 +1,361 @@
+package io.jeti.linalg.matrix.fixed;
+
+import io.jeti.linalg.matrix.Mat;
+import io.jeti.linalg.matrix.MutMat;
+import io.jeti.linalg.matrix.utils.Check;
+
+/**
+ * <p>
+ * A mutable 2x2 matrix, whose 4 elements are fields rather than the elements
+ * of an array, where the (i,j) element is mij. Every operation is fully
+ * unrolled, with no loops, no virtual calls to {@link #rows()} or
+ * {@link #cols()}, and no dimension checks, since the dimensions are part of
+ * the type. Since there is no array, a {@link Mat2} which does not escape a
+ * method can be scalar-replaced by the JIT compiler, so that it is never
+ * allocated at all.
+ * </p>
+ * <p>
+ * The generic operations of {@link Mat} and {@link MutMat} still work as
+ * long as their result is 2x2. The ones which cannot be 2x2 throw an
+ * {@link UnsupportedOperationException} instead, namely:
+ * </p>
+ * <ul>
+ * <li>{@link #row(int)} and {@link #col(int)}, for which
+ * {@link #getRow(int)} and {@link #getCol(int)} return a {@link Vec2}
+ * instead,</li>
+ * <li>{@link #vec()},</li>
+ * <li>{@link #get(int, int, int, int)} and
+ * {@link #get(int, int, int, int, int, int)}, unless they select the whole
+ * matrix, which is returned as its own view, and</li>
+ * <li>every newInstance method, _ones, _zeros, _eye, _rand and _randn,
+ * unless the dimensions are 2x2.</li>
+ * </ul>
+ * <p>
+ * This is the natural type for planar rotations and other 2D linear maps.
+ * </p>
+ */
+public final class Mat2 implements MutMat<Mat2> {
+
+    public double m00, m01, m10, m11;
+
+    /*
+     * --------------------------------------------------
+     *
+     * Constructors
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * Create a 2x2 matrix of zeros.
+     */
+    public Mat2() {
+    }
+
+    /**
+     * Create a 2x2 matrix with the specified elements, in row-major order.
+     */
+    public Mat2(double m00, double m01, double m10, double m11) {
+        this.m00 = m00;
+        this.m01 = m01;
+        this.m10 = m10;
+        this.m11 = m11;
+    }
+
+    /**
+     * @return the 2x2 identity matrix.
+     */
+    public static Mat2 identity() {
+        Mat2 I = new Mat2();
+        I.m00 = 1;
+        I.m11 = 1;
+        return I;
+    }
+
+    /**
+     * @return a 2x2 matrix, whose elements are set with the filler.
+     * @throws UnsupportedOperationException
+     *             if the dimensions are not 2x2.
+     */
+    @Override
+    public Mat2 newInstance(int rows, int cols, Filler filler) {
+        if (rows != 2 || cols != 2)
+            throw unsupported("creating a " + rows + " x " + cols + " matrix");
+        return new Mat2(filler.apply(0, 0), filler.apply(0, 1), filler.apply(1, 0),
+                filler.apply(1, 1));
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Getters
+     *
+     * --------------------------------------------------
+     */
+
+    @Override
+    public int rows() {
+        return 2;
+    }
+
+    @Override
+    public int cols() {
+        return 2;
+    }
+
+    @Override
+    public double getDouble(int row, int col) {
+        switch (index(row, col)) {
+        case 0:
+            return m00;
+        case 1:
+            return m01;
+        case 2:
+            return m10;
+        default:
+            return m11;
+        }
+    }
+
+    /**
+     * @return this, which is the only selection that a {@link Mat2} supports.
+     * @throws UnsupportedOperationException
+     *             unless the selection is the whole matrix, in order.
+     */
+    @Override
+    public Mat2 get(int fromRow, int toRow, int rowStride, int fromCol, int toCol,
+                     int colStride) {
+        if (fromRow != 0 || toRow != 2 || rowStride != 1 || fromCol != 0 || toCol != 2
+                || colStride != 1)
+            throw unsupported("selecting anything but the whole matrix");
+        return this;
+    }
+
+    /**
+     * @throws UnsupportedOperationException
+     *             always, since a row is not 2x2. Use {@link #getRow(int)}
+     *             instead.
+     */
+    @Override
+    public Mat2 row(int r) {
+        throw unsupported("row(int). Use getRow(int) instead");
+    }
+
+    /**
+     * @throws UnsupportedOperationException
+     *             always, since a column is not 2x2. Use
+     *             {@link #getCol(int)} instead.
+     */
+    @Override
+    public Mat2 col(int c) {
+        throw unsupported("col(int). Use getCol(int) instead");
+    }
+
+    /**
+     * @throws UnsupportedOperationException
+     *             always, since the vectorized matrix is 4x1.
+     */
+    @Override
+    public Mat2 vec() {
+        throw unsupported("vec()");
+    }
+
+    /**
+     * @return a copy of the specified row.
+     */
+    public Vec2 getRow(int row) {
+        Check.inBounds(row, 0, 2);
+        switch (row) {
+        case 0:
+            return new Vec2(m00, m01);
+        default:
+            return new Vec2(m10, m11);
+        }
+    }
+
+    /**
+     * @return a copy of the specified column.
+     */
+    public Vec2 getCol(int col) {
+        Check.inBounds(col, 0, 2);
+        switch (col) {
+        case 0:
+            return new Vec2(m00, m10);
+        default:
+            return new Vec2(m01, m11);
+        }
+    }
+
+    /**
+     * @return the position of the (row,col) element in row-major order.
+     */
+    private static int index(int row, int col) {
+        Check.inBounds(row, 0, 2);
+        Check.inBounds(col, 0, 2);
+        return row * 2 + col;
+    }
+
+    /**
+     * @return the exception for an operation whose result would not be 2x2.
+     */
+    private static UnsupportedOperationException unsupported(String operation) {
+        return new UnsupportedOperationException(
+                "A Mat2 is always 2x2, so it does not support " + operation + ".");
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Setters
+     *
+     * --------------------------------------------------
+     */
+
+    @Override
+    public void setDouble(int row, int col, double val) {
+        switch (index(row, col)) {
+        case 0:
+            m00 = val;
+            break;
+        case 1:
+            m01 = val;
+            break;
+        case 2:
+            m10 = val;
+            break;
+        default:
+            m11 = val;
+        }
+    }
+
+    /**
+     * Overwrite this with the elements of B.
+     */
+    public void set(Mat2 B) {
+        m00 = B.m00;
+        m01 = B.m01;
+        m10 = B.m10;
+        m11 = B.m11;
+    }
+
+    @Override
+    public void transposeEquals() {
+        double tmp;
+        tmp = m01;
+        m01 = m10;
+        m10 = tmp;
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Matrix Operations
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return this * B.
+     */
+    @Override
+    public Mat2 times(Mat2 B) {
+        return new Mat2(
+                m00 * B.m00 + m01 * B.m10,
+                m00 * B.m01 + m01 * B.m11,
+                m10 * B.m00 + m11 * B.m10,
+                m10 * B.m01 + m11 * B.m11);
+    }
+
+    /**
+     * @return this * v.
+     */
+    public Vec2 times(Vec2 v) {
+        return new Vec2(
+                m00 * v.x + m01 * v.y,
+                m10 * v.x + m11 * v.y);
+    }
+
+    @Override
+    public Mat2 transpose() {
+        return new Mat2(m00, m10, m01, m11);
+    }
+
+    /**
+     * @return the determinant, which is computed with cofactors.
+     */
+    public double determinant() {
+        return m00 * m11 - m01 * m10;
+    }
+
+    /**
+     * @return this^-1, which is computed with cofactors.
+     * @throws ArithmeticException
+     *             if the matrix is singular.
+     */
+    public Mat2 inverse() {
+        double det = m00 * m11 - m01 * m10;
+        if (det == 0)
+            throw new ArithmeticException("The matrix is singular.");
+        double inv = 1 / det;
+        return new Mat2(m11 * inv, -m01 * inv, -m10 * inv, m00 * inv);
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Element-wise Operations
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return this + B.
+     */
+    @Override
+    public Mat2 plus(Mat2 B) {
+        return new Mat2(m00 + B.m00, m01 + B.m01, m10 + B.m10, m11 + B.m11);
+    }
+
+    /**
+     * @return this - B.
+     */
+    @Override
+    public Mat2 minus(Mat2 B) {
+        return new Mat2(m00 - B.m00, m01 - B.m01, m10 - B.m10, m11 - B.m11);
+    }
+
+    @Override
+    public Mat2 apply(Operation operation, Mat2 B) {
+        return new Mat2(operation.apply(m00, B.m00), operation.apply(m01, B.m01),
+                operation.apply(m10, B.m10), operation.apply(m11, B.m11));
+    }
+
+    @Override
+    public Mat2 apply(Operation operation, Number B) {
+        double b = B.doubleValue();
+        return new Mat2(operation.apply(m00, b), operation.apply(m01, b), operation.apply(m10, b),
+                operation.apply(m11, b));
+    }
+
+    @Override
+    public void applyEquals(Operation operation, Mat2 B) {
+        m00 = operation.apply(m00, B.m00);
+        m01 = operation.apply(m01, B.m01);
+        m10 = operation.apply(m10, B.m10);
+        m11 = operation.apply(m11, B.m11);
+    }
+
+    @Override
+    public void applyEquals(Operation operation, Number B) {
+        double b = B.doubleValue();
+        m00 = operation.apply(m00, b);
+        m01 = operation.apply(m01, b);
+        m10 = operation.apply(m10, b);
+        m11 = operation.apply(m11, b);
+    }
+
+    @Override
+    public String toString() {
+        return asString();
+    }
+}
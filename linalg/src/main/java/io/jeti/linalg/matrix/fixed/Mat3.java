@@ -0,0 +1,438 @@
+package io.jeti.linalg.matrix.fixed;
+
+import io.jeti.linalg.matrix.Mat;
+import io.jeti.linalg.matrix.MutMat;
+import io.jeti.linalg.matrix.utils.Check;
+
+/**
+ * <p>
+ * A mutable 3x3 matrix, whose 9 elements are fields rather than the elements
+ * of an array, where the (i,j) element is mij. Every operation is fully
+ * unrolled, with no loops, no virtual calls to {@link #rows()} or
+ * {@link #cols()}, and no dimension checks, since the dimensions are part of
+ * the type. Since there is no array, a {@link Mat3} which does not escape a
+ * method can be scalar-replaced by the JIT compiler, so that it is never
+ * allocated at all.
+ * </p>
+ * <p>
+ * The generic operations of {@link Mat} and {@link MutMat} still work as
+ * long as their result is 3x3. The ones which cannot be 3x3 throw an
+ * {@link UnsupportedOperationException} instead, namely:
+ * </p>
+ * <ul>
+ * <li>{@link #row(int)} and {@link #col(int)}, for which
+ * {@link #getRow(int)} and {@link #getCol(int)} return a {@link Vec3}
+ * instead,</li>
+ * <li>{@link #vec()},</li>
+ * <li>{@link #get(int, int, int, int)} and
+ * {@link #get(int, int, int, int, int, int)}, unless they select the whole
+ * matrix, which is returned as its own view, and</li>
+ * <li>every newInstance method, _ones, _zeros, _eye, _rand and _randn,
+ * unless the dimensions are 3x3.</li>
+ * </ul>
+ * <p>
+ * This is the natural type for rotations and other 3D linear maps.
+ * </p>
+ */
+public final class Mat3 implements MutMat<Mat3> {
+
+    public double m00, m01, m02, m10, m11, m12, m20, m21, m22;
+
+    /*
+     * --------------------------------------------------
+     *
+     * Constructors
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * Create a 3x3 matrix of zeros.
+     */
+    public Mat3() {
+    }
+
+    /**
+     * Create a 3x3 matrix with the specified elements, in row-major order.
+     */
+    public Mat3(double m00, double m01, double m02, double m10, double m11, double m12, double m20,
+                double m21, double m22) {
+        this.m00 = m00;
+        this.m01 = m01;
+        this.m02 = m02;
+        this.m10 = m10;
+        this.m11 = m11;
+        this.m12 = m12;
+        this.m20 = m20;
+        this.m21 = m21;
+        this.m22 = m22;
+    }
+
+    /**
+     * @return the 3x3 identity matrix.
+     */
+    public static Mat3 identity() {
+        Mat3 I = new Mat3();
+        I.m00 = 1;
+        I.m11 = 1;
+        I.m22 = 1;
+        return I;
+    }
+
+    /**
+     * @return a 3x3 matrix, whose elements are set with the filler.
+     * @throws UnsupportedOperationException
+     *             if the dimensions are not 3x3.
+     */
+    @Override
+    public Mat3 newInstance(int rows, int cols, Filler filler) {
+        if (rows != 3 || cols != 3)
+            throw unsupported("creating a " + rows + " x " + cols + " matrix");
+        return new Mat3(filler.apply(0, 0), filler.apply(0, 1), filler.apply(0, 2),
+                filler.apply(1, 0), filler.apply(1, 1), filler.apply(1, 2), filler.apply(2, 0),
+                filler.apply(2, 1), filler.apply(2, 2));
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Getters
+     *
+     * --------------------------------------------------
+     */
+
+    @Override
+    public int rows() {
+        return 3;
+    }
+
+    @Override
+    public int cols() {
+        return 3;
+    }
+
+    @Override
+    public double getDouble(int row, int col) {
+        switch (index(row, col)) {
+        case 0:
+            return m00;
+        case 1:
+            return m01;
+        case 2:
+            return m02;
+        case 3:
+            return m10;
+        case 4:
+            return m11;
+        case 5:
+            return m12;
+        case 6:
+            return m20;
+        case 7:
+            return m21;
+        default:
+            return m22;
+        }
+    }
+
+    /**
+     * @return this, which is the only selection that a {@link Mat3} supports.
+     * @throws UnsupportedOperationException
+     *             unless the selection is the whole matrix, in order.
+     */
+    @Override
+    public Mat3 get(int fromRow, int toRow, int rowStride, int fromCol, int toCol,
+                     int colStride) {
+        if (fromRow != 0 || toRow != 3 || rowStride != 1 || fromCol != 0 || toCol != 3
+                || colStride != 1)
+            throw unsupported("selecting anything but the whole matrix");
+        return this;
+    }
+
+    /**
+     * @throws UnsupportedOperationException
+     *             always, since a row is not 3x3. Use {@link #getRow(int)}
+     *             instead.
+     */
+    @Override
+    public Mat3 row(int r) {
+        throw unsupported("row(int). Use getRow(int) instead");
+    }
+
+    /**
+     * @throws UnsupportedOperationException
+     *             always, since a column is not 3x3. Use
+     *             {@link #getCol(int)} instead.
+     */
+    @Override
+    public Mat3 col(int c) {
+        throw unsupported("col(int). Use getCol(int) instead");
+    }
+
+    /**
+     * @throws UnsupportedOperationException
+     *             always, since the vectorized matrix is 9x1.
+     */
+    @Override
+    public Mat3 vec() {
+        throw unsupported("vec()");
+    }
+
+    /**
+     * @return a copy of the specified row.
+     */
+    public Vec3 getRow(int row) {
+        Check.inBounds(row, 0, 3);
+        switch (row) {
+        case 0:
+            return new Vec3(m00, m01, m02);
+        case 1:
+            return new Vec3(m10, m11, m12);
+        default:
+            return new Vec3(m20, m21, m22);
+        }
+    }
+
+    /**
+     * @return a copy of the specified column.
+     */
+    public Vec3 getCol(int col) {
+        Check.inBounds(col, 0, 3);
+        switch (col) {
+        case 0:
+            return new Vec3(m00, m10, m20);
+        case 1:
+            return new Vec3(m01, m11, m21);
+        default:
+            return new Vec3(m02, m12, m22);
+        }
+    }
+
+    /**
+     * @return the position of the (row,col) element in row-major order.
+     */
+    private static int index(int row, int col) {
+        Check.inBounds(row, 0, 3);
+        Check.inBounds(col, 0, 3);
+        return row * 3 + col;
+    }
+
+    /**
+     * @return the exception for an operation whose result would not be 3x3.
+     */
+    private static UnsupportedOperationException unsupported(String operation) {
+        return new UnsupportedOperationException(
+                "A Mat3 is always 3x3, so it does not support " + operation + ".");
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Setters
+     *
+     * --------------------------------------------------
+     */
+
+    @Override
+    public void setDouble(int row, int col, double val) {
+        switch (index(row, col)) {
+        case 0:
+            m00 = val;
+            break;
+        case 1:
+            m01 = val;
+            break;
+        case 2:
+            m02 = val;
+            break;
+        case 3:
+            m10 = val;
+            break;
+        case 4:
+            m11 = val;
+            break;
+        case 5:
+            m12 = val;
+            break;
+        case 6:
+            m20 = val;
+            break;
+        case 7:
+            m21 = val;
+            break;
+        default:
+            m22 = val;
+        }
+    }
+
+    /**
+     * Overwrite this with the elements of B.
+     */
+    public void set(Mat3 B) {
+        m00 = B.m00;
+        m01 = B.m01;
+        m02 = B.m02;
+        m10 = B.m10;
+        m11 = B.m11;
+        m12 = B.m12;
+        m20 = B.m20;
+        m21 = B.m21;
+        m22 = B.m22;
+    }
+
+    @Override
+    public void transposeEquals() {
+        double tmp;
+        tmp = m01;
+        m01 = m10;
+        m10 = tmp;
+        tmp = m02;
+        m02 = m20;
+        m20 = tmp;
+        tmp = m12;
+        m12 = m21;
+        m21 = tmp;
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Matrix Operations
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return this * B.
+     */
+    @Override
+    public Mat3 times(Mat3 B) {
+        return new Mat3(
+                m00 * B.m00 + m01 * B.m10 + m02 * B.m20,
+                m00 * B.m01 + m01 * B.m11 + m02 * B.m21,
+                m00 * B.m02 + m01 * B.m12 + m02 * B.m22,
+                m10 * B.m00 + m11 * B.m10 + m12 * B.m20,
+                m10 * B.m01 + m11 * B.m11 + m12 * B.m21,
+                m10 * B.m02 + m11 * B.m12 + m12 * B.m22,
+                m20 * B.m00 + m21 * B.m10 + m22 * B.m20,
+                m20 * B.m01 + m21 * B.m11 + m22 * B.m21,
+                m20 * B.m02 + m21 * B.m12 + m22 * B.m22);
+    }
+
+    /**
+     * @return this * v.
+     */
+    public Vec3 times(Vec3 v) {
+        return new Vec3(
+                m00 * v.x + m01 * v.y + m02 * v.z,
+                m10 * v.x + m11 * v.y + m12 * v.z,
+                m20 * v.x + m21 * v.y + m22 * v.z);
+    }
+
+    @Override
+    public Mat3 transpose() {
+        return new Mat3(m00, m10, m20, m01, m11, m21, m02, m12, m22);
+    }
+
+    /**
+     * @return the determinant, which is computed with cofactors.
+     */
+    public double determinant() {
+        return m00 * (m11 * m22 - m12 * m21) + m01 * (m12 * m20 - m10 * m22)
+                + m02 * (m10 * m21 - m11 * m20);
+    }
+
+    /**
+     * @return this^-1, which is computed with cofactors.
+     * @throws ArithmeticException
+     *             if the matrix is singular.
+     */
+    public Mat3 inverse() {
+        double c00 = m11 * m22 - m12 * m21;
+        double c01 = m12 * m20 - m10 * m22;
+        double c02 = m10 * m21 - m11 * m20;
+        double det = m00 * c00 + m01 * c01 + m02 * c02;
+        if (det == 0)
+            throw new ArithmeticException("The matrix is singular.");
+        double inv = 1 / det;
+        return new Mat3(
+                c00 * inv, (m02 * m21 - m01 * m22) * inv, (m01 * m12 - m02 * m11) * inv,
+                c01 * inv, (m00 * m22 - m02 * m20) * inv, (m02 * m10 - m00 * m12) * inv,
+                c02 * inv, (m01 * m20 - m00 * m21) * inv, (m00 * m11 - m01 * m10) * inv);
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Element-wise Operations
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return this + B.
+     */
+    @Override
+    public Mat3 plus(Mat3 B) {
+        return new Mat3(m00 + B.m00, m01 + B.m01, m02 + B.m02, m10 + B.m10, m11 + B.m11,
+                m12 + B.m12, m20 + B.m20, m21 + B.m21, m22 + B.m22);
+    }
+
+    /**
+     * @return this - B.
+     */
+    @Override
+    public Mat3 minus(Mat3 B) {
+        return new Mat3(m00 - B.m00, m01 - B.m01, m02 - B.m02, m10 - B.m10, m11 - B.m11,
+                m12 - B.m12, m20 - B.m20, m21 - B.m21, m22 - B.m22);
+    }
+
+    @Override
+    public Mat3 apply(Operation operation, Mat3 B) {
+        return new Mat3(operation.apply(m00, B.m00), operation.apply(m01, B.m01),
+                operation.apply(m02, B.m02), operation.apply(m10, B.m10),
+                operation.apply(m11, B.m11), operation.apply(m12, B.m12),
+                operation.apply(m20, B.m20), operation.apply(m21, B.m21),
+                operation.apply(m22, B.m22));
+    }
+
+    @Override
+    public Mat3 apply(Operation operation, Number B) {
+        double b = B.doubleValue();
+        return new Mat3(operation.apply(m00, b), operation.apply(m01, b), operation.apply(m02, b),
+                operation.apply(m10, b), operation.apply(m11, b), operation.apply(m12, b),
+                operation.apply(m20, b), operation.apply(m21, b), operation.apply(m22, b));
+    }
+
+    @Override
+    public void applyEquals(Operation operation, Mat3 B) {
+        m00 = operation.apply(m00, B.m00);
+        m01 = operation.apply(m01, B.m01);
+        m02 = operation.apply(m02, B.m02);
+        m10 = operation.apply(m10, B.m10);
+        m11 = operation.apply(m11, B.m11);
+        m12 = operation.apply(m12, B.m12);
+        m20 = operation.apply(m20, B.m20);
+        m21 = operation.apply(m21, B.m21);
+        m22 = operation.apply(m22, B.m22);
+    }
+
+    @Override
+    public void applyEquals(Operation operation, Number B) {
+        double b = B.doubleValue();
+        m00 = operation.apply(m00, b);
+        m01 = operation.apply(m01, b);
+        m02 = operation.apply(m02, b);
+        m10 = operation.apply(m10, b);
+        m11 = operation.apply(m11, b);
+        m12 = operation.apply(m12, b);
+        m20 = operation.apply(m20, b);
+        m21 = operation.apply(m21, b);
+        m22 = operation.apply(m22, b);
+    }
+
+    @Override
+    public String toString() {
+        return asString();
+    }
+}
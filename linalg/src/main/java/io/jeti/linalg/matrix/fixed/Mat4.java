@@ -0,0 +1,562 @@
+package io.jeti.linalg.matrix.fixed;
+
+import io.jeti.linalg.matrix.Mat;
+import io.jeti.linalg.matrix.MutMat;
+import io.jeti.linalg.matrix.utils.Check;
+
+/**
+ * <p>
+ * A mutable 4x4 matrix, whose 16 elements are fields rather than the elements
+ * of an array, where the (i,j) element is mij. Every operation is fully
+ * unrolled, with no loops, no virtual calls to {@link #rows()} or
+ * {@link #cols()}, and no dimension checks, since the dimensions are part of
+ * the type. Since there is no array, a {@link Mat4} which does not escape a
+ * method can be scalar-replaced by the JIT compiler, so that it is never
+ * allocated at all.
+ * </p>
+ * <p>
+ * The generic operations of {@link Mat} and {@link MutMat} still work as
+ * long as their result is 4x4. The ones which cannot be 4x4 throw an
+ * {@link UnsupportedOperationException} instead, namely:
+ * </p>
+ * <ul>
+ * <li>{@link #row(int)} and {@link #col(int)}, for which
+ * {@link #getRow(int)} and {@link #getCol(int)} return a {@link Vec4}
+ * instead,</li>
+ * <li>{@link #vec()},</li>
+ * <li>{@link #get(int, int, int, int)} and
+ * {@link #get(int, int, int, int, int, int)}, unless they select the whole
+ * matrix, which is returned as its own view, and</li>
+ * <li>every newInstance method, _ones, _zeros, _eye, _rand and _randn,
+ * unless the dimensions are 4x4.</li>
+ * </ul>
+ * <p>
+ * This is the natural type for poses and projections in homogeneous coordinates.
+ * </p>
+ */
+public final class Mat4 implements MutMat<Mat4> {
+
+    public double m00, m01, m02, m03, m10, m11, m12, m13, m20, m21, m22, m23, m30, m31, m32, m33;
+
+    /*
+     * --------------------------------------------------
+     *
+     * Constructors
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * Create a 4x4 matrix of zeros.
+     */
+    public Mat4() {
+    }
+
+    /**
+     * Create a 4x4 matrix with the specified elements, in row-major order.
+     */
+    public Mat4(double m00, double m01, double m02, double m03, double m10, double m11, double m12,
+                double m13, double m20, double m21, double m22, double m23, double m30, double m31,
+                double m32, double m33) {
+        this.m00 = m00;
+        this.m01 = m01;
+        this.m02 = m02;
+        this.m03 = m03;
+        this.m10 = m10;
+        this.m11 = m11;
+        this.m12 = m12;
+        this.m13 = m13;
+        this.m20 = m20;
+        this.m21 = m21;
+        this.m22 = m22;
+        this.m23 = m23;
+        this.m30 = m30;
+        this.m31 = m31;
+        this.m32 = m32;
+        this.m33 = m33;
+    }
+
+    /**
+     * @return the 4x4 identity matrix.
+     */
+    public static Mat4 identity() {
+        Mat4 I = new Mat4();
+        I.m00 = 1;
+        I.m11 = 1;
+        I.m22 = 1;
+        I.m33 = 1;
+        return I;
+    }
+
+    /**
+     * @return a 4x4 matrix, whose elements are set with the filler.
+     * @throws UnsupportedOperationException
+     *             if the dimensions are not 4x4.
+     */
+    @Override
+    public Mat4 newInstance(int rows, int cols, Filler filler) {
+        if (rows != 4 || cols != 4)
+            throw unsupported("creating a " + rows + " x " + cols + " matrix");
+        return new Mat4(filler.apply(0, 0), filler.apply(0, 1), filler.apply(0, 2),
+                filler.apply(0, 3), filler.apply(1, 0), filler.apply(1, 1), filler.apply(1, 2),
+                filler.apply(1, 3), filler.apply(2, 0), filler.apply(2, 1), filler.apply(2, 2),
+                filler.apply(2, 3), filler.apply(3, 0), filler.apply(3, 1), filler.apply(3, 2),
+                filler.apply(3, 3));
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Getters
+     *
+     * --------------------------------------------------
+     */
+
+    @Override
+    public int rows() {
+        return 4;
+    }
+
+    @Override
+    public int cols() {
+        return 4;
+    }
+
+    @Override
+    public double getDouble(int row, int col) {
+        switch (index(row, col)) {
+        case 0:
+            return m00;
+        case 1:
+            return m01;
+        case 2:
+            return m02;
+        case 3:
+            return m03;
+        case 4:
+            return m10;
+        case 5:
+            return m11;
+        case 6:
+            return m12;
+        case 7:
+            return m13;
+        case 8:
+            return m20;
+        case 9:
+            return m21;
+        case 10:
+            return m22;
+        case 11:
+            return m23;
+        case 12:
+            return m30;
+        case 13:
+            return m31;
+        case 14:
+            return m32;
+        default:
+            return m33;
+        }
+    }
+
+    /**
+     * @return this, which is the only selection that a {@link Mat4} supports.
+     * @throws UnsupportedOperationException
+     *             unless the selection is the whole matrix, in order.
+     */
+    @Override
+    public Mat4 get(int fromRow, int toRow, int rowStride, int fromCol, int toCol,
+                     int colStride) {
+        if (fromRow != 0 || toRow != 4 || rowStride != 1 || fromCol != 0 || toCol != 4
+                || colStride != 1)
+            throw unsupported("selecting anything but the whole matrix");
+        return this;
+    }
+
+    /**
+     * @throws UnsupportedOperationException
+     *             always, since a row is not 4x4. Use {@link #getRow(int)}
+     *             instead.
+     */
+    @Override
+    public Mat4 row(int r) {
+        throw unsupported("row(int). Use getRow(int) instead");
+    }
+
+    /**
+     * @throws UnsupportedOperationException
+     *             always, since a column is not 4x4. Use
+     *             {@link #getCol(int)} instead.
+     */
+    @Override
+    public Mat4 col(int c) {
+        throw unsupported("col(int). Use getCol(int) instead");
+    }
+
+    /**
+     * @throws UnsupportedOperationException
+     *             always, since the vectorized matrix is 16x1.
+     */
+    @Override
+    public Mat4 vec() {
+        throw unsupported("vec()");
+    }
+
+    /**
+     * @return a copy of the specified row.
+     */
+    public Vec4 getRow(int row) {
+        Check.inBounds(row, 0, 4);
+        switch (row) {
+        case 0:
+            return new Vec4(m00, m01, m02, m03);
+        case 1:
+            return new Vec4(m10, m11, m12, m13);
+        case 2:
+            return new Vec4(m20, m21, m22, m23);
+        default:
+            return new Vec4(m30, m31, m32, m33);
+        }
+    }
+
+    /**
+     * @return a copy of the specified column.
+     */
+    public Vec4 getCol(int col) {
+        Check.inBounds(col, 0, 4);
+        switch (col) {
+        case 0:
+            return new Vec4(m00, m10, m20, m30);
+        case 1:
+            return new Vec4(m01, m11, m21, m31);
+        case 2:
+            return new Vec4(m02, m12, m22, m32);
+        default:
+            return new Vec4(m03, m13, m23, m33);
+        }
+    }
+
+    /**
+     * @return the position of the (row,col) element in row-major order.
+     */
+    private static int index(int row, int col) {
+        Check.inBounds(row, 0, 4);
+        Check.inBounds(col, 0, 4);
+        return row * 4 + col;
+    }
+
+    /**
+     * @return the exception for an operation whose result would not be 4x4.
+     */
+    private static UnsupportedOperationException unsupported(String operation) {
+        return new UnsupportedOperationException(
+                "A Mat4 is always 4x4, so it does not support " + operation + ".");
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Setters
+     *
+     * --------------------------------------------------
+     */
+
+    @Override
+    public void setDouble(int row, int col, double val) {
+        switch (index(row, col)) {
+        case 0:
+            m00 = val;
+            break;
+        case 1:
+            m01 = val;
+            break;
+        case 2:
+            m02 = val;
+            break;
+        case 3:
+            m03 = val;
+            break;
+        case 4:
+            m10 = val;
+            break;
+        case 5:
+            m11 = val;
+            break;
+        case 6:
+            m12 = val;
+            break;
+        case 7:
+            m13 = val;
+            break;
+        case 8:
+            m20 = val;
+            break;
+        case 9:
+            m21 = val;
+            break;
+        case 10:
+            m22 = val;
+            break;
+        case 11:
+            m23 = val;
+            break;
+        case 12:
+            m30 = val;
+            break;
+        case 13:
+            m31 = val;
+            break;
+        case 14:
+            m32 = val;
+            break;
+        default:
+            m33 = val;
+        }
+    }
+
+    /**
+     * Overwrite this with the elements of B.
+     */
+    public void set(Mat4 B) {
+        m00 = B.m00;
+        m01 = B.m01;
+        m02 = B.m02;
+        m03 = B.m03;
+        m10 = B.m10;
+        m11 = B.m11;
+        m12 = B.m12;
+        m13 = B.m13;
+        m20 = B.m20;
+        m21 = B.m21;
+        m22 = B.m22;
+        m23 = B.m23;
+        m30 = B.m30;
+        m31 = B.m31;
+        m32 = B.m32;
+        m33 = B.m33;
+    }
+
+    @Override
+    public void transposeEquals() {
+        double tmp;
+        tmp = m01;
+        m01 = m10;
+        m10 = tmp;
+        tmp = m02;
+        m02 = m20;
+        m20 = tmp;
+        tmp = m03;
+        m03 = m30;
+        m30 = tmp;
+        tmp = m12;
+        m12 = m21;
+        m21 = tmp;
+        tmp = m13;
+        m13 = m31;
+        m31 = tmp;
+        tmp = m23;
+        m23 = m32;
+        m32 = tmp;
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Matrix Operations
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return this * B.
+     */
+    @Override
+    public Mat4 times(Mat4 B) {
+        return new Mat4(
+                m00 * B.m00 + m01 * B.m10 + m02 * B.m20 + m03 * B.m30,
+                m00 * B.m01 + m01 * B.m11 + m02 * B.m21 + m03 * B.m31,
+                m00 * B.m02 + m01 * B.m12 + m02 * B.m22 + m03 * B.m32,
+                m00 * B.m03 + m01 * B.m13 + m02 * B.m23 + m03 * B.m33,
+                m10 * B.m00 + m11 * B.m10 + m12 * B.m20 + m13 * B.m30,
+                m10 * B.m01 + m11 * B.m11 + m12 * B.m21 + m13 * B.m31,
+                m10 * B.m02 + m11 * B.m12 + m12 * B.m22 + m13 * B.m32,
+                m10 * B.m03 + m11 * B.m13 + m12 * B.m23 + m13 * B.m33,
+                m20 * B.m00 + m21 * B.m10 + m22 * B.m20 + m23 * B.m30,
+                m20 * B.m01 + m21 * B.m11 + m22 * B.m21 + m23 * B.m31,
+                m20 * B.m02 + m21 * B.m12 + m22 * B.m22 + m23 * B.m32,
+                m20 * B.m03 + m21 * B.m13 + m22 * B.m23 + m23 * B.m33,
+                m30 * B.m00 + m31 * B.m10 + m32 * B.m20 + m33 * B.m30,
+                m30 * B.m01 + m31 * B.m11 + m32 * B.m21 + m33 * B.m31,
+                m30 * B.m02 + m31 * B.m12 + m32 * B.m22 + m33 * B.m32,
+                m30 * B.m03 + m31 * B.m13 + m32 * B.m23 + m33 * B.m33);
+    }
+
+    /**
+     * @return this * v.
+     */
+    public Vec4 times(Vec4 v) {
+        return new Vec4(
+                m00 * v.x + m01 * v.y + m02 * v.z + m03 * v.w,
+                m10 * v.x + m11 * v.y + m12 * v.z + m13 * v.w,
+                m20 * v.x + m21 * v.y + m22 * v.z + m23 * v.w,
+                m30 * v.x + m31 * v.y + m32 * v.z + m33 * v.w);
+    }
+
+    @Override
+    public Mat4 transpose() {
+        return new Mat4(m00, m10, m20, m30, m01, m11, m21, m31, m02, m12, m22, m32, m03, m13, m23,
+                m33);
+    }
+
+    /**
+     * @return the determinant, which is computed with cofactors.
+     */
+    public double determinant() {
+        /* The 2x2 determinants of the top two rows (s) and bottom two rows (c) */
+        double s0 = m00 * m11 - m10 * m01;
+        double s1 = m00 * m12 - m10 * m02;
+        double s2 = m00 * m13 - m10 * m03;
+        double s3 = m01 * m12 - m11 * m02;
+        double s4 = m01 * m13 - m11 * m03;
+        double s5 = m02 * m13 - m12 * m03;
+        double c5 = m22 * m33 - m32 * m23;
+        double c4 = m21 * m33 - m31 * m23;
+        double c3 = m21 * m32 - m31 * m22;
+        double c2 = m20 * m33 - m30 * m23;
+        double c1 = m20 * m32 - m30 * m22;
+        double c0 = m20 * m31 - m30 * m21;
+        return s0 * c5 - s1 * c4 + s2 * c3 + s3 * c2 - s4 * c1 + s5 * c0;
+    }
+
+    /**
+     * @return this^-1, which is computed with cofactors.
+     * @throws ArithmeticException
+     *             if the matrix is singular.
+     */
+    public Mat4 inverse() {
+        /* The 2x2 determinants of the top two rows (s) and bottom two rows (c) */
+        double s0 = m00 * m11 - m10 * m01;
+        double s1 = m00 * m12 - m10 * m02;
+        double s2 = m00 * m13 - m10 * m03;
+        double s3 = m01 * m12 - m11 * m02;
+        double s4 = m01 * m13 - m11 * m03;
+        double s5 = m02 * m13 - m12 * m03;
+        double c5 = m22 * m33 - m32 * m23;
+        double c4 = m21 * m33 - m31 * m23;
+        double c3 = m21 * m32 - m31 * m22;
+        double c2 = m20 * m33 - m30 * m23;
+        double c1 = m20 * m32 - m30 * m22;
+        double c0 = m20 * m31 - m30 * m21;
+        double det = s0 * c5 - s1 * c4 + s2 * c3 + s3 * c2 - s4 * c1 + s5 * c0;
+        if (det == 0)
+            throw new ArithmeticException("The matrix is singular.");
+        double inv = 1 / det;
+        return new Mat4(
+                (m11 * c5 - m12 * c4 + m13 * c3) * inv, (-m01 * c5 + m02 * c4 - m03 * c3) * inv,
+                (m31 * s5 - m32 * s4 + m33 * s3) * inv, (-m21 * s5 + m22 * s4 - m23 * s3) * inv,
+                (-m10 * c5 + m12 * c2 - m13 * c1) * inv, (m00 * c5 - m02 * c2 + m03 * c1) * inv,
+                (-m30 * s5 + m32 * s2 - m33 * s1) * inv, (m20 * s5 - m22 * s2 + m23 * s1) * inv,
+                (m10 * c4 - m11 * c2 + m13 * c0) * inv, (-m00 * c4 + m01 * c2 - m03 * c0) * inv,
+                (m30 * s4 - m31 * s2 + m33 * s0) * inv, (-m20 * s4 + m21 * s2 - m23 * s0) * inv,
+                (-m10 * c3 + m11 * c1 - m12 * c0) * inv, (m00 * c3 - m01 * c1 + m02 * c0) * inv,
+                (-m30 * s3 + m31 * s1 - m32 * s0) * inv, (m20 * s3 - m21 * s1 + m22 * s0) * inv);
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Element-wise Operations
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return this + B.
+     */
+    @Override
+    public Mat4 plus(Mat4 B) {
+        return new Mat4(m00 + B.m00, m01 + B.m01, m02 + B.m02, m03 + B.m03, m10 + B.m10,
+                m11 + B.m11, m12 + B.m12, m13 + B.m13, m20 + B.m20, m21 + B.m21, m22 + B.m22,
+                m23 + B.m23, m30 + B.m30, m31 + B.m31, m32 + B.m32, m33 + B.m33);
+    }
+
+    /**
+     * @return this - B.
+     */
+    @Override
+    public Mat4 minus(Mat4 B) {
+        return new Mat4(m00 - B.m00, m01 - B.m01, m02 - B.m02, m03 - B.m03, m10 - B.m10,
+                m11 - B.m11, m12 - B.m12, m13 - B.m13, m20 - B.m20, m21 - B.m21, m22 - B.m22,
+                m23 - B.m23, m30 - B.m30, m31 - B.m31, m32 - B.m32, m33 - B.m33);
+    }
+
+    @Override
+    public Mat4 apply(Operation operation, Mat4 B) {
+        return new Mat4(operation.apply(m00, B.m00), operation.apply(m01, B.m01),
+                operation.apply(m02, B.m02), operation.apply(m03, B.m03),
+                operation.apply(m10, B.m10), operation.apply(m11, B.m11),
+                operation.apply(m12, B.m12), operation.apply(m13, B.m13),
+                operation.apply(m20, B.m20), operation.apply(m21, B.m21),
+                operation.apply(m22, B.m22), operation.apply(m23, B.m23),
+                operation.apply(m30, B.m30), operation.apply(m31, B.m31),
+                operation.apply(m32, B.m32), operation.apply(m33, B.m33));
+    }
+
+    @Override
+    public Mat4 apply(Operation operation, Number B) {
+        double b = B.doubleValue();
+        return new Mat4(operation.apply(m00, b), operation.apply(m01, b), operation.apply(m02, b),
+                operation.apply(m03, b), operation.apply(m10, b), operation.apply(m11, b),
+                operation.apply(m12, b), operation.apply(m13, b), operation.apply(m20, b),
+                operation.apply(m21, b), operation.apply(m22, b), operation.apply(m23, b),
+                operation.apply(m30, b), operation.apply(m31, b), operation.apply(m32, b),
+                operation.apply(m33, b));
+    }
+
+    @Override
+    public void applyEquals(Operation operation, Mat4 B) {
+        m00 = operation.apply(m00, B.m00);
+        m01 = operation.apply(m01, B.m01);
+        m02 = operation.apply(m02, B.m02);
+        m03 = operation.apply(m03, B.m03);
+        m10 = operation.apply(m10, B.m10);
+        m11 = operation.apply(m11, B.m11);
+        m12 = operation.apply(m12, B.m12);
+        m13 = operation.apply(m13, B.m13);
+        m20 = operation.apply(m20, B.m20);
+        m21 = operation.apply(m21, B.m21);
+        m22 = operation.apply(m22, B.m22);
+        m23 = operation.apply(m23, B.m23);
+        m30 = operation.apply(m30, B.m30);
+        m31 = operation.apply(m31, B.m31);
+        m32 = operation.apply(m32, B.m32);
+        m33 = operation.apply(m33, B.m33);
+    }
+
+    @Override
+    public void applyEquals(Operation operation, Number B) {
+        double b = B.doubleValue();
+        m00 = operation.apply(m00, b);
+        m01 = operation.apply(m01, b);
+        m02 = operation.apply(m02, b);
+        m03 = operation.apply(m03, b);
+        m10 = operation.apply(m10, b);
+        m11 = operation.apply(m11, b);
+        m12 = operation.apply(m12, b);
+        m13 = operation.apply(m13, b);
+        m20 = operation.apply(m20, b);
+        m21 = operation.apply(m21, b);
+        m22 = operation.apply(m22, b);
+        m23 = operation.apply(m23, b);
+        m30 = operation.apply(m30, b);
+        m31 = operation.apply(m31, b);
+        m32 = operation.apply(m32, b);
+        m33 = operation.apply(m33, b);
+    }
+
+    @Override
+    public String toString() {
+        return asString();
+    }
+}
@@ -0,0 +1,222 @@
+package io.jeti.linalg.matrix.fixed;
+
+import io.jeti.linalg.matrix.MutVec;
+import io.jeti.linalg.matrix.Vec;
+import io.jeti.linalg.matrix.utils.Check;
+
+/**
+ * <p>
+ * A mutable vector with 2 elements, which are the fields x and y,
+ * rather than the elements of an array. As with {@link Mat2}, every
+ * operation is fully unrolled, and a {@link Vec2} which does not escape a
+ * method can be scalar-replaced by the JIT compiler.
+ * </p>
+ * <p>
+ * The generic operations of {@link Vec} and {@link MutVec} still work as
+ * long as their result has 2 elements. The ones which cannot have 2
+ * elements throw an {@link UnsupportedOperationException} instead, namely
+ * {@link #get(int, int)} and {@link #get(int, int, int)}, unless they select
+ * the whole vector, which is returned as its own view, and every
+ * newInstance method, _ones, _zeros, _rand and _randn, unless the number of
+ * elements is 2.
+ * </p>
+ */
+public final class Vec2 implements MutVec<Vec2> {
+
+    public double x, y;
+
+    /*
+     * --------------------------------------------------
+     *
+     * Constructors
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * Create a vector of zeros.
+     */
+    public Vec2() {
+    }
+
+    /**
+     * Create a vector with the specified elements.
+     */
+    public Vec2(double x, double y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * @return a vector with 2 elements, which are set with the filler.
+     * @throws UnsupportedOperationException
+     *             if elems is not 2.
+     */
+    @Override
+    public Vec2 newInstance(int elems, Filler filler) {
+        if (elems != 2)
+            throw unsupported("creating a vector with " + elems + " elements");
+        return new Vec2(filler.apply(0), filler.apply(1));
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Getters
+     *
+     * --------------------------------------------------
+     */
+
+    @Override
+    public int size() {
+        return 2;
+    }
+
+    @Override
+    public double getDouble(int element) {
+        Check.inBounds(element, 0, 2);
+        switch (element) {
+        case 0:
+            return x;
+        default:
+            return y;
+        }
+    }
+
+    /**
+     * @return this, which is the only selection that a {@link Vec2} supports.
+     * @throws UnsupportedOperationException
+     *             unless the selection is the whole vector, in order.
+     */
+    @Override
+    public Vec2 get(int from, int to, int stride) {
+        if (from != 0 || to != 2 || stride != 1)
+            throw unsupported("selecting anything but the whole vector");
+        return this;
+    }
+
+    /**
+     * @return the exception for an operation whose result would not have 2
+     *         elements.
+     */
+    private static UnsupportedOperationException unsupported(String operation) {
+        return new UnsupportedOperationException(
+                "A Vec2 always has 2 elements, so it does not support " + operation + ".");
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Setters
+     *
+     * --------------------------------------------------
+     */
+
+    @Override
+    public void setDouble(int elem, double val) {
+        Check.inBounds(elem, 0, 2);
+        switch (elem) {
+        case 0:
+            x = val;
+            break;
+        default:
+            y = val;
+        }
+    }
+
+    /**
+     * Overwrite this with the elements of B.
+     */
+    public void set(Vec2 B) {
+        x = B.x;
+        y = B.y;
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Vector Operations
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return the dot product of this and B, as a primitive.
+     */
+    public double dotDouble(Vec2 B) {
+        return x * B.x + y * B.y;
+    }
+
+    @Override
+    public Double dot(Vec2 B) {
+        return dotDouble(B);
+    }
+
+    /**
+     * @return the Euclidean norm.
+     */
+    public double norm() {
+        return Math.sqrt(dotDouble(this));
+    }
+
+    /**
+     * @return the z component of the cross product of (x, y, 0) and (B.x, B.y,
+     *         0), which is the signed area of the parallelogram they span.
+     */
+    public double cross(Vec2 B) {
+        return x * B.y - y * B.x;
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Element-wise Operations
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return this + B.
+     */
+    @Override
+    public Vec2 plus(Vec2 B) {
+        return new Vec2(x + B.x, y + B.y);
+    }
+
+    /**
+     * @return this - B.
+     */
+    @Override
+    public Vec2 minus(Vec2 B) {
+        return new Vec2(x - B.x, y - B.y);
+    }
+
+    @Override
+    public Vec2 apply(Operation operation, Vec2 B) {
+        return new Vec2(operation.apply(x, B.x), operation.apply(y, B.y));
+    }
+
+    @Override
+    public Vec2 apply(Operation operation, Number B) {
+        double b = B.doubleValue();
+        return new Vec2(operation.apply(x, b), operation.apply(y, b));
+    }
+
+    @Override
+    public void applyEquals(Operation operation, Vec2 B) {
+        x = operation.apply(x, B.x);
+        y = operation.apply(y, B.y);
+    }
+
+    @Override
+    public void applyEquals(Operation operation, Number B) {
+        double b = B.doubleValue();
+        x = operation.apply(x, b);
+        y = operation.apply(y, b);
+    }
+
+    @Override
+    public String toString() {
+        return asString();
+    }
+}
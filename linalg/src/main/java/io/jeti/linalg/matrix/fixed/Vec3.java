@@ -0,0 +1,230 @@
+package io.jeti.linalg.matrix.fixed;
+
+import io.jeti.linalg.matrix.MutVec;
+import io.jeti.linalg.matrix.Vec;
+import io.jeti.linalg.matrix.utils.Check;
+
+/**
+ * <p>
+ * A mutable vector with 3 elements, which are the fields x, y and z,
+ * rather than the elements of an array. As with {@link Mat3}, every
+ * operation is fully unrolled, and a {@link Vec3} which does not escape a
+ * method can be scalar-replaced by the JIT compiler.
+ * </p>
+ * <p>
+ * The generic operations of {@link Vec} and {@link MutVec} still work as
+ * long as their result has 3 elements. The ones which cannot have 3
+ * elements throw an {@link UnsupportedOperationException} instead, namely
+ * {@link #get(int, int)} and {@link #get(int, int, int)}, unless they select
+ * the whole vector, which is returned as its own view, and every
+ * newInstance method, _ones, _zeros, _rand and _randn, unless the number of
+ * elements is 3.
+ * </p>
+ */
+public final class Vec3 implements MutVec<Vec3> {
+
+    public double x, y, z;
+
+    /*
+     * --------------------------------------------------
+     *
+     * Constructors
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * Create a vector of zeros.
+     */
+    public Vec3() {
+    }
+
+    /**
+     * Create a vector with the specified elements.
+     */
+    public Vec3(double x, double y, double z) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+    }
+
+    /**
+     * @return a vector with 3 elements, which are set with the filler.
+     * @throws UnsupportedOperationException
+     *             if elems is not 3.
+     */
+    @Override
+    public Vec3 newInstance(int elems, Filler filler) {
+        if (elems != 3)
+            throw unsupported("creating a vector with " + elems + " elements");
+        return new Vec3(filler.apply(0), filler.apply(1), filler.apply(2));
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Getters
+     *
+     * --------------------------------------------------
+     */
+
+    @Override
+    public int size() {
+        return 3;
+    }
+
+    @Override
+    public double getDouble(int element) {
+        Check.inBounds(element, 0, 3);
+        switch (element) {
+        case 0:
+            return x;
+        case 1:
+            return y;
+        default:
+            return z;
+        }
+    }
+
+    /**
+     * @return this, which is the only selection that a {@link Vec3} supports.
+     * @throws UnsupportedOperationException
+     *             unless the selection is the whole vector, in order.
+     */
+    @Override
+    public Vec3 get(int from, int to, int stride) {
+        if (from != 0 || to != 3 || stride != 1)
+            throw unsupported("selecting anything but the whole vector");
+        return this;
+    }
+
+    /**
+     * @return the exception for an operation whose result would not have 3
+     *         elements.
+     */
+    private static UnsupportedOperationException unsupported(String operation) {
+        return new UnsupportedOperationException(
+                "A Vec3 always has 3 elements, so it does not support " + operation + ".");
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Setters
+     *
+     * --------------------------------------------------
+     */
+
+    @Override
+    public void setDouble(int elem, double val) {
+        Check.inBounds(elem, 0, 3);
+        switch (elem) {
+        case 0:
+            x = val;
+            break;
+        case 1:
+            y = val;
+            break;
+        default:
+            z = val;
+        }
+    }
+
+    /**
+     * Overwrite this with the elements of B.
+     */
+    public void set(Vec3 B) {
+        x = B.x;
+        y = B.y;
+        z = B.z;
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Vector Operations
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return the dot product of this and B, as a primitive.
+     */
+    public double dotDouble(Vec3 B) {
+        return x * B.x + y * B.y + z * B.z;
+    }
+
+    @Override
+    public Double dot(Vec3 B) {
+        return dotDouble(B);
+    }
+
+    /**
+     * @return the Euclidean norm.
+     */
+    public double norm() {
+        return Math.sqrt(dotDouble(this));
+    }
+
+    /**
+     * @return the cross product this x B.
+     */
+    public Vec3 cross(Vec3 B) {
+        return new Vec3(y * B.z - z * B.y, z * B.x - x * B.z, x * B.y - y * B.x);
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Element-wise Operations
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return this + B.
+     */
+    @Override
+    public Vec3 plus(Vec3 B) {
+        return new Vec3(x + B.x, y + B.y, z + B.z);
+    }
+
+    /**
+     * @return this - B.
+     */
+    @Override
+    public Vec3 minus(Vec3 B) {
+        return new Vec3(x - B.x, y - B.y, z - B.z);
+    }
+
+    @Override
+    public Vec3 apply(Operation operation, Vec3 B) {
+        return new Vec3(operation.apply(x, B.x), operation.apply(y, B.y), operation.apply(z, B.z));
+    }
+
+    @Override
+    public Vec3 apply(Operation operation, Number B) {
+        double b = B.doubleValue();
+        return new Vec3(operation.apply(x, b), operation.apply(y, b), operation.apply(z, b));
+    }
+
+    @Override
+    public void applyEquals(Operation operation, Vec3 B) {
+        x = operation.apply(x, B.x);
+        y = operation.apply(y, B.y);
+        z = operation.apply(z, B.z);
+    }
+
+    @Override
+    public void applyEquals(Operation operation, Number B) {
+        double b = B.doubleValue();
+        x = operation.apply(x, b);
+        y = operation.apply(y, b);
+        z = operation.apply(z, b);
+    }
+
+    @Override
+    public String toString() {
+        return asString();
+    }
+}
@@ -0,0 +1,235 @@
+package io.jeti.linalg.matrix.fixed;
+
+import io.jeti.linalg.matrix.MutVec;
+import io.jeti.linalg.matrix.Vec;
+import io.jeti.linalg.matrix.utils.Check;
+
+/**
+ * <p>
+ * A mutable vector with 4 elements, which are the fields x, y, z and w,
+ * rather than the elements of an array. As with {@link Mat4}, every
+ * operation is fully unrolled, and a {@link Vec4} which does not escape a
+ * method can be scalar-replaced by the JIT compiler. This is the natural type
+ * for points and directions in homogeneous coordinates.
+ * </p>
+ * <p>
+ * The generic operations of {@link Vec} and {@link MutVec} still work as
+ * long as their result has 4 elements. The ones which cannot have 4
+ * elements throw an {@link UnsupportedOperationException} instead, namely
+ * {@link #get(int, int)} and {@link #get(int, int, int)}, unless they select
+ * the whole vector, which is returned as its own view, and every
+ * newInstance method, _ones, _zeros, _rand and _randn, unless the number of
+ * elements is 4.
+ * </p>
+ */
+public final class Vec4 implements MutVec<Vec4> {
+
+    public double x, y, z, w;
+
+    /*
+     * --------------------------------------------------
+     *
+     * Constructors
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * Create a vector of zeros.
+     */
+    public Vec4() {
+    }
+
+    /**
+     * Create a vector with the specified elements.
+     */
+    public Vec4(double x, double y, double z, double w) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.w = w;
+    }
+
+    /**
+     * @return a vector with 4 elements, which are set with the filler.
+     * @throws UnsupportedOperationException
+     *             if elems is not 4.
+     */
+    @Override
+    public Vec4 newInstance(int elems, Filler filler) {
+        if (elems != 4)
+            throw unsupported("creating a vector with " + elems + " elements");
+        return new Vec4(filler.apply(0), filler.apply(1), filler.apply(2), filler.apply(3));
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Getters
+     *
+     * --------------------------------------------------
+     */
+
+    @Override
+    public int size() {
+        return 4;
+    }
+
+    @Override
+    public double getDouble(int element) {
+        Check.inBounds(element, 0, 4);
+        switch (element) {
+        case 0:
+            return x;
+        case 1:
+            return y;
+        case 2:
+            return z;
+        default:
+            return w;
+        }
+    }
+
+    /**
+     * @return this, which is the only selection that a {@link Vec4} supports.
+     * @throws UnsupportedOperationException
+     *             unless the selection is the whole vector, in order.
+     */
+    @Override
+    public Vec4 get(int from, int to, int stride) {
+        if (from != 0 || to != 4 || stride != 1)
+            throw unsupported("selecting anything but the whole vector");
+        return this;
+    }
+
+    /**
+     * @return the exception for an operation whose result would not have 4
+     *         elements.
+     */
+    private static UnsupportedOperationException unsupported(String operation) {
+        return new UnsupportedOperationException(
+                "A Vec4 always has 4 elements, so it does not support " + operation + ".");
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Setters
+     *
+     * --------------------------------------------------
+     */
+
+    @Override
+    public void setDouble(int elem, double val) {
+        Check.inBounds(elem, 0, 4);
+        switch (elem) {
+        case 0:
+            x = val;
+            break;
+        case 1:
+            y = val;
+            break;
+        case 2:
+            z = val;
+            break;
+        default:
+            w = val;
+        }
+    }
+
+    /**
+     * Overwrite this with the elements of B.
+     */
+    public void set(Vec4 B) {
+        x = B.x;
+        y = B.y;
+        z = B.z;
+        w = B.w;
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Vector Operations
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return the dot product of this and B, as a primitive.
+     */
+    public double dotDouble(Vec4 B) {
+        return x * B.x + y * B.y + z * B.z + w * B.w;
+    }
+
+    @Override
+    public Double dot(Vec4 B) {
+        return dotDouble(B);
+    }
+
+    /**
+     * @return the Euclidean norm.
+     */
+    public double norm() {
+        return Math.sqrt(dotDouble(this));
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Element-wise Operations
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return this + B.
+     */
+    @Override
+    public Vec4 plus(Vec4 B) {
+        return new Vec4(x + B.x, y + B.y, z + B.z, w + B.w);
+    }
+
+    /**
+     * @return this - B.
+     */
+    @Override
+    public Vec4 minus(Vec4 B) {
+        return new Vec4(x - B.x, y - B.y, z - B.z, w - B.w);
+    }
+
+    @Override
+    public Vec4 apply(Operation operation, Vec4 B) {
+        return new Vec4(operation.apply(x, B.x), operation.apply(y, B.y), operation.apply(z, B.z),
+                operation.apply(w, B.w));
+    }
+
+    @Override
+    public Vec4 apply(Operation operation, Number B) {
+        double b = B.doubleValue();
+        return new Vec4(operation.apply(x, b), operation.apply(y, b), operation.apply(z, b),
+                operation.apply(w, b));
+    }
+
+    @Override
+    public void applyEquals(Operation operation, Vec4 B) {
+        x = operation.apply(x, B.x);
+        y = operation.apply(y, B.y);
+        z = operation.apply(z, B.z);
+        w = operation.apply(w, B.w);
+    }
+
+    @Override
+    public void applyEquals(Operation operation, Number B) {
+        double b = B.doubleValue();
+        x = operation.apply(x, b);
+        y = operation.apply(y, b);
+        z = operation.apply(z, b);
+        w = operation.apply(w, b);
+    }
+
+    @Override
+    public String toString() {
+        return asString();
+    }
+}
@@ -0,0 +1,317 @@
+package io.jeti.linalg.matrix.io;
+
+import io.jeti.linalg.matrix.Mat;
+import io.jeti.linalg.matrix.MutMat;
+import io.jeti.linalg.matrix.Vec;
+import io.jeti.linalg.matrix.dense.DenseMat;
+import io.jeti.linalg.matrix.dense.DenseVec;
+import io.jeti.linalg.matrix.dense.DirectMat;
+import io.jeti.linalg.matrix.dense.DirectVec;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.zip.CRC32;
+
+/**
+ * <p>
+ * Reading and writing {@link Mat}s and {@link Vec}s in a compact binary
+ * format, that is, a {@link MatHeader} followed by the raw little-endian
+ * elements, and optionally a CRC32 trailer. This is much faster and smaller
+ * than going through {@link Mat#toList()} or {@link Mat#asString()}.
+ * </p>
+ * <p>
+ * Writers and readers stream through NIO channels in chunks of
+ * {@link #CHUNK} bytes, so they never hold a second copy of the data. A
+ * buffer which already holds a whole file, such as a mapped file, can instead
+ * be {@link #wrap(ByteBuffer) wrapped} as a {@link DirectMat} without copying
+ * anything. Since the format is the same one which is used by
+ * {@link io.jeti.linalg.matrix.dense.MappedMat}, files which are written here
+ * can also be mapped directly.
+ * </p>
+ */
+public class MatFormat {
+
+    /**
+     * The number of bytes which are read or written at a time.
+     */
+    public static final int CHUNK = 1 << 16;
+
+    /*
+     * --------------------------------------------------
+     *
+     * Writing
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * Write A to the channel in row-major order, followed by a checksum.
+     */
+    public static void write(Mat<?> A, WritableByteChannel channel) throws IOException {
+        write(A, channel, MatHeader.ROW_MAJOR, true);
+    }
+
+    /**
+     * Write A to the channel with the specified layout, which is either
+     * {@link MatHeader#ROW_MAJOR} or {@link MatHeader#COL_MAJOR}, and followed
+     * by a checksum if requested.
+     */
+    public static void write(Mat<?> A, WritableByteChannel channel, byte layout,
+                             boolean checksum) throws IOException {
+        MatHeader header = new MatHeader(A.rows(), A.cols(), layout, checksum);
+        if (header.isRowMajor())
+            write(header, A.rows(), A.cols(), A::getDouble, channel);
+        else
+            write(header, A.cols(), A.rows(), (col, row) -> A.getDouble(row, col), channel);
+    }
+
+    /**
+     * Write x to the channel as a column, followed by a checksum.
+     */
+    public static void write(Vec<?> x, WritableByteChannel channel) throws IOException {
+        MatHeader header = new MatHeader(x.size(), 1, MatHeader.ROW_MAJOR, true);
+        write(header, x.size(), 1, (i, j) -> x.getDouble(i), channel);
+    }
+
+    /**
+     * Write the header, and then the elements in the order in which they are
+     * stored, where the filler returns the element at (outer, inner).
+     */
+    private static void write(MatHeader header, int outer, int inner, Mat.Filler elements,
+                              WritableByteChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(CHUNK).order(ByteOrder.LITTLE_ENDIAN);
+        header.write(buffer);
+        writeFully(channel, buffer, null);
+        CRC32 crc = header.hasChecksum() ? new CRC32() : null;
+        for (int i = 0; i < outer; i++) {
+            for (int j = 0; j < inner; j++) {
+                if (!buffer.hasRemaining())
+                    writeFully(channel, buffer, crc);
+                buffer.putDouble(elements.apply(i, j));
+            }
+        }
+        writeFully(channel, buffer, crc);
+        if (crc != null) {
+            buffer.putLong(crc.getValue());
+            writeFully(channel, buffer, null);
+        }
+    }
+
+    /**
+     * Write the contents of the buffer to the channel, update the checksum
+     * with them if it is not null, and clear the buffer.
+     */
+    private static void writeFully(WritableByteChannel channel, ByteBuffer buffer, CRC32 crc)
+            throws IOException {
+        buffer.flip();
+        if (crc != null) {
+            crc.update(buffer);
+            buffer.rewind();
+        }
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Reading
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return the header at the current position of the channel.
+     */
+    public static MatHeader readHeader(ReadableByteChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(MatHeader.SIZE);
+        readFully(channel, buffer);
+        buffer.flip();
+        return MatHeader.read(buffer);
+    }
+
+    /**
+     * @return a new row-major {@link DenseMat}, which is read from the
+     *         channel.
+     * @throws IOException
+     *             if the data is not valid, or if the checksum does not match.
+     */
+    public static DenseMat read(ReadableByteChannel channel) throws IOException {
+        MatHeader header = readHeader(channel);
+        checkSize(header);
+        int rows = (int) header.rows();
+        int cols = (int) header.cols();
+        double[] data = new double[rows * cols];
+        readElements(channel, header, (row, col, val) -> data[row * cols + col] = val);
+        return new DenseMat(data, rows, cols);
+    }
+
+    /**
+     * Overwrite the specified {@link MutMat}, which must have the same
+     * dimensions as the matrix in the channel, with the data in the channel.
+     * @throws IOException
+     *             if the data is not valid, or if the checksum does not match.
+     */
+    public static void read(ReadableByteChannel channel, MutMat<?> into) throws IOException {
+        MatHeader header = readHeader(channel);
+        if (header.rows() != into.rows() || header.cols() != into.cols())
+            throw new IllegalArgumentException("Cannot read a " + header.rows() + " x "
+                    + header.cols() + " matrix into a " + into.rows() + " x " + into.cols()
+                    + " matrix.");
+        readElements(channel, header, into::setDouble);
+    }
+
+    /**
+     * @return a new {@link DenseVec}, which is read from the channel. The data
+     *         must have either a single row or a single column.
+     * @throws IOException
+     *             if the data is not valid, or if the checksum does not match.
+     */
+    public static DenseVec readVec(ReadableByteChannel channel) throws IOException {
+        MatHeader header = readHeader(channel);
+        checkSize(header);
+        if (header.rows() != 1 && header.cols() != 1)
+            throw new IOException("This is not a vector: " + header);
+        double[] data = new double[(int) header.elements()];
+        readElements(channel, header, (row, col, val) -> data[row + col] = val);
+        return new DenseVec(data);
+    }
+
+    /**
+     * The destination of the elements which are read from a channel.
+     */
+    private interface Sink {
+        void set(int row, int col, double val);
+    }
+
+    /**
+     * Read the elements which follow the header from the channel, pass them
+     * to the sink, and verify the checksum, if any.
+     */
+    private static void readElements(ReadableByteChannel channel, MatHeader header, Sink sink)
+            throws IOException {
+        boolean rowMajor = header.isRowMajor();
+        int outer = (int) (rowMajor ? header.rows() : header.cols());
+        int inner = (int) (rowMajor ? header.cols() : header.rows());
+        ByteBuffer buffer = ByteBuffer.allocate(CHUNK).order(ByteOrder.LITTLE_ENDIAN);
+        CRC32 crc = header.hasChecksum() ? new CRC32() : null;
+        buffer.flip();
+        for (int i = 0; i < outer; i++) {
+            for (int j = 0; j < inner; j++) {
+                if (!buffer.hasRemaining()) {
+                    buffer.clear();
+                    long left = (header.elements() - (long) i * inner - j) * Double.BYTES;
+                    buffer.limit((int) Math.min(CHUNK, left));
+                    readFully(channel, buffer);
+                    buffer.flip();
+                    if (crc != null)
+                        crc.update(buffer.duplicate());
+                }
+                double val = buffer.getDouble();
+                if (rowMajor)
+                    sink.set(i, j, val);
+                else
+                    sink.set(j, i, val);
+            }
+        }
+        if (crc != null) {
+            buffer.clear().limit(MatHeader.TRAILER);
+            readFully(channel, buffer);
+            buffer.flip();
+            if (buffer.getLong() != crc.getValue())
+                throw new IOException("The checksum does not match.");
+        }
+    }
+
+    private static void readFully(ReadableByteChannel channel, ByteBuffer buffer)
+            throws IOException {
+        while (buffer.hasRemaining())
+            if (channel.read(buffer) < 0)
+                throw new EOFException("The data is truncated.");
+    }
+
+    /**
+     * Ensure that the data fits in a single array.
+     */
+    private static void checkSize(MatHeader header) throws IOException {
+        if (header.elements() > Integer.MAX_VALUE - 8 || header.rows() > Integer.MAX_VALUE
+                || header.cols() > Integer.MAX_VALUE)
+            throw new IOException("The matrix is too large for an array: " + header);
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Zero-Copy Reading
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return a {@link DirectMat} which wraps (does NOT copy) the matrix at the
+     *         current position of the buffer, such as a mapped file, in the
+     *         layout in which it is stored. The position of the buffer is not
+     *         changed. The checksum, if any, is not verified, since that would
+     *         read every element. Use {@link #verify(ByteBuffer)} for that.
+     *         Closing the returned matrix never releases the buffer, and if
+     *         the buffer came from {@link DirectMat#asByteBuffer()}, closing
+     *         that matrix no longer releases it either, so the wrapper stays
+     *         valid for as long as it is reachable.
+     */
+    public static DirectMat wrap(ByteBuffer buffer) throws IOException {
+        ByteBuffer in = buffer.duplicate();
+        MatHeader header = MatHeader.read(in);
+        checkWrap(header, in);
+        return DirectMat.wrap(in.order(ByteOrder.LITTLE_ENDIAN), (int) header.rows(),
+                (int) header.cols(), header.isRowMajor());
+    }
+
+    /**
+     * @return a {@link DirectVec} which wraps (does NOT copy) the vector at
+     *         the current position of the buffer, with the same lifetime, as
+     *         in {@link #wrap(ByteBuffer)}.
+     */
+    public static DirectVec wrapVec(ByteBuffer buffer) throws IOException {
+        ByteBuffer in = buffer.duplicate();
+        MatHeader header = MatHeader.read(in);
+        checkWrap(header, in);
+        if (header.rows() != 1 && header.cols() != 1)
+            throw new IOException("This is not a vector: " + header);
+        return DirectVec.wrap(in.order(ByteOrder.LITTLE_ENDIAN), (int) header.elements());
+    }
+
+    /**
+     * Verify the checksum of the matrix or vector at the current position of
+     * the buffer, without changing its position.
+     * @throws IOException
+     *             if the data is not valid, or if the checksum does not match.
+     */
+    public static void verify(ByteBuffer buffer) throws IOException {
+        ByteBuffer in = buffer.duplicate();
+        MatHeader header = MatHeader.read(in);
+        if (in.remaining() < header.length() - MatHeader.SIZE)
+            throw new IOException("The data is truncated.");
+        if (!header.hasChecksum())
+            return;
+        ByteBuffer elements = in.slice();
+        elements.limit((int) (header.elements() * Double.BYTES));
+        CRC32 crc = new CRC32();
+        crc.update(elements);
+        long expected = in.order(ByteOrder.LITTLE_ENDIAN).getLong(
+                in.position() + (int) (header.elements() * Double.BYTES));
+        if (expected != crc.getValue())
+            throw new IOException("The checksum does not match.");
+    }
+
+    private static void checkWrap(MatHeader header, ByteBuffer in) throws IOException {
+        if (header.elements() > Integer.MAX_VALUE / Double.BYTES
+                || header.rows() > Integer.MAX_VALUE || header.cols() > Integer.MAX_VALUE)
+            throw new IOException("The matrix is too large for a single buffer: " + header);
+        if (in.remaining() < header.elements() * Double.BYTES)
+            throw new IOException("The data is truncated.");
+    }
+}
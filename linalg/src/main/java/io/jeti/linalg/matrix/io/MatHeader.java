@@ -0,0 +1,225 @@
+package io.jeti.linalg.matrix.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * <p>
+ * The fixed-size header which precedes the elements of a matrix in a file.
+ * All fields are little-endian, and the header is {@link #SIZE} bytes long, so
+ * that the elements which follow it are aligned to 8 bytes:
+ * </p>
+ *
+ * <pre>
+ * offset  size  field
+ *      0     4  magic, the bytes "JMAT"
+ *      4     2  version
+ *      6     1  dtype, that is, the type of the elements
+ *      7     1  layout, that is, row-major or column-major
+ *      8     8  rows
+ *     16     8  cols
+ *     24     1  flags
+ *     25    39  reserved, zero
+ * </pre>
+ * <p>
+ * If the {@link #CHECKSUM} flag is set, then the elements are followed by an
+ * 8-byte little-endian trailer holding the CRC32 of their bytes. The trailer
+ * comes last, so that a writer can compute it while streaming the elements.
+ * A vector is stored as a column, that is, a (size x 1) matrix.
+ * </p>
+ */
+public final class MatHeader {
+
+    /**
+     * The number of bytes in the header.
+     */
+    public static final int   SIZE      = 64;
+
+    /**
+     * The bytes "JMAT", read as a little-endian int.
+     */
+    public static final int   MAGIC     = 0x54414D4A;
+
+    /**
+     * The current version of the format.
+     */
+    public static final short VERSION   = 1;
+
+    /**
+     * The dtype of 8-byte IEEE 754 doubles.
+     */
+    public static final byte  FLOAT64   = 1;
+
+    /**
+     * The layout where the (row,col) element is element
+     * <code>row * cols + col</code>.
+     */
+    public static final byte  ROW_MAJOR = 0;
+
+    /**
+     * The layout where the (row,col) element is element
+     * <code>col * rows + row</code>.
+     */
+    public static final byte  COL_MAJOR = 1;
+
+    /**
+     * The flag which indicates that the elements are followed by a CRC32
+     * trailer.
+     */
+    public static final byte  CHECKSUM  = 1;
+
+    /**
+     * The number of bytes in the checksum trailer.
+     */
+    public static final int   TRAILER   = 8;
+
+    private final long        rows;
+    private final long        cols;
+    private final byte        dtype;
+    private final byte        layout;
+    private final byte        flags;
+
+    /**
+     * Create a header for a (rows x cols) matrix of doubles with the specified
+     * layout, which is either {@link #ROW_MAJOR} or {@link #COL_MAJOR}, and
+     * without a checksum.
+     */
+    public MatHeader(long rows, long cols, byte layout) {
+        this(rows, cols, layout, false);
+    }
+
+    /**
+     * Create a header for a (rows x cols) matrix of doubles with the specified
+     * layout, which is either {@link #ROW_MAJOR} or {@link #COL_MAJOR}, and
+     * which indicates whether the elements are followed by a checksum.
+     */
+    public MatHeader(long rows, long cols, byte layout, boolean checksum) {
+        this(rows, cols, FLOAT64, layout, checksum ? CHECKSUM : 0);
+    }
+
+    private MatHeader(long rows, long cols, byte dtype, byte layout, byte flags) {
+        if (rows < 0 || cols < 0)
+            throw new IllegalArgumentException(
+                    "The dimensions are negative: " + rows + " x " + cols);
+        if (layout != ROW_MAJOR && layout != COL_MAJOR)
+            throw new IllegalArgumentException("Unknown layout: " + layout);
+        this.rows = rows;
+        this.cols = cols;
+        this.dtype = dtype;
+        this.layout = layout;
+        this.flags = flags;
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Getters
+     *
+     * --------------------------------------------------
+     */
+
+    public long rows() {
+        return rows;
+    }
+
+    public long cols() {
+        return cols;
+    }
+
+    /**
+     * @return the total number of elements, that is, rows * cols.
+     */
+    public long elements() {
+        return rows * cols;
+    }
+
+    public byte dtype() {
+        return dtype;
+    }
+
+    public byte layout() {
+        return layout;
+    }
+
+    /**
+     * @return true if the layout is {@link #ROW_MAJOR}.
+     */
+    public boolean isRowMajor() {
+        return layout == ROW_MAJOR;
+    }
+
+    /**
+     * @return true if the elements are followed by a CRC32 trailer.
+     */
+    public boolean hasChecksum() {
+        return (flags & CHECKSUM) != 0;
+    }
+
+    /**
+     * @return the number of bytes of the header, the elements, and the
+     *         trailer, if any.
+     */
+    public long length() {
+        return SIZE + elements() * Double.BYTES + (hasChecksum() ? TRAILER : 0);
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Reading and Writing
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * Write this header at the current position of the buffer, and advance
+     * the position by {@link #SIZE}. The byte order of the buffer is not
+     * changed.
+     */
+    public void write(ByteBuffer buffer) {
+        ByteBuffer out = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+        out.putInt(MAGIC).putShort(VERSION).put(dtype).put(layout).putLong(rows).putLong(cols)
+                .put(flags);
+        while (out.position() < SIZE)
+            out.put((byte) 0);
+        buffer.position(buffer.position() + SIZE);
+    }
+
+    /**
+     * @return the header at the current position of the buffer, after which
+     *         the position has been advanced by {@link #SIZE}.
+     * @throws IOException
+     *             if the buffer does not contain a valid header.
+     */
+    public static MatHeader read(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < SIZE)
+            throw new IOException("The header is truncated.");
+        ByteBuffer in = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+        if (in.getInt() != MAGIC)
+            throw new IOException("This is not a matrix file.");
+        short version = in.getShort();
+        if (version != VERSION)
+            throw new IOException("Unsupported version: " + version);
+        byte dtype = in.get();
+        if (dtype != FLOAT64)
+            throw new IOException("Unsupported dtype: " + dtype);
+        byte layout = in.get();
+        long rows = in.getLong();
+        long cols = in.getLong();
+        byte flags = in.get();
+        if ((flags & ~CHECKSUM) != 0)
+            throw new IOException("Unsupported flags: " + flags);
+        if (rows < 0 || cols < 0 || layout != ROW_MAJOR && layout != COL_MAJOR
+                || cols != 0 && rows > Long.MAX_VALUE / Double.BYTES / cols)
+            throw new IOException("The header is corrupt.");
+        buffer.position(buffer.position() + SIZE);
+        return new MatHeader(rows, cols, dtype, layout, flags);
+    }
+
+    @Override
+    public String toString() {
+        return rows + " x " + cols + (isRowMajor() ? " row-major" : " column-major") + " float64"
+                + (hasChecksum() ? " with checksum" : "");
+    }
+}
@@ -0,0 +1,649 @@
+package io.jeti.linalg.matrix.kernels;
+
+import io.jeti.linalg.matrix.Mat;
+import io.jeti.linalg.matrix.Mat.Filler;
+import io.jeti.linalg.matrix.MutMat;
+import io.jeti.linalg.matrix.utils.Check;
+import java.nio.DoubleBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * <p>
+ * A cache-blocked, register-blocked general matrix multiply (GEMM) engine,
+ * which computes
+ * </p>
+ *
+ * <pre>
+ * C = alpha * A * B + beta * C
+ * </pre>
+ * <p>
+ * where A is (m x k), B is (k x n), and C is (m x n). This is the engine that
+ * {@link Mat#times(Mat)} dispatches to.
+ * </p>
+ * <p>
+ * The computation follows the usual layered approach. The columns of B are
+ * split into blocks of width {@link #nc()}, and the inner dimension is split
+ * into blocks of depth {@link #kc()}. Each (kc x nc) block of B is packed into
+ * a contiguous buffer of micro-panels that are {@link #NR} columns wide. Then
+ * the rows of A are split into blocks of height {@link #mc()}, and each (mc x
+ * kc) block of A is packed into micro-panels that are {@link #MR} rows tall.
+ * Finally, a fully unrolled (MR x NR) micro-kernel accumulates a tile of C in
+ * registers while streaming through one micro-panel of A and one of B. The
+ * packed panels are small enough to stay resident in the L2 and L1 caches
+ * respectively, so the micro-kernel is almost never waiting on memory.
+ * </p>
+ * <p>
+ * The block sizes can be selected at runtime by constructing a new
+ * {@link Gemm} and, if desired, making it the default with
+ * {@link #setDefault(Gemm)}. The packing buffers are kept per thread and are
+ * reused across calls, so a steady stream of multiplies does not allocate.
+ * </p>
+ * <p>
+ * A {@link Gemm} may also be given an {@link Executor}, in which case products
+ * with at least {@link #threshold()} multiply-adds are split into blocks of
+ * the output, which are computed concurrently on the executor. Since each
+ * element of C is summed in exactly the same order regardless of how the
+ * output is split, the parallel result is identical, bit for bit, to the
+ * sequential one. By default, products are parallelized on the
+ * {@link ForkJoinPool#commonPool()}.
+ * </p>
+ */
+public class Gemm {
+
+    /** The number of rows of the register-blocked micro-kernel. */
+    public static final int MR = 4;
+
+    /** The number of columns of the register-blocked micro-kernel. */
+    public static final int NR = 4;
+
+    /**
+     * Products with fewer than this many multiply-adds are computed with a
+     * plain loop, since packing would cost more than it saves.
+     */
+    private static final long SMALL = 32 * 32 * 32;
+
+    /**
+     * The default number of multiply-adds below which products are not
+     * parallelized.
+     */
+    public static final long PARALLEL_THRESHOLD = 128 * 128 * 128;
+
+    private static volatile Gemm defaultGemm = new Gemm(128, 256, 4096)
+            .parallel(ForkJoinPool.commonPool(), PARALLEL_THRESHOLD);
+
+    private final int      mc;
+    private final int      kc;
+    private final int      nc;
+    private final Executor executor;
+    private final long     threshold;
+
+    /**
+     * The packing buffers for A and B, respectively, which are reused by
+     * every call made from the same thread. They grow on demand, up to (mc x
+     * kc) and (kc x nc), so small products do not pin large buffers.
+     */
+    private final ThreadLocal<double[][]> buffers;
+
+    /**
+     * Create a sequential {@link Gemm} which uses the specified block sizes,
+     * where mc is rounded up to a multiple of {@link #MR} and nc is rounded up
+     * to a multiple of {@link #NR}.
+     */
+    public Gemm(int mc, int kc, int nc) {
+        this(mc, kc, nc, null, Long.MAX_VALUE);
+    }
+
+    /**
+     * Create a {@link Gemm} which uses the specified block sizes, and which
+     * computes products with at least "threshold" multiply-adds concurrently
+     * on the specified {@link Executor}. If the executor is null, then all
+     * products are computed sequentially.
+     */
+    public Gemm(int mc, int kc, int nc, Executor executor, long threshold) {
+        Check.positive(mc);
+        Check.positive(kc);
+        Check.positive(nc);
+        this.mc = roundUp(mc, MR);
+        this.kc = kc;
+        this.nc = roundUp(nc, NR);
+        this.executor = executor;
+        this.threshold = threshold;
+        this.buffers = ThreadLocal.withInitial(() -> new double[2][0]);
+    }
+
+    /**
+     * @return the {@link Gemm} used by {@link Mat#times(Mat)}.
+     */
+    public static Gemm getDefault() {
+        return defaultGemm;
+    }
+
+    /**
+     * Set the {@link Gemm} used by {@link Mat#times(Mat)}.
+     */
+    public static void setDefault(Gemm gemm) {
+        defaultGemm = gemm;
+    }
+
+    /** @return the number of rows of A in each packed block. */
+    public int mc() {
+        return mc;
+    }
+
+    /** @return the depth of the inner dimension in each packed block. */
+    public int kc() {
+        return kc;
+    }
+
+    /** @return the number of columns of B in each packed block. */
+    public int nc() {
+        return nc;
+    }
+
+    /**
+     * @return the {@link Executor} used for large products, or null if this
+     *         {@link Gemm} is sequential.
+     */
+    public Executor executor() {
+        return executor;
+    }
+
+    /**
+     * @return the number of multiply-adds at or above which products are
+     *         computed concurrently.
+     */
+    public long threshold() {
+        return threshold;
+    }
+
+    /**
+     * @return a {@link Gemm} with the same block sizes as this one, which
+     *         computes products with at least "threshold" multiply-adds
+     *         concurrently on the specified {@link Executor}.
+     */
+    public Gemm parallel(Executor executor, long threshold) {
+        return new Gemm(mc, kc, nc, executor, threshold);
+    }
+
+    /**
+     * @return a {@link Gemm} with the same block sizes as this one, which
+     *         computes all products sequentially.
+     */
+    public Gemm sequential() {
+        return new Gemm(mc, kc, nc);
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Entry Points
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * Compute C = alpha * A * B + beta * C, where the elements of A and B are
+     * read through the specified {@link Filler}s, and the (row,col) element of
+     * C is stored at <code>c[cOff + row * cRs + col * cCs]</code>. If beta is
+     * zero, then C does not have to be initialized.
+     */
+    public void multiply(int m, int n, int k, double alpha, Filler A, Filler B, double beta,
+                         double[] c, int cOff, int cRs, int cCs) {
+        multiply(m, n, k, alpha, new FillerOperand(A), new FillerOperand(B), beta,
+                new ArrayOutput(c, cOff, cRs, cCs));
+    }
+
+    /**
+     * Compute C = alpha * A * B + beta * C, where the (row,col) element of A is
+     * stored at <code>a[aOff + row * aRs + col * aCs]</code>, and similarly
+     * for B and C. If beta is zero, then C does not have to be initialized.
+     */
+    public void multiply(int m, int n, int k, double alpha, double[] a, int aOff, int aRs,
+                         int aCs, double[] b, int bOff, int bRs, int bCs, double beta, double[] c,
+                         int cOff, int cRs, int cCs) {
+        multiply(m, n, k, alpha, new ArrayOperand(a, aOff, aRs, aCs),
+                new ArrayOperand(b, bOff, bRs, bCs), beta, new ArrayOutput(c, cOff, cRs, cCs));
+    }
+
+    /**
+     * Compute C = alpha * A * B + beta * C, where the (row,col) element of A is
+     * stored at <code>a.get(aOff + row * aRs + col * aCs)</code>, and
+     * similarly for B and C. This is the counterpart of the array version for
+     * off-heap storage. If beta is zero, then C does not have to be
+     * initialized.
+     */
+    public void multiply(int m, int n, int k, double alpha, DoubleBuffer a, int aOff, int aRs,
+                         int aCs, DoubleBuffer b, int bOff, int bRs, int bCs, double beta,
+                         DoubleBuffer c, int cOff, int cRs, int cCs) {
+        multiply(m, n, k, alpha, new BufferOperand(a, aOff, aRs, aCs),
+                new BufferOperand(b, bOff, bRs, bCs), beta, new BufferOutput(c, cOff, cRs, cCs));
+    }
+
+    /**
+     * Compute C = alpha * A * B + beta * C, where the elements of A and B are
+     * read through the specified {@link Filler}s, and C is updated in place
+     * through {@link MutMat#getDouble(int, int)} and
+     * {@link MutMat#setDouble(int, int, double)}. Since an arbitrary
+     * {@link MutMat} need not support concurrent writes, a product which is
+     * large enough to be parallelized is computed into a temporary array,
+     * which is then written to C sequentially, so C is only ever touched by
+     * the calling thread.
+     */
+    public void multiply(int m, int n, int k, double alpha, Filler A, Filler B, double beta,
+                         MutMat<?> C) {
+        if (executor == null || (long) m * n * k < threshold) {
+            multiply(m, n, k, alpha, new FillerOperand(A), new FillerOperand(B), beta,
+                    new MatOutput(C));
+            return;
+        }
+        double[] c = new double[m * n];
+        if (beta != 0)
+            for (int row = 0; row < m; row++)
+                for (int col = 0; col < n; col++)
+                    c[row * n + col] = C.getDouble(row, col);
+        multiply(m, n, k, alpha, A, B, beta, c, 0, n, 1);
+        for (int row = 0; row < m; row++)
+            for (int col = 0; col < n; col++)
+                C.setDouble(row, col, c[row * n + col]);
+    }
+
+    private void multiply(int m, int n, int k, double alpha, Operand A, Operand B, double beta,
+                          Output C) {
+        scale(m, n, beta, C);
+        if (alpha == 0 || m == 0 || n == 0 || k == 0)
+            return;
+        long work = (long) m * n * k;
+        if (work < SMALL)
+            naive(0, m, 0, n, k, alpha, A, B, C);
+        else if (executor == null || work < threshold)
+            blocked(0, m, 0, n, k, alpha, A, B, C);
+        else
+            parallel(m, n, k, alpha, A, B, C);
+    }
+
+    /**
+     * C += alpha * A * B, where the output is split into a grid of blocks
+     * which are computed concurrently on the {@link #executor()}. The blocks
+     * are aligned to the micro-kernel so that every thread runs full tiles.
+     */
+    private void parallel(int m, int n, int k, double alpha, Operand A, Operand B, Output C) {
+
+        int threads = executor instanceof ForkJoinPool
+                ? ((ForkJoinPool) executor).getParallelism()
+                : Runtime.getRuntime().availableProcessors();
+        int tasks = 4 * threads;
+        int rowTasks = Math.min(tasks, (m + MR - 1) / MR);
+        int colTasks = Math.min(Math.max(1, tasks / rowTasks), (n + NR - 1) / NR);
+        int rowBlock = roundUp((m + rowTasks - 1) / rowTasks, MR);
+        int colBlock = roundUp((n + colTasks - 1) / colTasks, NR);
+
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[rowTasks * colTasks];
+        int count = 0;
+        for (int row = 0; row < m; row += rowBlock) {
+            for (int col = 0; col < n; col += colBlock) {
+                int fromRow = row, toRow = Math.min(m, row + rowBlock);
+                int fromCol = col, toCol = Math.min(n, col + colBlock);
+                futures[count++] = CompletableFuture.runAsync(
+                        () -> blocked(fromRow, toRow, fromCol, toCol, k, alpha, A, B, C),
+                        executor);
+            }
+        }
+        for (int i = 0; i < count; i++)
+            futures[i].join();
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Kernels
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * C = beta * C, where C is set to zero (rather than multiplied) when beta
+     * is zero, so that an uninitialized C cannot leak NaNs into the result.
+     */
+    private static void scale(int m, int n, double beta, Output C) {
+        if (beta == 1)
+            return;
+        for (int row = 0; row < m; row++)
+            for (int col = 0; col < n; col++)
+                C.set(row, col, beta == 0 ? 0 : beta * C.get(row, col));
+    }
+
+    /**
+     * C[rows,cols] += alpha * A[rows,:] * B[:,cols] with a plain (row, inner,
+     * col) loop.
+     */
+    private static void naive(int fromRow, int toRow, int fromCol, int toCol, int k,
+                              double alpha, Operand A, Operand B, Output C) {
+        for (int row = fromRow; row < toRow; row++) {
+            for (int i = 0; i < k; i++) {
+                double a = alpha * A.get(row, i);
+                for (int col = fromCol; col < toCol; col++)
+                    C.add(row, col, a * B.get(i, col));
+            }
+        }
+    }
+
+    /**
+     * C[rows,cols] += alpha * A[rows,:] * B[:,cols] using the packed, blocked
+     * algorithm. The order in which the products are summed into each element
+     * of C depends only on {@link #kc()}, and not on the row and column range,
+     * so computing disjoint ranges separately gives exactly the same result
+     * as computing them all at once.
+     */
+    private void blocked(int fromRow, int toRow, int fromCol, int toCol, int k, double alpha,
+                         Operand A, Operand B, Output C) {
+
+        double[][] buffers = this.buffers.get();
+        int depth = Math.min(kc, k);
+        int apSize = depth * Math.min(mc, roundUp(toRow - fromRow, MR));
+        int bpSize = depth * Math.min(nc, roundUp(toCol - fromCol, NR));
+        if (buffers[0].length < apSize)
+            buffers[0] = new double[apSize];
+        if (buffers[1].length < bpSize)
+            buffers[1] = new double[bpSize];
+        double[] ap = buffers[0];
+        double[] bp = buffers[1];
+
+        for (int jc = fromCol; jc < toCol; jc += nc) {
+            int nb = Math.min(nc, toCol - jc);
+            for (int pc = 0; pc < k; pc += kc) {
+                int kb = Math.min(kc, k - pc);
+                packB(B, pc, kb, jc, nb, bp);
+                for (int ic = fromRow; ic < toRow; ic += mc) {
+                    int mb = Math.min(mc, toRow - ic);
+                    packA(A, ic, mb, pc, kb, ap);
+                    for (int jr = 0; jr < nb; jr += NR) {
+                        int nr = Math.min(NR, nb - jr);
+                        for (int ir = 0; ir < mb; ir += MR) {
+                            int mr = Math.min(MR, mb - ir);
+                            kernel(kb, alpha, ap, ir * kb, bp, jr * kb, C, ic + ir, jc + jr, mr,
+                                    nr);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Pack the (mb x kb) block of A starting at (row,col) into micro-panels of
+     * {@link #MR} rows, where each micro-panel is stored column by column and
+     * padded with zeros.
+     */
+    private static void packA(Operand A, int row, int mb, int col, int kb, double[] ap) {
+        int q = 0;
+        for (int ir = 0; ir < mb; ir += MR) {
+            int mr = Math.min(MR, mb - ir);
+            for (int p = 0; p < kb; p++) {
+                for (int i = 0; i < mr; i++)
+                    ap[q++] = A.get(row + ir + i, col + p);
+                for (int i = mr; i < MR; i++)
+                    ap[q++] = 0;
+            }
+        }
+    }
+
+    /**
+     * Pack the (kb x nb) block of B starting at (row,col) into micro-panels of
+     * {@link #NR} columns, where each micro-panel is stored row by row and
+     * padded with zeros.
+     */
+    private static void packB(Operand B, int row, int kb, int col, int nb, double[] bp) {
+        int q = 0;
+        for (int jr = 0; jr < nb; jr += NR) {
+            int nr = Math.min(NR, nb - jr);
+            for (int p = 0; p < kb; p++) {
+                for (int j = 0; j < nr; j++)
+                    bp[q++] = B.get(row + p, col + jr + j);
+                for (int j = nr; j < NR; j++)
+                    bp[q++] = 0;
+            }
+        }
+    }
+
+    /**
+     * The (MR x NR) micro-kernel, which accumulates the product of one packed
+     * micro-panel of A and one packed micro-panel of B in registers, and then
+     * adds alpha times that product to the top-left (mr x nr) corner of the
+     * tile of C starting at (row,col).
+     */
+    private static void kernel(int kb, double alpha, double[] ap, int a, double[] bp, int b,
+                               Output C, int row, int col, int mr, int nr) {
+
+        double c00 = 0, c01 = 0, c02 = 0, c03 = 0;
+        double c10 = 0, c11 = 0, c12 = 0, c13 = 0;
+        double c20 = 0, c21 = 0, c22 = 0, c23 = 0;
+        double c30 = 0, c31 = 0, c32 = 0, c33 = 0;
+
+        for (int p = 0; p < kb; p++, a += MR, b += NR) {
+            double a0 = ap[a], a1 = ap[a + 1], a2 = ap[a + 2], a3 = ap[a + 3];
+            double b0 = bp[b], b1 = bp[b + 1], b2 = bp[b + 2], b3 = bp[b + 3];
+            c00 += a0 * b0;
+            c01 += a0 * b1;
+            c02 += a0 * b2;
+            c03 += a0 * b3;
+            c10 += a1 * b0;
+            c11 += a1 * b1;
+            c12 += a1 * b2;
+            c13 += a1 * b3;
+            c20 += a2 * b0;
+            c21 += a2 * b1;
+            c22 += a2 * b2;
+            c23 += a2 * b3;
+            c30 += a3 * b0;
+            c31 += a3 * b1;
+            c32 += a3 * b2;
+            c33 += a3 * b3;
+        }
+
+        if (mr == MR && nr == NR) {
+            C.add(row, col, alpha * c00, alpha * c01, alpha * c02, alpha * c03);
+            C.add(row + 1, col, alpha * c10, alpha * c11, alpha * c12, alpha * c13);
+            C.add(row + 2, col, alpha * c20, alpha * c21, alpha * c22, alpha * c23);
+            C.add(row + 3, col, alpha * c30, alpha * c31, alpha * c32, alpha * c33);
+        } else {
+            /* Edge tile: only write the part of the tile which is inside C. */
+            double[] tile = { c00, c01, c02, c03, c10, c11, c12, c13, c20, c21, c22, c23, c30,
+                    c31, c32, c33 };
+            for (int i = 0; i < mr; i++)
+                for (int j = 0; j < nr; j++)
+                    C.add(row + i, col + j, alpha * tile[i * NR + j]);
+        }
+    }
+
+    private static int roundUp(int value, int multiple) {
+        return ((value + multiple - 1) / multiple) * multiple;
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Operands
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * A source of matrix elements for the packing routines.
+     */
+    interface Operand {
+        double get(int row, int col);
+    }
+
+    static final class FillerOperand implements Operand {
+
+        private final Filler filler;
+
+        FillerOperand(Filler filler) {
+            this.filler = filler;
+        }
+
+        @Override
+        public double get(int row, int col) {
+            return filler.apply(row, col);
+        }
+    }
+
+    static final class ArrayOperand implements Operand {
+
+        private final double[] data;
+        private final int      offset;
+        private final int      rowStride;
+        private final int      colStride;
+
+        ArrayOperand(double[] data, int offset, int rowStride, int colStride) {
+            this.data = data;
+            this.offset = offset;
+            this.rowStride = rowStride;
+            this.colStride = colStride;
+        }
+
+        @Override
+        public double get(int row, int col) {
+            return data[offset + row * rowStride + col * colStride];
+        }
+    }
+
+    static final class BufferOperand implements Operand {
+
+        private final DoubleBuffer data;
+        private final int          offset;
+        private final int          rowStride;
+        private final int          colStride;
+
+        BufferOperand(DoubleBuffer data, int offset, int rowStride, int colStride) {
+            this.data = data;
+            this.offset = offset;
+            this.rowStride = rowStride;
+            this.colStride = colStride;
+        }
+
+        @Override
+        public double get(int row, int col) {
+            return data.get(offset + row * rowStride + col * colStride);
+        }
+    }
+
+    /**
+     * The destination of a product, that is, the matrix C.
+     */
+    interface Output {
+
+        double get(int row, int col);
+
+        void set(int row, int col, double val);
+
+        default void add(int row, int col, double val) {
+            set(row, col, get(row, col) + val);
+        }
+
+        /** Add the four values to consecutive columns of the specified row. */
+        default void add(int row, int col, double v0, double v1, double v2, double v3) {
+            add(row, col, v0);
+            add(row, col + 1, v1);
+            add(row, col + 2, v2);
+            add(row, col + 3, v3);
+        }
+    }
+
+    static final class ArrayOutput implements Output {
+
+        private final double[] data;
+        private final int      offset;
+        private final int      rowStride;
+        private final int      colStride;
+
+        ArrayOutput(double[] data, int offset, int rowStride, int colStride) {
+            this.data = data;
+            this.offset = offset;
+            this.rowStride = rowStride;
+            this.colStride = colStride;
+        }
+
+        @Override
+        public double get(int row, int col) {
+            return data[offset + row * rowStride + col * colStride];
+        }
+
+        @Override
+        public void set(int row, int col, double val) {
+            data[offset + row * rowStride + col * colStride] = val;
+        }
+
+        @Override
+        public void add(int row, int col, double val) {
+            data[offset + row * rowStride + col * colStride] += val;
+        }
+
+        @Override
+        public void add(int row, int col, double v0, double v1, double v2, double v3) {
+            int p = offset + row * rowStride + col * colStride;
+            data[p] += v0;
+            data[p + colStride] += v1;
+            data[p + 2 * colStride] += v2;
+            data[p + 3 * colStride] += v3;
+        }
+    }
+
+    static final class BufferOutput implements Output {
+
+        private final DoubleBuffer data;
+        private final int          offset;
+        private final int          rowStride;
+        private final int          colStride;
+
+        BufferOutput(DoubleBuffer data, int offset, int rowStride, int colStride) {
+            this.data = data;
+            this.offset = offset;
+            this.rowStride = rowStride;
+            this.colStride = colStride;
+        }
+
+        @Override
+        public double get(int row, int col) {
+            return data.get(offset + row * rowStride + col * colStride);
+        }
+
+        @Override
+        public void set(int row, int col, double val) {
+            data.put(offset + row * rowStride + col * colStride, val);
+        }
+
+        @Override
+        public void add(int row, int col, double v0, double v1, double v2, double v3) {
+            int p = offset + row * rowStride + col * colStride;
+            data.put(p, data.get(p) + v0);
+            p += colStride;
+            data.put(p, data.get(p) + v1);
+            p += colStride;
+            data.put(p, data.get(p) + v2);
+            p += colStride;
+            data.put(p, data.get(p) + v3);
+        }
+    }
+
+    static final class MatOutput implements Output {
+
+        private final MutMat<?> mat;
+
+        MatOutput(MutMat<?> mat) {
+            this.mat = mat;
+        }
+
+        @Override
+        public double get(int row, int col) {
+            return mat.getDouble(row, col);
+        }
+
+        @Override
+        public void set(int row, int col, double val) {
+            mat.setDouble(row, col, val);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package io.jeti.linalg.matrix.kernels;
+
+import io.jeti.linalg.matrix.Mat;
+import io.jeti.linalg.matrix.utils.Check;
+
+/**
+ * <p>
+ * Square matrix multiplication using the Winograd variant of Strassen's
+ * algorithm, which trades one of the eight half-size products of the
+ * classical block algorithm for a handful of additions. Applied recursively,
+ * this reduces the cost of an (n x n) product from O(n^3) to O(n^2.81).
+ * </p>
+ * <p>
+ * The recursion works on the views returned by
+ * {@link Mat#get(int, int, int, int)}, so the quadrants are never copied. Once
+ * the matrices are smaller than the {@link #getCrossover() crossover}, the
+ * recursion bottoms out in the classical {@link Gemm} kernel. Matrices with an
+ * odd dimension are handled by peeling off the last row and column, and
+ * correcting for them with thin classical products.
+ * </p>
+ * <p>
+ * Note that Strassen-type algorithms satisfy a weaker (norm-wise rather than
+ * element-wise) error bound than the classical product, and that the error
+ * grows with the depth of the recursion. Hence this is disabled by default,
+ * and {@link Mat#times(Mat)} only uses it for square products of at least
+ * {@link #getCrossover()} rows once the crossover has been set with
+ * {@link #setCrossover(int)}. A crossover of 1024 or 2048 is a reasonable
+ * starting point.
+ * </p>
+ */
+public class Strassen {
+
+    private static volatile int crossover = Integer.MAX_VALUE;
+
+    /**
+     * @return the dimension at or above which square products are computed
+     *         with this algorithm.
+     */
+    public static int getCrossover() {
+        return crossover;
+    }
+
+    /**
+     * Set the dimension at or above which square products are computed with
+     * this algorithm. Use {@link Integer#MAX_VALUE} to disable it. The
+     * crossover must be at least 2.
+     */
+    public static void setCrossover(int crossover) {
+        Check.positive(crossover - 1);
+        Strassen.crossover = crossover;
+    }
+
+    /**
+     * @return true if a product of a (rows x inner) and an (inner x cols)
+     *         matrix should be computed with this algorithm.
+     */
+    public static boolean applies(int rows, int inner, int cols) {
+        return rows == inner && inner == cols && rows >= crossover;
+    }
+
+    /**
+     * @return A * B, where A and B are square matrices of the same size.
+     */
+    public static <T extends Mat<T>> T multiply(Mat<T> A, T B) {
+        Check.isSquare(B);
+        Check.equal(A.rows(), B.rows());
+        Check.equal(A.cols(), B.cols());
+        return multiply(A, B, crossover);
+    }
+
+    private static <T extends Mat<T>> T multiply(Mat<T> A, T B, int crossover) {
+
+        int n = A.rows();
+        if (n < crossover || n < 2)
+            return A.times(B);
+        if (n % 2 == 1)
+            return peel(A, B, crossover);
+
+        /* Quadrants */
+        int h = n / 2;
+        T A11 = A.get(0, h, 0, h), A12 = A.get(0, h, h, n);
+        T A21 = A.get(h, n, 0, h), A22 = A.get(h, n, h, n);
+        T B11 = B.get(0, h, 0, h), B12 = B.get(0, h, h, n);
+        T B21 = B.get(h, n, 0, h), B22 = B.get(h, n, h, n);
+
+        /* Winograd's 8 pre-additions */
+        T S1 = A21.plus(A22);
+        T S2 = S1.minus(A11);
+        T S3 = A11.minus(A21);
+        T S4 = A12.minus(S2);
+        T T1 = B12.minus(B11);
+        T T2 = B22.minus(T1);
+        T T3 = B22.minus(B12);
+        T T4 = T2.minus(B21);
+
+        /* 7 half-size products */
+        T M1 = multiply(A11, B11, crossover);
+        T M2 = multiply(A12, B21, crossover);
+        T M3 = multiply(S4, B22, crossover);
+        T M4 = multiply(A22, T4, crossover);
+        T M5 = multiply(S1, T1, crossover);
+        T M6 = multiply(S2, T2, crossover);
+        T M7 = multiply(S3, T3, crossover);
+
+        /* 7 post-additions */
+        T C11 = M1.plus(M2);
+        T U2 = M1.plus(M6);
+        T U3 = U2.plus(M7);
+        T C12 = U2.plus(M5).plus(M3);
+        T C21 = U3.minus(M4);
+        T C22 = U3.plus(M5);
+
+        return assemble(B, h, h, C11, C12, C21, C22);
+    }
+
+    /**
+     * @return A * B for odd n, where the leading (n-1 x n-1) blocks are
+     *         multiplied recursively, and the last row and column are
+     *         accounted for with classical products.
+     */
+    private static <T extends Mat<T>> T peel(Mat<T> A, T B, int crossover) {
+
+        int n = A.rows();
+        int h = n - 1;
+        T A11 = A.get(0, h, 0, h), a12 = A.get(0, h, h, n);
+        T a21 = A.get(h, n, 0, h), a22 = A.get(h, n, h, n);
+        T B11 = B.get(0, h, 0, h), b12 = B.get(0, h, h, n);
+        T b21 = B.get(h, n, 0, h), b22 = B.get(h, n, h, n);
+
+        T C11 = multiply(A11, B11, crossover).plus(a12.times(b21));
+        T c12 = A11.times(b12).plus(a12.times(b22));
+        T c21 = a21.times(B11).plus(a22.times(b21));
+        T c22 = a21.times(b12).plus(a22.times(b22));
+
+        return assemble(B, h, h, C11, c12, c21, c22);
+    }
+
+    /**
+     * @return the block matrix [C11, C12; C21, C22], where C11 is (rows x
+     *         cols).
+     */
+    private static <T extends Mat<T>> T assemble(T like, int rows, int cols, T C11, T C12,
+                                                 T C21, T C22) {
+        return like.newInstance(rows + C21.rows(), cols + C12.cols(), (row, col) -> {
+            if (row < rows)
+                return col < cols ? C11.getDouble(row, col) : C12.getDouble(row, col - cols);
+            else
+                return col < cols ? C21.getDouble(row - rows, col)
+                        : C22.getDouble(row - rows, col - cols);
+        });
+    }
+}
@@ -0,0 +1,180 @@
+package io.jeti.linalg.matrix.kernels;
+
+import java.util.BitSet;
+
+/**
+ * <p>
+ * Transposition kernels for matrices stored in a <code>double[]</code>, where
+ * the (row,col) element of a matrix is stored at
+ * <code>offset + row * rowStride + col * colStride</code>.
+ * </p>
+ * <p>
+ * A naive transpose reads one of the matrices along its rows and the other
+ * along its columns, so that for large matrices, nearly every access to the
+ * second one misses the cache. The out-of-place and square in-place kernels
+ * avoid this by recursively halving the larger dimension until the blocks
+ * have at most {@link #BLOCK} rows and columns. This is cache-oblivious:
+ * at some depth of the recursion, the blocks of both matrices fit in every
+ * level of the cache, whatever its size, without any tuning.
+ * </p>
+ * <p>
+ * Rectangular matrices in contiguous storage are transposed in place by
+ * following the cycles of the permutation which maps the row-major (rows x
+ * cols) layout onto the row-major (cols x rows) layout. This needs one bit
+ * per element to mark the positions which have already been moved.
+ * </p>
+ */
+public class Transpose {
+
+    /**
+     * The largest number of rows and columns of a block which is transposed
+     * directly, rather than split further.
+     */
+    public static final int BLOCK = 32;
+
+    /*
+     * --------------------------------------------------
+     *
+     * Out of Place
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * Set B = A^T, where A is a (rows x cols) matrix and B is a (cols x rows)
+     * matrix, which must not share storage with A.
+     */
+    public static void transpose(int rows, int cols, double[] a, int aOff, int aRs, int aCs,
+                                 double[] b, int bOff, int bRs, int bCs) {
+        recurse(0, rows, 0, cols, a, aOff, aRs, aCs, b, bOff, bRs, bCs);
+    }
+
+    private static void recurse(int r0, int r1, int c0, int c1, double[] a, int aOff, int aRs,
+                                int aCs, double[] b, int bOff, int bRs, int bCs) {
+        int rows = r1 - r0;
+        int cols = c1 - c0;
+        if (rows <= BLOCK && cols <= BLOCK) {
+            for (int row = r0; row < r1; row++) {
+                int p = aOff + row * aRs + c0 * aCs;
+                int q = bOff + c0 * bRs + row * bCs;
+                for (int col = c0; col < c1; col++, p += aCs, q += bRs)
+                    b[q] = a[p];
+            }
+        } else if (rows >= cols) {
+            int mid = r0 + rows / 2;
+            recurse(r0, mid, c0, c1, a, aOff, aRs, aCs, b, bOff, bRs, bCs);
+            recurse(mid, r1, c0, c1, a, aOff, aRs, aCs, b, bOff, bRs, bCs);
+        } else {
+            int mid = c0 + cols / 2;
+            recurse(r0, r1, c0, mid, a, aOff, aRs, aCs, b, bOff, bRs, bCs);
+            recurse(r0, r1, mid, c1, a, aOff, aRs, aCs, b, bOff, bRs, bCs);
+        }
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * In Place
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * Set A = A^T in place, where A is an (n x n) matrix with arbitrary
+     * strides.
+     */
+    public static void square(int n, double[] a, int off, int rs, int cs) {
+        diagonal(0, n, a, off, rs, cs);
+    }
+
+    /**
+     * Transpose the diagonal block of rows and columns [from, to).
+     */
+    private static void diagonal(int from, int to, double[] a, int off, int rs, int cs) {
+        int n = to - from;
+        if (n <= BLOCK) {
+            for (int row = from; row < to; row++) {
+                for (int col = row + 1; col < to; col++) {
+                    int p = off + row * rs + col * cs;
+                    int q = off + col * rs + row * cs;
+                    double tmp = a[p];
+                    a[p] = a[q];
+                    a[q] = tmp;
+                }
+            }
+        } else {
+            int mid = from + n / 2;
+            diagonal(from, mid, a, off, rs, cs);
+            diagonal(mid, to, a, off, rs, cs);
+            swap(from, mid, mid, to, a, off, rs, cs);
+        }
+    }
+
+    /**
+     * Swap the block of rows [r0, r1) and columns [c0, c1) with the transpose
+     * of the block of rows [c0, c1) and columns [r0, r1). The two blocks must
+     * not overlap.
+     */
+    private static void swap(int r0, int r1, int c0, int c1, double[] a, int off, int rs,
+                             int cs) {
+        int rows = r1 - r0;
+        int cols = c1 - c0;
+        if (rows <= BLOCK && cols <= BLOCK) {
+            for (int row = r0; row < r1; row++) {
+                int p = off + row * rs + c0 * cs;
+                int q = off + c0 * rs + row * cs;
+                for (int col = c0; col < c1; col++, p += cs, q += rs) {
+                    double tmp = a[p];
+                    a[p] = a[q];
+                    a[q] = tmp;
+                }
+            }
+        } else if (rows >= cols) {
+            int mid = r0 + rows / 2;
+            swap(r0, mid, c0, c1, a, off, rs, cs);
+            swap(mid, r1, c0, c1, a, off, rs, cs);
+        } else {
+            int mid = c0 + cols / 2;
+            swap(r0, r1, c0, mid, a, off, rs, cs);
+            swap(r0, r1, mid, c1, a, off, rs, cs);
+        }
+    }
+
+    /**
+     * Permute the (rows x cols) matrix which is stored contiguously in
+     * row-major order, starting at the specified offset, so that it holds its
+     * (cols x rows) transpose in row-major order.
+     */
+    public static void contiguous(int rows, int cols, double[] a, int off) {
+        if (rows <= 1 || cols <= 1)
+            return;
+        if (rows == cols) {
+            square(rows, a, off, cols, 1);
+            return;
+        }
+
+        /*
+         * The element at position i of the transpose comes from position
+         * (i * cols) mod (size - 1) of the original, except for the first and
+         * last elements, which stay where they are.
+         */
+        int last = rows * cols - 1;
+        BitSet moved = new BitSet(last);
+        for (int start = 1; start < last; start++) {
+            if (moved.get(start))
+                continue;
+            double tmp = a[off + start];
+            int i = start;
+            while (true) {
+                moved.set(i);
+                int src = (int) ((long) i * cols % last);
+                if (src == start) {
+                    a[off + i] = tmp;
+                    break;
+                }
+                a[off + i] = a[off + src];
+                i = src;
+            }
+        }
+    }
+}
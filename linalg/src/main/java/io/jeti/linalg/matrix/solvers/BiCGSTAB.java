@@ -0,0 +1,116 @@
+package io.jeti.linalg.matrix.solvers;
+
+import io.jeti.linalg.matrix.Mat;
+import io.jeti.linalg.matrix.dense.DenseVec;
+import java.util.Arrays;
+
+/**
+ * <p>
+ * The biconjugate gradient stabilized method (BiCGSTAB) of van der Vorst,
+ * with right preconditioning, for general nonsymmetric systems. Each
+ * iteration costs two products with A, two applications of the
+ * preconditioner, and a few vector operations, and needs only seven vectors of
+ * storage, no matter how many iterations are taken. Unlike {@link GMRES}, the
+ * residual does not decrease monotonically, and the method can break down,
+ * although that is rare in practice.
+ * </p>
+ */
+public class BiCGSTAB extends KrylovSolver {
+
+    private final DenseVec r;
+    private final DenseVec shadow;
+    private final DenseVec p;
+    private final DenseVec v;
+    private final DenseVec pHat;
+    private final DenseVec sHat;
+    private final DenseVec t;
+
+    /**
+     * Create an unpreconditioned solver for the square matrix A, with the
+     * default tolerance and maximum number of iterations.
+     */
+    public BiCGSTAB(Mat<?> A) {
+        this(A, Preconditioner.identity());
+    }
+
+    /**
+     * Create a solver for the square matrix A, with the preconditioner M, and
+     * the default tolerance and maximum number of iterations.
+     */
+    public BiCGSTAB(Mat<?> A, Preconditioner M) {
+        this(LinearOperator.of(A), size(A), M, TOLERANCE, iterations(A.rows()));
+    }
+
+    /**
+     * Create a solver for the (n x n) operator A, with the preconditioner M,
+     * which stops when the norm of the residual is at most tolerance * ||b||,
+     * or after maxIterations iterations.
+     */
+    public BiCGSTAB(LinearOperator A, int n, Preconditioner M, double tolerance,
+                    int maxIterations) {
+        super(A, n, M, tolerance, maxIterations);
+        r = vector();
+        shadow = vector();
+        p = vector();
+        v = vector();
+        pHat = vector();
+        sHat = vector();
+        t = vector();
+    }
+
+    /**
+     * @throws ArithmeticException
+     *             if the method breaks down, which happens when the residual
+     *             becomes orthogonal to the initial residual.
+     */
+    @Override
+    protected boolean iterate(DenseVec b, DenseVec x) {
+        residual(b, x, r);
+        if (converged(norm(r)))
+            return true;
+        double[] rd = r.data();
+        double[] pd = p.data();
+        double[] vd = v.data();
+        System.arraycopy(rd, 0, shadow.data(), 0, n);
+        Arrays.fill(pd, 0);
+        Arrays.fill(vd, 0);
+        double rho = 1;
+        double alpha = 1;
+        double omega = 1;
+        while (!exhausted()) {
+            double next = dot(shadow, r);
+            if (next == 0)
+                throw new ArithmeticException("BiCGSTAB broke down.");
+            double beta = next / rho * (alpha / omega);
+            rho = next;
+
+            /* p = r + beta * (p - omega * v) */
+            for (int i = 0; i < n; i++)
+                pd[i] = rd[i] + beta * (pd[i] - omega * vd[i]);
+            M.apply(p, pHat);
+            A.apply(pHat, v);
+            double sv = dot(shadow, v);
+            if (sv == 0)
+                throw new ArithmeticException("BiCGSTAB broke down.");
+            alpha = rho / sv;
+
+            /* s = r - alpha * v, which is stored in r, may already be small */
+            axpy(-alpha, v, r);
+            axpy(alpha, pHat, x);
+            double s = norm(r);
+            if (withinTolerance(s))
+                return converged(s);
+            M.apply(r, sHat);
+            A.apply(sHat, t);
+            double tt = dot(t, t);
+            omega = tt == 0 ? 0 : dot(t, r) / tt;
+            axpy(omega, sHat, x);
+            axpy(-omega, t, r);
+            if (converged(norm(r)))
+                return true;
+            if (omega == 0)
+                throw new ArithmeticException("BiCGSTAB broke down.");
+        }
+        return false;
+    }
+}
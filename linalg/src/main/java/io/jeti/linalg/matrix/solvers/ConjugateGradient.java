@@ -0,0 +1,90 @@
+package io.jeti.linalg.matrix.solvers;
+
+import io.jeti.linalg.matrix.Mat;
+import io.jeti.linalg.matrix.dense.DenseVec;
+
+/**
+ * <p>
+ * The preconditioned conjugate gradient method, for systems whose matrix A is
+ * symmetric positive definite, with a symmetric positive definite
+ * preconditioner. Each iteration costs one product with A, one application
+ * of the preconditioner, and a few vector operations, and needs only four
+ * vectors of storage. In exact arithmetic, it minimizes the A-norm of the
+ * error over the Krylov subspace, and converges in at most n iterations.
+ * </p>
+ */
+public class ConjugateGradient extends KrylovSolver {
+
+    private final DenseVec r;
+    private final DenseVec z;
+    private final DenseVec p;
+    private final DenseVec q;
+
+    /**
+     * Create an unpreconditioned solver for the symmetric positive definite
+     * matrix A, with the default tolerance and maximum number of iterations.
+     */
+    public ConjugateGradient(Mat<?> A) {
+        this(A, Preconditioner.identity());
+    }
+
+    /**
+     * Create a solver for the symmetric positive definite matrix A, with the
+     * preconditioner M, and the default tolerance and maximum number of
+     * iterations.
+     */
+    public ConjugateGradient(Mat<?> A, Preconditioner M) {
+        this(LinearOperator.of(A), size(A), M, TOLERANCE, iterations(A.rows()));
+    }
+
+    /**
+     * Create a solver for the (n x n) symmetric positive definite operator A,
+     * with the preconditioner M, which stops when the norm of the residual is
+     * at most tolerance * ||b||, or after maxIterations iterations.
+     */
+    public ConjugateGradient(LinearOperator A, int n, Preconditioner M, double tolerance,
+                             int maxIterations) {
+        super(A, n, M, tolerance, maxIterations);
+        r = vector();
+        z = vector();
+        p = vector();
+        q = vector();
+    }
+
+    /**
+     * @throws ArithmeticException
+     *             if a search direction has a nonpositive curvature p^T * A *
+     *             p, which means that A is not positive definite.
+     */
+    @Override
+    protected boolean iterate(DenseVec b, DenseVec x) {
+        residual(b, x, r);
+        if (converged(norm(r)))
+            return true;
+        M.apply(r, z);
+        System.arraycopy(z.data(), 0, p.data(), 0, n);
+        double rz = dot(r, z);
+        while (!exhausted()) {
+            A.apply(p, q);
+            double curvature = dot(p, q);
+            if (!(curvature > 0))
+                throw new ArithmeticException("The matrix is not positive definite.");
+            double alpha = rz / curvature;
+            axpy(alpha, p, x);
+            axpy(-alpha, q, r);
+            if (converged(norm(r)))
+                return true;
+            M.apply(r, z);
+            double next = dot(r, z);
+            double beta = next / rz;
+            rz = next;
+
+            /* p = z + beta * p */
+            double[] pd = p.data();
+            double[] zd = z.data();
+            for (int i = 0; i < n; i++)
+                pd[i] = zd[i] + beta * pd[i];
+        }
+        return false;
+    }
+}
@@ -0,0 +1,161 @@
+package io.jeti.linalg.matrix.solvers;
+
+import io.jeti.linalg.matrix.Mat;
+import io.jeti.linalg.matrix.dense.DenseVec;
+import io.jeti.linalg.matrix.utils.Check;
+import java.util.Arrays;
+
+/**
+ * <p>
+ * The restarted generalized minimal residual method, GMRES(m), with right
+ * preconditioning, for general nonsymmetric systems. Within a cycle, it
+ * builds an orthonormal basis of the Krylov subspace with the modified
+ * Gram-Schmidt (Arnoldi) process, and finds the x which minimizes the norm of
+ * the residual over that subspace, so the residual never increases. The
+ * least-squares problem is kept in triangular form with Givens rotations, so
+ * the norm of the residual is known after every iteration without computing
+ * x.
+ * </p>
+ * <p>
+ * Iteration j of a cycle costs one product with A, one application of the
+ * preconditioner, and j dot products, and a cycle needs m + 1 basis vectors,
+ * so the cycle is restarted from the current x after m iterations to bound
+ * both. Larger values of m converge in fewer iterations.
+ * </p>
+ */
+public class GMRES extends KrylovSolver {
+
+    /**
+     * The default number of iterations in a cycle.
+     */
+    public static final int RESTART = 30;
+
+    private final int        m;
+    private final DenseVec[] basis;
+    private final DenseVec   w;
+    private final DenseVec   z;
+    private final double[]   h;
+    private final double[]   cosines;
+    private final double[]   sines;
+    private final double[]   g;
+    private final double[]   y;
+
+    /**
+     * Create an unpreconditioned solver for the square matrix A, with the
+     * default restart, tolerance, and maximum number of iterations.
+     */
+    public GMRES(Mat<?> A) {
+        this(A, Preconditioner.identity());
+    }
+
+    /**
+     * Create a solver for the square matrix A, with the preconditioner M, and
+     * the default restart, tolerance, and maximum number of iterations.
+     */
+    public GMRES(Mat<?> A, Preconditioner M) {
+        this(LinearOperator.of(A), size(A), M, RESTART, TOLERANCE, iterations(A.rows()));
+    }
+
+    /**
+     * Create a solver for the (n x n) operator A, with the preconditioner M,
+     * which is restarted after every restart iterations, and stops when the
+     * norm of the residual is at most tolerance * ||b||, or after
+     * maxIterations iterations in total.
+     */
+    public GMRES(LinearOperator A, int n, Preconditioner M, int restart, double tolerance,
+                 int maxIterations) {
+        super(A, n, M, tolerance, maxIterations);
+        Check.positive(restart);
+        m = restart;
+        basis = new DenseVec[m + 1];
+        for (int i = 0; i <= m; i++)
+            basis[i] = vector();
+        w = vector();
+        z = vector();
+        h = new double[(m + 1) * m];
+        cosines = new double[m];
+        sines = new double[m];
+        g = new double[m + 1];
+        y = new double[m];
+    }
+
+    @Override
+    protected boolean iterate(DenseVec b, DenseVec x) {
+        boolean first = true;
+        while (true) {
+            residual(b, x, w);
+            double beta = norm(w);
+            if (first && converged(beta))
+                return true;
+            first = false;
+            if (beta == 0 || exhausted())
+                return withinTolerance(beta);
+
+            /* basis[0] = r / ||r||, and the least-squares right-hand side */
+            scale(1 / beta, w, basis[0]);
+            Arrays.fill(g, 0);
+            g[0] = beta;
+            int j = 0;
+            boolean done = false;
+            while (j < m && !done) {
+                /* The next basis vector, orthogonalized against the others */
+                M.apply(basis[j], z);
+                A.apply(z, w);
+                for (int i = 0; i <= j; i++) {
+                    double hij = dot(w, basis[i]);
+                    h[i * m + j] = hij;
+                    axpy(-hij, basis[i], w);
+                }
+                double next = norm(w);
+                h[(j + 1) * m + j] = next;
+                if (next != 0)
+                    scale(1 / next, w, basis[j + 1]);
+
+                /* Rotate column j into triangular form */
+                for (int i = 0; i < j; i++) {
+                    double a = h[i * m + j];
+                    double c = h[(i + 1) * m + j];
+                    h[i * m + j] = cosines[i] * a + sines[i] * c;
+                    h[(i + 1) * m + j] = cosines[i] * c - sines[i] * a;
+                }
+                double a = h[j * m + j];
+                double r = Math.hypot(a, next);
+                cosines[j] = r == 0 ? 1 : a / r;
+                sines[j] = r == 0 ? 0 : next / r;
+                h[j * m + j] = r;
+                h[(j + 1) * m + j] = 0;
+                g[j + 1] = -sines[j] * g[j];
+                g[j] = cosines[j] * g[j];
+                j++;
+                done = converged(Math.abs(g[j])) || next == 0 || exhausted();
+            }
+
+            /* x = x + M^-1 * V * y, where H * y = g is triangular */
+            for (int i = j - 1; i >= 0; i--) {
+                double sum = g[i];
+                for (int k = i + 1; k < j; k++)
+                    sum -= h[i * m + k] * y[k];
+                y[i] = h[i * m + i] == 0 ? 0 : sum / h[i * m + i];
+            }
+            Arrays.fill(w.data(), 0);
+            for (int i = 0; i < j; i++)
+                axpy(y[i], basis[i], w);
+            M.apply(w, z);
+            axpy(1, z, x);
+            if (withinTolerance(Math.abs(g[j])))
+                return true;
+            if (exhausted())
+                return false;
+        }
+    }
+
+    /**
+     * Overwrite y with alpha * x, for workspace vectors.
+     */
+    private static void scale(double alpha, DenseVec x, DenseVec y) {
+        double[] xd = x.data();
+        double[] yd = y.data();
+        for (int i = 0; i < xd.length; i++)
+            yd[i] = alpha * xd[i];
+    }
+}
@@ -0,0 +1,105 @@
+package io.jeti.linalg.matrix.solvers;
+
+import io.jeti.linalg.matrix.dense.DenseVec;
+import io.jeti.linalg.matrix.sparse.CsrMat;
+import io.jeti.linalg.matrix.utils.Check;
+import java.util.Arrays;
+
+/**
+ * <p>
+ * The incomplete LU preconditioner with zero fill-in, ILU(0), that is, M = L *
+ * U, where L is unit lower triangular, U is upper triangular, and both have
+ * the same sparsity pattern as the corresponding triangles of A. Any fill-in
+ * that Gaussian elimination would create outside of that pattern is simply
+ * dropped, so the factors take as much memory as A, and M^-1 * r is a sparse
+ * forward and back substitution, which costs about as much as A * x.
+ * </p>
+ * <p>
+ * The factors are computed row by row (the IKJ variant), on a copy of the
+ * storage of A. Every row of A must store its diagonal element.
+ * </p>
+ */
+public class ILU0 implements Preconditioner {
+
+    private final int      n;
+    private final int[]    ptr;
+    private final int[]    idx;
+    private final double[] lu;
+    private final int[]    diag;
+
+    /**
+     * Compute the ILU(0) factors of the square matrix A, which is not
+     * modified.
+     *
+     * @throws ArithmeticException
+     *             if a diagonal element is not stored, or if a pivot is zero.
+     */
+    public ILU0(CsrMat A) {
+        Check.equal(A.rows(), A.cols());
+        n = A.rows();
+        ptr = A.pointers().clone();
+        idx = Arrays.copyOf(A.indices(), ptr[n]);
+        lu = Arrays.copyOf(A.values(), ptr[n]);
+        diag = new int[n];
+        for (int i = 0; i < n; i++) {
+            int p = Arrays.binarySearch(idx, ptr[i], ptr[i + 1], i);
+            if (p < 0)
+                throw new ArithmeticException("The diagonal is not stored at " + i);
+            diag[i] = p;
+        }
+        factor();
+    }
+
+    private void factor() {
+        /* The position of each column of the current row, or -1 */
+        int[] position = new int[n];
+        Arrays.fill(position, -1);
+        for (int i = 0; i < n; i++) {
+            for (int p = ptr[i]; p < ptr[i + 1]; p++)
+                position[idx[p]] = p;
+
+            /* Eliminate the columns k < i, with row k of U */
+            for (int p = ptr[i]; p < diag[i]; p++) {
+                int k = idx[p];
+                double l = lu[p] /= lu[diag[k]];
+                if (l != 0)
+                    for (int q = diag[k] + 1; q < ptr[k + 1]; q++) {
+                        int w = position[idx[q]];
+                        if (w >= 0)
+                            lu[w] -= l * lu[q];
+                    }
+            }
+            for (int p = ptr[i]; p < ptr[i + 1]; p++)
+                position[idx[p]] = -1;
+            if (lu[diag[i]] == 0)
+                throw new ArithmeticException("The pivot is zero at " + i);
+        }
+    }
+
+    /**
+     * Overwrite z with U^-1 * L^-1 * r.
+     */
+    @Override
+    public void apply(DenseVec r, DenseVec z) {
+        Check.equal(r.size(), n);
+        Check.equal(z.size(), n);
+        double[] rd = r.data();
+        double[] zd = z.data();
+        int ro = r.offset();
+        int rs = r.stride();
+        int zo = z.offset();
+        int zs = z.stride();
+        for (int i = 0; i < n; i++) {
+            double sum = rd[ro + i * rs];
+            for (int p = ptr[i]; p < diag[i]; p++)
+                sum -= lu[p] * zd[zo + idx[p] * zs];
+            zd[zo + i * zs] = sum;
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            double sum = zd[zo + i * zs];
+            for (int p = diag[i] + 1; p < ptr[i + 1]; p++)
+                sum -= lu[p] * zd[zo + idx[p] * zs];
+            zd[zo + i * zs] = sum / lu[diag[i]];
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package io.jeti.linalg.matrix.solvers;
+
+import io.jeti.linalg.matrix.Mat;
+import io.jeti.linalg.matrix.dense.DenseVec;
+import io.jeti.linalg.matrix.utils.Check;
+
+/**
+ * The Jacobi (diagonal) preconditioner M = diag(A), which costs one
+ * multiplication per element, and works well for diagonally dominant
+ * matrices, and for matrices whose rows are badly scaled.
+ */
+public class Jacobi implements Preconditioner {
+
+    private final double[] inverse;
+
+    /**
+     * Create the Jacobi preconditioner for the square matrix A.
+     *
+     * @throws ArithmeticException
+     *             if the diagonal of A has a zero.
+     */
+    public Jacobi(Mat<?> A) {
+        Check.equal(A.rows(), A.cols());
+        inverse = new double[A.rows()];
+        for (int i = 0; i < inverse.length; i++) {
+            double d = A.getDouble(i, i);
+            if (d == 0)
+                throw new ArithmeticException("The diagonal has a zero at " + i);
+            inverse[i] = 1 / d;
+        }
+    }
+
+    @Override
+    public void apply(DenseVec r, DenseVec z) {
+        Check.equal(r.size(), inverse.length);
+        Check.equal(z.size(), inverse.length);
+        double[] rd = r.data();
+        double[] zd = z.data();
+        for (int i = 0, p = r.offset(), q = z.offset(); i < inverse.length; i++, p += r
+                .stride(), q += z.stride())
+            zd[q] = inverse[i] * rd[p];
+    }
+}
@@ -0,0 +1,249 @@
+package io.jeti.linalg.matrix.solvers;
+
+import io.jeti.linalg.matrix.Mat;
+import io.jeti.linalg.matrix.MutVec;
+import io.jeti.linalg.matrix.Vec;
+import io.jeti.linalg.matrix.dense.DenseVec;
+import io.jeti.linalg.matrix.utils.Check;
+import java.util.Arrays;
+
+/**
+ * <p>
+ * A base class for iterative solvers of the square linear system A * x = b,
+ * which only touch A through a {@link LinearOperator}, and build the solution
+ * from the Krylov subspace span{r, A * r, A^2 * r, ...} of the initial
+ * residual r. This makes them suitable for large sparse systems, where a
+ * direct factorization would fill in, and for matrix-free operators.
+ * </p>
+ * <p>
+ * All of the vectors are allocated once, when the solver is constructed, and
+ * are reused by every iteration and every call to {@link #solve(Vec, MutVec)}.
+ * The iterations stop when the norm of the residual is at most tolerance *
+ * ||b||, or after the maximum number of iterations, and the relative residual
+ * of each iteration is recorded in {@link #residuals()}.
+ * </p>
+ * <p>
+ * Note that a solver is not thread-safe, since its vectors are shared.
+ * </p>
+ */
+public abstract class KrylovSolver {
+
+    /**
+     * The default relative tolerance on the norm of the residual.
+     */
+    public static final double TOLERANCE = 1e-10;
+
+    protected final LinearOperator A;
+    protected final Preconditioner M;
+    protected final int            n;
+    private final double           tolerance;
+    private final int              maxIterations;
+    private final DenseVec         b;
+    private final DenseVec         x;
+    private double[]               history = new double[16];
+    private int                    count;
+    private double                 target;
+    private double                 bNorm;
+
+    /**
+     * Create a solver for the (n x n) operator A, with the preconditioner M,
+     * which stops when the norm of the residual is at most tolerance * ||b||,
+     * or after maxIterations iterations.
+     */
+    protected KrylovSolver(LinearOperator A, int n, Preconditioner M, double tolerance,
+                           int maxIterations) {
+        Check.nonNegativeIndex(n);
+        Check.nonNegativeIndex(maxIterations);
+        if (!(tolerance >= 0))
+            throw new IllegalArgumentException("The tolerance must be nonnegative.");
+        this.A = A;
+        this.M = M;
+        this.n = n;
+        this.tolerance = tolerance;
+        this.maxIterations = maxIterations;
+        b = vector();
+        x = vector();
+    }
+
+    /**
+     * @return the number of rows of A, after checking that it is square.
+     */
+    protected static int size(Mat<?> A) {
+        Check.equal(A.rows(), A.cols());
+        return A.rows();
+    }
+
+    /**
+     * @return the default maximum number of iterations for an (n x n) system.
+     */
+    protected static int iterations(int n) {
+        return Math.max(1000, n);
+    }
+
+    /**
+     * @return a new workspace vector of zeros, whose elements are stored
+     *         contiguously from the start of its array.
+     */
+    protected DenseVec vector() {
+        return new DenseVec(n);
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Solvers
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return the solution x of A * x = b, starting from x = 0.
+     */
+    public DenseVec solve(Vec<?> b) {
+        DenseVec x = new DenseVec(n);
+        solve(b, x);
+        return x;
+    }
+
+    /**
+     * Overwrite x with the solution of A * x = b, where x holds the initial
+     * guess, so that a good guess, such as the solution of a nearby system,
+     * saves iterations.
+     *
+     * @return true if the iterations converged within the tolerance.
+     */
+    public boolean solve(Vec<?> b, MutVec<?> x) {
+        Check.equal(b.size(), n);
+        Check.equal(x.size(), n);
+        double[] bd = this.b.data();
+        double[] xd = this.x.data();
+        for (int i = 0; i < n; i++) {
+            bd[i] = b.getDouble(i);
+            xd[i] = x.getDouble(i);
+        }
+        count = 0;
+        bNorm = norm(this.b);
+        target = tolerance * bNorm;
+        boolean converged;
+        if (bNorm == 0) {
+            Arrays.fill(xd, 0);
+            history[count++] = 0;
+            converged = true;
+        } else {
+            converged = iterate(this.b, this.x);
+        }
+        x.set(i -> xd[i]);
+        return converged;
+    }
+
+    /**
+     * Overwrite x, which holds the initial guess, with the solution of A * x =
+     * b, calling {@link #converged(double)} with the norm of the initial
+     * residual, and then with the norm of the residual after each iteration,
+     * until it returns true or {@link #exhausted()} does.
+     *
+     * @return true if the iterations converged.
+     */
+    protected abstract boolean iterate(DenseVec b, DenseVec x);
+
+    /**
+     * Record the norm of the latest residual.
+     *
+     * @return true if it is within the tolerance.
+     */
+    protected boolean converged(double residual) {
+        if (count == history.length)
+            history = Arrays.copyOf(history, 2 * count);
+        history[count++] = residual / bNorm;
+        return withinTolerance(residual);
+    }
+
+    /**
+     * @return true if the norm of a residual is within the tolerance, without
+     *         recording it.
+     */
+    protected boolean withinTolerance(double residual) {
+        return residual <= target;
+    }
+
+    /**
+     * @return true if the maximum number of iterations has been reached.
+     */
+    protected boolean exhausted() {
+        return iterations() >= maxIterations;
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Getters
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return the number of iterations of the last solve.
+     */
+    public int iterations() {
+        return Math.max(0, count - 1);
+    }
+
+    /**
+     * @return the residual history of the last solve, that is, ||r|| / ||b||
+     *         for the initial guess, followed by one entry per iteration. For
+     *         the solvers which update the residual with a recurrence, rather
+     *         than computing b - A * x, the last entries may be slightly
+     *         optimistic.
+     */
+    public double[] residuals() {
+        return Arrays.copyOf(history, count);
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Vector Operations
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return the dot product of two workspace vectors.
+     */
+    protected static double dot(DenseVec u, DenseVec v) {
+        double[] ud = u.data();
+        double[] vd = v.data();
+        double sum = 0;
+        for (int i = 0; i < ud.length; i++)
+            sum += ud[i] * vd[i];
+        return sum;
+    }
+
+    /**
+     * @return the Euclidean norm of a workspace vector.
+     */
+    protected static double norm(DenseVec u) {
+        return Math.sqrt(dot(u, u));
+    }
+
+    /**
+     * Overwrite y with y + alpha * x, for workspace vectors.
+     */
+    protected static void axpy(double alpha, DenseVec x, DenseVec y) {
+        double[] xd = x.data();
+        double[] yd = y.data();
+        for (int i = 0; i < xd.length; i++)
+            yd[i] += alpha * xd[i];
+    }
+
+    /**
+     * Overwrite r with the residual b - A * x.
+     */
+    protected void residual(DenseVec b, DenseVec x, DenseVec r) {
+        A.apply(x, r);
+        double[] bd = b.data();
+        double[] rd = r.data();
+        for (int i = 0; i < n; i++)
+            rd[i] = bd[i] - rd[i];
+    }
+}
@@ -0,0 +1,47 @@
+package io.jeti.linalg.matrix.solvers;
+
+import io.jeti.linalg.matrix.Mat;
+import io.jeti.linalg.matrix.dense.DenseVec;
+import io.jeti.linalg.matrix.sparse.CompressedMat;
+
+/**
+ * <p>
+ * A square linear operator, which is all that a {@link KrylovSolver} needs to
+ * know about the matrix A of a linear system. The operator never has to be
+ * formed: any function which computes A * x will do, so for example
+ * </p>
+ *
+ * <pre>
+ * LinearOperator laplacian = (x, y) -&gt; {
+ *     for (int i = 0; i &lt; n; i++)
+ *         y.setDouble(i, 2 * x.getDouble(i) - (i &gt; 0 ? x.getDouble(i - 1) : 0)
+ *                 - (i &lt; n - 1 ? x.getDouble(i + 1) : 0));
+ * };
+ * </pre>
+ * <p>
+ * is a matrix-free (n x n) second difference. Use {@link #of(Mat)} for an
+ * explicit matrix.
+ * </p>
+ */
+public interface LinearOperator {
+
+    /**
+     * Overwrite y with A * x. The vectors are workspace of the solver, which
+     * are reused between calls, so they must not be kept, and x must not be
+     * modified.
+     */
+    void apply(DenseVec x, DenseVec y);
+
+    /**
+     * @return the operator which multiplies by A, without allocating anything,
+     *         using {@link CompressedMat#times(DenseVec, DenseVec)} for sparse
+     *         matrices, and {@link DenseVec#gemv} for all others.
+     */
+    static LinearOperator of(Mat<?> A) {
+        if (A instanceof CompressedMat) {
+            CompressedMat<?> S = (CompressedMat<?>) A;
+            return S::times;
+        }
+        return (x, y) -> y.gemv(1, A, false, x, 0);
+    }
+}
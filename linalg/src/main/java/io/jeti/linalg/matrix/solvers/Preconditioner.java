@@ -0,0 +1,34 @@
+package io.jeti.linalg.matrix.solvers;
+
+import io.jeti.linalg.matrix.dense.DenseVec;
+
+/**
+ * <p>
+ * A preconditioner M, which approximates A so that M^-1 * A is better
+ * conditioned than A, while M^-1 * r is cheap to compute. A good
+ * preconditioner can cut the number of iterations of a {@link KrylovSolver}
+ * by orders of magnitude.
+ * </p>
+ *
+ * @see Jacobi
+ * @see ILU0
+ */
+public interface Preconditioner {
+
+    /**
+     * Overwrite z with M^-1 * r. As with {@link LinearOperator}, the vectors
+     * are workspace of the solver, and r must not be modified.
+     */
+    void apply(DenseVec r, DenseVec z);
+
+    /**
+     * @return the preconditioner M = I, which is the same as no
+     *         preconditioner at all.
+     */
+    static Preconditioner identity() {
+        return (r, z) -> {
+            for (int i = 0; i < r.size(); i++)
+                z.setDouble(i, r.getDouble(i));
+        };
+    }
+}
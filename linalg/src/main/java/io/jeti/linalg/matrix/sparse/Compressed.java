@@ -0,0 +1,570 @@
+package io.jeti.linalg.matrix.sparse;
+
+import io.jeti.linalg.matrix.Tsr.Operation;
+import io.jeti.linalg.matrix.kernels.Gemm;
+import io.jeti.linalg.matrix.utils.Check;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * <p>
+ * Compressed sparse storage, which is shared by {@link CsrMat} (where the
+ * major dimension is the rows) and {@link CscMat} (where it is the columns).
+ * The nonzeros of major slice i are stored at positions [ptr[i], ptr[i+1]) of
+ * idx and val, where idx holds their minor indices in strictly increasing
+ * order. The arrays may be longer than {@link #nnz()}, so that elements can be
+ * inserted without reallocating every time.
+ * </p>
+ * <p>
+ * All of the kernels work in terms of major and minor indices, so that they
+ * serve both orientations, and all of them run in O(nnz + majors + minors)
+ * time, apart from the products, whose cost is proportional to the number of
+ * scalar multiplications. The products are also split across threads, in the
+ * same way as dense products.
+ * </p>
+ */
+final class Compressed {
+
+    final int majors;
+    final int minors;
+    int[]     ptr;
+    int[]     idx;
+    double[]  val;
+
+    Compressed(int majors, int minors, int[] ptr, int[] idx, double[] val) {
+        this.majors = majors;
+        this.minors = minors;
+        this.ptr = ptr;
+        this.idx = idx;
+        this.val = val;
+    }
+
+    /**
+     * @return empty storage, that is, a matrix of zeros.
+     */
+    static Compressed empty(int majors, int minors) {
+        return new Compressed(majors, minors, new int[majors + 1], new int[0], new double[0]);
+    }
+
+    /**
+     * @return the specified arrays, after checking that they describe valid
+     *         storage, that is, that ptr is nondecreasing and that the minor
+     *         indices of each slice are strictly increasing and in bounds.
+     */
+    static Compressed wrap(int majors, int minors, int[] ptr, int[] idx, double[] val) {
+        Check.nonNegativeIndex(majors);
+        Check.nonNegativeIndex(minors);
+        Check.equal(ptr.length, majors + 1);
+        Check.equal(ptr[0], 0);
+        Check.equal(idx.length, val.length);
+        for (int i = 0; i < majors; i++) {
+            if (ptr[i] > ptr[i + 1] || ptr[i + 1] > idx.length)
+                throw new IllegalArgumentException("The pointers are not valid at " + i);
+            for (int p = ptr[i]; p < ptr[i + 1]; p++) {
+                Check.inBounds(idx[p], p == ptr[i] ? 0 : idx[p - 1] + 1, minors);
+            }
+        }
+        return new Compressed(majors, minors, ptr, idx, val);
+    }
+
+    /**
+     * @return the number of stored elements.
+     */
+    int nnz() {
+        return ptr[majors];
+    }
+
+    /**
+     * @return the position of the (major,minor) element in idx and val if it
+     *         is stored, and otherwise (-(insertion point) - 1).
+     */
+    int find(int major, int minor) {
+        return Arrays.binarySearch(idx, ptr[major], ptr[major + 1], minor);
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Modification
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * Insert an element at the specified position, which must be the
+     * insertion point of its minor index within the specified major slice.
+     * This shifts all of the following elements, so it is O(nnz).
+     */
+    void insert(int position, int major, int minor, double value) {
+        int nnz = nnz();
+        if (nnz == idx.length) {
+            int capacity = Math.max(4, nnz + (nnz >> 1));
+            idx = Arrays.copyOf(idx, capacity);
+            val = Arrays.copyOf(val, capacity);
+        }
+        System.arraycopy(idx, position, idx, position + 1, nnz - position);
+        System.arraycopy(val, position, val, position + 1, nnz - position);
+        idx[position] = minor;
+        val[position] = value;
+        for (int i = major + 1; i <= majors; i++)
+            ptr[i]++;
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Construction
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return the storage of n (major, minor, value) triplets, which may be
+     *         in any order. Duplicates are summed, and elements which end up
+     *         as exact zeros are dropped. This is two stable counting sorts,
+     *         first by minor and then by major index.
+     */
+    static Compressed compress(int majors, int minors, int[] maj, int[] min, double[] v,
+                               int n) {
+        /* Sort by minor index */
+        int[] count = new int[minors + 1];
+        for (int i = 0; i < n; i++)
+            count[min[i] + 1]++;
+        for (int i = 0; i < minors; i++)
+            count[i + 1] += count[i];
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++)
+            order[count[min[i]]++] = i;
+
+        /* Stable sort by major index */
+        int[] ptr = new int[majors + 1];
+        for (int i = 0; i < n; i++)
+            ptr[maj[i] + 1]++;
+        for (int i = 0; i < majors; i++)
+            ptr[i + 1] += ptr[i];
+        int[] next = Arrays.copyOf(ptr, majors);
+        int[] idx = new int[n];
+        double[] val = new double[n];
+        for (int k = 0; k < n; k++) {
+            int i = order[k];
+            int p = next[maj[i]]++;
+            idx[p] = min[i];
+            val[p] = v[i];
+        }
+
+        /* Sum duplicates and drop zeros, in place */
+        int out = 0;
+        for (int i = 0, p = 0; i < majors; i++) {
+            int end = ptr[i + 1];
+            ptr[i] = out;
+            while (p < end) {
+                int minor = idx[p];
+                double sum = val[p++];
+                while (p < end && idx[p] == minor)
+                    sum += val[p++];
+                if (sum != 0) {
+                    idx[out] = minor;
+                    val[out++] = sum;
+                }
+            }
+        }
+        ptr[majors] = out;
+        return new Compressed(majors, minors, ptr, idx, val);
+    }
+
+    /**
+     * @return the same elements, compressed along the minor dimension
+     *         instead, that is, CSR becomes CSC and vice versa. Equivalently,
+     *         this is the storage of the transpose in the same orientation.
+     */
+    Compressed transpose() {
+        int nnz = nnz();
+        int[] tptr = new int[minors + 1];
+        for (int p = 0; p < nnz; p++)
+            tptr[idx[p] + 1]++;
+        for (int i = 0; i < minors; i++)
+            tptr[i + 1] += tptr[i];
+        int[] next = Arrays.copyOf(tptr, minors);
+        int[] tidx = new int[nnz];
+        double[] tval = new double[nnz];
+        for (int i = 0; i < majors; i++) {
+            for (int p = ptr[i]; p < ptr[i + 1]; p++) {
+                int q = next[idx[p]]++;
+                tidx[q] = i;
+                tval[q] = val[p];
+            }
+        }
+        return new Compressed(minors, majors, tptr, tidx, tval);
+    }
+
+    /**
+     * @return a copy of this storage, whose arrays are exactly nnz long.
+     */
+    Compressed copy() {
+        int nnz = nnz();
+        return new Compressed(majors, minors, ptr.clone(), Arrays.copyOf(idx, nnz),
+                Arrays.copyOf(val, nnz));
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Element-wise Operations
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return the storage of operation(this, B), which must have the same
+     *         shape, where the operation must satisfy operation(0,0) = 0. Only
+     *         the union of the two sparsity patterns is visited, and results
+     *         which are exactly zero are dropped.
+     */
+    Compressed merge(Operation operation, Compressed B) {
+        int cap = nnz() + B.nnz();
+        int[] optr = new int[majors + 1];
+        int[] oidx = new int[cap];
+        double[] oval = new double[cap];
+        int out = 0;
+        for (int i = 0; i < majors; i++) {
+            int p = ptr[i], pend = ptr[i + 1];
+            int q = B.ptr[i], qend = B.ptr[i + 1];
+            while (p < pend || q < qend) {
+                int a = p < pend ? idx[p] : Integer.MAX_VALUE;
+                int b = q < qend ? B.idx[q] : Integer.MAX_VALUE;
+                int minor = Math.min(a, b);
+                double x = a == minor ? val[p++] : 0;
+                double y = b == minor ? B.val[q++] : 0;
+                double z = operation.apply(x, y);
+                if (z != 0) {
+                    oidx[out] = minor;
+                    oval[out++] = z;
+                }
+            }
+            optr[i + 1] = out;
+        }
+        return new Compressed(majors, minors, optr, oidx, oval);
+    }
+
+    /**
+     * @return the storage of operation(this, b), where the operation must
+     *         satisfy operation(0,b) = 0, so that only the stored elements have
+     *         to be visited.
+     */
+    Compressed map(Operation operation, double b) {
+        int nnz = nnz();
+        int[] optr = new int[majors + 1];
+        int[] oidx = new int[nnz];
+        double[] oval = new double[nnz];
+        int out = 0;
+        for (int i = 0; i < majors; i++) {
+            for (int p = ptr[i]; p < ptr[i + 1]; p++) {
+                double z = operation.apply(val[p], b);
+                if (z != 0) {
+                    oidx[out] = idx[p];
+                    oval[out++] = z;
+                }
+            }
+            optr[i + 1] = out;
+        }
+        return new Compressed(majors, minors, optr, oidx, oval);
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Products
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * Rows of a sparse product which have fewer than (minors / HASH)
+     * multiply-adds are accumulated in a small hash table, rather than in a
+     * dense array which spans all of the columns, since they would touch only
+     * a few scattered cache lines of it.
+     */
+    static final int HASH = 16;
+
+    /**
+     * @return the storage of X * Y, where X and Y are compressed along their
+     *         rows, that is, row i of the result is the sum of the rows k of
+     *         Y, scaled by X(i,k). This is Gustavson's algorithm in two passes:
+     *         a symbolic pass counts the nonzeros of every row, so that the
+     *         output is allocated once with its exact size, and a numeric pass
+     *         computes them. Each row is accumulated either in a hash table
+     *         or in a dense array, depending on its number of multiply-adds
+     *         (see {@link #HASH}). Both passes are split into ranges of rows
+     *         with roughly the same number of multiply-adds, as in
+     *         {@link #parallel(long[], Rows)}.
+     */
+    static Compressed multiply(Compressed X, Compressed Y) {
+        Check.equal(X.minors, Y.majors);
+        int m = X.majors;
+        int n = Y.minors;
+
+        /* The number of multiply-adds in each row, plus one for its overhead */
+        long[] cost = new long[m + 1];
+        for (int i = 0; i < m; i++) {
+            long flops = 0;
+            for (int p = X.ptr[i]; p < X.ptr[i + 1]; p++) {
+                int k = X.idx[p];
+                flops += Y.ptr[k + 1] - Y.ptr[k];
+            }
+            cost[i + 1] = cost[i] + flops + 1;
+        }
+
+        /* Symbolic: count the nonzeros of row i in optr[i + 1] */
+        int[] optr = new int[m + 1];
+        parallel(cost, (from, to) -> {
+            Accumulator acc = new Accumulator(n);
+            for (int i = from; i < to; i++)
+                optr[i + 1] = acc.gather(X, Y, i, cost[i + 1] - cost[i] - 1, false);
+        });
+        long nnz = 0;
+        for (int i = 0; i < m; i++) {
+            nnz += optr[i + 1];
+            if (nnz > Integer.MAX_VALUE - 8)
+                throw new IllegalArgumentException("The product has too many nonzeros.");
+            optr[i + 1] = (int) nnz;
+        }
+
+        /* Numeric: fill the rows, each in its own range of the output */
+        int[] oidx = new int[(int) nnz];
+        double[] oval = new double[(int) nnz];
+        parallel(cost, (from, to) -> {
+            Accumulator acc = new Accumulator(n);
+            for (int i = from; i < to; i++) {
+                int size = acc.gather(X, Y, i, cost[i + 1] - cost[i] - 1, true);
+                Arrays.sort(acc.pattern, 0, size);
+                for (int s = 0, p = optr[i]; s < size; s++, p++) {
+                    int j = acc.pattern[s];
+                    oidx[p] = j;
+                    oval[p] = acc.value(j);
+                }
+            }
+        });
+        return new Compressed(m, n, optr, oidx, oval).dropZeros();
+    }
+
+    /**
+     * @return this storage, after removing the elements which are exactly
+     *         zero, such as those where a product cancelled out, in place.
+     */
+    private Compressed dropZeros() {
+        int out = 0;
+        for (int i = 0, p = 0; i < majors; i++) {
+            int end = ptr[i + 1];
+            ptr[i] = out;
+            for (; p < end; p++) {
+                if (val[p] != 0) {
+                    idx[out] = idx[p];
+                    val[out++] = val[p];
+                }
+            }
+        }
+        ptr[majors] = out;
+        return this;
+    }
+
+    /**
+     * The accumulator for the rows of a sparse product, which is used by a
+     * single thread, and which allocates its dense and hash storage lazily.
+     */
+    private static final class Accumulator {
+
+        private final int n;
+        private int[]     mark;
+        private double[]  dense;
+        private int[]     keys;
+        private double[]  vals;
+        private int       mask;
+        private boolean   hashed;
+
+        /**
+         * The distinct columns of the last row, in no particular order.
+         */
+        int[]             pattern = new int[16];
+
+        Accumulator(int n) {
+            this.n = n;
+        }
+
+        /**
+         * Collect the distinct columns of row i of X * Y in {@link #pattern},
+         * where flops is the number of multiply-adds in the row, and also sum
+         * their values if requested.
+         *
+         * @return the number of distinct columns.
+         */
+        int gather(Compressed X, Compressed Y, int i, long flops, boolean numeric) {
+            if (flops == 0)
+                return 0;
+            if (pattern.length < Math.min(flops, n))
+                pattern = new int[(int) Math.min(Math.max(flops, 2L * pattern.length), n)];
+            int size = 0;
+            hashed = flops < n / HASH;
+            if (hashed) {
+                /* Open addressing with linear probing, at most half full */
+                int capacity = Integer.highestOneBit(2 * (int) flops - 1) << 1;
+                if (keys == null || keys.length < capacity) {
+                    keys = new int[capacity];
+                    vals = new double[capacity];
+                }
+                mask = capacity - 1;
+                Arrays.fill(keys, 0, capacity, -1);
+                for (int p = X.ptr[i]; p < X.ptr[i + 1]; p++) {
+                    double x = X.val[p];
+                    int k = X.idx[p];
+                    for (int q = Y.ptr[k]; q < Y.ptr[k + 1]; q++) {
+                        int h = slot(Y.idx[q]);
+                        if (keys[h] < 0) {
+                            keys[h] = Y.idx[q];
+                            vals[h] = 0;
+                            pattern[size++] = Y.idx[q];
+                        }
+                        if (numeric)
+                            vals[h] += x * Y.val[q];
+                    }
+                }
+            } else {
+                if (mark == null) {
+                    mark = new int[n];
+                    Arrays.fill(mark, -1);
+                }
+                if (numeric && dense == null)
+                    dense = new double[n];
+                for (int p = X.ptr[i]; p < X.ptr[i + 1]; p++) {
+                    double x = X.val[p];
+                    int k = X.idx[p];
+                    for (int q = Y.ptr[k]; q < Y.ptr[k + 1]; q++) {
+                        int j = Y.idx[q];
+                        if (mark[j] != i) {
+                            mark[j] = i;
+                            if (numeric)
+                                dense[j] = 0;
+                            pattern[size++] = j;
+                        }
+                        if (numeric)
+                            dense[j] += x * Y.val[q];
+                    }
+                }
+            }
+            return size;
+        }
+
+        /**
+         * @return the slot of column j in the hash table, which is either the
+         *         slot where it is stored, or the empty slot where it belongs.
+         */
+        private int slot(int j) {
+            int h = (j * 0x9E3779B9) & mask;
+            while (keys[h] >= 0 && keys[h] != j)
+                h = (h + 1) & mask;
+            return h;
+        }
+
+        /**
+         * @return the value of column j of the last row, which must be one of
+         *         the columns in its {@link #pattern}.
+         */
+        double value(int j) {
+            return hashed ? vals[slot(j)] : dense[j];
+        }
+    }
+
+    /**
+     * Compute C = alpha * A * B + beta * C, where A is this storage, which is
+     * compressed along its rows, B is a dense (minors x n) matrix whose
+     * (row,col) element is stored at <code>b[bOff + row * bRs + col * bCs]</code>,
+     * and similarly for C. If beta is zero, then C does not have to be
+     * initialized. Every row of C only depends on the same row of A, so the
+     * rows are split into ranges with roughly the same number of nonzeros,
+     * as in {@link #parallel(long[], Rows)}.
+     */
+    void multiply(double alpha, int n, double[] b, int bOff, int bRs, int bCs, double beta,
+                  double[] c, int cOff, int cRs, int cCs) {
+        long[] cost = new long[majors + 1];
+        for (int i = 0; i < majors; i++)
+            cost[i + 1] = cost[i] + (long) (ptr[i + 1] - ptr[i] + 1) * n;
+        parallel(cost, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                int ci = cOff + i * cRs;
+                if (beta != 1)
+                    for (int j = 0; j < n; j++)
+                        c[ci + j * cCs] = beta == 0 ? 0 : beta * c[ci + j * cCs];
+                for (int p = ptr[i]; p < ptr[i + 1]; p++) {
+                    double a = alpha * val[p];
+                    int bk = bOff + idx[p] * bRs;
+                    for (int j = 0; j < n; j++)
+                        c[ci + j * cCs] += a * b[bk + j * bCs];
+                }
+            }
+        });
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Parallelism
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * A computation over the major slices in [from,to).
+     */
+    interface Rows {
+        void apply(int from, int to);
+    }
+
+    /**
+     * Apply the computation to consecutive ranges of major slices, where the
+     * cost of the slices before slice i is cost[i], so that cost[majors] is
+     * the total. The ranges are chosen so that their costs are roughly equal,
+     * which balances skewed slices, and they are computed concurrently on the
+     * executor of the default {@link Gemm} if the total cost reaches its
+     * {@link Gemm#threshold()}. Otherwise, everything is computed on the
+     * calling thread.
+     */
+    static void parallel(long[] cost, Rows rows) {
+        int m = cost.length - 1;
+        long total = cost[m];
+        Gemm gemm = Gemm.getDefault();
+        Executor executor = gemm.executor();
+        if (executor == null || total < gemm.threshold() || m < 2) {
+            rows.apply(0, m);
+            return;
+        }
+        int threads = executor instanceof ForkJoinPool
+                ? ((ForkJoinPool) executor).getParallelism()
+                : Runtime.getRuntime().availableProcessors();
+        int parts = Math.min(m, 4 * threads);
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[parts];
+        int count = 0;
+        for (int part = 1, from = 0; part <= parts && from < m; part++) {
+            int to = part == parts ? m : bound(cost, total / parts * part);
+            if (to <= from)
+                continue;
+            int start = from;
+            futures[count++] = CompletableFuture.runAsync(() -> rows.apply(start, to), executor);
+            from = to;
+        }
+        for (int i = 0; i < count; i++)
+            futures[i].join();
+    }
+
+    /**
+     * @return the first i such that cost[i] is at least the target.
+     */
+    private static int bound(long[] cost, long target) {
+        int i = Arrays.binarySearch(cost, target);
+        if (i < 0)
+            return -i - 1;
+        while (i > 0 && cost[i - 1] == target)
+            i--;
+        return i;
+    }
+}
@@ -0,0 +1,442 @@
+package io.jeti.linalg.matrix.sparse;
+
+import io.jeti.linalg.matrix.Mat;
+import io.jeti.linalg.matrix.MutMat;
+import io.jeti.linalg.matrix.dense.DenseMat;
+import io.jeti.linalg.matrix.dense.DenseVec;
+import io.jeti.linalg.matrix.kernels.Gemm;
+import io.jeti.linalg.matrix.utils.Check;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>
+ * A base class for sparse {@link MutMat}s which only store their nonzero
+ * elements, compressed along either their rows ({@link CsrMat}) or their
+ * columns ({@link CscMat}). Every operation is written once, in terms of the
+ * major and minor dimensions of the storage, so both orientations share the
+ * same code.
+ * </p>
+ * <p>
+ * The operations which matter for sparse data are overridden so that their
+ * memory and time scale with the number of nonzeros, rather than with rows *
+ * cols. That is, {@link #times(CompressedMat)}, {@link #times(DenseMat)},
+ * {@link #transpose()}, selections with
+ * {@link #get(int, int, int, int, int, int)}, and {@link #toList()}, as well
+ * as {@link #apply(Operation, CompressedMat)} and
+ * {@link #apply(Operation, Number)} when the operation maps zeros to zero, as
+ * addition, subtraction, and element-wise multiplication do. Operations which
+ * do not preserve zeros produce a dense result, which is still stored in the
+ * same sparse format.
+ * </p>
+ * <p>
+ * Note that the selections are copies, not views, and that setting an element
+ * which is not already stored shifts all of the following elements, so large
+ * matrices should be constructed with {@link Triplets} instead.
+ * </p>
+ */
+public abstract class CompressedMat<T extends CompressedMat<T>> implements MutMat<T> {
+
+    protected final int rows;
+    protected final int cols;
+    private final boolean byRow;
+    Compressed          data;
+
+    CompressedMat(int rows, int cols, boolean byRow, Compressed data) {
+        Check.equal(data.majors, byRow ? rows : cols);
+        Check.equal(data.minors, byRow ? cols : rows);
+        this.rows = rows;
+        this.cols = cols;
+        this.byRow = byRow;
+        this.data = data;
+    }
+
+    /**
+     * @return a matrix with the same orientation as this one, which uses the
+     *         specified storage.
+     */
+    abstract T create(int rows, int cols, Compressed data);
+
+    @Override
+    public T newInstance(int rows, int cols, Filler filler) {
+        int majors = byRow ? rows : cols;
+        int minors = byRow ? cols : rows;
+        int[] ptr = new int[majors + 1];
+        int[] idx = new int[16];
+        double[] val = new double[16];
+        int nnz = 0;
+        for (int i = 0; i < majors; i++) {
+            for (int j = 0; j < minors; j++) {
+                double v = byRow ? filler.apply(i, j) : filler.apply(j, i);
+                if (v != 0) {
+                    if (nnz == idx.length) {
+                        idx = Arrays.copyOf(idx, nnz + (nnz >> 1));
+                        val = Arrays.copyOf(val, idx.length);
+                    }
+                    idx[nnz] = j;
+                    val[nnz++] = v;
+                }
+            }
+            ptr[i + 1] = nnz;
+        }
+        return create(rows, cols, new Compressed(majors, minors, ptr, idx, val));
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Getters
+     *
+     * --------------------------------------------------
+     */
+
+    @Override
+    public int rows() {
+        return rows;
+    }
+
+    @Override
+    public int cols() {
+        return cols;
+    }
+
+    /**
+     * @return the number of stored elements.
+     */
+    public int nnz() {
+        return data.nnz();
+    }
+
+    /**
+     * @return the backing array of pointers (NOT a copy), where the stored
+     *         elements of row i of a CSR matrix, or column i of a CSC matrix,
+     *         are at positions [pointers()[i], pointers()[i+1]) of
+     *         {@link #indices()} and {@link #values()}.
+     */
+    public int[] pointers() {
+        return data.ptr;
+    }
+
+    /**
+     * @return the backing array (NOT a copy) of the column indices of a CSR
+     *         matrix, or the row indices of a CSC matrix, which may be longer
+     *         than {@link #nnz()}.
+     */
+    public int[] indices() {
+        return data.idx;
+    }
+
+    /**
+     * @return the backing array (NOT a copy) of the stored values, which may
+     *         be longer than {@link #nnz()}.
+     */
+    public double[] values() {
+        return data.val;
+    }
+
+    @Override
+    public double getDouble(int row, int col) {
+        Check.inBounds(row, 0, rows);
+        Check.inBounds(col, 0, cols);
+        int p = byRow ? data.find(row, col) : data.find(col, row);
+        return p < 0 ? 0 : data.val[p];
+    }
+
+    /**
+     * @return a copy (not a view) of the selection, which is computed by
+     *         visiting only the stored elements of the selected rows (or
+     *         columns).
+     */
+    @Override
+    public T get(int fromRow, int toRow, int rowStride, int fromCol, int toCol, int colStride) {
+        int rows = checkSelection(fromRow, toRow, rowStride, this.rows);
+        int cols = checkSelection(fromCol, toCol, colStride, this.cols);
+        int majors = byRow ? rows : cols;
+        int minors = byRow ? cols : rows;
+        int majorFrom = byRow ? fromRow : fromCol;
+        int majorStride = byRow ? rowStride : colStride;
+        int minorFrom = byRow ? fromCol : fromRow;
+        int minorStride = byRow ? colStride : rowStride;
+
+        int[] ptr = new int[majors + 1];
+        int[] idx = new int[16];
+        double[] val = new double[16];
+        int nnz = 0;
+        for (int i = 0; i < majors; i++) {
+            int major = majorFrom + i * majorStride;
+            int start = nnz;
+            for (int p = data.ptr[major]; p < data.ptr[major + 1]; p++) {
+                int d = data.idx[p] - minorFrom;
+                if (d % minorStride != 0 || d / minorStride < 0 || d / minorStride >= minors)
+                    continue;
+                if (nnz == idx.length) {
+                    idx = Arrays.copyOf(idx, nnz + (nnz >> 1));
+                    val = Arrays.copyOf(val, idx.length);
+                }
+                idx[nnz] = d / minorStride;
+                val[nnz++] = data.val[p];
+            }
+            /* A negative stride visits the minor indices in decreasing order */
+            if (minorStride < 0) {
+                for (int a = start, b = nnz - 1; a < b; a++, b--) {
+                    int ti = idx[a];
+                    idx[a] = idx[b];
+                    idx[b] = ti;
+                    double tv = val[a];
+                    val[a] = val[b];
+                    val[b] = tv;
+                }
+            }
+            ptr[i + 1] = nnz;
+        }
+        return create(rows, cols, new Compressed(majors, minors, ptr, idx, val));
+    }
+
+    /**
+     * @return the rows of this matrix, where all of the zeros share a single
+     *         boxed instance, and only the stored elements are visited.
+     */
+    @Override
+    public List<List<Double>> toList() {
+        Double zero = 0.0;
+        Double[][] out = new Double[rows][cols];
+        for (Double[] row : out)
+            Arrays.fill(row, zero);
+        for (int i = 0; i < data.majors; i++) {
+            for (int p = data.ptr[i]; p < data.ptr[i + 1]; p++) {
+                if (byRow)
+                    out[i][data.idx[p]] = data.val[p];
+                else
+                    out[data.idx[p]][i] = data.val[p];
+            }
+        }
+        List<List<Double>> list = new ArrayList<>(rows);
+        for (Double[] row : out)
+            list.add(new ArrayList<>(Arrays.asList(row)));
+        return list;
+    }
+
+    @Override
+    public boolean isDiagonal() {
+        if (rows != cols)
+            return false;
+        for (int i = 0; i < data.majors; i++)
+            for (int p = data.ptr[i]; p < data.ptr[i + 1]; p++)
+                if (data.idx[p] != i && data.val[p] != 0)
+                    return false;
+        return true;
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Setters
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * Set this(row,col) = val. If the element is not already stored, and val
+     * is not zero, then it is inserted, which is O(nnz).
+     */
+    @Override
+    public void setDouble(int row, int col, double val) {
+        Check.inBounds(row, 0, rows);
+        Check.inBounds(col, 0, cols);
+        int major = byRow ? row : col;
+        int minor = byRow ? col : row;
+        int p = data.find(major, minor);
+        if (p >= 0)
+            data.val[p] = val;
+        else if (val != 0)
+            data.insert(-p - 1, major, minor, val);
+    }
+
+    @Override
+    public void set(Filler filler) {
+        data = newInstance(rows, cols, filler).data;
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Matrix/Self Operations
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return this^T in the same format, which is computed with a counting
+     *         sort in O(nnz + rows + cols).
+     */
+    @Override
+    public T transpose() {
+        return create(cols, rows, data.transpose());
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Matrix/Matrix Operations
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return this * B, which is computed with Gustavson's algorithm, so that
+     *         the time is proportional to the number of nonzero scalar
+     *         products, and the result is sparse. Large products are computed
+     *         concurrently, on the executor of the default {@link Gemm}.
+     */
+    @Override
+    public T times(T B) {
+        if (isScalar() || B.isScalar())
+            return timesElementwise(B);
+        Check.equal(cols, B.rows);
+        if (byRow) {
+            return create(rows, B.cols, Compressed.multiply(data, B.data));
+        } else {
+            /* The columns of C = A * B are the rows of C^T = B^T * A^T */
+            return create(rows, B.cols, Compressed.multiply(B.data, data));
+        }
+    }
+
+    /**
+     * @return this * B, which is dense. Every nonzero of this matrix scales a
+     *         row of B, so the time is proportional to nnz * B.cols(). The
+     *         rows of the result are split into ranges with roughly the same
+     *         number of nonzeros, which are computed concurrently on the
+     *         executor of the default {@link Gemm} for large products. Unlike
+     *         {@link #times(CompressedMat)}, B cannot be a scalar. A CSC matrix
+     *         is converted to CSR first, which is O(nnz).
+     */
+    public DenseMat times(DenseMat B) {
+        Check.equal(cols, B.rows());
+        int n = B.cols();
+        double[] out = new double[rows * n];
+        Compressed csr = byRow ? data : data.transpose();
+        csr.multiply(1, n, B.data(), B.offset(), B.rowStride(), B.colStride(), 0, out, 0, n, 1);
+        return new DenseMat(out, rows, n);
+    }
+
+    /**
+     * Overwrite y with this * x without allocating anything, so that iterative
+     * methods can reuse their vectors. Each row of a CSR matrix is a sparse
+     * dot product, and the rows are computed concurrently for large matrices,
+     * as in {@link #times(DenseMat)}, while each column of a CSC matrix is
+     * scattered into y. Note that y must not share storage with x.
+     */
+    public void times(DenseVec x, DenseVec y) {
+        Check.equal(cols, x.size());
+        Check.equal(rows, y.size());
+        double[] xd = x.data();
+        double[] yd = y.data();
+        if (byRow) {
+            data.multiply(1, 1, xd, x.offset(), x.stride(), 1, 0, yd, y.offset(), y.stride(), 1);
+        } else {
+            for (int i = 0, q = y.offset(); i < rows; i++, q += y.stride())
+                yd[q] = 0;
+            for (int j = 0, q = x.offset(); j < cols; j++, q += x.stride()) {
+                double xj = xd[q];
+                if (xj != 0)
+                    for (int p = data.ptr[j]; p < data.ptr[j + 1]; p++)
+                        yd[y.offset() + data.idx[p] * y.stride()] += data.val[p] * xj;
+            }
+        }
+    }
+
+    /**
+     * Overwrite this matrix with alpha * op(A) * op(B) + beta * this. The
+     * result of a general product is dense, and inserting its elements one at
+     * a time would cost O(nnz) each, so the product is computed into a dense
+     * array with the default {@link Gemm}, and the compressed storage is
+     * rebuilt from that array once, in O(rows * cols). Products of two sparse
+     * matrices should use {@link #times(CompressedMat)} instead, and products
+     * of a sparse and a dense matrix {@link #times(DenseMat)}.
+     */
+    @Override
+    public void gemm(double alpha, Mat<?> A, boolean transA, Mat<?> B, boolean transB,
+                     double beta) {
+        int m = transA ? A.cols() : A.rows();
+        int k = transA ? A.rows() : A.cols();
+        int n = transB ? B.rows() : B.cols();
+        Check.equal(k, transB ? B.cols() : B.rows());
+        Check.equal(rows, m);
+        Check.equal(cols, n);
+        double[] c = new double[rows * cols];
+        if (beta != 0) {
+            for (int i = 0; i < data.majors; i++) {
+                for (int p = data.ptr[i]; p < data.ptr[i + 1]; p++) {
+                    int q = byRow ? i * cols + data.idx[p] : data.idx[p] * cols + i;
+                    c[q] = data.val[p];
+                }
+            }
+        }
+        Filler a = transA ? (row, col) -> A.getDouble(col, row) : A::getDouble;
+        Filler b = transB ? (row, col) -> B.getDouble(col, row) : B::getDouble;
+        Gemm.getDefault().multiply(m, n, k, alpha, a, b, beta, c, 0, cols, 1);
+        set((row, col) -> c[row * cols + col]);
+    }
+
+    /**
+     * If the operation maps zeros to zero, then only the union of the stored
+     * elements of this and B is visited. Otherwise, the result is dense.
+     */
+    @Override
+    public T apply(Operation operation, T B) {
+        if (isScalar()) {
+            double a = getDouble(0, 0);
+            return B.apply((x, b) -> operation.apply(a, x), 0);
+        } else if (B.isScalar()) {
+            return apply(operation, B.getDouble(0, 0));
+        }
+        Check.sameNumberOfRows(this, B);
+        Check.sameNumberOfCols(this, B);
+        if (operation.apply(0, 0) == 0)
+            return create(rows, cols, data.merge(operation, B.data));
+        return MutMat.super.apply(operation, B);
+    }
+
+    /**
+     * If operation(0,B) is zero, then only the stored elements are visited.
+     * Otherwise, the result is dense.
+     */
+    @Override
+    public T apply(Operation operation, Number B) {
+        double b = B.doubleValue();
+        if (operation.apply(0, b) == 0)
+            return create(rows, cols, data.map(operation, b));
+        return MutMat.super.apply(operation, b);
+    }
+
+    @Override
+    public void applyEquals(Operation operation, T B) {
+        if (!B.isScalar()) {
+            Check.sameNumberOfRows(this, B);
+            Check.sameNumberOfCols(this, B);
+        }
+        data = apply(operation, B).data;
+    }
+
+    @Override
+    public void applyEquals(Operation operation, Number B) {
+        data = apply(operation, B).data;
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Other Functions
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return {@link Mat#asString()}
+     */
+    @Override
+    public String toString() {
+        return asString();
+    }
+}
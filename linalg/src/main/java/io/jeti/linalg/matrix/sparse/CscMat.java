@@ -0,0 +1,47 @@
+package io.jeti.linalg.matrix.sparse;
+
+/**
+ * <p>
+ * A sparse matrix in compressed sparse column (CSC) format. The nonzeros of
+ * column j are stored at positions [colPtr[j], colPtr[j+1]) of rowIdx and
+ * val, with strictly increasing row indices. This is the natural format for
+ * accessing columns, and for products with a transpose.
+ * </p>
+ * <p>
+ * Use {@link Triplets} to build a {@link CscMat} from (row, col, value)
+ * triplets, and {@link #toCsr()} to convert it to the row format.
+ * </p>
+ */
+public class CscMat extends CompressedMat<CscMat> {
+
+    /**
+     * Create a (rows x cols) {@link CscMat} of zeros.
+     */
+    public CscMat(int rows, int cols) {
+        this(rows, cols, Compressed.empty(cols, rows));
+    }
+
+    /**
+     * Create a (rows x cols) {@link CscMat} which wraps (does NOT copy) the
+     * provided arrays, after checking that they are valid.
+     */
+    public CscMat(int rows, int cols, int[] colPtr, int[] rowIdx, double[] val) {
+        this(rows, cols, Compressed.wrap(cols, rows, colPtr, rowIdx, val));
+    }
+
+    CscMat(int rows, int cols, Compressed data) {
+        super(rows, cols, false, data);
+    }
+
+    @Override
+    CscMat create(int rows, int cols, Compressed data) {
+        return new CscMat(rows, cols, data);
+    }
+
+    /**
+     * @return the same matrix in compressed sparse row format.
+     */
+    public CsrMat toCsr() {
+        return new CsrMat(rows, cols, data.transpose());
+    }
+}
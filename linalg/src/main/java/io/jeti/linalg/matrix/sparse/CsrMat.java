@@ -0,0 +1,47 @@
+package io.jeti.linalg.matrix.sparse;
+
+/**
+ * <p>
+ * A sparse matrix in compressed sparse row (CSR) format. The nonzeros of row
+ * i are stored at positions [rowPtr[i], rowPtr[i+1]) of colIdx and val, with
+ * strictly increasing column indices. This is the natural format for
+ * products, and for accessing rows.
+ * </p>
+ * <p>
+ * Use {@link Triplets} to build a {@link CsrMat} from (row, col, value)
+ * triplets, and {@link #toCsc()} to convert it to the column format.
+ * </p>
+ */
+public class CsrMat extends CompressedMat<CsrMat> {
+
+    /**
+     * Create a (rows x cols) {@link CsrMat} of zeros.
+     */
+    public CsrMat(int rows, int cols) {
+        this(rows, cols, Compressed.empty(rows, cols));
+    }
+
+    /**
+     * Create a (rows x cols) {@link CsrMat} which wraps (does NOT copy) the
+     * provided arrays, after checking that they are valid.
+     */
+    public CsrMat(int rows, int cols, int[] rowPtr, int[] colIdx, double[] val) {
+        this(rows, cols, Compressed.wrap(rows, cols, rowPtr, colIdx, val));
+    }
+
+    CsrMat(int rows, int cols, Compressed data) {
+        super(rows, cols, true, data);
+    }
+
+    @Override
+    CsrMat create(int rows, int cols, Compressed data) {
+        return new CsrMat(rows, cols, data);
+    }
+
+    /**
+     * @return the same matrix in compressed sparse column format.
+     */
+    public CscMat toCsc() {
+        return new CscMat(rows, cols, data.transpose());
+    }
+}
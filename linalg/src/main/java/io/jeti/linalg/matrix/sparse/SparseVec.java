@@ -0,0 +1,404 @@
+package io.jeti.linalg.matrix.sparse;
+
+import io.jeti.linalg.matrix.MutVec;
+import io.jeti.linalg.matrix.Vec;
+import io.jeti.linalg.matrix.utils.Check;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>
+ * A sparse {@link MutVec} which only stores its nonzero elements, as a pair of
+ * index and value arrays, where the indices are strictly increasing. This is
+ * meant for vectors with a huge size, but only a few nonzeros, such as feature
+ * vectors, so everything which matters for them scales with the number of
+ * nonzeros rather than with {@link #size()}: {@link #dot(SparseVec)}, as well
+ * as {@link #apply(Operation, SparseVec)} and
+ * {@link #apply(Operation, Number)} when the operation maps zeros to zero, as
+ * addition, subtraction, and element-wise multiplication do, are merges of the
+ * sorted indices, and the products with dense vectors,
+ * {@link #dotDense(Vec)} and {@link #dot(double[])}, only visit the nonzeros
+ * of this vector.
+ * </p>
+ * <p>
+ * Vectors should be built with {@link #append(int, double)}, which is
+ * amortized O(1), since setting an element which is not already stored shifts
+ * all of the following elements. Note that selections are copies, not views.
+ * </p>
+ *
+ * <pre>
+ * SparseVec x = new SparseVec(1 &lt;&lt; 20).append(17, 1.0).append(4096, 2.5);
+ * </pre>
+ */
+public class SparseVec implements MutVec<SparseVec> {
+
+    private final int size;
+    private int[]     idx;
+    private double[]  val;
+    private int       nnz;
+
+    /*
+     * --------------------------------------------------
+     *
+     * Constructors
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * Create a {@link SparseVec} of zeros with the specified size.
+     */
+    public SparseVec(int size) {
+        this(size, new int[4], new double[4], 0);
+    }
+
+    /**
+     * Create a {@link SparseVec} which wraps (does NOT copy) the provided
+     * arrays, where idx holds the strictly increasing indices of the elements
+     * in val.
+     */
+    public SparseVec(int size, int[] idx, double[] val) {
+        this(size, idx, val, idx.length);
+        Check.equal(idx.length, val.length);
+        for (int k = 0; k < idx.length; k++)
+            Check.inBounds(idx[k], k == 0 ? 0 : idx[k - 1] + 1, size);
+    }
+
+    private SparseVec(int size, int[] idx, double[] val, int nnz) {
+        Check.nonNegativeIndex(size);
+        this.size = size;
+        this.idx = idx;
+        this.val = val;
+        this.nnz = nnz;
+    }
+
+    @Override
+    public SparseVec newInstance(int elems, Filler filler) {
+        SparseVec out = new SparseVec(elems);
+        for (int i = 0; i < elems; i++)
+            out.append(i, filler.apply(i));
+        return out;
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Getters
+     *
+     * --------------------------------------------------
+     */
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of stored elements.
+     */
+    public int nnz() {
+        return nnz;
+    }
+
+    /**
+     * @return the index of the k^th stored element, where k is in [0,nnz).
+     */
+    public int indexAt(int k) {
+        Check.inBounds(k, 0, nnz);
+        return idx[k];
+    }
+
+    /**
+     * @return the value of the k^th stored element, where k is in [0,nnz).
+     */
+    public double valueAt(int k) {
+        Check.inBounds(k, 0, nnz);
+        return val[k];
+    }
+
+    /**
+     * @return the position of the element in idx and val if it is stored, and
+     *         otherwise (-(insertion point) - 1).
+     */
+    private int find(int element) {
+        return Arrays.binarySearch(idx, 0, nnz, element);
+    }
+
+    @Override
+    public double getDouble(int element) {
+        Check.inBounds(element, 0, size);
+        int k = find(element);
+        return k < 0 ? 0 : val[k];
+    }
+
+    /**
+     * @return a copy (not a view) of the selection, which is computed by
+     *         visiting only the stored elements in the selected range.
+     */
+    @Override
+    public SparseVec get(int from, int to, int stride) {
+        int elems = checkSelection(from, to, stride, size);
+        int last = from + (elems - 1) * stride;
+        int lo = Math.min(from, last);
+        int hi = Math.max(from, last);
+        int start = find(lo);
+        start = start < 0 ? -start - 1 : start;
+        int end = start;
+        while (end < nnz && idx[end] <= hi)
+            end++;
+
+        SparseVec out = new SparseVec(elems, new int[end - start], new double[end - start], 0);
+        /* A negative stride visits the indices in decreasing order */
+        for (int n = 0; n < end - start; n++) {
+            int k = stride > 0 ? start + n : end - 1 - n;
+            int d = idx[k] - from;
+            if (d % stride == 0)
+                out.append(d / stride, val[k]);
+        }
+        return out;
+    }
+
+    /**
+     * @return the elements of this vector, where all of the zeros share a
+     *         single boxed instance, and only the stored elements are visited.
+     */
+    @Override
+    public List<Double> toList() {
+        Double[] out = new Double[size];
+        Arrays.fill(out, 0.0);
+        for (int k = 0; k < nnz; k++)
+            out[idx[k]] = val[k];
+        return new ArrayList<>(Arrays.asList(out));
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Setters
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * Set this(element) = val, where the element must be greater than every
+     * element which is already stored. This is amortized O(1), so it is the
+     * way to build a vector incrementally. Zeros are not stored.
+     *
+     * @return this vector
+     */
+    public SparseVec append(int element, double val) {
+        Check.inBounds(element, nnz == 0 ? 0 : idx[nnz - 1] + 1, size);
+        if (val != 0) {
+            grow();
+            this.idx[nnz] = element;
+            this.val[nnz++] = val;
+        }
+        return this;
+    }
+
+    /**
+     * Set this(element) = val. If the element is not already stored, and val
+     * is not zero, then it is inserted, which is O(nnz), unless the element is
+     * greater than every stored element, in which case this is an
+     * {@link #append(int, double)}.
+     */
+    @Override
+    public void setDouble(int element, double val) {
+        Check.inBounds(element, 0, size);
+        int k = find(element);
+        if (k >= 0) {
+            this.val[k] = val;
+        } else if (val != 0) {
+            k = -k - 1;
+            grow();
+            System.arraycopy(idx, k, idx, k + 1, nnz - k);
+            System.arraycopy(this.val, k, this.val, k + 1, nnz - k);
+            idx[k] = element;
+            this.val[k] = val;
+            nnz++;
+        }
+    }
+
+    @Override
+    public void set(Filler filler) {
+        SparseVec out = newInstance(size, filler);
+        idx = out.idx;
+        val = out.val;
+        nnz = out.nnz;
+    }
+
+    /**
+     * Make room for at least one more element.
+     */
+    private void grow() {
+        if (nnz == idx.length) {
+            int capacity = Math.max(4, nnz + (nnz >> 1));
+            idx = Arrays.copyOf(idx, capacity);
+            val = Arrays.copyOf(val, capacity);
+        }
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Vector/Vector Operations
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * If the operation maps zeros to zero, then only the union of the stored
+     * elements of this and B is visited, and results which are exactly zero
+     * are dropped. Otherwise, the result is dense.
+     */
+    @Override
+    public SparseVec apply(Operation operation, SparseVec B) {
+        if (B.size == 1)
+            return apply(operation, B.getDouble(0));
+        Check.sameSize(this, B);
+        if (operation.apply(0, 0) != 0)
+            return MutVec.super.apply(operation, B);
+        int[] oidx = new int[nnz + B.nnz];
+        double[] oval = new double[oidx.length];
+        int out = 0;
+        int p = 0, q = 0;
+        while (p < nnz || q < B.nnz) {
+            int a = p < nnz ? idx[p] : Integer.MAX_VALUE;
+            int b = q < B.nnz ? B.idx[q] : Integer.MAX_VALUE;
+            int element = Math.min(a, b);
+            double x = a == element ? val[p++] : 0;
+            double y = b == element ? B.val[q++] : 0;
+            double z = operation.apply(x, y);
+            if (z != 0) {
+                oidx[out] = element;
+                oval[out++] = z;
+            }
+        }
+        return new SparseVec(size, oidx, oval, out);
+    }
+
+    /**
+     * @return this * B, that is, the dot product, which only visits the
+     *         elements which are stored in both vectors. If one vector has many
+     *         more nonzeros than the other, then the indices of the shorter one
+     *         are searched for in the longer one, rather than merging them.
+     */
+    @Override
+    public Double dot(SparseVec B) {
+        Check.sameSize(this, B);
+        SparseVec x = nnz <= B.nnz ? this : B;
+        SparseVec y = x == this ? B : this;
+        double sum = 0;
+        if (x.nnz * 32 < y.nnz) {
+            for (int p = 0, q = 0; p < x.nnz && q < y.nnz; p++) {
+                int k = Arrays.binarySearch(y.idx, q, y.nnz, x.idx[p]);
+                if (k >= 0)
+                    sum += x.val[p] * y.val[k];
+                q = k < 0 ? -k - 1 : k + 1;
+            }
+        } else {
+            for (int p = 0, q = 0; p < x.nnz && q < y.nnz;) {
+                int a = x.idx[p];
+                int b = y.idx[q];
+                if (a == b)
+                    sum += x.val[p++] * y.val[q++];
+                else if (a < b)
+                    p++;
+                else
+                    q++;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * @return this * B, that is, the dot product with a vector of any type,
+     *         such as a dense one, which only reads the elements of B where
+     *         this vector is nonzero. This cannot be an overload of
+     *         {@link #dot(SparseVec)}, since both would have the same erasure.
+     */
+    public double dotDense(Vec<?> B) {
+        Check.sameSize(this, B);
+        double sum = 0;
+        for (int k = 0; k < nnz; k++)
+            sum += val[k] * B.getDouble(idx[k]);
+        return sum;
+    }
+
+    /**
+     * @return this * B, that is, the dot product with a dense array, which
+     *         only reads the elements of B where this vector is nonzero.
+     */
+    public double dot(double[] B) {
+        Check.equal(size, B.length);
+        double sum = 0;
+        for (int k = 0; k < nnz; k++)
+            sum += val[k] * B[idx[k]];
+        return sum;
+    }
+
+    @Override
+    public void applyEquals(Operation operation, SparseVec B) {
+        if (B.size != 1)
+            Check.sameSize(this, B);
+        SparseVec out = apply(operation, B);
+        idx = out.idx;
+        val = out.val;
+        nnz = out.nnz;
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Vector/Scalar Operations
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * If operation(0,B) is zero, then only the stored elements are visited.
+     * Otherwise, the result is dense.
+     */
+    @Override
+    public SparseVec apply(Operation operation, Number B) {
+        double b = B.doubleValue();
+        if (operation.apply(0, b) != 0)
+            return MutVec.super.apply(operation, b);
+        int[] oidx = new int[nnz];
+        double[] oval = new double[nnz];
+        int out = 0;
+        for (int k = 0; k < nnz; k++) {
+            double z = operation.apply(val[k], b);
+            if (z != 0) {
+                oidx[out] = idx[k];
+                oval[out++] = z;
+            }
+        }
+        return new SparseVec(size, oidx, oval, out);
+    }
+
+    @Override
+    public void applyEquals(Operation operation, Number B) {
+        SparseVec out = apply(operation, B);
+        idx = out.idx;
+        val = out.val;
+        nnz = out.nnz;
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Other Functions
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return {@link Vec#asString()}
+     */
+    @Override
+    public String toString() {
+        return asString();
+    }
+}
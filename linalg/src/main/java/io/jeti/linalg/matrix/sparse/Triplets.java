@@ -0,0 +1,78 @@
+package io.jeti.linalg.matrix.sparse;
+
+import io.jeti.linalg.matrix.utils.Check;
+import java.util.Arrays;
+
+/**
+ * <p>
+ * A builder for sparse matrices from coordinate (row, col, value) triplets,
+ * which may be added in any order. Appending is amortized O(1), and
+ * {@link #toCsr()} and {@link #toCsc()} compress the triplets with two
+ * counting sorts in O(nnz + rows + cols). Duplicate coordinates are summed,
+ * and elements which end up as exact zeros are dropped.
+ * </p>
+ *
+ * <pre>
+ * CsrMat A = new Triplets(rows, cols).add(0, 1, 2.0).add(3, 2, -1.0).toCsr();
+ * </pre>
+ */
+public class Triplets {
+
+    private final int rows;
+    private final int cols;
+    private int[]     row  = new int[16];
+    private int[]     col  = new int[16];
+    private double[]  val  = new double[16];
+    private int       size = 0;
+
+    /**
+     * Create an empty builder for a (rows x cols) matrix.
+     */
+    public Triplets(int rows, int cols) {
+        Check.nonNegativeIndex(rows);
+        Check.nonNegativeIndex(cols);
+        this.rows = rows;
+        this.cols = cols;
+    }
+
+    /**
+     * Add val to the (row,col) element.
+     *
+     * @return this builder
+     */
+    public Triplets add(int row, int col, double val) {
+        Check.inBounds(row, 0, rows);
+        Check.inBounds(col, 0, cols);
+        if (size == this.row.length) {
+            int capacity = size + (size >> 1);
+            this.row = Arrays.copyOf(this.row, capacity);
+            this.col = Arrays.copyOf(this.col, capacity);
+            this.val = Arrays.copyOf(this.val, capacity);
+        }
+        this.row[size] = row;
+        this.col[size] = col;
+        this.val[size++] = val;
+        return this;
+    }
+
+    /**
+     * @return the number of triplets which have been added.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return a new {@link CsrMat} containing the triplets.
+     */
+    public CsrMat toCsr() {
+        return new CsrMat(rows, cols, Compressed.compress(rows, cols, row, col, val, size));
+    }
+
+    /**
+     * @return a new {@link CscMat} containing the triplets.
+     */
+    public CscMat toCsc() {
+        return new CscMat(rows, cols, Compressed.compress(cols, rows, col, row, val, size));
+    }
+}
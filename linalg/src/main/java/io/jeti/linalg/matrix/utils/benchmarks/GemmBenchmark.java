@@ -0,0 +1,89 @@
+package io.jeti.linalg.matrix.utils.benchmarks;
+
+import io.jeti.linalg.matrix.Mat;
+import io.jeti.linalg.matrix.dense.DenseMat;
+import io.jeti.linalg.matrix.kernels.Gemm;
+
+/**
+ * <p>
+ * A small benchmark which reports the throughput, in GFLOP/s, of square
+ * matrix products computed by
+ * </p>
+ * <ul>
+ * <li>the original {@link Mat#times(Mat)} default, that is, a
+ * {@link Mat.Filler} which computes each element of the output as a dot
+ * product,</li>
+ * <li>the default {@link Gemm} engine reading its operands through
+ * {@link Mat#getDouble(int, int)}, which is what {@link Mat#times(Mat)} does
+ * for any implementation, and</li>
+ * <li>the default {@link Gemm} engine packing directly from the arrays of a
+ * {@link DenseMat}.</li>
+ * </ul>
+ * <p>
+ * Run it with the sizes to test as arguments, for example
+ * <code>GemmBenchmark 128 256 512 1024</code>. Alternative block sizes can be
+ * passed as <code>-Dgemm.mc=... -Dgemm.kc=... -Dgemm.nc=...</code>, and
+ * <code>-Dgemm.sequential=true</code> restricts the engine to one thread.
+ * </p>
+ */
+public class GemmBenchmark {
+
+    public static void main(String[] args) {
+
+        Gemm gemm = Gemm.getDefault();
+        Gemm.setDefault(new Gemm(Integer.getInteger("gemm.mc", gemm.mc()),
+                Integer.getInteger("gemm.kc", gemm.kc()), Integer.getInteger("gemm.nc", gemm.nc()),
+                Boolean.getBoolean("gemm.sequential") ? null : gemm.executor(), gemm.threshold()));
+
+        int[] sizes = args.length == 0 ? new int[] { 128, 256, 512 } : new int[args.length];
+        for (int i = 0; i < args.length; i++)
+            sizes[i] = Integer.parseInt(args[i]);
+
+        System.out.println(String.format("%8s %12s %12s %12s", "n", "filler", "gemm(get)",
+                "gemm(dense)"));
+        for (int n : sizes) {
+            DenseMat A = new DenseMat(n, n)._randn(n, n);
+            DenseMat B = new DenseMat(n, n)._randn(n, n);
+            double flops = 2.0 * n * n * n;
+            double filler = flops / time(() -> fillerTimes(A, B));
+            double generic = flops / time(() -> {
+                double[] C = new double[n * n];
+                Gemm.getDefault().multiply(n, n, n, 1, A::getDouble, B::getDouble, 0, C, 0, n,
+                        1);
+            });
+            double dense = flops / time(() -> A.times(B));
+            System.out.println(String.format("%8d %12.3f %12.3f %12.3f", n, filler, generic,
+                    dense));
+        }
+    }
+
+    /**
+     * @return the product A * B, computed the way that {@link Mat#times(Mat)}
+     *         originally did.
+     */
+    private static DenseMat fillerTimes(DenseMat A, DenseMat B) {
+        int inner = A.cols();
+        return A.newInstance(A.rows(), B.cols(), (row, col) -> {
+            double sum = 0.0;
+            for (int i = 0; i < inner; i++)
+                sum += A.getDouble(row, i) * B.getDouble(i, col);
+            return sum;
+        });
+    }
+
+    /**
+     * @return the best time, in nanoseconds, of several runs of the specified
+     *         task, after warming it up.
+     */
+    private static double time(Runnable task) {
+        for (int i = 0; i < 2; i++)
+            task.run();
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            task.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+}
@@ -354,6 +354,17 @@ abstract public class MatTest {
         return DefaultTestConditions.getEqualityTolerance();
     }
 
+    /**
+     * @return true if the {@link Mat} stores references to its elements,
+     *         so that selections must return the very same instances. A
+     *         {@link Mat} which stores primitives boxes a new instance on
+     *         every get, so it should return false, in which case the elements
+     *         of selections are compared by value instead.
+     */
+    public boolean storesReferences() {
+        return true;
+    }
+
     /**
      * @return the minimum number of rows a matrix should have during testing.
      *         Typically this will be 1.
@@ -455,12 +466,18 @@ abstract public class MatTest {
     /**
      * Ensure that each element of the specified {@link Mat} is the same as the
      * value returned by the given {@link Filler}, where sameness is tested
-     * using the {@link TestCase#assertSame(Object, Object)} method.
+     * using the {@link TestCase#assertSame(Object, Object)} method, unless
+     * {@link #storesReferences()} is false, in which case the values are
+     * compared.
      */
     private <T extends Number> void assertSame(Mat mat, MatFiller<T> filler) throws Exception {
         for (int row = 0; row < mat.rows(); row++) {
             for (int col = 0; col < mat.cols(); col++) {
-                TestCase.assertSame(mat.get(row, col), filler.apply(row, col));
+                if (storesReferences()) {
+                    TestCase.assertSame(mat.get(row, col), filler.apply(row, col));
+                } else {
+                    TestCase.assertEquals(mat.get(row, col), filler.apply(row, col));
+                }
             }
         }
     }
@@ -348,6 +348,17 @@ abstract public class VecTest {
         return DefaultTestConditions.getEqualityTolerance();
     }
 
+    /**
+     * @return true if the {@link Vec} stores references to its elements,
+     *         so that selections must return the very same instances. A
+     *         {@link Vec} which stores primitives boxes a new instance on
+     *         every get, so it should return false, in which case the elements
+     *         of selections are compared by value instead.
+     */
+    public boolean storesReferences() {
+        return true;
+    }
+
     /**
      * @return the minimum number of elements a vector should have during
      *         testing. Typically this will be 1.
@@ -404,11 +415,17 @@ abstract public class VecTest {
     /**
      * Ensure that each element of the specified {@link Vec} is the same as the
      * value returned by the given {@link Filler}, where sameness is tested
-     * using the {@link TestCase#assertSame(Object, Object)} method.
+     * using the {@link TestCase#assertSame(Object, Object)} method, unless
+     * {@link #storesReferences()} is false, in which case the values are
+     * compared.
      */
     private <T extends Number> void assertSame(Vec vec, ListFiller<T> filler) throws Exception {
         for (int ind = 0; ind < vec.size(); ind++) {
-            TestCase.assertSame(vec.get(ind), filler.apply(ind));
+            if (storesReferences()) {
+                TestCase.assertSame(vec.get(ind), filler.apply(ind));
+            } else {
+                TestCase.assertEquals(vec.get(ind), filler.apply(ind));
+            }
         }
     }
 
@@ -0,0 +1,101 @@
+package io.jeti.linalg.matrix;
+
+import io.jeti.linalg.matrix.dense.DenseMat;
+import io.jeti.linalg.matrix.sparse.CsrMat;
+import junit.framework.TestCase;
+
+public class MatExprTest {
+
+    /**
+     * A fused chain computes the same elements, bit for bit, as the eager
+     * chain, whether it is evaluated into a new matrix or into an existing
+     * one of another type.
+     */
+    @org.junit.Test
+    public void matchesEager() throws Exception {
+        DenseMat A = TestMats.random(7, 9, 1);
+        DenseMat B = TestMats.random(7, 9, 2);
+        DenseMat C = TestMats.random(7, 9, 3);
+        DenseMat expected = A.plus(B).times(2.0).minus(C).timesElementwise(B).powElementwise(2)
+                .apply(Math::max, 0.5);
+        MatExpr<DenseMat> expr = A.lazy().plus(B).times(2).minus(C).timesElementwise(B)
+                .powElementwise(2).apply(Math::max, 0.5);
+        TestCase.assertEquals(7, expr.rows());
+        TestCase.assertEquals(9, expr.cols());
+        TestMats.assertEquals(expected, expr.eval(), 0);
+        TestCase.assertEquals(expected.getDouble(4, 6), expr.getDouble(4, 6), 0);
+
+        CsrMat S = new CsrMat(7, 9);
+        expr.evalInto(S);
+        TestMats.assertEquals(expected, S, 0);
+    }
+
+    /**
+     * The result is created by the first operand, so a sparse chain stays
+     * sparse.
+     */
+    @org.junit.Test
+    public void evalUsesTemplate() throws Exception {
+        CsrMat A = new CsrMat(5, 6);
+        A.setDouble(1, 2, 3);
+        CsrMat B = new CsrMat(5, 6);
+        B.setDouble(4, 0, -1);
+        CsrMat C = A.lazy().plus(B).times(2).eval();
+        TestMats.assertEquals(A.plus(B).times(2.0), C, 0);
+    }
+
+    /**
+     * A (1 x 1) operand is broadcast on either side, as in Mat.apply.
+     */
+    @org.junit.Test
+    public void broadcast() throws Exception {
+        DenseMat A = TestMats.random(4, 3, 1);
+        DenseMat s = new DenseMat(new double[] { 2.5 }, 1, 1);
+        TestMats.assertEquals(A.minus(s), A.lazy().minus(s).eval(), 0);
+        TestMats.assertEquals(s.minus(A), s.lazy().minus(A).eval(), 0);
+        TestMats.assertEquals(s.minus(A).timesElementwise(A),
+                s.lazy().minus(A).timesElementwise(A.lazy()).eval(), 0);
+        TestCase.assertEquals(4, s.lazy().minus(A).rows());
+        TestCase.assertEquals(3, s.lazy().minus(A).cols());
+    }
+
+    @org.junit.Test
+    public void mismatchedShapes() throws Exception {
+        DenseMat A = new DenseMat(4, 3);
+        try {
+            A.lazy().plus(new DenseMat(3, 4));
+            TestCase.fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            A.lazy().plus(1).evalInto(new DenseMat(4, 4));
+            TestCase.fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    /**
+     * The output may be one of the operands, since each element is read
+     * before it is written.
+     */
+    @org.junit.Test
+    public void evalIntoOperand() throws Exception {
+        DenseMat A = TestMats.random(6, 5, 1);
+        DenseMat B = TestMats.random(6, 5, 2);
+        DenseMat expected = A.plus(B).times(2.0).minus(A);
+        A.lazy().plus(B).times(2).minus(A).evalInto(A);
+        TestMats.assertEquals(expected, A, 0);
+    }
+
+    /**
+     * The operands are read when the expression is evaluated, not when it is
+     * built.
+     */
+    @org.junit.Test
+    public void readsOnEval() throws Exception {
+        DenseMat A = new DenseMat(2, 2);
+        MatExpr<DenseMat> expr = A.lazy().plus(1);
+        A.setDouble(1, 0, 5);
+        TestCase.assertEquals(6, expr.eval().getDouble(1, 0), 0);
+    }
+}
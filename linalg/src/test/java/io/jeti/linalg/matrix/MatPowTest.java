@@ -0,0 +1,157 @@
+package io.jeti.linalg.matrix;
+
+import io.jeti.linalg.matrix.dense.DenseMat;
+import java.util.Random;
+import junit.framework.TestCase;
+
+public class MatPowTest {
+
+    private static final int[] POWERS = { 0, 1, 2, 3, 7, 100 };
+
+    /**
+     * Repeated squaring matches repeated multiplication, both through the
+     * {@link MutMat} override and through the {@link Mat} default. The rows
+     * of the input sum to one, so that even large powers stay bounded.
+     */
+    @org.junit.Test
+    public void matchesRepeatedTimes() throws Exception {
+        for (int n : new int[] { 1, 2, 5, 37 }) {
+            DenseMat A = stochastic(n, n);
+            DenseMat copy = TestMats.dense(A);
+            ArrayMat B = new ArrayMat(n, n, A::getDouble);
+            for (int pw : POWERS) {
+                DenseMat expected = repeatedTimes(A, pw);
+                TestMats.assertEquals(expected, A.pow(pw), 1e-12);
+                TestMats.assertEquals(expected, B.pow(pw), 1e-12);
+            }
+            TestMats.assertEquals(copy, A, 0);
+            TestMats.assertEquals(copy, B, 0);
+        }
+    }
+
+    /**
+     * The powers of a diagonal matrix are the powers of its diagonal
+     * elements, so they are exact.
+     */
+    @org.junit.Test
+    public void diagonal() throws Exception {
+        double[] diag = { 2, -1, 0.5, 0, 3 };
+        DenseMat A = new DenseMat(5, 5);
+        for (int i = 0; i < 5; i++)
+            A.setDouble(i, i, diag[i]);
+        ArrayMat B = new ArrayMat(5, 5, A::getDouble);
+        for (int pw : POWERS) {
+            DenseMat expected = new DenseMat(5, 5);
+            for (int i = 0; i < 5; i++)
+                expected.setDouble(i, i, Math.pow(diag[i], pw));
+            TestMats.assertEquals(expected, A.pow(pw), 0);
+            TestMats.assertEquals(expected, B.pow(pw), 0);
+            TestMats.assertEquals(repeatedTimes(A, Math.min(pw, 7)),
+                    A.pow(Math.min(pw, 7)), 0);
+        }
+    }
+
+    /**
+     * A power is only defined for a square matrix, even the zeroth power,
+     * and only for a nonnegative exponent.
+     */
+    @org.junit.Test
+    public void invalid() throws Exception {
+        Mat<?>[] receivers = { stochastic(3, 4), new ArrayMat(3, 4, (row, col) -> 1) };
+        for (Mat<?> A : receivers) {
+            for (int pw : new int[] { 0, 1, 2, 3 }) {
+                try {
+                    A.pow(pw);
+                    TestCase.fail("Expected an IllegalArgumentException");
+                } catch (IllegalArgumentException e) {
+                }
+            }
+        }
+        Mat<?>[] square = { stochastic(3, 3), new ArrayMat(3, 3, (row, col) -> 1) };
+        for (Mat<?> A : square) {
+            try {
+                A.pow(-1);
+                TestCase.fail("Expected an IllegalArgumentException");
+            } catch (IllegalArgumentException e) {
+            }
+        }
+    }
+
+    /**
+     * @return A^pw, computed with pw - 1 products.
+     */
+    private static DenseMat repeatedTimes(DenseMat A, int pw) {
+        DenseMat result = new DenseMat(A.rows(), A.cols());
+        result.set((row, col) -> row == col ? 1 : 0);
+        for (int i = 0; i < pw; i++)
+            result = result.times(A);
+        return result;
+    }
+
+    /**
+     * @return a random matrix with nonnegative elements, whose rows sum to
+     *         one.
+     */
+    private static DenseMat stochastic(int rows, int cols) {
+        Random random = new Random(rows * 31 + cols);
+        DenseMat A = new DenseMat(rows, cols);
+        for (int row = 0; row < rows; row++) {
+            double sum = 0;
+            for (int col = 0; col < cols; col++) {
+                double val = random.nextDouble();
+                A.setDouble(row, col, val);
+                sum += val;
+            }
+            for (int col = 0; col < cols; col++)
+                A.setDouble(row, col, A.getDouble(row, col) / sum);
+        }
+        return A;
+    }
+
+    /**
+     * An immutable row-major {@link Mat}, which is not a {@link MutMat}, so
+     * that the default {@link Mat#pow(int)} is used. Selections are copies.
+     */
+    private static final class ArrayMat implements Mat<ArrayMat> {
+
+        private final double[] data;
+        private final int      rows;
+        private final int      cols;
+
+        ArrayMat(int rows, int cols, Filler filler) {
+            this.data = new double[rows * cols];
+            this.rows = rows;
+            this.cols = cols;
+            for (int row = 0; row < rows; row++)
+                for (int col = 0; col < cols; col++)
+                    data[row * cols + col] = filler.apply(row, col);
+        }
+
+        @Override
+        public ArrayMat newInstance(int rows, int cols, Filler filler) {
+            return new ArrayMat(rows, cols, filler);
+        }
+
+        @Override
+        public int rows() {
+            return rows;
+        }
+
+        @Override
+        public int cols() {
+            return cols;
+        }
+
+        @Override
+        public double getDouble(int row, int col) {
+            return data[row * cols + col];
+        }
+
+        @Override
+        public ArrayMat get(int fromRow, int toRow, int rowStride, int fromCol, int toCol,
+                            int colStride) {
+            return new ArrayMat((toRow - fromRow) / rowStride, (toCol - fromCol) / colStride,
+                    (row, col) -> getDouble(fromRow + row * rowStride, fromCol + col * colStride));
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package io.jeti.linalg.matrix;
+
+import io.jeti.linalg.matrix.dense.DenseMat;
+import io.jeti.linalg.matrix.dense.DenseVec;
+import java.util.Random;
+import junit.framework.TestCase;
+
+/**
+ * Random inputs and numerical assertions which are shared by the tests.
+ */
+public final class TestMats {
+
+    private TestMats() {
+    }
+
+    /**
+     * @return a (rows x cols) matrix of standard normal elements, which are
+     *         drawn from a generator with the specified seed.
+     */
+    public static DenseMat random(int rows, int cols, long seed) {
+        Random random = new Random(seed);
+        DenseMat A = new DenseMat(rows, cols);
+        A.set((row, col) -> random.nextGaussian());
+        return A;
+    }
+
+    /**
+     * @return a vector of standard normal elements, which are drawn from a
+     *         generator with the specified seed.
+     */
+    public static DenseVec random(int elems, long seed) {
+        Random random = new Random(seed);
+        DenseVec v = new DenseVec(elems);
+        v.set(index -> random.nextGaussian());
+        return v;
+    }
+
+    /**
+     * @return the symmetric positive definite matrix X^T * X + n * I, where X
+     *         is a random (n x n) matrix.
+     */
+    public static DenseMat spd(int n, long seed) {
+        DenseMat X = random(n, n, seed);
+        DenseMat A = X.transpose().times(X);
+        for (int i = 0; i < n; i++)
+            A.setDouble(i, i, A.getDouble(i, i) + n);
+        return A;
+    }
+
+    /**
+     * @return the symmetric matrix (X + X^T) / 2, where X is a random (n x n)
+     *         matrix.
+     */
+    public static DenseMat symmetric(int n, long seed) {
+        DenseMat X = random(n, n, seed);
+        DenseMat A = new DenseMat(n, n);
+        A.set((row, col) -> (X.getDouble(row, col) + X.getDouble(col, row)) / 2);
+        return A;
+    }
+
+    /**
+     * @return a {@link DenseMat} copy of A.
+     */
+    public static DenseMat dense(Mat<?> A) {
+        DenseMat D = new DenseMat(A.rows(), A.cols());
+        D.set((row, col) -> A.getDouble(row, col));
+        return D;
+    }
+
+    /**
+     * @return a {@link DenseVec} copy of v.
+     */
+    public static DenseVec dense(Vec<?> v) {
+        DenseVec D = new DenseVec(v.size());
+        D.set(index -> v.getDouble(index));
+        return D;
+    }
+
+    /**
+     * Check that expected and actual have the same dimensions, and that each
+     * pair of elements differs by at most tol.
+     */
+    public static void assertEquals(Mat<?> expected, Mat<?> actual, double tol) {
+        TestCase.assertEquals(expected.rows(), actual.rows());
+        TestCase.assertEquals(expected.cols(), actual.cols());
+        for (int row = 0; row < expected.rows(); row++)
+            for (int col = 0; col < expected.cols(); col++)
+                TestCase.assertEquals("(" + row + "," + col + ")", expected.getDouble(row, col),
+                        actual.getDouble(row, col), tol);
+    }
+
+    /**
+     * Check that expected and actual have the same size, and that each pair
+     * of elements differs by at most tol.
+     */
+    public static void assertEquals(Vec<?> expected, Vec<?> actual, double tol) {
+        TestCase.assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++)
+            TestCase.assertEquals("(" + i + ")", expected.getDouble(i), actual.getDouble(i), tol);
+    }
+
+    /**
+     * Check that Q^T * Q is the identity, to within tol.
+     */
+    public static void assertOrthonormalColumns(DenseMat Q, double tol) {
+        DenseMat QtQ = Q.transpose().times(Q);
+        for (int row = 0; row < QtQ.rows(); row++)
+            for (int col = 0; col < QtQ.cols(); col++)
+                TestCase.assertEquals(row == col ? 1 : 0, QtQ.getDouble(row, col), tol);
+    }
+}
@@ -0,0 +1,69 @@
+package io.jeti.linalg.matrix;
+
+import io.jeti.linalg.matrix.dense.DenseVec;
+import io.jeti.linalg.matrix.sparse.SparseVec;
+import junit.framework.TestCase;
+
+public class VecExprTest {
+
+    /**
+     * A fused chain computes the same elements, bit for bit, as the eager
+     * chain, whether it is evaluated into a new vector or into an existing
+     * one of another type.
+     */
+    @org.junit.Test
+    public void matchesEager() throws Exception {
+        DenseVec a = TestMats.random(11, 1);
+        DenseVec b = TestMats.random(11, 2);
+        DenseVec c = TestMats.random(11, 3);
+        DenseVec expected = a.plus(b).times(2.0).minus(c).times(b).pow(2).apply(Math::max, 0.5);
+        VecExpr<DenseVec> expr = a.lazy().plus(b).times(2).minus(c).times(b).pow(2)
+                .apply(Math::max, 0.5);
+        TestCase.assertEquals(11, expr.size());
+        TestMats.assertEquals(expected, expr.eval(), 0);
+        TestCase.assertEquals(expected.getDouble(7), expr.getDouble(7), 0);
+
+        SparseVec s = new SparseVec(11);
+        expr.evalInto(s);
+        TestMats.assertEquals(expected, s, 0);
+    }
+
+    /**
+     * An operand of size 1 is broadcast, as in Vec.apply.
+     */
+    @org.junit.Test
+    public void broadcast() throws Exception {
+        DenseVec a = TestMats.random(6, 1);
+        DenseVec s = new DenseVec(new double[] { -1.5 });
+        TestMats.assertEquals(a.minus(s), a.lazy().minus(s).eval(), 0);
+        TestMats.assertEquals(a.times(s).plus(a), a.lazy().times(s.lazy()).plus(a).eval(), 0);
+    }
+
+    @org.junit.Test
+    public void mismatchedSizes() throws Exception {
+        DenseVec a = new DenseVec(4);
+        try {
+            a.lazy().plus(new DenseVec(3));
+            TestCase.fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            a.lazy().plus(1).evalInto(new DenseVec(5));
+            TestCase.fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    /**
+     * The output may be one of the operands, including a strided view, as
+     * long as it is the same object.
+     */
+    @org.junit.Test
+    public void evalIntoOperand() throws Exception {
+        DenseVec a = TestMats.random(20, 1).get(1, 20, 2);
+        DenseVec b = TestMats.random(10, 2);
+        DenseVec expected = a.plus(b).times(a);
+        a.lazy().plus(b).times(a).evalInto(a);
+        TestMats.assertEquals(expected, a, 0);
+    }
+}
@@ -0,0 +1,117 @@
+package io.jeti.linalg.matrix.batch;
+
+import io.jeti.linalg.matrix.TestMats;
+import io.jeti.linalg.matrix.decomp.LU;
+import io.jeti.linalg.matrix.dense.DenseMat;
+import java.util.ArrayList;
+import java.util.List;
+import junit.framework.TestCase;
+
+public class BatchMatTest {
+
+    private static List<DenseMat> random(int count, int rows, int cols, long seed) {
+        List<DenseMat> mats = new ArrayList<>();
+        for (int i = 0; i < count; i++)
+            mats.add(TestMats.random(rows, cols, seed * count + i));
+        return mats;
+    }
+
+    /**
+     * Each batched operation matches the same operation on the individual
+     * matrices, for the unrolled sizes and the general path.
+     */
+    @org.junit.Test
+    public void matchesDense() throws Exception {
+        for (int n : new int[] { 1, 2, 3, 4, 6 }) {
+            for (int count : new int[] { 1, 5, 300 }) {
+                List<DenseMat> As = random(count, n, n, 1);
+                List<DenseMat> Bs = random(count, n, 2, 2);
+                BatchMat A = BatchMat.of(As);
+                BatchMat B = BatchMat.of(Bs);
+                BatchMat product = A.times(B);
+                BatchMat sum = A.plus(A);
+                BatchMat difference = A.minus(A);
+                BatchMat transpose = B.transpose();
+                BatchMat inverse = A.inverse();
+                BatchMat solution = A.solve(B);
+                for (int i = 0; i < count; i++) {
+                    DenseMat Ai = As.get(i);
+                    DenseMat Bi = Bs.get(i);
+                    TestMats.assertEquals(Ai.times(Bi), product.get(i), 1e-12);
+                    TestMats.assertEquals(Ai.plus(Ai), sum.get(i), 1e-12);
+                    TestMats.assertEquals(new DenseMat(n, n), difference.get(i), 0);
+                    TestMats.assertEquals(Bi.transpose(), transpose.get(i), 0);
+                    TestMats.assertEquals(new LU(Ai).inverse(), inverse.get(i), 1e-8);
+                    TestMats.assertEquals(Bi, Ai.times(solution.get(i)), 1e-8);
+                }
+            }
+        }
+    }
+
+    /**
+     * The range forms only touch the matrices in [from, to), and inverse and
+     * solve may overwrite their input.
+     */
+    @org.junit.Test
+    public void ranges() throws Exception {
+        int count = 40;
+        List<DenseMat> As = random(count, 3, 3, 3);
+        List<DenseMat> Bs = random(count, 3, 2, 4);
+        BatchMat A = BatchMat.of(As);
+        BatchMat expected = A.solve(BatchMat.of(Bs));
+
+        BatchMat X = BatchMat.of(Bs);
+        A.solve(X, X, count / 2, count);
+        for (int i = 0; i < count / 2; i++)
+            TestMats.assertEquals(Bs.get(i), X.get(i), 0);
+        for (int i = count / 2; i < count; i++)
+            TestMats.assertEquals(expected.get(i), X.get(i), 1e-12);
+
+        BatchMat inverse = A.inverse();
+        BatchMat C = BatchMat.of(As);
+        C.inverse(C, 0, count);
+        for (int i = 0; i < count; i++)
+            TestMats.assertEquals(inverse.get(i), C.get(i), 1e-12);
+    }
+
+    @org.junit.Test
+    public void singular() throws Exception {
+        BatchMat A = new BatchMat(600, 3, 3);
+        for (int i = 0; i < 600; i++)
+            for (int j = 0; j < 3; j++)
+                A.setDouble(i, j, j, 1);
+        A.setDouble(417, 1, 1, 0);
+        try {
+            A.inverse();
+            TestCase.fail("Expected an ArithmeticException");
+        } catch (ArithmeticException e) {
+            TestCase.assertTrue(e.getMessage().contains("417"));
+        }
+    }
+
+    /**
+     * times and transpose read their inputs while writing C, so they reject
+     * a C which shares storage with an input.
+     */
+    @org.junit.Test
+    public void aliasedOutput() throws Exception {
+        BatchMat A = BatchMat.of(random(4, 3, 3, 5));
+        BatchMat B = BatchMat.of(random(4, 3, 3, 6));
+        BatchMat sameA = new BatchMat(A.data(), 4, 3, 3);
+        try {
+            A.times(B, sameA, 0, 4);
+            TestCase.fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            A.times(B, B, 0, 4);
+            TestCase.fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            A.transpose(A, 0, 4);
+            TestCase.fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package io.jeti.linalg.matrix.decomp;
+
+import io.jeti.linalg.matrix.TestMats;
+import io.jeti.linalg.matrix.dense.DenseMat;
+import io.jeti.linalg.matrix.dense.DenseVec;
+import io.jeti.linalg.matrix.sparse.CsrMat;
+import junit.framework.TestCase;
+
+public class CholeskyTest {
+
+    /**
+     * A = L * L^T for sizes on either side of the block size, and the solves
+     * agree with A.
+     */
+    @org.junit.Test
+    public void factor() throws Exception {
+        for (int n : new int[] { 1, 2, 5, 63, 64, 65, 150 }) {
+            DenseMat A = TestMats.spd(n, n);
+            Cholesky cholesky = new Cholesky(A);
+            DenseMat L = cholesky.getL();
+            TestMats.assertEquals(A, L.times(L.transpose()), 1e-9 * n);
+
+            DenseMat B = TestMats.random(n, 4, n + 1);
+            TestMats.assertEquals(B, A.times(cholesky.solve(B)), 1e-9);
+
+            DenseVec b = TestMats.random(n, n + 2);
+            DenseVec Ax = new DenseVec(n);
+            Ax.gemv(1, A, false, cholesky.solve(b), 0);
+            TestMats.assertEquals(b, Ax, 1e-9);
+
+            if (n < 100)
+                TestCase.assertEquals(Math.log(Math.abs(new LU(A).determinant())),
+                        cholesky.logDeterminant(), 1e-8 * n);
+        }
+    }
+
+    /**
+     * Factoring in place only reads and writes the lower triangle, also for
+     * a strided view and for a sparse matrix.
+     */
+    @org.junit.Test
+    public void inPlace() throws Exception {
+        int n = 70;
+        DenseMat A = TestMats.spd(n, 3);
+        DenseMat L = new Cholesky(A).getL();
+
+        DenseMat storage = new DenseMat(n + 3, 2 * n + 1);
+        DenseMat V = storage.get(1, n + 1, 1, 2 * n, 0, -2);
+        V.set((row, col) -> row >= col ? A.getDouble(row, col) : 12345);
+        Cholesky.inPlace(V);
+        DenseMat expected = new DenseMat(n, n);
+        expected.set((row, col) -> row >= col ? L.getDouble(row, col) : 12345);
+        TestMats.assertEquals(expected, V, 1e-9);
+
+        CsrMat S = new CsrMat(n, n);
+        for (int row = 0; row < n; row++)
+            for (int col = 0; col <= row; col++)
+                S.setDouble(row, col, A.getDouble(row, col));
+        Cholesky.inPlace(S);
+        TestMats.assertEquals(L, S, 1e-9);
+    }
+
+    @org.junit.Test
+    public void notPositiveDefinite() throws Exception {
+        try {
+            new Cholesky(new DenseMat(new double[] { 1, 2, 2, 1 }, 2, 2));
+            TestCase.fail("Expected an ArithmeticException");
+        } catch (ArithmeticException e) {
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package io.jeti.linalg.matrix.decomp;
+
+import io.jeti.linalg.matrix.TestMats;
+import io.jeti.linalg.matrix.dense.DenseMat;
+import io.jeti.linalg.matrix.dense.DenseVec;
+import junit.framework.TestCase;
+
+public class LUTest {
+
+    /**
+     * P * A = L * U for sizes on either side of the block size, and the
+     * solves and inverse agree with A.
+     */
+    @org.junit.Test
+    public void factor() throws Exception {
+        for (int n : new int[] { 1, 2, 3, 10, 63, 64, 65, 130 }) {
+            DenseMat A = TestMats.random(n, n, n);
+            LU lu = new LU(A);
+            int[] pivots = lu.pivots();
+            DenseMat PA = new DenseMat(n, n);
+            PA.set((row, col) -> A.getDouble(pivots[row], col));
+            TestMats.assertEquals(PA, lu.getL().times(lu.getU()), 1e-10);
+
+            DenseMat B = TestMats.random(n, 3, n + 1);
+            TestMats.assertEquals(B, A.times(lu.solve(B)), 1e-8);
+
+            DenseVec b = TestMats.random(n, n + 2);
+            DenseVec Ax = new DenseVec(n);
+            Ax.gemv(1, A, false, lu.solve(b), 0);
+            TestMats.assertEquals(b, Ax, 1e-8);
+
+            DenseMat I = new DenseMat(n, n);
+            I.set((row, col) -> row == col ? 1 : 0);
+            TestMats.assertEquals(I, A.times(lu.inverse()), 1e-8);
+        }
+    }
+
+    @org.junit.Test
+    public void determinant() throws Exception {
+        TestCase.assertEquals(-2, new LU(new DenseMat(new double[] { 1, 2, 3, 4 }, 2, 2)).determinant(),
+                1e-12);
+        TestCase.assertEquals(6,
+                new LU(new DenseMat(new double[] { 2, 0, 1, 1, 3, 2, 1, 1, 2 }, 3, 3)).determinant(),
+                1e-12);
+    }
+
+    @org.junit.Test
+    public void singular() throws Exception {
+        LU lu = new LU(new DenseMat(new double[] { 1, 2, 2, 4 }, 2, 2));
+        TestCase.assertTrue(lu.isSingular());
+        TestCase.assertEquals(0, lu.determinant(), 0);
+        try {
+            lu.inverse();
+            TestCase.fail("Expected an ArithmeticException");
+        } catch (ArithmeticException e) {
+        }
+    }
+}
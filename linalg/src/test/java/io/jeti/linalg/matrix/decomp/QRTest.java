@@ -0,0 +1,46 @@
+package io.jeti.linalg.matrix.decomp;
+
+import io.jeti.linalg.matrix.TestMats;
+import io.jeti.linalg.matrix.dense.DenseMat;
+import io.jeti.linalg.matrix.dense.DenseVec;
+
+public class QRTest {
+
+    /**
+     * A = Q * R with orthonormal Q, for tall, wide, and blocked shapes.
+     */
+    @org.junit.Test
+    public void factor() throws Exception {
+        int[][] shapes = { { 1, 1 }, { 5, 3 }, { 3, 5 }, { 40, 40 }, { 100, 33 }, { 200, 90 },
+                { 70, 130 } };
+        for (int[] shape : shapes) {
+            DenseMat A = TestMats.random(shape[0], shape[1], shape[0] * 1000 + shape[1]);
+            QR qr = new QR(A);
+            DenseMat Q = qr.getQ();
+            TestMats.assertEquals(A, Q.times(qr.getR()), 1e-10);
+            TestMats.assertOrthonormalColumns(Q, 1e-12);
+        }
+    }
+
+    /**
+     * The least squares residual is orthogonal to the columns of A.
+     */
+    @org.junit.Test
+    public void leastSquares() throws Exception {
+        int m = 120;
+        int n = 70;
+        DenseMat A = TestMats.random(m, n, 1);
+        DenseMat B = TestMats.random(m, 3, 2);
+        QR qr = new QR(A);
+        DenseMat X = qr.leastSquares(B);
+        DenseMat normal = A.transpose().times(A.times(X).minus(B));
+        TestMats.assertEquals(new DenseMat(n, 3), normal, 1e-9);
+
+        DenseVec b = new DenseVec(m);
+        b.set(index -> B.getDouble(index, 1));
+        DenseVec x = qr.leastSquares(b);
+        DenseVec expected = new DenseVec(n);
+        expected.set(index -> X.getDouble(index, 1));
+        TestMats.assertEquals(expected, x, 1e-10);
+    }
+}
@@ -0,0 +1,114 @@
+package io.jeti.linalg.matrix.decomp;
+
+import io.jeti.linalg.matrix.TestMats;
+import io.jeti.linalg.matrix.dense.DenseMat;
+import junit.framework.TestCase;
+
+public class SVDTest {
+
+    private static DenseMat reconstruct(SVD svd) {
+        DenseMat U = svd.getU();
+        double[] s = svd.singularValues();
+        DenseMat US = new DenseMat(U.rows(), U.cols());
+        US.set((row, col) -> U.getDouble(row, col) * s[col]);
+        return US.times(svd.getV().transpose());
+    }
+
+    /**
+     * A = U * S * V^T with orthonormal U and V and sorted singular values,
+     * including shapes wide enough to take the blocked bidiagonalization.
+     */
+    @org.junit.Test
+    public void factor() throws Exception {
+        int[][] shapes = { { 1, 1 }, { 1, 4 }, { 4, 1 }, { 5, 3 }, { 3, 5 }, { 40, 40 },
+                { 100, 33 }, { 70, 130 }, { 150, 120 } };
+        for (int[] shape : shapes) {
+            int p = Math.min(shape[0], shape[1]);
+            DenseMat A = TestMats.random(shape[0], shape[1], shape[0] * 1000 + shape[1]);
+            SVD svd = new SVD(A);
+            TestMats.assertEquals(A, reconstruct(svd), 1e-10);
+            TestMats.assertOrthonormalColumns(svd.getU(), 1e-10);
+            TestMats.assertOrthonormalColumns(svd.getV(), 1e-10);
+            double[] s = svd.singularValues();
+            for (int i = 1; i < p; i++)
+                TestCase.assertTrue(s[i - 1] >= s[i]);
+            TestCase.assertEquals(p, svd.rank());
+        }
+    }
+
+    /**
+     * The singular vectors of negligible singular values still complete an
+     * orthonormal basis.
+     */
+    @org.junit.Test
+    public void rankDeficient() throws Exception {
+        for (int n : new int[] { 20, 60 }) {
+            DenseMat A = TestMats.random(n, 4, n).times(TestMats.random(4, n, n + 1));
+            SVD svd = new SVD(A);
+            TestCase.assertEquals(4, svd.rank());
+            TestMats.assertEquals(A, reconstruct(svd), 1e-10 * n);
+            TestMats.assertOrthonormalColumns(svd.getU(), 1e-10);
+            TestMats.assertOrthonormalColumns(svd.getV(), 1e-10);
+        }
+        SVD zero = new SVD(new DenseMat(5, 5));
+        TestCase.assertEquals(0, zero.rank());
+        TestMats.assertOrthonormalColumns(zero.getU(), 1e-12);
+    }
+
+    @org.junit.Test
+    public void knownValues() throws Exception {
+        SVD svd = new SVD(new DenseMat(new double[] { 3, 0, 0, -2 }, 2, 2));
+        TestCase.assertEquals(3, svd.singularValues()[0], 1e-14);
+        TestCase.assertEquals(2, svd.singularValues()[1], 1e-14);
+        TestCase.assertEquals(3, svd.norm2(), 1e-14);
+        TestCase.assertEquals(1.5, svd.cond(), 1e-14);
+    }
+
+    /**
+     * An empty matrix has no singular values, and its norm, condition number
+     * and rank are all 0.
+     */
+    @org.junit.Test
+    public void empty() throws Exception {
+        for (int[] dims : new int[][] { { 0, 0 }, { 0, 3 }, { 3, 0 } }) {
+            SVD svd = new SVD(new DenseMat(dims[0], dims[1]));
+            TestCase.assertEquals(0, svd.singularValues().length);
+            TestCase.assertEquals(0, svd.norm2(), 0);
+            TestCase.assertEquals(0, svd.cond(), 0);
+            TestCase.assertEquals(0, svd.rank());
+        }
+    }
+
+    /**
+     * The Jacobi iteration never converges if A is not finite, which is
+     * reported rather than returning garbage.
+     */
+    @org.junit.Test
+    public void notFinite() throws Exception {
+        DenseMat A = TestMats.random(4, 4, 1);
+        A.setDouble(1, 2, Double.NaN);
+        try {
+            new SVD(A);
+            TestCase.fail("Expected an ArithmeticException");
+        } catch (ArithmeticException e) {
+            TestCase.assertEquals("The Jacobi iteration did not converge.", e.getMessage());
+        }
+    }
+
+    /**
+     * The randomized truncated SVD recovers the leading singular values of
+     * an exactly low rank matrix.
+     */
+    @org.junit.Test
+    public void top() throws Exception {
+        DenseMat A = TestMats.random(300, 8, 1).times(TestMats.random(8, 200, 2));
+        double[] expected = new SVD(A).singularValues();
+        SVD top = SVD.top(A, 5);
+        TestCase.assertEquals(300, top.getU().rows());
+        TestCase.assertEquals(5, top.getU().cols());
+        TestCase.assertEquals(200, top.getV().rows());
+        for (int i = 0; i < 5; i++)
+            TestCase.assertEquals(expected[i], top.singularValues()[i], 1e-8 * expected[0]);
+        TestMats.assertOrthonormalColumns(top.getU(), 1e-10);
+    }
+}
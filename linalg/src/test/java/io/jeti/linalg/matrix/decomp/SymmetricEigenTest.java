@@ -0,0 +1,79 @@
+package io.jeti.linalg.matrix.decomp;
+
+import io.jeti.linalg.matrix.TestMats;
+import io.jeti.linalg.matrix.dense.DenseMat;
+import junit.framework.TestCase;
+
+public class SymmetricEigenTest {
+
+    /**
+     * Check that the columns of V are orthonormal eigenvectors of A with the
+     * ascending eigenvalues w.
+     */
+    private static void assertPairs(DenseMat A, double[] w, DenseMat V, double tol) {
+        TestCase.assertEquals(w.length, V.cols());
+        DenseMat VW = new DenseMat(V.rows(), V.cols());
+        VW.set((row, col) -> V.getDouble(row, col) * w[col]);
+        TestMats.assertEquals(VW, A.times(V), tol);
+        TestMats.assertOrthonormalColumns(V, tol);
+        for (int i = 1; i < w.length; i++)
+            TestCase.assertTrue(w[i - 1] <= w[i]);
+    }
+
+    @org.junit.Test
+    public void decompose() throws Exception {
+        for (int n : new int[] { 1, 2, 3, 5, 31, 32, 33, 65, 100 }) {
+            DenseMat A = TestMats.symmetric(n, n);
+            SymmetricEigen eigen = new SymmetricEigen(A);
+            double[] w = eigen.getValues();
+            assertPairs(A, w, eigen.getV(), 1e-9);
+
+            double[] values = SymmetricEigen.eigenvalues(A);
+            for (int i = 0; i < n; i++)
+                TestCase.assertEquals(w[i], values[i], 1e-10);
+
+            int from = n / 3;
+            int to = Math.min(n, from + 4);
+            SymmetricEigen range = SymmetricEigen.range(A, from, to);
+            for (int i = from; i < to; i++)
+                TestCase.assertEquals(w[i], range.getValues()[i - from], 1e-10);
+            assertPairs(A, range.getValues(), range.getV(), 1e-8);
+        }
+    }
+
+    /**
+     * Repeated eigenvalues still give an orthonormal basis.
+     */
+    @org.junit.Test
+    public void clustered() throws Exception {
+        int n = 40;
+        DenseMat D = new DenseMat(n, n);
+        D.set((row, col) -> row == col ? row % 3 : 0);
+        assertPairs(D, SymmetricEigen.range(D, 0, n).getValues(), SymmetricEigen.range(D, 0, n)
+                .getV(), 1e-8);
+        SymmetricEigen eigen = new SymmetricEigen(D);
+        assertPairs(D, eigen.getValues(), eigen.getV(), 1e-9);
+    }
+
+    /**
+     * getV returns a copy, except after inPlace, where it returns the
+     * overwritten input.
+     */
+    @org.junit.Test
+    public void getV() throws Exception {
+        int n = 20;
+        DenseMat A = TestMats.symmetric(n, 7);
+        SymmetricEigen eigen = new SymmetricEigen(A);
+        DenseMat V = eigen.getV();
+        TestCase.assertNotSame(V, eigen.getV());
+        V.set((row, col) -> 0);
+        assertPairs(A, eigen.getValues(), eigen.getV(), 1e-9);
+
+        DenseMat storage = new DenseMat(n + 3, 2 * n + 1);
+        DenseMat W = storage.get(1, n + 1, 1, 2 * n, 0, -2);
+        W.set((row, col) -> row >= col ? A.getDouble(row, col) : 12345);
+        SymmetricEigen inPlace = SymmetricEigen.inPlace(W);
+        TestCase.assertSame(W, inPlace.getV());
+        assertPairs(A, inPlace.getValues(), W, 1e-9);
+    }
+}
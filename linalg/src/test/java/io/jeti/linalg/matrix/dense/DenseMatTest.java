@@ -0,0 +1,55 @@
+package io.jeti.linalg.matrix.dense;
+
+import io.jeti.linalg.matrix.Mat;
+import io.jeti.linalg.matrix.TestMats;
+import io.jeti.linalg.matrix.utils.tests.MatTest;
+import junit.framework.TestCase;
+
+public class DenseMatTest extends MatTest {
+
+    @Override
+    public Mat getInstance() {
+        return new DenseMat(1, 1);
+    }
+
+    @Override
+    public boolean storesReferences() {
+        return false;
+    }
+
+    /**
+     * Selections, rows, and columns are views, so setting an element through
+     * any of them sets the element of the parent, and vice versa.
+     */
+    @org.junit.Test
+    public void viewsShareStorage() throws Exception {
+        DenseMat A = TestMats.random(7, 9, 1);
+        DenseMat view = A.get(1, 7, 2, 0, 9, 3);
+        view.setDouble(2, 1, 42);
+        TestCase.assertEquals(42.0, A.getDouble(5, 3));
+        A.setDouble(3, 6, -1);
+        TestCase.assertEquals(-1.0, view.getDouble(1, 2));
+        A.row(4).setDouble(0, 8, 7);
+        TestCase.assertEquals(7.0, A.getDouble(4, 8));
+        A.col(2).setDouble(6, 0, 5);
+        TestCase.assertEquals(5.0, A.getDouble(6, 2));
+    }
+
+    /**
+     * The product of strided views must match the product of compact copies.
+     */
+    @org.junit.Test
+    public void timesViews() throws Exception {
+        DenseMat A = TestMats.random(40, 50, 2);
+        DenseMat B = TestMats.random(50, 60, 3);
+        DenseMat a = A.get(1, 40, 2, 0, 50, 3);
+        DenseMat b = B.get(0, 50, 3, 1, 60, 2);
+        DenseMat compactA = new DenseMat(a.rows(), a.cols());
+        DenseMat compactB = new DenseMat(b.rows(), b.cols());
+        compactA.set(a::getDouble);
+        compactB.set(b::getDouble);
+        TestMats.assertEquals(compactA.times(compactB), a.times(b), 1e-12);
+        TestMats.assertEquals(a.times(b).transpose(), b.transpose().times(a.transpose()),
+                1e-12);
+    }
+}
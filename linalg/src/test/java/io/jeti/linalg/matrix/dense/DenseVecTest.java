@@ -0,0 +1,86 @@
+package io.jeti.linalg.matrix.dense;
+
+import io.jeti.linalg.matrix.TestMats;
+import io.jeti.linalg.matrix.Vec;
+import io.jeti.linalg.matrix.utils.tests.VecTest;
+import junit.framework.TestCase;
+
+public class DenseVecTest extends VecTest {
+
+    @Override
+    public Vec getInstance() {
+        return new DenseVec(1);
+    }
+
+    @Override
+    public boolean storesReferences() {
+        return false;
+    }
+
+    /**
+     * Selections are views, so setting an element through a selection sets
+     * the element of the parent, and vice versa.
+     */
+    @org.junit.Test
+    public void viewsShareStorage() throws Exception {
+        DenseVec v = TestMats.random(10, 1);
+        DenseVec view = v.get(1, 10, 3);
+        view.setDouble(2, 42);
+        TestCase.assertEquals(42.0, v.getDouble(7));
+        v.setDouble(4, -1);
+        TestCase.assertEquals(-1.0, view.getDouble(1));
+    }
+
+    /**
+     * Nested views compose their strides.
+     */
+    @org.junit.Test
+    public void nestedViews() throws Exception {
+        DenseVec v = new DenseVec(20);
+        v.set(index -> index);
+        DenseVec view = v.get(2, 20, 3).get(1, 6, 2);
+        TestCase.assertEquals(3, view.size());
+        for (int i = 0; i < 3; i++)
+            TestCase.assertEquals(2.0 + 3 * (1 + 2 * i), view.getDouble(i));
+    }
+
+    @org.junit.Test
+    public void dotDouble() throws Exception {
+        DenseVec a = TestMats.random(20, 2);
+        DenseVec b = TestMats.random(40, 3).get(0, 40, 2);
+        double expected = 0;
+        for (int i = 0; i < 20; i++)
+            expected += a.getDouble(i) * b.getDouble(i);
+        TestCase.assertEquals(expected, a.dotDouble(b), 1e-12);
+        TestCase.assertEquals(expected, a.dot(b), 1e-12);
+    }
+
+    /**
+     * gemv with and without the transpose, against the definition.
+     */
+    @org.junit.Test
+    public void gemv() throws Exception {
+        DenseMat A = TestMats.random(7, 5, 4);
+        DenseVec x = TestMats.random(5, 5);
+        DenseVec z = TestMats.random(7, 6);
+        DenseVec y = TestMats.random(7, 7);
+        DenseVec expected = new DenseVec(7);
+        expected.set(i -> {
+            double sum = 0;
+            for (int j = 0; j < 5; j++)
+                sum += A.getDouble(i, j) * x.getDouble(j);
+            return 2 * sum + 0.5 * y.getDouble(i);
+        });
+        y.gemv(2, A, false, x, 0.5);
+        TestMats.assertEquals(expected, y, 1e-12);
+
+        DenseVec w = new DenseVec(5);
+        w.gemv(1, A, true, z, 0);
+        for (int j = 0; j < 5; j++) {
+            double sum = 0;
+            for (int i = 0; i < 7; i++)
+                sum += A.getDouble(i, j) * z.getDouble(i);
+            TestCase.assertEquals(sum, w.getDouble(j), 1e-12);
+        }
+    }
+}
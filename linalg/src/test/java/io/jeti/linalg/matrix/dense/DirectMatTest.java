@@ -0,0 +1,67 @@
+package io.jeti.linalg.matrix.dense;
+
+import io.jeti.linalg.matrix.Mat;
+import io.jeti.linalg.matrix.TestMats;
+import io.jeti.linalg.matrix.utils.tests.MatTest;
+import java.nio.ByteBuffer;
+import junit.framework.TestCase;
+
+public class DirectMatTest extends MatTest {
+
+    @Override
+    public Mat getInstance() {
+        return new DirectMat(1, 1);
+    }
+
+    @Override
+    public boolean storesReferences() {
+        return false;
+    }
+
+    /**
+     * Access after close throws, through the matrix and through its views.
+     */
+    @org.junit.Test
+    public void close() throws Exception {
+        DirectMat A = new DirectMat(4, 5);
+        DirectMat row = A.row(2);
+        A.close();
+        TestCase.assertTrue(A.isClosed());
+        TestCase.assertTrue(row.isClosed());
+        try {
+            row.getDouble(0, 1);
+            TestCase.fail("Expected an IllegalStateException");
+        } catch (IllegalStateException e) {
+        }
+    }
+
+    /**
+     * Closing a matrix whose buffer has been exported must not free the
+     * memory under a wrapper of that buffer, even when more memory is
+     * allocated afterwards.
+     */
+    @org.junit.Test
+    public void closeAfterExport() throws Exception {
+        DenseMat expected = TestMats.random(64, 64, 1);
+        DirectMat A = new DirectMat(64, 64);
+        A.set(expected::getDouble);
+        ByteBuffer buffer = A.asByteBuffer();
+        DirectMat wrapper = DirectMat.wrap(buffer, 64, 64);
+        A.close();
+        TestCase.assertTrue(A.isClosed());
+        TestCase.assertFalse(wrapper.isClosed());
+        try {
+            A.getDouble(0, 0);
+            TestCase.fail("Expected an IllegalStateException");
+        } catch (IllegalStateException e) {
+        }
+        DirectMat[] others = new DirectMat[16];
+        for (int i = 0; i < others.length; i++) {
+            others[i] = new DirectMat(64, 64);
+            others[i].set((row, col) -> -1);
+        }
+        TestMats.assertEquals(expected, wrapper, 0);
+        TestCase.assertEquals(expected.getDouble(3, 4), buffer.asDoubleBuffer().get(3 * 64 + 4),
+                0);
+    }
+}
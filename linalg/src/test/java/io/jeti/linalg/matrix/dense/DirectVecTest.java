@@ -0,0 +1,46 @@
+package io.jeti.linalg.matrix.dense;
+
+import io.jeti.linalg.matrix.TestMats;
+import io.jeti.linalg.matrix.Vec;
+import io.jeti.linalg.matrix.utils.tests.VecTest;
+import java.nio.ByteBuffer;
+import junit.framework.TestCase;
+
+public class DirectVecTest extends VecTest {
+
+    @Override
+    public Vec getInstance() {
+        return new DirectVec(1);
+    }
+
+    @Override
+    public boolean storesReferences() {
+        return false;
+    }
+
+    /**
+     * Closing a vector whose buffer has been exported must not free the
+     * memory under a wrapper of that buffer.
+     */
+    @org.junit.Test
+    public void closeAfterExport() throws Exception {
+        DenseVec expected = TestMats.random(1000, 1);
+        DirectVec v = new DirectVec(1000);
+        v.set(expected::getDouble);
+        ByteBuffer buffer = v.asByteBuffer();
+        DirectVec wrapper = DirectVec.wrap(buffer, 1000);
+        v.close();
+        TestCase.assertTrue(v.isClosed());
+        try {
+            v.getDouble(0);
+            TestCase.fail("Expected an IllegalStateException");
+        } catch (IllegalStateException e) {
+        }
+        DirectVec[] others = new DirectVec[16];
+        for (int i = 0; i < others.length; i++) {
+            others[i] = new DirectVec(1000);
+            others[i].set(index -> -1);
+        }
+        TestMats.assertEquals(expected, wrapper, 0);
+    }
+}
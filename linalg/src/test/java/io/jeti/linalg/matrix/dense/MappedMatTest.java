@@ -0,0 +1,48 @@
+package io.jeti.linalg.matrix.dense;
+
+import io.jeti.linalg.matrix.Mat;
+import io.jeti.linalg.matrix.TestMats;
+import io.jeti.linalg.matrix.utils.tests.MatTest;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class MappedMatTest extends MatTest {
+
+    @Override
+    public Mat getInstance() {
+        try {
+            return MappedMat.create(tempFile(), 1, 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public boolean storesReferences() {
+        return false;
+    }
+
+    /**
+     * Elements which are written to a mapped file can be read back after it
+     * is closed and mapped again.
+     */
+    @org.junit.Test
+    public void reopen() throws Exception {
+        Path path = tempFile();
+        DenseMat A = TestMats.random(13, 7, 1);
+        MappedMat written = MappedMat.create(path, 13, 7);
+        written.set(A::getDouble);
+        written.close();
+        MappedMat read = MappedMat.open(path, false);
+        TestMats.assertEquals(A, read, 0);
+        read.close();
+    }
+
+    private static Path tempFile() throws IOException {
+        Path path = Files.createTempFile("linalg", ".mat");
+        path.toFile().deleteOnExit();
+        return path;
+    }
+}
@@ -0,0 +1,63 @@
+package io.jeti.linalg.matrix.dense;
+
+import io.jeti.linalg.matrix.TestMats;
+import junit.framework.TestCase;
+
+public class StridedMatTest {
+
+    /**
+     * Check that a view of a view composes the offsets and strides, and reads
+     * the same elements as the equivalent selection of the parent.
+     */
+    private static <T extends StridedMat<T>> void assertComposes(T A) {
+        A.set((row, col) -> row * 100 + col);
+        int rowStride = A.rowStride();
+        int colStride = A.colStride();
+
+        T view = A.get(1, 9, 2, 10, 0, -3);
+        TestCase.assertEquals(A.offset() + rowStride + 10 * colStride, view.offset());
+        TestCase.assertEquals(2 * rowStride, view.rowStride());
+        TestCase.assertEquals(-3 * colStride, view.colStride());
+
+        T nested = view.get(1, 4, 1, 0, 3, 2);
+        TestCase.assertEquals(2 * rowStride, nested.rowStride());
+        TestCase.assertEquals(-6 * colStride, nested.colStride());
+        TestMats.assertEquals(A.get(3, 9, 2, 10, 0, -6), nested, 0);
+        for (int row = 0; row < nested.rows(); row++)
+            for (int col = 0; col < nested.cols(); col++)
+                TestCase.assertEquals((3 + 2 * row) * 100 + 10 - 6 * col,
+                        nested.getDouble(row, col), 0);
+
+        T row = A.row(4);
+        TestCase.assertEquals(A.offset() + 4 * rowStride, row.offset());
+        T col = A.col(5);
+        TestCase.assertEquals(A.offset() + 5 * colStride, col.offset());
+        col.set((r, c) -> -1);
+        TestCase.assertEquals(-1, A.getDouble(7, 5), 0);
+    }
+
+    @org.junit.Test
+    public void denseViews() throws Exception {
+        assertComposes(new DenseMat(10, 12));
+    }
+
+    @org.junit.Test
+    public void directViews() throws Exception {
+        assertComposes(new DirectMat(10, 12));
+    }
+
+    @org.junit.Test
+    public void invalidSelection() throws Exception {
+        DenseMat A = new DenseMat(4, 4);
+        try {
+            A.get(0, 5, 1, 0, 4, 1);
+            TestCase.fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            A.row(4);
+            TestCase.fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package io.jeti.linalg.matrix.fixed;
+
+import io.jeti.linalg.matrix.TestMats;
+import io.jeti.linalg.matrix.decomp.LU;
+import io.jeti.linalg.matrix.dense.DenseMat;
+import io.jeti.linalg.matrix.dense.DenseVec;
+import java.util.Random;
+import junit.framework.TestCase;
+
+public class Mat4Test {
+
+    /**
+     * The unrolled arithmetic matches the general dense implementations.
+     */
+    @org.junit.Test
+    public void matchesDense() throws Exception {
+        Random random = new Random(4);
+        for (int trial = 0; trial < 100; trial++) {
+            Mat4 A = new Mat4().newInstance(4, 4, (row, col) -> random.nextGaussian());
+            Mat4 B = new Mat4().newInstance(4, 4, (row, col) -> random.nextGaussian());
+            DenseMat a = TestMats.dense(A);
+            DenseMat b = TestMats.dense(B);
+            TestMats.assertEquals(a.times(b), A.times(B), 1e-12);
+            TestMats.assertEquals(a.plus(b), A.plus(B), 0);
+            TestMats.assertEquals(a.minus(b), A.minus(B), 0);
+            TestMats.assertEquals(a.transpose(), A.transpose(), 0);
+            TestMats.assertEquals(new LU(a).inverse(), A.inverse(), 1e-8);
+            TestMats.assertEquals(Mat4.identity(), A.times(A.inverse()), 1e-8);
+            TestCase.assertEquals(new LU(a).determinant(), A.determinant(), 1e-9);
+
+            Vec4 v = new Vec4().newInstance(4, index -> random.nextGaussian());
+            DenseVec Av = new DenseVec(4);
+            Av.gemv(1, a, false, TestMats.dense(v), 0);
+            TestMats.assertEquals(Av, A.times(v), 1e-12);
+
+            Mat4 C = A.transpose();
+            C.transposeEquals();
+            TestMats.assertEquals(A, C, 0);
+        }
+    }
+
+    /**
+     * Elements are addressed in row-major order, and only the full selection
+     * is supported.
+     */
+    @org.junit.Test
+    public void elements() throws Exception {
+        Mat4 A = new Mat4();
+        for (int row = 0; row < 4; row++)
+            for (int col = 0; col < 4; col++)
+                A.setDouble(row, col, row * 4 + col);
+        TestCase.assertEquals(15, A.m33, 0);
+        TestCase.assertSame(A, A.get(0, 4, 1, 0, 4, 1));
+        try {
+            A.getDouble(0, 4);
+            TestCase.fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            A.get(0, 3, 1, 0, 4, 1);
+            TestCase.fail("Expected an UnsupportedOperationException");
+        } catch (UnsupportedOperationException e) {
+        }
+    }
+
+    /**
+     * The typed rows and columns are copies of the elements.
+     */
+    @org.junit.Test
+    public void rowsAndCols() throws Exception {
+        Mat4 A = new Mat4().newInstance(4, 4, (row, col) -> 10 * row + col);
+        for (int i = 0; i < 4; i++) {
+            Vec4 row = A.getRow(i);
+            Vec4 col = A.getCol(i);
+            for (int j = 0; j < 4; j++) {
+                TestCase.assertEquals(A.getDouble(i, j), row.getDouble(j), 0);
+                TestCase.assertEquals(A.getDouble(j, i), col.getDouble(j), 0);
+            }
+        }
+        A.getRow(0).setDouble(0, -1);
+        TestCase.assertEquals(0, A.m00, 0);
+        try {
+            A.getRow(4);
+            TestCase.fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            A.getCol(-1);
+            TestCase.fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    /**
+     * The generic operations whose result is not 4x4 fail with the same
+     * kind of exception, and the ones whose result is 4x4 still work.
+     */
+    @org.junit.Test
+    public void unsupported() throws Exception {
+        Mat4 A = new Mat4().newInstance(4, 4, (row, col) -> row == col ? 2 : 1);
+        Runnable[] operations = { () -> A.row(0), () -> A.col(1), () -> A.vec(),
+                () -> A.get(0, 3, 0, 3), () -> A.get(0, 4, 0, 3), () -> A.newInstance(4),
+                () -> A._eye(5), () -> A._zeros(4, 5) };
+        for (Runnable operation : operations) {
+            try {
+                operation.run();
+                TestCase.fail("Expected an UnsupportedOperationException");
+            } catch (UnsupportedOperationException e) {
+                TestCase.assertTrue(e.getMessage().startsWith("A Mat4 is always 4x4"));
+            }
+        }
+        TestCase.assertSame(A, A.get(0, 4, 0, 4));
+        TestMats.assertEquals(Mat4.identity(), A._eye(4), 0);
+        TestMats.assertEquals(A.times(A).times(A), A.pow(3), 1e-12);
+        TestMats.assertEquals(A.plus(A), A.lazy().plus(A).eval(), 0);
+    }
+
+    @org.junit.Test
+    public void singular() throws Exception {
+        try {
+            new Mat4().inverse();
+            TestCase.fail("Expected an ArithmeticException");
+        } catch (ArithmeticException e) {
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package io.jeti.linalg.matrix.fixed;
+
+import io.jeti.linalg.matrix.TestMats;
+import io.jeti.linalg.matrix.dense.DenseVec;
+import java.util.Random;
+import junit.framework.TestCase;
+
+public class Vec2Test {
+
+    /**
+     * The unrolled arithmetic matches the general dense implementation.
+     */
+    @org.junit.Test
+    public void matchesDense() throws Exception {
+        Random random = new Random(2);
+        for (int trial = 0; trial < 100; trial++) {
+            Vec2 u = new Vec2(random.nextGaussian(), random.nextGaussian());
+            Vec2 v = new Vec2(random.nextGaussian(), random.nextGaussian());
+            DenseVec a = TestMats.dense(u);
+            DenseVec b = TestMats.dense(v);
+            TestMats.assertEquals(a.plus(b), u.plus(v), 0);
+            TestMats.assertEquals(a.minus(b), u.minus(v), 0);
+            TestMats.assertEquals(a.times(2), u.times(2), 0);
+            TestMats.assertEquals(a.times(b), u.times(v), 0);
+            TestCase.assertEquals(a.dot(b), u.dotDouble(v), 1e-12);
+            TestCase.assertEquals(u.dotDouble(v), u.dot(v), 0);
+            TestCase.assertEquals(Math.sqrt(a.dot(a)), u.norm(), 1e-12);
+        }
+    }
+
+    @org.junit.Test
+    public void elements() throws Exception {
+        Vec2 v = new Vec2();
+        for (int i = 0; i < 2; i++)
+            v.setDouble(i, i + 1);
+        TestCase.assertEquals(1, v.x, 0);
+        TestCase.assertEquals(2, v.y, 0);
+        TestCase.assertSame(v, v.get(0, 2, 1));
+        try {
+            v.getDouble(2);
+            TestCase.fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    /**
+     * The generic operations whose result does not have 2 elements fail
+     * with the same kind of exception.
+     */
+    @org.junit.Test
+    public void unsupported() throws Exception {
+        Vec2 v = new Vec2();
+        Runnable[] operations = { () -> v.get(0, 1), () -> v.get(0, 2, 2),
+                () -> v.newInstance(3), () -> v._ones(1) };
+        for (Runnable operation : operations) {
+            try {
+                operation.run();
+                TestCase.fail("Expected an UnsupportedOperationException");
+            } catch (UnsupportedOperationException e) {
+                TestCase.assertTrue(e.getMessage().startsWith("A Vec2 always has 2 elements"));
+            }
+        }
+        TestMats.assertEquals(new Vec2(1, 1), v._ones(2), 0);
+    }
+
+    /**
+     * The cross product is the signed area of the parallelogram spanned by
+     * the factors.
+     */
+    @org.junit.Test
+    public void cross() throws Exception {
+        TestCase.assertEquals(1, new Vec2(1, 0).cross(new Vec2(0, 1)), 0);
+        TestCase.assertEquals(-1, new Vec2(0, 1).cross(new Vec2(1, 0)), 0);
+        TestCase.assertEquals(6, new Vec2(2, 1).cross(new Vec2(0, 3)), 0);
+        TestCase.assertEquals(0, new Vec2(2, 1).cross(new Vec2(4, 2)), 0);
+    }
+}
@@ -0,0 +1,89 @@
+package io.jeti.linalg.matrix.fixed;
+
+import io.jeti.linalg.matrix.TestMats;
+import io.jeti.linalg.matrix.dense.DenseVec;
+import java.util.Random;
+import junit.framework.TestCase;
+
+public class Vec3Test {
+
+    /**
+     * The cross product is orthogonal to both factors, and its norm is the
+     * area of the parallelogram they span.
+     */
+    @org.junit.Test
+    public void cross() throws Exception {
+        Random random = new Random(3);
+        for (int trial = 0; trial < 100; trial++) {
+            Vec3 x = new Vec3(random.nextGaussian(), random.nextGaussian(), random.nextGaussian());
+            Vec3 y = new Vec3(random.nextGaussian(), random.nextGaussian(), random.nextGaussian());
+            Vec3 z = x.cross(y);
+            TestCase.assertEquals(0, z.dotDouble(x), 1e-12);
+            TestCase.assertEquals(0, z.dotDouble(y), 1e-12);
+            double cos = x.dotDouble(y) / (x.norm() * y.norm());
+            TestCase.assertEquals(x.norm() * y.norm() * Math.sqrt(1 - cos * cos), z.norm(), 1e-12);
+            TestCase.assertEquals(x.x * y.x + x.y * y.y + x.z * y.z, x.dot(y), 0);
+        }
+        Vec3 z = new Vec3(1, 0, 0).cross(new Vec3(0, 1, 0));
+        TestCase.assertEquals(0, z.x, 0);
+        TestCase.assertEquals(0, z.y, 0);
+        TestCase.assertEquals(1, z.z, 0);
+    }
+
+    @org.junit.Test
+    public void elements() throws Exception {
+        Vec3 v = new Vec3();
+        for (int i = 0; i < 3; i++)
+            v.setDouble(i, i + 1);
+        TestCase.assertEquals(1, v.x, 0);
+        TestCase.assertEquals(2, v.y, 0);
+        TestCase.assertEquals(3, v.z, 0);
+        TestCase.assertSame(v, v.get(0, 3, 1));
+        try {
+            v.getDouble(3);
+            TestCase.fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    /**
+     * The generic operations whose result does not have 3 elements fail
+     * with the same kind of exception.
+     */
+    @org.junit.Test
+    public void unsupported() throws Exception {
+        Vec3 v = new Vec3();
+        Runnable[] operations = { () -> v.get(0, 2), () -> v.get(0, 3, 2),
+                () -> v.newInstance(4), () -> v._ones(2) };
+        for (Runnable operation : operations) {
+            try {
+                operation.run();
+                TestCase.fail("Expected an UnsupportedOperationException");
+            } catch (UnsupportedOperationException e) {
+                TestCase.assertTrue(e.getMessage().startsWith("A Vec3 always has 3 elements"));
+            }
+        }
+        TestMats.assertEquals(new Vec3(1, 1, 1), v._ones(3), 0);
+    }
+
+    /**
+     * The unrolled arithmetic matches the general dense implementation.
+     */
+    @org.junit.Test
+    public void matchesDense() throws Exception {
+        Random random = new Random(3);
+        for (int trial = 0; trial < 100; trial++) {
+            Vec3 u = new Vec3(random.nextGaussian(), random.nextGaussian(), random.nextGaussian());
+            Vec3 v = new Vec3(random.nextGaussian(), random.nextGaussian(), random.nextGaussian());
+            DenseVec a = TestMats.dense(u);
+            DenseVec b = TestMats.dense(v);
+            TestMats.assertEquals(a.plus(b), u.plus(v), 0);
+            TestMats.assertEquals(a.minus(b), u.minus(v), 0);
+            TestMats.assertEquals(a.times(2), u.times(2), 0);
+            TestMats.assertEquals(a.times(b), u.times(v), 0);
+            TestCase.assertEquals(a.dot(b), u.dotDouble(v), 1e-12);
+            TestCase.assertEquals(u.dotDouble(v), u.dot(v), 0);
+            TestCase.assertEquals(Math.sqrt(a.dot(a)), u.norm(), 1e-12);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package io.jeti.linalg.matrix.fixed;
+
+import io.jeti.linalg.matrix.TestMats;
+import io.jeti.linalg.matrix.dense.DenseVec;
+import java.util.Random;
+import junit.framework.TestCase;
+
+public class Vec4Test {
+
+    /**
+     * The unrolled arithmetic matches the general dense implementation.
+     */
+    @org.junit.Test
+    public void matchesDense() throws Exception {
+        Random random = new Random(4);
+        for (int trial = 0; trial < 100; trial++) {
+            Vec4 u = new Vec4(random.nextGaussian(), random.nextGaussian(),
+                    random.nextGaussian(), random.nextGaussian());
+            Vec4 v = new Vec4(random.nextGaussian(), random.nextGaussian(),
+                    random.nextGaussian(), random.nextGaussian());
+            DenseVec a = TestMats.dense(u);
+            DenseVec b = TestMats.dense(v);
+            TestMats.assertEquals(a.plus(b), u.plus(v), 0);
+            TestMats.assertEquals(a.minus(b), u.minus(v), 0);
+            TestMats.assertEquals(a.times(2), u.times(2), 0);
+            TestMats.assertEquals(a.times(b), u.times(v), 0);
+            TestCase.assertEquals(a.dot(b), u.dotDouble(v), 1e-12);
+            TestCase.assertEquals(u.dotDouble(v), u.dot(v), 0);
+            TestCase.assertEquals(Math.sqrt(a.dot(a)), u.norm(), 1e-12);
+        }
+    }
+
+    @org.junit.Test
+    public void elements() throws Exception {
+        Vec4 v = new Vec4();
+        for (int i = 0; i < 4; i++)
+            v.setDouble(i, i + 1);
+        TestCase.assertEquals(1, v.x, 0);
+        TestCase.assertEquals(2, v.y, 0);
+        TestCase.assertEquals(3, v.z, 0);
+        TestCase.assertEquals(4, v.w, 0);
+        TestCase.assertSame(v, v.get(0, 4, 1));
+        try {
+            v.getDouble(4);
+            TestCase.fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    /**
+     * The generic operations whose result does not have 4 elements fail
+     * with the same kind of exception.
+     */
+    @org.junit.Test
+    public void unsupported() throws Exception {
+        Vec4 v = new Vec4();
+        Runnable[] operations = { () -> v.get(0, 3), () -> v.get(0, 4, 2),
+                () -> v.newInstance(5), () -> v._ones(3) };
+        for (Runnable operation : operations) {
+            try {
+                operation.run();
+                TestCase.fail("Expected an UnsupportedOperationException");
+            } catch (UnsupportedOperationException e) {
+                TestCase.assertTrue(e.getMessage().startsWith("A Vec4 always has 4 elements"));
+            }
+        }
+        TestMats.assertEquals(new Vec4(1, 1, 1, 1), v._ones(4), 0);
+    }
+}
@@ -0,0 +1,316 @@
+package io.jeti.linalg.matrix.io;
+
+import io.jeti.linalg.matrix.TestMats;
+import io.jeti.linalg.matrix.dense.DenseMat;
+import io.jeti.linalg.matrix.dense.DenseVec;
+import io.jeti.linalg.matrix.dense.DirectMat;
+import io.jeti.linalg.matrix.dense.DirectVec;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import junit.framework.TestCase;
+
+public class MatFormatTest {
+
+    private static final byte[] LAYOUTS = { MatHeader.ROW_MAJOR, MatHeader.COL_MAJOR };
+
+    /**
+     * The elements take 97 * 131 * 8 bytes, which is not a multiple of
+     * {@link MatFormat#CHUNK}, so the last chunk is partial.
+     */
+    @org.junit.Test
+    public void roundTrip() throws Exception {
+        DenseMat A = TestMats.random(97, 131, 1);
+        TestCase.assertTrue(A.rows() * A.cols() * Double.BYTES % MatFormat.CHUNK != 0);
+        for (byte layout : LAYOUTS) {
+            for (boolean checksum : new boolean[] { false, true }) {
+                Path path = write(A, layout, checksum);
+                MatHeader header = new MatHeader(97, 131, layout, checksum);
+                TestCase.assertEquals(header.length(), Files.size(path));
+                try (FileChannel channel = FileChannel.open(path)) {
+                    MatHeader read = MatFormat.readHeader(channel);
+                    TestCase.assertEquals(97, read.rows());
+                    TestCase.assertEquals(131, read.cols());
+                    TestCase.assertEquals(layout == MatHeader.ROW_MAJOR, read.isRowMajor());
+                    TestCase.assertEquals(checksum, read.hasChecksum());
+                }
+                try (FileChannel channel = FileChannel.open(path)) {
+                    TestMats.assertEquals(A, MatFormat.read(channel), 0);
+                    TestCase.assertEquals(header.length(), channel.position());
+                }
+                DenseMat into = new DenseMat(97, 131);
+                try (FileChannel channel = FileChannel.open(path)) {
+                    MatFormat.read(channel, into);
+                }
+                TestMats.assertEquals(A, into, 0);
+            }
+        }
+    }
+
+    /**
+     * The elements fill exactly one chunk, so there is no partial chunk.
+     */
+    @org.junit.Test
+    public void wholeChunks() throws Exception {
+        DenseMat A = TestMats.random(64, 128, 2);
+        TestCase.assertEquals(MatFormat.CHUNK, A.rows() * A.cols() * Double.BYTES);
+        for (byte layout : LAYOUTS) {
+            try (FileChannel channel = FileChannel.open(write(A, layout, true))) {
+                TestMats.assertEquals(A, MatFormat.read(channel), 0);
+            }
+        }
+    }
+
+    @org.junit.Test
+    public void empty() throws Exception {
+        DenseMat A = new DenseMat(0, 3);
+        for (byte layout : LAYOUTS) {
+            try (FileChannel channel = FileChannel.open(write(A, layout, true))) {
+                DenseMat read = MatFormat.read(channel);
+                TestCase.assertEquals(0, read.rows());
+                TestCase.assertEquals(3, read.cols());
+            }
+        }
+    }
+
+    @org.junit.Test
+    public void vecRoundTrip() throws Exception {
+        DenseVec x = TestMats.random(10007, 3);
+        Path path = tempFile();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            MatFormat.write(x, channel);
+        }
+        try (FileChannel channel = FileChannel.open(path)) {
+            TestMats.assertEquals(x, MatFormat.readVec(channel), 0);
+        }
+        DenseMat row = TestMats.random(1, 50, 4);
+        try (FileChannel channel = FileChannel.open(write(row, MatHeader.COL_MAJOR, false))) {
+            DenseVec read = MatFormat.readVec(channel);
+            TestCase.assertEquals(50, read.size());
+            for (int i = 0; i < 50; i++)
+                TestCase.assertEquals(row.getDouble(0, i), read.getDouble(i));
+        }
+        try (FileChannel channel = FileChannel.open(write(TestMats.random(2, 3, 5),
+                MatHeader.ROW_MAJOR, true))) {
+            MatFormat.readVec(channel);
+            TestCase.fail("Expected an IOException");
+        } catch (IOException e) {
+        }
+    }
+
+    @org.junit.Test
+    public void readIntoWrongSize() throws Exception {
+        try (FileChannel channel = FileChannel.open(write(TestMats.random(4, 5, 6),
+                MatHeader.ROW_MAJOR, true))) {
+            MatFormat.read(channel, new DenseMat(5, 4));
+            TestCase.fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    /**
+     * Flipping a single bit of any element, whether in the first or in the
+     * partial last chunk, is detected by both the reader and verify.
+     */
+    @org.junit.Test
+    public void corruptChecksum() throws Exception {
+        DenseMat A = TestMats.random(97, 131, 7);
+        long data = 97 * 131 * Double.BYTES;
+        for (byte layout : LAYOUTS) {
+            for (long offset : new long[] { 0, data - 1 }) {
+                Path path = write(A, layout, true);
+                flip(path, MatHeader.SIZE + offset);
+                try (FileChannel channel = FileChannel.open(path)) {
+                    MatFormat.read(channel);
+                    TestCase.fail("Expected an IOException");
+                } catch (IOException e) {
+                    TestCase.assertEquals("The checksum does not match.", e.getMessage());
+                }
+                try {
+                    MatFormat.verify(map(path));
+                    TestCase.fail("Expected an IOException");
+                } catch (IOException e) {
+                    TestCase.assertEquals("The checksum does not match.", e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * A corrupt element goes unnoticed without a checksum.
+     */
+    @org.junit.Test
+    public void corruptWithoutChecksum() throws Exception {
+        Path path = write(TestMats.random(3, 4, 8), MatHeader.ROW_MAJOR, false);
+        flip(path, MatHeader.SIZE);
+        MatFormat.verify(map(path));
+        try (FileChannel channel = FileChannel.open(path)) {
+            MatFormat.read(channel);
+        }
+    }
+
+    @org.junit.Test
+    public void badMagic() throws Exception {
+        Path path = write(TestMats.random(3, 4, 9), MatHeader.ROW_MAJOR, true);
+        flip(path, 0);
+        try (FileChannel channel = FileChannel.open(path)) {
+            MatFormat.read(channel);
+            TestCase.fail("Expected an IOException");
+        } catch (IOException e) {
+            TestCase.assertEquals("This is not a matrix file.", e.getMessage());
+        }
+        try {
+            MatFormat.wrap(map(path));
+            TestCase.fail("Expected an IOException");
+        } catch (IOException e) {
+            TestCase.assertEquals("This is not a matrix file.", e.getMessage());
+        }
+    }
+
+    @org.junit.Test
+    public void badVersion() throws Exception {
+        Path path = write(TestMats.random(3, 4, 10), MatHeader.ROW_MAJOR, true);
+        flip(path, 4);
+        try (FileChannel channel = FileChannel.open(path)) {
+            MatFormat.read(channel);
+            TestCase.fail("Expected an IOException");
+        } catch (IOException e) {
+            TestCase.assertTrue(e.getMessage().startsWith("Unsupported version"));
+        }
+    }
+
+    @org.junit.Test
+    public void truncated() throws Exception {
+        Path path = write(TestMats.random(97, 131, 11), MatHeader.COL_MAJOR, true);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(MatHeader.SIZE + MatFormat.CHUNK + 8);
+        }
+        try (FileChannel channel = FileChannel.open(path)) {
+            MatFormat.read(channel);
+            TestCase.fail("Expected an EOFException");
+        } catch (EOFException e) {
+        }
+        try {
+            MatFormat.verify(map(path));
+            TestCase.fail("Expected an IOException");
+        } catch (IOException e) {
+        }
+        try {
+            MatFormat.wrap(map(path));
+            TestCase.fail("Expected an IOException");
+        } catch (IOException e) {
+        }
+    }
+
+    /**
+     * A mapped file can be wrapped without copying in either layout, and the
+     * position of the buffer is not changed.
+     */
+    @org.junit.Test
+    public void wrapMapped() throws Exception {
+        DenseMat A = TestMats.random(97, 131, 12);
+        for (byte layout : LAYOUTS) {
+            Path path = write(A, layout, true);
+            MappedByteBuffer buffer = map(path);
+            MatFormat.verify(buffer);
+            DirectMat wrapped = MatFormat.wrap(buffer);
+            TestCase.assertEquals(0, buffer.position());
+            TestCase.assertEquals(97, wrapped.rows());
+            TestCase.assertEquals(131, wrapped.cols());
+            TestMats.assertEquals(A, wrapped, 0);
+            wrapped.close();
+        }
+    }
+
+    /**
+     * Writes through a wrapper of a read-write mapping end up in the file.
+     */
+    @org.junit.Test
+    public void wrapWritable() throws Exception {
+        DenseMat A = TestMats.random(5, 6, 13);
+        Path path = write(A, MatHeader.COL_MAJOR, false);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    channel.size());
+            MatFormat.wrap(buffer).setDouble(2, 3, 42);
+            buffer.force();
+        }
+        A.setDouble(2, 3, 42);
+        try (FileChannel channel = FileChannel.open(path)) {
+            TestMats.assertEquals(A, MatFormat.read(channel), 0);
+        }
+    }
+
+    @org.junit.Test
+    public void wrapVec() throws Exception {
+        DenseVec x = TestMats.random(1000, 14);
+        Path path = tempFile();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            MatFormat.write(x, channel);
+        }
+        DirectVec wrapped = MatFormat.wrapVec(map(path));
+        TestMats.assertEquals(x, wrapped, 0);
+        try {
+            MatFormat.wrapVec(map(write(TestMats.random(2, 3, 15), MatHeader.ROW_MAJOR, true)));
+            TestCase.fail("Expected an IOException");
+        } catch (IOException e) {
+        }
+    }
+
+    /**
+     * A matrix which follows other data in a buffer can be wrapped at its
+     * position.
+     */
+    @org.junit.Test
+    public void wrapAtPosition() throws Exception {
+        DenseMat A = TestMats.random(4, 3, 16);
+        Path path = write(A, MatHeader.ROW_MAJOR, true);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(17 + (int) Files.size(path));
+        buffer.position(17);
+        buffer.put(map(path));
+        buffer.position(17);
+        MatFormat.verify(buffer);
+        TestMats.assertEquals(A, MatFormat.wrap(buffer), 0);
+        TestCase.assertEquals(17, buffer.position());
+    }
+
+    private static Path write(DenseMat A, byte layout, boolean checksum) throws IOException {
+        Path path = tempFile();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            MatFormat.write(A, channel, layout, checksum);
+        }
+        return path;
+    }
+
+    private static MappedByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * Flip the lowest bit of the byte at the specified offset of the file.
+     */
+    private static void flip(Path path, long offset) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            ByteBuffer b = ByteBuffer.allocate(1);
+            channel.read(b, offset);
+            b.put(0, (byte) (b.get(0) ^ 1));
+            b.rewind();
+            channel.write(b, offset);
+        }
+    }
+
+    private static Path tempFile() throws IOException {
+        Path path = Files.createTempFile("linalg", ".mat");
+        path.toFile().deleteOnExit();
+        return path;
+    }
+}
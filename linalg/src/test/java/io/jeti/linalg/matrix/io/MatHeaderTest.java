@@ -0,0 +1,120 @@
+package io.jeti.linalg.matrix.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import junit.framework.TestCase;
+
+public class MatHeaderTest {
+
+    @org.junit.Test
+    public void roundTrip() throws Exception {
+        for (byte layout : new byte[] { MatHeader.ROW_MAJOR, MatHeader.COL_MAJOR }) {
+            for (boolean checksum : new boolean[] { false, true }) {
+                MatHeader expected = new MatHeader(123456789L, 3, layout, checksum);
+                ByteBuffer buffer = ByteBuffer.allocate(MatHeader.SIZE + 5);
+                buffer.position(5);
+                expected.write(buffer);
+                TestCase.assertEquals(MatHeader.SIZE + 5, buffer.position());
+                buffer.position(5);
+                MatHeader actual = MatHeader.read(buffer);
+                TestCase.assertEquals(MatHeader.SIZE + 5, buffer.position());
+                TestCase.assertEquals(expected.rows(), actual.rows());
+                TestCase.assertEquals(expected.cols(), actual.cols());
+                TestCase.assertEquals(expected.isRowMajor(), actual.isRowMajor());
+                TestCase.assertEquals(checksum, actual.hasChecksum());
+                TestCase.assertEquals(MatHeader.SIZE + 123456789L * 3 * Double.BYTES
+                        + (checksum ? MatHeader.TRAILER : 0), actual.length());
+            }
+        }
+    }
+
+    /**
+     * The header is little-endian, whatever the order of the buffer.
+     */
+    @org.junit.Test
+    public void littleEndian() throws Exception {
+        ByteBuffer buffer = ByteBuffer.allocate(MatHeader.SIZE).order(ByteOrder.BIG_ENDIAN);
+        new MatHeader(2, 3, MatHeader.COL_MAJOR).write(buffer);
+        TestCase.assertEquals(ByteOrder.BIG_ENDIAN, buffer.order());
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        TestCase.assertEquals(MatHeader.MAGIC, buffer.getInt(0));
+        TestCase.assertEquals(MatHeader.VERSION, buffer.getShort(4));
+        TestCase.assertEquals(MatHeader.FLOAT64, buffer.get(6));
+        TestCase.assertEquals(MatHeader.COL_MAJOR, buffer.get(7));
+        TestCase.assertEquals(2, buffer.getLong(8));
+        TestCase.assertEquals(3, buffer.getLong(16));
+        buffer.order(ByteOrder.BIG_ENDIAN).flip();
+        TestCase.assertEquals(3, MatHeader.read(buffer).cols());
+    }
+
+    @org.junit.Test
+    public void badMagic() {
+        ByteBuffer buffer = valid();
+        buffer.put(0, (byte) (buffer.get(0) ^ 1));
+        assertInvalid(buffer, "This is not a matrix file.");
+    }
+
+    @org.junit.Test
+    public void badVersion() {
+        ByteBuffer buffer = valid();
+        buffer.putShort(4, (short) (MatHeader.VERSION + 1));
+        assertInvalid(buffer, "Unsupported version: " + (MatHeader.VERSION + 1));
+    }
+
+    @org.junit.Test
+    public void badDtype() {
+        ByteBuffer buffer = valid();
+        buffer.put(6, (byte) 2);
+        assertInvalid(buffer, "Unsupported dtype: 2");
+    }
+
+    @org.junit.Test
+    public void badLayout() {
+        ByteBuffer buffer = valid();
+        buffer.put(7, (byte) 2);
+        assertInvalid(buffer, "The header is corrupt.");
+    }
+
+    @org.junit.Test
+    public void badFlags() {
+        ByteBuffer buffer = valid();
+        buffer.put(24, (byte) 2);
+        assertInvalid(buffer, "Unsupported flags: 2");
+    }
+
+    @org.junit.Test
+    public void negativeDimension() {
+        ByteBuffer buffer = valid();
+        buffer.putLong(8, -1);
+        assertInvalid(buffer, "The header is corrupt.");
+    }
+
+    @org.junit.Test
+    public void truncated() {
+        ByteBuffer buffer = valid();
+        buffer.limit(MatHeader.SIZE - 1);
+        assertInvalid(buffer, "The header is truncated.");
+    }
+
+    private static ByteBuffer valid() {
+        ByteBuffer buffer = ByteBuffer.allocate(MatHeader.SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        new MatHeader(2, 3, MatHeader.ROW_MAJOR).write(buffer);
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Assert that reading the header fails with the specified message, and
+     * does not move the buffer.
+     */
+    private static void assertInvalid(ByteBuffer buffer, String message) {
+        try {
+            MatHeader.read(buffer);
+            TestCase.fail("Expected an IOException");
+        } catch (IOException e) {
+            TestCase.assertEquals(message, e.getMessage());
+        }
+        TestCase.assertEquals(0, buffer.position());
+    }
+}
@@ -0,0 +1,222 @@
+package io.jeti.linalg.matrix.kernels;
+
+import io.jeti.linalg.matrix.MutMat;
+import io.jeti.linalg.matrix.TestMats;
+import io.jeti.linalg.matrix.dense.DenseMat;
+import io.jeti.linalg.matrix.sparse.CsrMat;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import junit.framework.TestCase;
+
+public class GemmTest {
+
+    /**
+     * A product above the parallel threshold into a sparse receiver, which
+     * does not support concurrent writes, must match the dense result.
+     */
+    @org.junit.Test
+    public void gemmIntoSparse() throws Exception {
+        parallel(() -> {
+            int n = 100;
+            DenseMat A = TestMats.random(n, n, 1);
+            DenseMat B = TestMats.random(n, n, 2);
+            DenseMat C = TestMats.random(n, n, 3);
+            CsrMat S = new CsrMat(n, n);
+            S.set(C::getDouble);
+            S.gemm(2, A, false, B, false, 0.5);
+            C.gemm(2, A, false, B, false, 0.5);
+            TestMats.assertEquals(C, S, 1e-10);
+        });
+    }
+
+    /**
+     * A receiver which is not backed by an array must only ever be written by
+     * the calling thread.
+     */
+    @org.junit.Test
+    public void gemmIntoMutMat() throws Exception {
+        parallel(() -> {
+            int n = 100;
+            DenseMat A = TestMats.random(n, n, 1);
+            DenseMat B = TestMats.random(n, n, 2);
+            DenseMat C = new DenseMat(n, n);
+            Confined D = new Confined(new DenseMat(n, n));
+            D.gemm(1, A, true, B, false, 0);
+            C.gemm(1, A, true, B, false, 0);
+            TestMats.assertEquals(C, D, 1e-10);
+        });
+    }
+
+    /**
+     * Every combination of small and awkward dimensions, with block sizes
+     * which are not multiples of each other, against a plain triple loop, for
+     * row-major, column-major, and filler operands.
+     */
+    @org.junit.Test
+    public void sizes() throws Exception {
+        int[] dims = { 1, 3, 5, 17, 33, 70 };
+        Gemm gemm = new Gemm(8, 16, 12);
+        for (int m : dims) {
+            for (int n : dims) {
+                for (int k : dims) {
+                    DenseMat A = TestMats.random(m, k, m + 100 * n);
+                    DenseMat B = TestMats.random(k, n, k + 100 * n);
+                    double[] a = rowMajor(A);
+                    double[] b = rowMajor(B);
+                    double[] expected = naive(a, b, m, n, k);
+
+                    double[] c = new double[m * n];
+                    Arrays.fill(c, Double.NaN);
+                    gemm.multiply(m, n, k, 1, a, 0, k, 1, b, 0, n, 1, 0, c, 0, n, 1);
+                    double[] colMajor = new double[m * n];
+                    gemm.multiply(m, n, k, 1, A::getDouble, B::getDouble, 0, colMajor, 0, 1, m);
+                    for (int row = 0; row < m; row++) {
+                        for (int col = 0; col < n; col++) {
+                            TestCase.assertEquals(expected[row * n + col], c[row * n + col],
+                                    1e-10);
+                            TestCase.assertEquals(expected[row * n + col],
+                                    colMajor[row + col * m], 1e-10);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * C = alpha * A * B + beta * C, with alpha and beta other than one.
+     */
+    @org.junit.Test
+    public void alphaBeta() throws Exception {
+        int m = 45, n = 38, k = 51;
+        DenseMat A = TestMats.random(m, k, 1);
+        DenseMat B = TestMats.random(k, n, 2);
+        double[] c = rowMajor(TestMats.random(m, n, 3));
+        double[] expected = naive(rowMajor(A), rowMajor(B), m, n, k);
+        for (int i = 0; i < expected.length; i++)
+            expected[i] = -0.5 * expected[i] + 3 * c[i];
+        Gemm.getDefault().multiply(m, n, k, -0.5, rowMajor(A), 0, k, 1, rowMajor(B), 0, n, 1, 3,
+                c, 0, n, 1);
+        for (int i = 0; i < expected.length; i++)
+            TestCase.assertEquals(expected[i], c[i], 1e-10);
+    }
+
+    /**
+     * The parallel result is identical, bit for bit, to the sequential one.
+     */
+    @org.junit.Test
+    public void parallelMatchesSequential() throws Exception {
+        int m = 150, n = 170, k = 130;
+        double[] a = rowMajor(TestMats.random(m, k, 1));
+        double[] b = rowMajor(TestMats.random(k, n, 2));
+        double[] sequential = new double[m * n];
+        Gemm.getDefault().sequential().multiply(m, n, k, 1, a, 0, k, 1, b, 0, n, 1, 0,
+                sequential, 0, n, 1);
+        parallel(() -> {
+            double[] parallel = new double[m * n];
+            Gemm.getDefault().multiply(m, n, k, 1, a, 0, k, 1, b, 0, n, 1, 0, parallel, 0, n, 1);
+            TestCase.assertTrue(Arrays.equals(sequential, parallel));
+        });
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Helpers
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * A {@link MutMat} around a {@link DenseMat}, which fails if it is
+     * accessed from any thread other than the one which created it.
+     */
+    private static final class Confined implements MutMat<Confined> {
+
+        private final DenseMat mat;
+        private final Thread   owner = Thread.currentThread();
+
+        Confined(DenseMat mat) {
+            this.mat = mat;
+        }
+
+        private void check() {
+            TestCase.assertSame(owner, Thread.currentThread());
+        }
+
+        @Override
+        public Confined newInstance(int rows, int cols, Filler filler) {
+            return new Confined(mat.newInstance(rows, cols, filler));
+        }
+
+        @Override
+        public int rows() {
+            return mat.rows();
+        }
+
+        @Override
+        public int cols() {
+            return mat.cols();
+        }
+
+        @Override
+        public double getDouble(int row, int col) {
+            check();
+            return mat.getDouble(row, col);
+        }
+
+        @Override
+        public Confined get(int fromRow, int toRow, int rowStride, int fromCol, int toCol,
+                            int colStride) {
+            return new Confined(mat.get(fromRow, toRow, rowStride, fromCol, toCol, colStride));
+        }
+
+        @Override
+        public void setDouble(int row, int col, double val) {
+            check();
+            mat.setDouble(row, col, val);
+        }
+    }
+
+    private interface Body {
+        void run() throws Exception;
+    }
+
+    /**
+     * Run the body with a default {@link Gemm} which parallelizes every
+     * product on several threads, regardless of how many processors there
+     * are.
+     */
+    private static void parallel(Body body) throws Exception {
+        Gemm old = Gemm.getDefault();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        Gemm.setDefault(old.parallel(pool, 1));
+        try {
+            body.run();
+        } finally {
+            Gemm.setDefault(old);
+            pool.shutdown();
+        }
+    }
+
+    private static double[] rowMajor(DenseMat A) {
+        double[] out = new double[A.rows() * A.cols()];
+        for (int row = 0, i = 0; row < A.rows(); row++)
+            for (int col = 0; col < A.cols(); col++)
+                out[i++] = A.getDouble(row, col);
+        return out;
+    }
+
+    private static double[] naive(double[] a, double[] b, int m, int n, int k) {
+        double[] c = new double[m * n];
+        for (int row = 0; row < m; row++) {
+            for (int col = 0; col < n; col++) {
+                double sum = 0;
+                for (int p = 0; p < k; p++)
+                    sum += a[row * k + p] * b[p * n + col];
+                c[row * n + col] = sum;
+            }
+        }
+        return c;
+    }
+}
@@ -0,0 +1,31 @@
+package io.jeti.linalg.matrix.kernels;
+
+import io.jeti.linalg.matrix.TestMats;
+import io.jeti.linalg.matrix.dense.DenseMat;
+
+public class StrassenTest {
+
+    /**
+     * With a tiny crossover, every product recurses down through odd and
+     * even sizes, and must still match the blocked product.
+     */
+    @org.junit.Test
+    public void matchesGemm() throws Exception {
+        int crossover = Strassen.getCrossover();
+        try {
+            for (int n = 2; n < 70; n += 3) {
+                for (int small : new int[] { 2, 3, 8 }) {
+                    DenseMat A = TestMats.random(n, n, n);
+                    DenseMat B = TestMats.random(n, n, n + 1);
+                    Strassen.setCrossover(Integer.MAX_VALUE);
+                    DenseMat expected = A.times(B);
+                    Strassen.setCrossover(small);
+                    TestMats.assertEquals(expected, Strassen.multiply(A, B), 1e-9);
+                    TestMats.assertEquals(expected, A.times(B), 1e-9);
+                }
+            }
+        } finally {
+            Strassen.setCrossover(crossover);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package io.jeti.linalg.matrix.kernels;
+
+import io.jeti.linalg.matrix.TestMats;
+import io.jeti.linalg.matrix.dense.DenseMat;
+
+public class TransposeTest {
+
+    private static final int[][] DIMS = { { 1, 1 }, { 1, 7 }, { 7, 1 }, { 5, 5 }, { 33, 33 },
+            { 100, 100 }, { 3, 8 }, { 8, 3 }, { 37, 130 }, { 130, 37 }, { 64, 65 } };
+
+    /**
+     * The out-of-place transpose, from compact and strided sources.
+     */
+    @org.junit.Test
+    public void transpose() throws Exception {
+        for (int[] dims : DIMS) {
+            DenseMat A = TestMats.random(dims[0], dims[1], dims[0] * 1000 + dims[1]);
+            TestMats.assertEquals(reference(A), A.transpose(), 0);
+            DenseMat view = A.get(0, A.rows(), 2, 0, A.cols(), 3);
+            TestMats.assertEquals(reference(view), view.transpose(), 0);
+        }
+    }
+
+    /**
+     * The in-place transpose of compact matrices of every shape, which
+     * permutes the backing array, and of strided square views.
+     */
+    @org.junit.Test
+    public void transposeEquals() throws Exception {
+        for (int[] dims : DIMS) {
+            DenseMat A = TestMats.random(dims[0], dims[1], dims[0] * 1000 + dims[1]);
+            DenseMat expected = reference(A);
+            DenseMat B = A.transpose().transpose();
+            B.transposeEquals();
+            TestMats.assertEquals(expected, B, 0);
+            B.transposeEquals();
+            TestMats.assertEquals(A, B, 0);
+            if (dims[0] == dims[1] && dims[0] > 3) {
+                DenseMat view = A.get(1, dims[0], 2, 1, dims[0], 2);
+                DenseMat viewExpected = reference(view);
+                view.transposeEquals();
+                TestMats.assertEquals(viewExpected, view, 0);
+            }
+        }
+    }
+
+    @org.junit.Test(expected = IllegalArgumentException.class)
+    public void transposeEqualsNonContiguous() throws Exception {
+        new DenseMat(6, 8).get(0, 6, 0, 4).transposeEquals();
+    }
+
+    private static DenseMat reference(DenseMat A) {
+        DenseMat T = new DenseMat(A.cols(), A.rows());
+        T.set((row, col) -> A.getDouble(col, row));
+        return T;
+    }
+}
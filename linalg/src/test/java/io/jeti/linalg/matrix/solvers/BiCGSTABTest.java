@@ -0,0 +1,25 @@
+package io.jeti.linalg.matrix.solvers;
+
+import io.jeti.linalg.matrix.TestMats;
+import io.jeti.linalg.matrix.dense.DenseMat;
+import io.jeti.linalg.matrix.dense.DenseVec;
+import io.jeti.linalg.matrix.sparse.CsrMat;
+
+public class BiCGSTABTest {
+
+    @org.junit.Test
+    public void converges() throws Exception {
+        CsrMat A = Grids.grid(30, 0.4);
+        DenseVec b = TestMats.random(A.rows(), 1);
+        Grids.assertConverges(new BiCGSTAB(A), A, b);
+        Grids.assertConverges(new BiCGSTAB(A, new ILU0(A)), A, b);
+    }
+
+    @org.junit.Test
+    public void dense() throws Exception {
+        DenseMat A = TestMats.random(50, 50, 2);
+        A.set((row, col) -> row == col ? 10 : 0.3 * A.getDouble(row, col));
+        DenseVec b = TestMats.random(50, 3);
+        Grids.assertSolves(A, new BiCGSTAB(A).solve(b), b, 1e-8);
+    }
+}
@@ -0,0 +1,61 @@
+package io.jeti.linalg.matrix.solvers;
+
+import io.jeti.linalg.matrix.TestMats;
+import io.jeti.linalg.matrix.dense.DenseVec;
+import io.jeti.linalg.matrix.sparse.CsrMat;
+import junit.framework.TestCase;
+
+public class ConjugateGradientTest {
+
+    @org.junit.Test
+    public void converges() throws Exception {
+        CsrMat A = Grids.grid(30, 0);
+        DenseVec b = TestMats.random(A.rows(), 1);
+        Grids.assertConverges(new ConjugateGradient(A), A, b);
+        Grids.assertConverges(new ConjugateGradient(A, new Jacobi(A)), A, b);
+        Grids.assertConverges(new ConjugateGradient(A, new ILU0(A)), A, b);
+    }
+
+    /**
+     * A matrix-free 1D Laplacian converges within n steps.
+     */
+    @org.junit.Test
+    public void matrixFree() throws Exception {
+        int n = 200;
+        LinearOperator L = (x, y) -> {
+            for (int i = 0; i < n; i++)
+                y.setDouble(i, 2 * x.getDouble(i) - (i > 0 ? x.getDouble(i - 1) : 0)
+                        - (i < n - 1 ? x.getDouble(i + 1) : 0));
+        };
+        ConjugateGradient cg = new ConjugateGradient(L, n, Preconditioner.identity(), 1e-12, 1000);
+        DenseVec b = new DenseVec(n);
+        b.set(index -> 1);
+        DenseVec x = cg.solve(b);
+        TestCase.assertTrue(cg.iterations() <= n + 5);
+        for (int i = 1; i < n - 1; i++)
+            TestCase.assertEquals(1, 2 * x.getDouble(i) - x.getDouble(i - 1) - x.getDouble(i + 1),
+                    1e-8);
+    }
+
+    @org.junit.Test
+    public void zeroRightHandSide() throws Exception {
+        CsrMat A = Grids.grid(10, 0);
+        ConjugateGradient cg = new ConjugateGradient(A);
+        DenseVec x = new DenseVec(A.rows());
+        TestCase.assertTrue(cg.solve(new DenseVec(A.rows()), x));
+        TestCase.assertEquals(0, cg.iterations());
+        TestMats.assertEquals(new DenseVec(A.rows()), x, 0);
+    }
+
+    @org.junit.Test
+    public void notPositiveDefinite() throws Exception {
+        CsrMat A = Grids.grid(5, 0).apply((a, c) -> -a, 1.0);
+        DenseVec b = new DenseVec(A.rows());
+        b.set(index -> 1);
+        try {
+            new ConjugateGradient(A).solve(b);
+            TestCase.fail("Expected an ArithmeticException");
+        } catch (ArithmeticException e) {
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package io.jeti.linalg.matrix.solvers;
+
+import io.jeti.linalg.matrix.TestMats;
+import io.jeti.linalg.matrix.dense.DenseMat;
+import io.jeti.linalg.matrix.dense.DenseVec;
+import io.jeti.linalg.matrix.sparse.CsrMat;
+import junit.framework.TestCase;
+
+public class GMRESTest {
+
+    @org.junit.Test
+    public void converges() throws Exception {
+        CsrMat A = Grids.grid(30, 0.4);
+        DenseVec b = TestMats.random(A.rows(), 1);
+        Grids.assertConverges(new GMRES(A), A, b);
+        Grids.assertConverges(new GMRES(A, new ILU0(A)), A, b);
+        Grids.assertConverges(new GMRES(A.toCsc(), new Jacobi(A)), A, b);
+    }
+
+    @org.junit.Test
+    public void dense() throws Exception {
+        DenseMat A = TestMats.random(50, 50, 2);
+        A.set((row, col) -> row == col ? 10 : 0.3 * A.getDouble(row, col));
+        DenseVec b = TestMats.random(50, 3);
+        Grids.assertSolves(A, new GMRES(A).solve(b), b, 1e-8);
+    }
+
+    /**
+     * The solver stops after maxIterations, and reports that it did not
+     * converge.
+     */
+    @org.junit.Test
+    public void maxIterations() throws Exception {
+        CsrMat A = Grids.grid(30, 0.4);
+        DenseVec b = TestMats.random(A.rows(), 1);
+        GMRES gmres = new GMRES(LinearOperator.of(A), A.rows(), Preconditioner.identity(), 5,
+                1e-12, 7);
+        TestCase.assertFalse(gmres.solve(b, new DenseVec(A.rows())));
+        TestCase.assertEquals(7, gmres.iterations());
+    }
+}
@@ -0,0 +1,73 @@
+package io.jeti.linalg.matrix.solvers;
+
+import io.jeti.linalg.matrix.Mat;
+import io.jeti.linalg.matrix.dense.DenseVec;
+import io.jeti.linalg.matrix.sparse.CsrMat;
+import io.jeti.linalg.matrix.sparse.Triplets;
+import junit.framework.TestCase;
+
+/**
+ * The five point finite difference operators on which the solvers are
+ * tested.
+ */
+final class Grids {
+
+    private Grids() {
+    }
+
+    /**
+     * @return the (m^2 x m^2) convection-diffusion operator on an (m x m)
+     *         grid, which is the symmetric positive definite Laplacian when
+     *         convection is zero, and nonsymmetric otherwise.
+     */
+    static CsrMat grid(int m, double convection) {
+        int n = m * m;
+        Triplets triplets = new Triplets(n, n);
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < m; j++) {
+                int k = i * m + j;
+                triplets.add(k, k, 4);
+                if (i > 0)
+                    triplets.add(k, k - m, -1 - convection);
+                if (i < m - 1)
+                    triplets.add(k, k + m, -1 + convection);
+                if (j > 0)
+                    triplets.add(k, k - 1, -1 - convection);
+                if (j < m - 1)
+                    triplets.add(k, k + 1, -1 + convection);
+            }
+        }
+        return triplets.toCsr();
+    }
+
+    /**
+     * Check that ||b - A * x|| is at most tol * ||b||.
+     */
+    static void assertSolves(Mat<?> A, DenseVec x, DenseVec b, double tol) {
+        DenseVec Ax = new DenseVec(b.size());
+        Ax.gemv(1, A, false, x, 0);
+        double residual = 0;
+        double norm = 0;
+        for (int i = 0; i < b.size(); i++) {
+            double r = b.getDouble(i) - Ax.getDouble(i);
+            residual += r * r;
+            norm += b.getDouble(i) * b.getDouble(i);
+        }
+        TestCase.assertTrue(Math.sqrt(residual) <= tol * Math.sqrt(norm));
+    }
+
+    /**
+     * Check that the solver converges on A * x = b, records one relative
+     * residual per iteration, and takes no iterations when started from its
+     * own solution.
+     */
+    static void assertConverges(KrylovSolver solver, Mat<?> A, DenseVec b) {
+        DenseVec x = solver.solve(b);
+        assertSolves(A, x, b, 1e-8);
+        double[] residuals = solver.residuals();
+        TestCase.assertEquals(solver.iterations() + 1, residuals.length);
+        TestCase.assertEquals(1.0, residuals[0], 1e-12);
+        TestCase.assertTrue(solver.solve(b, x));
+        TestCase.assertEquals(0, solver.iterations());
+    }
+}
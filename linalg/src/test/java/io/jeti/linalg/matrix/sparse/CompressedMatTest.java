@@ -0,0 +1,117 @@
+package io.jeti.linalg.matrix.sparse;
+
+import io.jeti.linalg.matrix.TestMats;
+import io.jeti.linalg.matrix.dense.DenseMat;
+import io.jeti.linalg.matrix.kernels.Gemm;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class CompressedMatTest {
+
+    /**
+     * Sparse times sparse in both orientations, with densities low enough
+     * for the hash accumulator and high enough for the dense one, must match
+     * the dense product.
+     */
+    @org.junit.Test
+    public void timesSparse() throws Exception {
+        Random random = new Random(3);
+        for (double density : new double[] { 0.01, 0.1, 0.8 }) {
+            DenseMat A = random(120, 90, random, density);
+            DenseMat B = random(90, 150, random, density);
+            DenseMat expected = A.times(B);
+            CsrMat csrA = new CsrMat(120, 90);
+            CsrMat csrB = new CsrMat(90, 150);
+            csrA.set(A::getDouble);
+            csrB.set(B::getDouble);
+            TestMats.assertEquals(expected, csrA.times(csrB), 1e-10);
+            TestMats.assertEquals(expected, csrA.toCsc().times(csrB.toCsc()), 1e-10);
+        }
+    }
+
+    /**
+     * Sparse times a strided dense view, and sparse times sparse, on one
+     * thread and split across several.
+     */
+    @org.junit.Test
+    public void timesDense() throws Exception {
+        Random random = new Random(4);
+        DenseMat A = random(200, 80, random, 0.05);
+        DenseMat B = random(160, 140, random, 1).get(0, 160, 2, 1, 140, 3);
+        DenseMat expected = A.times(B);
+        CsrMat csr = new CsrMat(200, 80);
+        csr.set(A::getDouble);
+        TestMats.assertEquals(expected, csr.times(B), 1e-10);
+        TestMats.assertEquals(expected, csr.toCsc().times(B), 1e-10);
+
+        Gemm old = Gemm.getDefault();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        Gemm.setDefault(old.parallel(pool, 1));
+        try {
+            TestMats.assertEquals(expected, csr.times(B), 1e-10);
+            TestMats.assertEquals(A.times(A.transpose()), csr.times(csr.transpose()), 1e-10);
+        } finally {
+            Gemm.setDefault(old);
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * gemm into both orientations, with every combination of transposes, and
+     * with a sparse initial C which is scaled by beta.
+     */
+    @org.junit.Test
+    public void gemm() throws Exception {
+        Random random = new Random(1);
+        int m = 37, n = 23, k = 41;
+        for (int t = 0; t < 4; t++) {
+            boolean transA = (t & 1) != 0;
+            boolean transB = (t & 2) != 0;
+            DenseMat A = random(transA ? k : m, transA ? m : k, random, 1);
+            DenseMat B = random(transB ? n : k, transB ? k : n, random, 1);
+            DenseMat C = random(m, n, random, 0.1);
+            CsrMat csr = new CsrMat(m, n);
+            CscMat csc = new CscMat(m, n);
+            csr.set(C::getDouble);
+            csc.set(C::getDouble);
+            csr.gemm(1.5, A, transA, B, transB, -2);
+            csc.gemm(1.5, A, transA, B, transB, -2);
+            C.gemm(1.5, A, transA, B, transB, -2);
+            TestMats.assertEquals(C, csr, 1e-10);
+            TestMats.assertEquals(C, csc, 1e-10);
+        }
+    }
+
+    /**
+     * With beta zero, the original contents are ignored, even if they are not
+     * finite.
+     */
+    @org.junit.Test
+    public void gemmIgnoresC() throws Exception {
+        Random random = new Random(2);
+        DenseMat A = random(5, 4, random, 1);
+        DenseMat B = random(4, 3, random, 1);
+        CsrMat C = new CsrMat(5, 3);
+        C.setDouble(2, 1, Double.NaN);
+        C.gemm(1, A, false, B, false, 0);
+        TestMats.assertEquals(A.times(B), C, 1e-10);
+    }
+
+    /*
+     * --------------------------------------------------
+     *
+     * Helpers
+     *
+     * --------------------------------------------------
+     */
+
+    /**
+     * @return a random matrix, where each element is nonzero with the
+     *         specified probability.
+     */
+    private static DenseMat random(int rows, int cols, Random random, double density) {
+        DenseMat A = new DenseMat(rows, cols);
+        A.set((row, col) -> random.nextDouble() < density ? random.nextGaussian() : 0);
+        return A;
+    }
+}
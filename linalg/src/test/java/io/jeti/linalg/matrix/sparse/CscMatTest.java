@@ -0,0 +1,17 @@
+package io.jeti.linalg.matrix.sparse;
+
+import io.jeti.linalg.matrix.Mat;
+import io.jeti.linalg.matrix.utils.tests.MatTest;
+
+public class CscMatTest extends MatTest {
+
+    @Override
+    public Mat getInstance() {
+        return new CscMat(1, 1);
+    }
+
+    @Override
+    public boolean storesReferences() {
+        return false;
+    }
+}
@@ -0,0 +1,17 @@
+package io.jeti.linalg.matrix.sparse;
+
+import io.jeti.linalg.matrix.Vec;
+import io.jeti.linalg.matrix.utils.tests.VecTest;
+
+public class SparseVecTest extends VecTest {
+
+    @Override
+    public Vec getInstance() {
+        return new SparseVec(1);
+    }
+
+    @Override
+    public boolean storesReferences() {
+        return false;
+    }
+}